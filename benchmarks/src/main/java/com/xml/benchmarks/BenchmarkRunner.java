@@ -0,0 +1,87 @@
+/*
+ * FILE:        BenchmarkRunner.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//--------------------------------------------------------------------------
+// CLASS BenchmarkRunner
+//--------------------------------------------------------------------------
+/**
+ * This class runs the benchmarks (it is the main class of benchmarks.jar).
+ * It takes the usual JMH command line options, but unless you say otherwise
+ * it runs with the GC profiler (so every result has its allocation rate, and
+ * the bytes allocated per operation), and writes the results as JSON to
+ * jmh-result.json, so they can be compared release over release.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar                          # everything
+ * java -jar benchmarks/target/benchmarks.jar Framing -p messageSize=4096
+ * java -jar benchmarks/target/benchmarks.jar -rf csv -rff results.csv
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class BenchmarkRunner
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    
+    /** The file the results are written to, unless -rff says otherwise. */
+    public static final String      DEFAULT_RESULT_FILE     = "jmh-result.json";
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method runs the benchmarks.
+     * @param args The JMH command line options.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static void main( String[] args ) throws Exception
+    {
+        CommandLineOptions cmd = new CommandLineOptions( args );
+        
+        if( cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListProfilers() || cmd.shouldListResultFormats() || cmd.shouldListWithParams() )
+        {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+        
+        ChainedOptionsBuilder options = new OptionsBuilder().parent( cmd );
+        
+        if( cmd.getProfilers().isEmpty() )
+        {
+            options.addProfiler( GCProfiler.class );
+        }
+        if( !cmd.getResultFormat().hasValue() )
+        {
+            options.resultFormat( ResultFormatType.JSON );
+        }
+        if( !cmd.getResult().hasValue() )
+        {
+            options.result( DEFAULT_RESULT_FILE );
+        }
+        
+        new Runner( options.build() ).run();
+    }
+}
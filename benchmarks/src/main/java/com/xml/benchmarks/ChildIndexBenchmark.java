@@ -0,0 +1,106 @@
+/*
+ * FILE:        ChildIndexBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.utils.XMLUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+//--------------------------------------------------------------------------
+// CLASS ChildIndexBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class measures looking up every child of a wide element by name with
+ * XMLUtils.getChildNode(), scanning the children and with the child index
+ * (see XMLUtils.setChildIndexEnabled()).  The element has width distinct
+ * children, interleaved with as many that share one name.  One operation is
+ * width lookups.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChildIndexBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    @Param({ "16", "256", "4096" })
+    public int                  width;
+    
+    @Param({ "false", "true" })
+    public boolean              indexed;
+    
+    private Element             root                = null;
+    private String[]            names               = null;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method builds the wide document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        Document doc = XMLUtils.getNewDocument();
+        root = doc.createElement( "root" );
+        doc.appendChild( root );
+        names = new String[ width ];
+        
+        for( int i=0; i<width; i++ )
+        {
+            names[ i ] = "item" + i;
+            root.appendChild( doc.createElement( names[ i ] ) );
+            root.appendChild( doc.createElement( "repeated" ) );
+        }
+        
+        XMLUtils.setChildIndexEnabled( doc, indexed );
+    }
+    
+    /**
+     * This benchmark looks up every distinct child by name.
+     * @param bh The Blackhole.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void getChildNode( Blackhole bh )
+    {
+        for( int i=0; i<width; i++ )
+        {
+            bh.consume( XMLUtils.getChildNode( root, names[ i ] ) );
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * FILE:        CompactDocumentBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.transport.io.XMLInputStream;
+import com.xml.utils.CompactDocument;
+import com.xml.utils.XMLUtils;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+//--------------------------------------------------------------------------
+// CLASS CompactDocumentBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class compares holding many documents as DOMs and as CompactDocuments:
+ * reading a stream of messageCount messages into an array of each, and
+ * walking every element of every document held.  Run it with the GC profiler
+ * (the default in BenchmarkRunner); the allocation of the read benchmarks is
+ * an upper bound on the heap the documents hold.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactDocumentBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    @Param({ "512" })
+    public int                  messageSize;
+    
+    @Param({ "2000" })
+    public int                  messageCount;
+    
+    private byte[]              stream              = null;
+    private Document[]          doms                = null;
+    private CompactDocument[]   compacts            = null;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method builds the stream of messages, and reads it both ways for
+     * the walk benchmarks.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        stream = Messages.stream( messageCount, messageSize, false );
+        doms = readDOM();
+        compacts = readCompact();
+    }
+    
+    /**
+     * This benchmark reads every message into a DOM.
+     * @return The Documents.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public Document[] readDOM() throws Exception
+    {
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( stream ) );
+        Document[] held = new Document[ messageCount ];
+        
+        for( int i=0; i<messageCount; i++ )
+        {
+            held[ i ] = XMLUtils.readDocument( in );
+            in.reset();
+        }
+        
+        return held;
+    }
+    
+    /**
+     * This benchmark reads every message into a CompactDocument.
+     * @return The CompactDocuments.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public CompactDocument[] readCompact() throws Exception
+    {
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( stream ) );
+        CompactDocument[] held = new CompactDocument[ messageCount ];
+        
+        for( int i=0; i<messageCount; i++ )
+        {
+            held[ i ] = CompactDocument.read( in );
+            in.reset();
+        }
+        
+        return held;
+    }
+    
+    /**
+     * This benchmark visits every element of every DOM.
+     * @return The number of elements visited.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public int walkDOM()
+    {
+        int visited = 0;
+        
+        for( Document doc : doms )
+        {
+            visited += walk( doc.getDocumentElement() );
+        }
+        
+        return visited;
+    }
+    
+    /**
+     * This benchmark visits every element of every CompactDocument.
+     * @return The number of elements visited.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public int walkCompact()
+    {
+        int visited = 0;
+        
+        for( CompactDocument doc : compacts )
+        {
+            visited += walk( doc, 0 );
+        }
+        
+        return visited;
+    }
+    
+    /**
+     * This method visits every element under a DOM element.
+     * @param e The element.
+     * @return The number of elements visited.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static int walk( Node e )
+    {
+        int visited = 1;
+        NodeList children = e.getChildNodes();
+        
+        for( int i=0; i<children.getLength(); i++ )
+        {
+            if( children.item( i ).getNodeType() == Node.ELEMENT_NODE )
+            {
+                visited += walk( children.item( i ) );
+            }
+        }
+        
+        return visited;
+    }
+    
+    /**
+     * This method visits every element under a compact element.
+     * @param doc The CompactDocument.
+     * @param e The element.
+     * @return The number of elements visited.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static int walk( CompactDocument doc, int e )
+    {
+        int visited = 1;
+        
+        for( int i=0; i<doc.getChildCount( e ); i++ )
+        {
+            visited += walk( doc, doc.getChild( e, i ) );
+        }
+        
+        return visited;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * FILE:        FramingBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.transport.io.Frame;
+import com.xml.transport.io.FramePool;
+import com.xml.transport.io.TransportMetrics;
+import com.xml.transport.io.XMLInputStream;
+import com.xml.utils.XMLUtils;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+//--------------------------------------------------------------------------
+// CLASS FramingBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class measures how fast an XMLInputStream finds the documents in a
+ * stream of messages, in each framing mode, across message sizes and counts.
+ * One operation is the whole stream (messageCount documents), so divide the
+ * score by the count for documents per second; the GC profiler's
+ * gc.alloc.rate.norm is the allocation per stream in the same way.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FramingBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    @Param({ "256", "4096", "65536" })
+    public int                  messageSize;
+    
+    @Param({ "1", "100" })
+    public int                  messageCount;
+    
+    @Param({ "ROOT_TAG", "NESTED", "LENGTH_PREFIXED" })
+    public String               framing;
+    
+    @Param({ "false" })         // -p metrics=false,true for the cost of TransportMetrics
+    public boolean              metrics;
+    
+    private byte[]              stream              = null;
+    private int                 framingMode         = 0;
+    private FramePool           pool                = null;
+    private TransportMetrics    transportMetrics    = null;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method builds the stream of messages.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        framingMode = "NESTED".equals( framing ) ? XMLInputStream.FramingModes.FRAMING_NESTED
+            : "LENGTH_PREFIXED".equals( framing ) ? XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED
+            : XMLInputStream.FramingModes.FRAMING_ROOT_TAG;
+        stream = Messages.stream( messageCount, messageSize, framingMode == XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED );
+        pool = new FramePool( Math.max( FramePool.DEFAULT_BUFFER_SIZE, messageSize * 2 ), 16, false );
+        transportMetrics = metrics ? new TransportMetrics() : null;
+    }
+    
+    /**
+     * This benchmark reads the bytes of each document with readFrame().
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void readFrame( Blackhole bh ) throws Exception
+    {
+        XMLInputStream in = open();
+        byte[] frame;
+        
+        while( (frame = in.readFrame()) != null )
+        {
+            bh.consume( frame );
+        }
+    }
+    
+    /**
+     * This benchmark reads each document into a pooled Frame.
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void readPooledFrame( Blackhole bh ) throws Exception
+    {
+        XMLInputStream in = open();
+        Frame frame;
+        
+        while( (frame = in.readFrame( pool )) != null )
+        {
+            bh.consume( frame.getLength() );
+            frame.release();
+        }
+    }
+    
+    /**
+     * This benchmark skips through each document, the way a reader that has
+     * what it needs skips the rest of a message.
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void skipDocuments( Blackhole bh ) throws Exception
+    {
+        XMLInputStream in = open();
+        
+        for( int i=0; i<messageCount; i++ )
+        {
+            XMLUtils.skipDocument( in );
+            in.reset();
+        }
+        bh.consume( in );
+    }
+    
+    /**
+     * This benchmark frames and parses each document into a DOM.
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void readDocument( Blackhole bh ) throws Exception
+    {
+        XMLInputStream in = open();
+        
+        for( int i=0; i<messageCount; i++ )
+        {
+            bh.consume( XMLUtils.readDocument( in ) );
+            in.reset();
+        }
+    }
+    
+    /**
+     * This method opens an XMLInputStream over the stream of messages.
+     * @return The XMLInputStream.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private XMLInputStream open()
+    {
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( stream ) );
+        in.setFramingMode( framingMode );
+        in.setMetrics( transportMetrics );
+        
+        return in;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * FILE:        LargeDocumentBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.utils.CompactDocument;
+import com.xml.utils.XMLUtils;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+//--------------------------------------------------------------------------
+// CLASS LargeDocumentBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class compares reading a large document (1MB and 16MB) into a DOM,
+ * into a CompactDocument, and streaming it with SAX and with StAX (counting
+ * the elements, so that every event is looked at).  Run it with the GC
+ * profiler (the default in BenchmarkRunner) to see how much each one
+ * allocates per document; the streaming readers should not grow with the
+ * document.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LargeDocumentBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    @Param({ "1048576", "16777216" })
+    public int                  messageSize;
+    
+    private byte[]              message             = null;
+    private ElementCounter      counter             = new ElementCounter();
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method builds the message.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        message = Messages.message( 0, messageSize ).getBytes( StandardCharsets.UTF_8 );
+    }
+    
+    /**
+     * This benchmark parses the message into a DOM.
+     * @return The Document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public Document readDOM() throws Exception
+    {
+        return XMLUtils.readDocument( new ByteArrayInputStream( message ) );
+    }
+    
+    /**
+     * This benchmark parses the message into a CompactDocument.
+     * @return The CompactDocument.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public CompactDocument readCompact() throws Exception
+    {
+        return CompactDocument.parse( message );
+    }
+    
+    /**
+     * This benchmark counts the elements of the message with SAX.
+     * @return The number of elements.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public int readSAX() throws Exception
+    {
+        counter.elements = 0;
+        XMLUtils.readDocument( new ByteArrayInputStream( message ), counter );
+        
+        return counter.elements;
+    }
+    
+    /**
+     * This benchmark counts the elements of the message with StAX.
+     * @return The number of elements.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public int readStAX() throws Exception
+    {
+        XMLStreamReader reader = XMLUtils.getXMLStreamReader( new ByteArrayInputStream( message ) );
+        int elements = 0;
+        
+        try
+        {
+            while( reader.hasNext() )
+            {
+                if( reader.next() == XMLStreamConstants.START_ELEMENT )
+                {
+                    ++elements;
+                }
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+        
+        return elements;
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class counts the elements of a document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class ElementCounter extends DefaultHandler
+    {
+        private int                 elements            = 0;
+        
+        public void startElement( String uri, String localName, String qName, Attributes attributes )
+        {
+            ++elements;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * FILE:        Messages.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.utils.XMLUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.w3c.dom.Document;
+
+//--------------------------------------------------------------------------
+// CLASS Messages
+//--------------------------------------------------------------------------
+/**
+ * This class builds the messages the benchmarks read and write: a header with
+ * a few routing fields, followed by as many items as it takes to reach the
+ * requested size.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public abstract class Messages
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    
+    /** Expressions that find something in every message. */
+    public static final String[]    EXPRESSIONS         = {
+        "/msg/header/@type",
+        "/msg/header/to",
+        "/msg/header/@priority",
+        "/msg/body/item[3]/@id",
+        "//item[@flag='y']"
+    };
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method builds the text of one message.
+     * @param id The id of the message.
+     * @param size The (approximate) size of the message in bytes.
+     * @return The message.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static String message( int id, int size )
+    {
+        StringBuilder xml = new StringBuilder( size + 128 );
+        
+        xml.append( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" );
+        xml.append( "<msg id=\"" ).append( id ).append( "\">" );
+        xml.append( "<header type=\"order\" priority=\"high\"><to>eric</to><from>intere</from></header><body>" );
+        
+        for( int i=0; xml.length() < size - 20 || i < 5; i++ )
+        {
+            xml.append( "<item id=\"" ).append( i ).append( i == 4 ? "\" flag=\"y\">" : "\">" ).append( "value " ).append( i ).append( "</item>" );
+        }
+        
+        xml.append( "</body></msg>" );
+        
+        return xml.toString();
+    }
+    
+    /**
+     * This method builds a stream of messages sent back to back.
+     * @param count The number of messages.
+     * @param size The (approximate) size of each message.
+     * @param framed True to length prefix each message (see XMLUtils.writeFrameHeader()).
+     * @return The bytes of the stream.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static byte[] stream( int count, int size, boolean framed ) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        for( int i=0; i<count; i++ )
+        {
+            byte[] bytes = message( i, size ).getBytes( StandardCharsets.UTF_8 );
+            
+            if( framed )
+            {
+                XMLUtils.writeFrameHeader( bytes.length, out );
+            }
+            out.write( bytes );
+        }
+        
+        return out.toByteArray();
+    }
+    
+    /**
+     * This method parses a message into a Document.
+     * @param size The (approximate) size of the message.
+     * @return The Document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Document document( int size ) throws Exception
+    {
+        return XMLUtils.readDocument( new ByteArrayInputStream( message( 0, size ).getBytes( StandardCharsets.UTF_8 ) ) );
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * FILE:        ParallelArchiveBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.transport.io.DocumentArchive;
+import com.xml.transport.io.ParallelDocumentReader;
+import com.xml.transport.io.XMLInputStream;
+import com.xml.utils.XMLUtils;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+//--------------------------------------------------------------------------
+// CLASS ParallelArchiveBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class measures how reading an archive of messages scales with the
+ * number of cores: finding the documents (building the index) and parsing
+ * them, in order and unordered, on a ForkJoinPool of 1 to 16 threads, next to
+ * replaying the archive through a single XMLInputStream.  One operation is the
+ * whole archive (messageCount documents), so divide the score by the count for
+ * documents per second.  The scaling is only meaningful on a machine with at
+ * least as many cores as threads.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelArchiveBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    @Param({ "1", "2", "4", "8", "16" })
+    public int                      threads;
+    
+    @Param({ "4096" })
+    public int                      messageSize;
+    
+    @Param({ "5000" })
+    public int                      messageCount;
+    
+    private File                    file                = null;
+    private ForkJoinPool            pool                = null;
+    private DocumentArchive         archive             = null;
+    private ParallelDocumentReader  reader              = null;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method writes the archive, and indexes it.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        file = File.createTempFile( "archive", ".xml" );
+        
+        try( FileOutputStream out = new FileOutputStream( file ) )
+        {
+            out.write( Messages.stream( messageCount, messageSize, false ) );
+        }
+        
+        pool = new ForkJoinPool( threads );
+        archive = new DocumentArchive( file );
+        reader = new ParallelDocumentReader( archive, pool );
+    }
+    
+    /**
+     * This method deletes the archive (and its index).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        pool.shutdown();
+        archive.close();
+        archive.getIndexFile().delete();
+        file.delete();
+    }
+    
+    /**
+     * This benchmark finds the documents in the archive, in pieces on the pool.
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void buildIndex( Blackhole bh ) throws Exception
+    {
+        archive.getIndexFile().delete();
+        
+        DocumentArchive indexed = new DocumentArchive( file, XMLInputStream.FramingModes.FRAMING_ROOT_TAG, DocumentArchive.DEFAULT_CHUNK_SIZE, pool );
+        bh.consume( indexed.getDocumentCount() );
+        indexed.close();
+    }
+    
+    /**
+     * This benchmark parses every document on the pool, and takes them in
+     * order.
+     * @param bh The Blackhole.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void parseOrdered( Blackhole bh )
+    {
+        reader.forEachOrdered( doc -> bh.consume( doc ) );
+    }
+    
+    /**
+     * This benchmark parses every document on the pool, and takes them as they
+     * are parsed.
+     * @param bh The Blackhole.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void parseUnordered( Blackhole bh )
+    {
+        reader.forEach( doc -> bh.consume( doc ) );
+    }
+    
+    /**
+     * This benchmark replays the archive through a single XMLInputStream (the
+     * baseline; it does not use the pool).
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void replaySequential( Blackhole bh ) throws Exception
+    {
+        XMLInputStream in = archive.openStream();
+        
+        for( int i=0; i<messageCount; i++ )
+        {
+            bh.consume( XMLUtils.readDocument( in ) );
+            in.reset();
+        }
+    }
+}
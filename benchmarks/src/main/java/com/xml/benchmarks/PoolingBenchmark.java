@@ -0,0 +1,142 @@
+/*
+ * FILE:        PoolingBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.utils.XMLUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+//--------------------------------------------------------------------------
+// CLASS PoolingBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class compares parsing and writing a document with the pooled builders
+ * and transformers of XMLUtils against creating a new one for every call
+ * (which is what XMLUtils used to do).  Run it with more threads (-t) to see
+ * the pools shared between threads.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoolingBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    @Param({ "256", "4096" })
+    public int                      messageSize;
+    
+    private byte[]                  message             = null;
+    private Document                doc                 = null;
+    private ByteArrayOutputStream   out                 = null;
+    private DocumentBuilderFactory  dbf                 = null;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method builds the message.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        message = Messages.message( 0, messageSize ).getBytes( StandardCharsets.UTF_8 );
+        doc = Messages.document( messageSize );
+        out = new ByteArrayOutputStream( message.length * 2 );
+        dbf = DocumentBuilderFactory.newInstance();
+    }
+    
+    /**
+     * This benchmark parses the message with a pooled builder.
+     * @return The Document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public Document parsePooled() throws Exception
+    {
+        return XMLUtils.readDocument( new ByteArrayInputStream( message ) );
+    }
+    
+    /**
+     * This benchmark parses the message with a new builder.
+     * @return The Document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public Document parseUnpooled() throws Exception
+    {
+        return dbf.newDocumentBuilder().parse( new ByteArrayInputStream( message ) );
+    }
+    
+    /**
+     * This benchmark writes the DOM with a pooled transformer.
+     * @return The number of bytes written.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public int writePooled() throws Exception
+    {
+        out.reset();
+        XMLUtils.writeDocument( doc, out );
+        
+        return out.size();
+    }
+    
+    /**
+     * This benchmark writes the DOM with a new transformer.
+     * @return The number of bytes written.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public int writeUnpooled() throws Exception
+    {
+        out.reset();
+        XMLUtils.getNewTransformer().transform( new DOMSource( doc ), new StreamResult( out ) );
+        
+        return out.size();
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * FILE:        SelectorBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.transport.io.XMLFrameDecoder;
+import com.xml.transport.io.XMLInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//--------------------------------------------------------------------------
+// CLASS SelectorBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class compares serving many clients over the loopback interface from a
+ * single Selector thread (with an XMLFrameDecoder per connection) against the
+ * thread per connection model (with an XMLInputStream per connection).  One
+ * operation connects the clients, has each send its documents (half a
+ * document at a time, interleaved with the other clients), and waits for the
+ * server to receive them all.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelectorBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    @Param({ "100", "500" })
+    public int                  clients;
+    
+    @Param({ "20" })
+    public int                  documents;
+    
+    @Param({ "256" })
+    public int                  messageSize;
+    
+    private byte[]              message             = null;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method builds the message the clients send.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        message = Messages.message( 0, messageSize ).getBytes( StandardCharsets.UTF_8 );
+    }
+    
+    /**
+     * This benchmark serves the clients from a single Selector thread.
+     * @return The number of documents received.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public int selector() throws Exception
+    {
+        final ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind( new InetSocketAddress( "localhost", 0 ), clients );
+        server.configureBlocking( false );
+        
+        final Selector selector = Selector.open();
+        server.register( selector, SelectionKey.OP_ACCEPT );
+        
+        final AtomicInteger received = new AtomicInteger();
+        final Consumer<byte[]> counter = new Consumer<byte[]>()
+        {
+            public void accept( byte[] frame )
+            {
+                received.incrementAndGet();
+            }
+        };
+        
+        Thread loop = new Thread( new Runnable()
+        {
+            public void run()
+            {
+                ByteBuffer buffer = ByteBuffer.allocateDirect( 4096 );
+                
+                try
+                {
+                    while( received.get() < clients * documents )
+                    {
+                        selector.select( 100 );
+                        
+                        for( Iterator<SelectionKey> keys = selector.selectedKeys().iterator(); keys.hasNext(); )
+                        {
+                            SelectionKey key = keys.next();
+                            keys.remove();
+                            
+                            if( key.isAcceptable() )
+                            {
+                                SocketChannel channel = server.accept();
+                                if( channel != null )
+                                {
+                                    channel.configureBlocking( false );
+                                    channel.register( selector, SelectionKey.OP_READ, new XMLFrameDecoder( 1024 ) );
+                                }
+                            }
+                            else if( key.isReadable() )
+                            {
+                                SocketChannel channel = (SocketChannel)key.channel();
+                                
+                                if( channel.read( buffer ) == -1 )
+                                {
+                                    key.cancel();
+                                    channel.close();
+                                }
+                                
+                                buffer.flip();
+                                ((XMLFrameDecoder)key.attachment()).decode( buffer, counter );
+                                buffer.clear();
+                            }
+                        }
+                    }
+                }
+                catch( IOException ex )
+                {
+                    ex.printStackTrace();
+                }
+            }
+        } );
+        loop.start();
+        
+        sendAll( server.socket().getLocalPort() );
+        loop.join( 60 * 1000 );
+        
+        selector.close();
+        server.close();
+        
+        return check( received.get() );
+    }
+    
+    /**
+     * This benchmark serves the clients with a thread each.
+     * @return The number of documents received.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public int threadPerConnection() throws Exception
+    {
+        final ServerSocket server = new ServerSocket( 0, clients );
+        final AtomicInteger received = new AtomicInteger();
+        final List<Thread> threads = new ArrayList<Thread>();
+        
+        Thread acceptor = new Thread( new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    for( int i=0; i<clients; i++ )
+                    {
+                        final Socket socket = server.accept();
+                        Thread t = new Thread( new Runnable()
+                        {
+                            public void run()
+                            {
+                                try
+                                {
+                                    XMLInputStream in = new XMLInputStream( socket.getInputStream(), 1024 );
+                                    while( in.readFrame() != null )
+                                    {
+                                        received.incrementAndGet();
+                                    }
+                                    socket.close();
+                                }
+                                catch( IOException ex )
+                                {
+                                    ex.printStackTrace();
+                                }
+                            }
+                        } );
+                        threads.add( t );
+                        t.start();
+                    }
+                }
+                catch( IOException ex )
+                {
+                    ex.printStackTrace();
+                }
+            }
+        } );
+        acceptor.start();
+        
+        sendAll( server.getLocalPort() );
+        acceptor.join( 60 * 1000 );
+        for( Thread t : threads )
+        {
+            t.join( 60 * 1000 );
+        }
+        
+        server.close();
+        
+        return check( received.get() );
+    }
+    
+    /**
+     * This method connects the clients, has each of them send its documents
+     * (a half at a time, interleaved with the other clients), and then
+     * disconnects them.
+     * @param port The port of the server.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void sendAll( int port ) throws IOException
+    {
+        Socket[] sockets = new Socket[ clients ];
+        
+        for( int i=0; i<clients; i++ )
+        {
+            sockets[i] = new Socket( "localhost", port );
+            sockets[i].setTcpNoDelay( true );
+        }
+        
+        for( int d=0; d<documents; d++ )
+        {
+            for( int half=0; half<2; half++ )
+            {
+                for( int i=0; i<clients; i++ )
+                {
+                    OutputStream out = sockets[i].getOutputStream();
+                    out.write( message, half * message.length / 2, half == 0 ? message.length / 2 : message.length - message.length / 2 );
+                    out.flush();
+                }
+            }
+        }
+        
+        for( int i=0; i<clients; i++ )
+        {
+            sockets[i].close();
+        }
+    }
+    
+    /**
+     * This method verifies that the server received every document (so that a
+     * lost document does not pass for a fast run).
+     * @param received The number of documents received.
+     * @return The number of documents received.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int check( int received )
+    {
+        if( received != clients * documents )
+        {
+            throw new IllegalStateException( "Received " + received + " of " + clients * documents + " documents" );
+        }
+        
+        return received;
+    }
+}
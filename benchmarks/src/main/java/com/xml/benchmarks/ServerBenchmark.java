@@ -0,0 +1,168 @@
+/*
+ * FILE:        ServerBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.transport.DocumentHandler;
+import com.xml.transport.XMLClient;
+import com.xml.transport.XMLConnection;
+import com.xml.transport.XMLServer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+//--------------------------------------------------------------------------
+// CLASS ServerBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class measures an XMLServer with many concurrent connections over the
+ * loopback interface: one operation opens every connection (so the server has
+ * a thread blocked in each of them), does an echo round trip on each, and
+ * closes them.  Both ends of every connection are in this JVM, so it needs
+ * twice as many file descriptors as connections; raise the limit first
+ * (ulimit -n 32768) for the 10000 connection run.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ServerBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    @Param({ "1000", "10000" })
+    public int                  connections;
+    
+    @Param({ "256" })
+    public int                  messageSize;
+    
+    private XMLServer           server              = null;
+    private Document            doc                 = null;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method starts an echo server, and builds the message.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        doc = Messages.document( messageSize );
+        server = new XMLServer( 0, new DocumentHandler()
+        {
+            public void handleDocument( Document doc, XMLConnection connection ) throws Exception
+            {
+                connection.send( doc );
+            }
+        });
+        server.setBacklog( connections );
+        server.start();
+    }
+    
+    /**
+     * This method waits for the server to close the connections of the last
+     * operation, so that the next one starts with none open.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @TearDown(Level.Iteration)
+    public void drain() throws Exception
+    {
+        for( int i=0; i<6000 && server.getConnectionCount() > 0; i++ )
+        {
+            Thread.sleep( 10 );
+        }
+    }
+    
+    /**
+     * This method stops the server.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        server.close();
+    }
+    
+    /**
+     * This benchmark opens the connections, does a round trip on each, and
+     * closes them.
+     * @return The number of documents echoed.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public int roundTrip() throws Exception
+    {
+        XMLClient[] clients = new XMLClient[ connections ];
+        int echoed = 0;
+        
+        try
+        {
+            for( int i=0; i<clients.length; i++ )
+            {
+                clients[ i ] = new XMLClient( "localhost", server.getPort() );
+            }
+            
+            for( int i=0; i<clients.length; i++ )
+            {
+                clients[ i ].send( doc );
+            }
+            
+            for( int i=0; i<clients.length; i++ )
+            {
+                if( clients[ i ].readDocument() != null )
+                {
+                    ++echoed;
+                }
+            }
+        }
+        finally
+        {
+            for( int i=0; i<clients.length && clients[ i ] != null; i++ )
+            {
+                clients[ i ].close();
+            }
+        }
+        
+        if( echoed != connections )
+        {
+            throw new IllegalStateException( "Echoed " + echoed + " of " + connections + " documents" );
+        }
+        
+        return echoed;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * FILE:        XMLUtilsBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.utils.CompactDocument;
+import com.xml.utils.XMLUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+import org.xml.sax.helpers.DefaultHandler;
+
+//--------------------------------------------------------------------------
+// CLASS XMLUtilsBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class measures reading and writing a single document with XMLUtils
+ * (with the pooled builders, transformers and SAX parsers), and with the
+ * CompactDocument for comparison.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XMLUtilsBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    @Param({ "256", "4096", "65536" })
+    public int                  messageSize;
+    
+    private byte[]              message             = null;
+    private Document            doc                 = null;
+    private ByteArrayOutputStream   out             = null;
+    private DefaultHandler      handler             = new DefaultHandler();
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method builds the message.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        message = Messages.message( 0, messageSize ).getBytes( StandardCharsets.UTF_8 );
+        doc = Messages.document( messageSize );
+        out = new ByteArrayOutputStream( message.length * 2 );
+    }
+    
+    /**
+     * This benchmark parses the message into a DOM.
+     * @return The Document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public Document readDocument() throws Exception
+    {
+        return XMLUtils.readDocument( new ByteArrayInputStream( message ) );
+    }
+    
+    /**
+     * This benchmark parses the message with SAX (and does nothing with the events).
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void readDocumentSAX( Blackhole bh ) throws Exception
+    {
+        XMLUtils.readDocument( new ByteArrayInputStream( message ), handler );
+        bh.consume( handler );
+    }
+    
+    /**
+     * This benchmark parses the message into a CompactDocument.
+     * @return The CompactDocument.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public CompactDocument readCompactDocument() throws Exception
+    {
+        return CompactDocument.parse( message );
+    }
+    
+    /**
+     * This benchmark serializes the DOM.
+     * @return The number of bytes written.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public int writeDocument() throws Exception
+    {
+        out.reset();
+        XMLUtils.writeDocument( doc, out );
+        
+        return out.size();
+    }
+    
+    /**
+     * This benchmark serializes the DOM into a String.
+     * @return The String.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public String toStringDocument() throws Exception
+    {
+        return XMLUtils.toString( doc );
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * FILE:        XPathBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.utils.CompactDocument;
+import com.xml.utils.StreamingXPath;
+import com.xml.utils.XPathQuerySet;
+import com.xml.utils.XPathUtils;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+
+//--------------------------------------------------------------------------
+// CLASS XPathBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class measures extracting the routing fields of a message (the
+ * Messages.EXPRESSIONS) in each of the ways the project offers: one XPath at a
+ * time on a DOM (through the cache, and with compiled handles), a query set
+ * over the DOM, over the raw bytes and over a CompactDocument.  One operation
+ * extracts all of the fields.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XPathBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    @Param({ "256", "4096", "65536" })
+    public int                  messageSize;
+    
+    private byte[]              message             = null;
+    private Document            doc                 = null;
+    private CompactDocument     compact             = null;
+    private XPathUtils.CompiledExpression[] compiled = null;
+    private XPathQuerySet       set                 = null;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method builds the message, and compiles the expressions.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        message = Messages.message( 0, messageSize ).getBytes( StandardCharsets.UTF_8 );
+        doc = Messages.document( messageSize );
+        compact = CompactDocument.parse( message );
+        compiled = new XPathUtils.CompiledExpression[ Messages.EXPRESSIONS.length ];
+        set = new XPathQuerySet();
+        
+        for( int i=0; i<compiled.length; i++ )
+        {
+            compiled[ i ] = XPathUtils.compile( Messages.EXPRESSIONS[ i ] );
+            set.add( Messages.EXPRESSIONS[ i ], StreamingXPath.compile( Messages.EXPRESSIONS[ i ] ) );
+        }
+    }
+    
+    /**
+     * This benchmark evaluates each expression with XPathUtils.getString()
+     * (compiled expressions come from the cache).
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void getString( Blackhole bh ) throws Exception
+    {
+        for( String expression : Messages.EXPRESSIONS )
+        {
+            bh.consume( XPathUtils.getString( doc, expression ) );
+        }
+    }
+    
+    /**
+     * This benchmark evaluates each expression with a compiled handle.
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void compiledExpressions( Blackhole bh ) throws Exception
+    {
+        for( XPathUtils.CompiledExpression expression : compiled )
+        {
+            bh.consume( expression.getString( doc ) );
+        }
+    }
+    
+    /**
+     * This benchmark evaluates the expressions as a set over the DOM.
+     * @return The values.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public XPathQuerySet.Result querySetDOM()
+    {
+        return set.evaluate( doc );
+    }
+    
+    /**
+     * This benchmark evaluates the expressions as a set over the raw bytes,
+     * without building a DOM.
+     * @return The values.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public XPathQuerySet.Result querySetStream() throws Exception
+    {
+        return set.evaluate( new ByteArrayInputStream( message ) );
+    }
+    
+    /**
+     * This benchmark evaluates the expressions as a set over a CompactDocument.
+     * @return The values.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public XPathQuerySet.Result querySetCompact()
+    {
+        return set.evaluate( compact );
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * FILE:        XPathQuerySetBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.utils.XPathQuerySet;
+import com.xml.utils.XPathUtils;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+
+//--------------------------------------------------------------------------
+// CLASS XPathQuerySetBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class measures what evaluating more expressions per message costs: 1
+ * to 20 expressions (spread over the items of a message of some 250 items)
+ * evaluated one at a time with XPathUtils, against evaluating them as a set
+ * in a single pass, over the DOM and over the raw bytes.  One operation
+ * extracts all of the expressions from the message.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XPathQuerySetBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    @Param({ "1", "5", "10", "20" })
+    public int                  expressions;
+    
+    @Param({ "8192" })
+    public int                  messageSize;
+    
+    private byte[]              message             = null;
+    private Document            doc                 = null;
+    private String[]            texts               = null;
+    private XPathQuerySet       set                 = null;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method builds the message and the expressions.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        message = Messages.message( 0, messageSize ).getBytes( StandardCharsets.UTF_8 );
+        doc = Messages.document( messageSize );
+        texts = new String[ expressions ];
+        set = new XPathQuerySet();
+        
+        for( int i=0; i<expressions; i++ )
+        {
+            texts[ i ] = "/msg/body/item[" + ( 10 * i + 1 ) + "]/@id";
+            set.add( "q" + i, texts[ i ] );
+        }
+    }
+    
+    /**
+     * This benchmark evaluates each expression with XPathUtils.getString().
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public void oneAtATime( Blackhole bh ) throws Exception
+    {
+        for( String text : texts )
+        {
+            bh.consume( XPathUtils.getString( doc, text ) );
+        }
+    }
+    
+    /**
+     * This benchmark evaluates the expressions as a set over the DOM.
+     * @return The values.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public XPathQuerySet.Result setOverDOM()
+    {
+        return set.evaluate( doc );
+    }
+    
+    /**
+     * This benchmark evaluates the expressions as a set over the raw bytes.
+     * @return The values.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    public XPathQuerySet.Result setOverStream() throws Exception
+    {
+        return set.evaluate( new ByteArrayInputStream( message ) );
+    }
+}
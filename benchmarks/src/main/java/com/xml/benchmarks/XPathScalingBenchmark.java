@@ -0,0 +1,187 @@
+/*
+ * FILE:        XPathScalingBenchmark.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.benchmarks;
+
+import com.xml.utils.XPathUtils;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+
+//--------------------------------------------------------------------------
+// CLASS XPathScalingBenchmark
+//--------------------------------------------------------------------------
+/**
+ * This class measures how XPath evaluation scales with the number of threads
+ * evaluating at once: the same number of evaluations (Messages.EXPRESSIONS,
+ * over and over) is split between 1 to 16 threads, each with a Document of its
+ * own (a DOM is not safe to read from several threads).  One operation is one
+ * evaluation, so the score should grow with the threads up to the number of
+ * cores, through the expression cache (getString()) as well as with compiled
+ * handles.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XPathScalingBenchmark
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    
+    /** The number of evaluations in one invocation (split between the threads). */
+    public static final int         EVALUATIONS         = 16 * 1024;
+    
+    @Param({ "1", "2", "4", "8", "16" })
+    public int                      threads;
+    
+    @Param({ "4096" })
+    public int                      messageSize;
+    
+    private ExecutorService         pool                = null;
+    private Document[]              docs                = null;
+    private XPathUtils.CompiledExpression[] compiled    = null;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method starts the threads, builds a Document for each, and compiles
+     * the expressions.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        pool = Executors.newFixedThreadPool( threads );
+        docs = new Document[ threads ];
+        compiled = new XPathUtils.CompiledExpression[ Messages.EXPRESSIONS.length ];
+        
+        for( int t=0; t<threads; t++ )
+        {
+            docs[ t ] = Messages.document( messageSize );
+        }
+        
+        for( int i=0; i<compiled.length; i++ )
+        {
+            compiled[ i ] = XPathUtils.compile( Messages.EXPRESSIONS[ i ] );
+        }
+    }
+    
+    /**
+     * This method stops the threads.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        pool.shutdown();
+    }
+    
+    /**
+     * This benchmark evaluates the expressions with XPathUtils.getString(),
+     * which looks each one up in the expression cache.
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    @OperationsPerInvocation(EVALUATIONS)
+    public void getString( Blackhole bh ) throws Exception
+    {
+        run( false, bh );
+    }
+    
+    /**
+     * This benchmark evaluates the expressions with compiled handles (no cache
+     * lookup).
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Benchmark
+    @OperationsPerInvocation(EVALUATIONS)
+    public void compiledExpressions( Blackhole bh ) throws Exception
+    {
+        run( true, bh );
+    }
+    
+    /**
+     * This method has every thread evaluate its share of the expressions, and
+     * waits for them all.
+     * @param held True to use the compiled handles, false to go through the cache.
+     * @param bh The Blackhole.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void run( final boolean held, Blackhole bh ) throws Exception
+    {
+        @SuppressWarnings("unchecked")
+        Future<Integer>[] results = new Future[ threads ];
+        
+        for( int t=0; t<threads; t++ )
+        {
+            final Document doc = docs[ t ];
+            
+            results[ t ] = pool.submit( new Callable<Integer>()
+            {
+                public Integer call() throws Exception
+                {
+                    int length = 0;
+                    
+                    for( int i=0; i<EVALUATIONS / threads; i++ )
+                    {
+                        int n = i % compiled.length;
+                        String value = held ? compiled[ n ].getString( doc ) : XPathUtils.getString( doc, Messages.EXPRESSIONS[ n ] );
+                        length += value.length();
+                    }
+                    
+                    return length;
+                }
+            } );
+        }
+        
+        for( Future<Integer> result : results )
+        {
+            bh.consume( result.get() );
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * FILE:        DocumentHandler.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport;
+
+import org.w3c.dom.Document;
+
+//--------------------------------------------------------------------------
+// INTERFACE DocumentHandler
+//--------------------------------------------------------------------------
+/**
+ * This interface is implemented to handle the XML Documents that an
+ * {@link XMLServer} receives.  It is called on the thread of the connection
+ * the Document was received on, so it may block; but the next Document of
+ * that connection is not read until it returns.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public interface DocumentHandler
+{
+    /**
+     * This method handles a Document that was received.
+     * @param doc The Document that was received.
+     * @param connection The connection it was received on (use it to reply).
+     * @throws Exception If the Document could not be handled; the connection is closed.
+     */
+    public void handleDocument( Document doc, XMLConnection connection ) throws Exception;
+}
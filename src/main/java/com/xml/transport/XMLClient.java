@@ -0,0 +1,47 @@
+/*
+ * FILE:        XMLClient.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport;
+
+import java.io.IOException;
+import java.net.Socket;
+
+//--------------------------------------------------------------------------
+// CLASS XMLClient
+//--------------------------------------------------------------------------
+/**
+ * This class is the client side of an {@link XMLServer}; it is simply an
+ * {@link XMLConnection} that connects itself.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * XMLClient client = new XMLClient("localhost", 4000);
+ * client.send(request);
+ * Document response = client.readDocument();
+ * client.close();
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XMLClient extends XMLConnection
+{
+    /**
+     * Creates a new instance of XMLClient, connected to the provided server.
+     * @param host The host the server is running on.
+     * @param port The port the server is listening on.
+     * @throws IOException
+     */
+    public XMLClient( String host, int port ) throws IOException
+    {
+        super( new Socket( host, port ) );
+        getSocket().setTcpNoDelay( true );
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * FILE:        XMLConnection.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport;
+
+import com.xml.transport.io.Frame;
+import com.xml.transport.io.FramePool;
+import com.xml.transport.io.XMLInputStream;
+import com.xml.transport.io.XMLOutputStream;
+import com.xml.utils.XMLUtils;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketAddress;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+//--------------------------------------------------------------------------
+// CLASS XMLConnection
+//--------------------------------------------------------------------------
+/**
+ * This class is one end of a connection that XML Documents are sent over in
+ * both directions; it pairs an {@link XMLInputStream} with an
+ * {@link XMLOutputStream} over a single Socket.  Reading and sending may be
+ * done from different threads, but only one thread should read at a time.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XMLConnection
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    private Socket              socket                          = null;
+    private XMLInputStream      in                              = null;
+    private XMLOutputStream     out                             = null;
+    
+    /**
+     * Creates a new instance of XMLConnection over a connected Socket.  Documents
+     * are sent as soon as they are written (see {@link #getOutputStream()} to
+     * batch them instead).
+     * @param socket The connected Socket.
+     * @throws IOException
+     */
+    public XMLConnection( Socket socket ) throws IOException
+    {
+        this.socket = socket;
+        this.in = new XMLInputStream( socket.getInputStream() );
+        this.out = new XMLOutputStream( socket.getOutputStream(), XMLOutputStream.DEFAULT_BATCH_SIZE, 0 );
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method reads the next Document sent by the other end.
+     * @return The Document, or null if the other end closed the connection.
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     * @throws IOException If the connection failed, or ended in the middle of a Document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Document readDocument() throws ParserConfigurationException, SAXException, IOException
+    {
+        byte[] frame = in.readFrame();
+        
+        return frame == null ? null : XMLUtils.readDocument( frame, in.getMetrics() );
+    }
+    
+    /**
+     * This method sends a Document to the other end.
+     * @param doc The Document to send.
+     * @throws IOException
+     * @throws TransformerException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void send( Document doc ) throws IOException, TransformerException
+    {
+        out.writeDocument( doc );
+    }
+    
+    /**
+     * This method reads the raw bytes of the next Document sent by the other
+     * end, without parsing it (e.g. to forward it to another connection).
+     * @param pool The pool to take the buffer of the Frame from.
+     * @return The Frame (release it when you are done with it), or null if the
+     * other end closed the connection.
+     * @throws IOException If the connection failed, or ended in the middle of a Document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Frame readFrame( FramePool pool ) throws IOException
+    {
+        return in.readFrame( pool );
+    }
+    
+    /**
+     * This method sends the raw bytes of a Frame to the other end.  The frame
+     * is not released.
+     * @param frame The Frame to send.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void send( Frame frame ) throws IOException
+    {
+        out.writeFrame( frame );
+    }
+    
+    /**
+     * This method closes the connection.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void close()
+    {
+        try
+        {
+            out.close();
+        }
+        catch( IOException ex )
+        {
+            // the socket is closed below either way
+        }
+        
+        try
+        {
+            socket.close();
+        }
+        catch( IOException ex )
+        {
+            ex.printStackTrace();
+        }
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * This method tells you if the connection has been closed (by this end).
+     * @return True if the connection is closed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean isClosed()
+    {
+        return socket.isClosed();
+    }
+    
+    /**
+     * This method tells you who is at the other end of the connection.
+     * @return The address of the other end.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public SocketAddress getRemoteAddress()
+    {
+        return socket.getRemoteSocketAddress();
+    }
+    
+    /**
+     * Getter for the XMLInputStream (e.g. to change its framing mode).
+     * @return The XMLInputStream object.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XMLInputStream getInputStream()
+    {
+        return in;
+    }
+    
+    /**
+     * Getter for the XMLOutputStream (e.g. to batch or frame the Documents sent).
+     * @return The XMLOutputStream object.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XMLOutputStream getOutputStream()
+    {
+        return out;
+    }
+    
+    /**
+     * Getter for the Socket.
+     * @return The Socket object.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Socket getSocket()
+    {
+        return socket;
+    }
+}
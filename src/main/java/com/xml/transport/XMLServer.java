@@ -0,0 +1,359 @@
+/*
+ * FILE:        XMLServer.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport;
+
+import com.xml.transport.io.TransportMetrics;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.w3c.dom.Document;
+
+//--------------------------------------------------------------------------
+// CLASS XMLServer
+//--------------------------------------------------------------------------
+/**
+ * This class accepts connections and runs one thread per connection, which
+ * frames the Documents sent on it (using an {@link com.xml.transport.io.XMLInputStream})
+ * and hands them to a {@link DocumentHandler}.
+ * <br/><br/>
+ * On Java 21 and later each connection gets a virtual thread, so a blocked
+ * connection only costs its stack and buffers, and tens of thousands of
+ * connections can be served without a selector.  On older JVMs a cached pool
+ * of (daemon) platform threads is used instead.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * XMLServer server = new XMLServer(4000, new DocumentHandler() {
+ *     public void handleDocument(Document doc, XMLConnection connection) throws Exception {
+ *         connection.send(doc);    // echo
+ *     }
+ * });
+ * server.start();
+ * ...
+ * server.close();
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XMLServer implements Runnable
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    private int                     port                            = 0;
+    private int                     backlog                         = DEFAULT_BACKLOG;
+    private DocumentHandler         handler                         = null;
+    private ServerSocket            serverSocket                    = null;
+    private ExecutorService         executor                        = null;
+    private Thread                  acceptor                        = null;
+    private volatile boolean        running                         = false;
+    private Set<XMLConnection>      connections                     = ConcurrentHashMap.newKeySet();
+    private AtomicInteger           accepted                        = new AtomicInteger();
+    private volatile TransportMetrics   metrics                     = null;
+    
+    public static final int         DEFAULT_BACKLOG                 = 1024;
+    
+    /**
+     * Creates a new instance of XMLServer.
+     * @param port The port to listen on (0 for any free port, see {@link #getPort()}).
+     * @param handler The handler for the Documents that are received.
+     */
+    public XMLServer( int port, DocumentHandler handler )
+    {
+        this( port, handler, newConnectionExecutor() );
+    }
+    
+    /**
+     * Creates a new instance of XMLServer that runs its connections on the
+     * provided executor.  The executor is shut down when the server is closed.
+     * @param port The port to listen on (0 for any free port, see {@link #getPort()}).
+     * @param handler The handler for the Documents that are received.
+     * @param executor The executor to run the connections on; it needs one thread per connection.
+     */
+    public XMLServer( int port, DocumentHandler handler, ExecutorService executor )
+    {
+        this.port = port;
+        this.handler = handler;
+        this.executor = executor;
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method binds the server socket and starts accepting connections.
+     * @throws IOException If the port could not be bound.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized void start() throws IOException
+    {
+        if( running )
+        {
+            return;
+        }
+        
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress( true );
+        serverSocket.bind( new InetSocketAddress( port ), backlog );
+        port = serverSocket.getLocalPort();
+        running = true;
+        
+        acceptor = new Thread( this, "XMLServer-" + port );
+        acceptor.setDaemon( true );
+        acceptor.start();
+    }
+    
+    /**
+     * This method accepts connections until the server is closed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void run()
+    {
+        while( running )
+        {
+            try
+            {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay( true );
+                accepted.incrementAndGet();
+                
+                executor.execute( new Runnable()
+                {
+                    public void run()
+                    {
+                        serve( socket );
+                    }
+                });
+            }
+            catch( SocketException ex )
+            {
+                // the server socket was closed
+                if( running )
+                {
+                    ex.printStackTrace();
+                }
+                break;
+            }
+            catch( IOException ex )
+            {
+                ex.printStackTrace();
+            }
+        }
+    }
+    
+    /**
+     * This method reads the Documents of a connection and hands them to the
+     * handler, until the connection is closed.
+     * @param socket The socket that was accepted.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    protected void serve( Socket socket )
+    {
+        XMLConnection connection = null;
+        
+        try
+        {
+            connection = new XMLConnection( socket );
+            connection.getInputStream().setMetrics( metrics );
+            connections.add( connection );
+            
+            Document doc = null;
+            while( running && ( doc = connection.readDocument() ) != null )
+            {
+                handler.handleDocument( doc, connection );
+            }
+        }
+        catch( Exception ex )
+        {
+            // a connection that was closed by the server is not an error
+            if( running && !socket.isClosed() )
+            {
+                ex.printStackTrace();
+            }
+        }
+        finally
+        {
+            if( connection != null )
+            {
+                connections.remove( connection );
+                connection.close();
+            }
+            else
+            {
+                try
+                {
+                    socket.close();
+                }
+                catch( IOException ex )
+                {
+                    ex.printStackTrace();
+                }
+            }
+        }
+    }
+    
+    /**
+     * This method stops accepting connections and closes all of the open
+     * connections.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized void close()
+    {
+        running = false;
+        
+        if( serverSocket != null )
+        {
+            try
+            {
+                serverSocket.close();
+            }
+            catch( IOException ex )
+            {
+                ex.printStackTrace();
+            }
+        }
+        
+        for( XMLConnection connection : connections )
+        {
+            connection.close();
+        }
+        
+        executor.shutdown();
+    }
+    
+    /**
+     * This method creates the executor the connections are run on: a virtual
+     * thread per task when the JVM has them (Java 21+), otherwise a cached pool
+     * of daemon threads.  Reflection is used so the library still runs on
+     * older JVMs.
+     * @return The ExecutorService to run connections on.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static ExecutorService newConnectionExecutor()
+    {
+        try
+        {
+            return (ExecutorService)Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" ).invoke( null );
+        }
+        catch( Exception ex )
+        {
+            return Executors.newCachedThreadPool( new ThreadFactory()
+            {
+                private AtomicInteger count = new AtomicInteger();
+                
+                public Thread newThread( Runnable r )
+                {
+                    Thread t = new Thread( r, "XMLServer-connection-" + count.incrementAndGet() );
+                    t.setDaemon( true );
+                    
+                    return t;
+                }
+            });
+        }
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * Getter for the port; once started, this is the port actually bound.
+     * @return The port.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getPort()
+    {
+        return port;
+    }
+    
+    /**
+     * Setter for the accept backlog (must be called before {@link #start()}).
+     * @param backlog The maximum number of pending connections.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void setBacklog( int backlog )
+    {
+        this.backlog = backlog;
+    }
+    
+    /**
+     * Setter for the metrics that the Documents received on every connection
+     * are recorded in (it applies to the connections accepted from then on).
+     * @param metrics The TransportMetrics, or null to switch metrics off.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void setMetrics( TransportMetrics metrics )
+    {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Getter for the metrics that the Documents received are recorded in.
+     * @return The TransportMetrics, or null if metrics are off.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public TransportMetrics getMetrics()
+    {
+        return metrics;
+    }
+    
+    /**
+     * This method tells you if the server is accepting connections.
+     * @return True if the server is running.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean isRunning()
+    {
+        return running;
+    }
+    
+    /**
+     * This method tells you how many connections are currently open.
+     * @return The number of open connections.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getConnectionCount()
+    {
+        return connections.size();
+    }
+    
+    /**
+     * This method tells you how many connections have been accepted in total.
+     * @return The number of accepted connections.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getAcceptedCount()
+    {
+        return accepted.get();
+    }
+}
@@ -0,0 +1,1011 @@
+/*
+ * FILE:        DocumentArchive.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import com.xml.utils.XMLUtils;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+//--------------------------------------------------------------------------
+// CLASS DocumentArchive
+//--------------------------------------------------------------------------
+/**
+ * This class gives you random access to the XML Documents in a file that
+ * holds them back to back, the way they are sent over a socket (e.g. captured
+ * traffic).  The file is memory mapped (in chunks of up to 1GB, so files of
+ * any size can be read), and the boundaries of the documents are found once,
+ * by an {@link XMLInputStream} in the framing mode of your choice, so they
+ * are exactly the documents that a reader of the same stream would have seen.
+ * <br/><br/>
+ * The offsets of the documents are kept in an index file next to the archive
+ * (the archive name with ".idx" added), which is used as long as the archive
+ * has the same length and modification time (and is rebuilt otherwise).  If
+ * the index can not be written, the archive is still usable; the index is just
+ * built again the next time.
+ * <br/><br/>
+ * If the archive ends in the middle of a document (e.g. the capture was cut
+ * short), the documents before it are indexed, and {@link #isTruncated()}
+ * tells you.  An archive may be read from any number of threads at once.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * DocumentArchive archive = new DocumentArchive( new File( "capture.xml" ) );
+ * Document doc = archive.readDocument( 1234 );                    // random access
+ *
+ * XMLInputStream replay = archive.openStream( 1000 );             // sequential replay from document 1000
+ * Iterator&lt;Document&gt; docs = DocumentSpliterator.iterator( replay );
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class DocumentArchive implements Closeable
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    
+    /** What is added to the name of an archive to get the name of its index. */
+    public static final String  INDEX_SUFFIX                    = ".idx";
+    
+    /** The default size of a mapped chunk of the archive. */
+    public static final long    DEFAULT_CHUNK_SIZE              = 1L << 30;
+    
+    private static final int    INDEX_MAGIC                     = 0x58444958;   // "XDIX"
+    private static final int    INDEX_VERSION                   = 1;
+    private static final int    INDEX_HEADER_LENGTH             = 33;           // up to and including the count
+    private static final int    INDEX_ENTRY_LENGTH              = 12;
+    private static final int    SCAN_BUFFER_SIZE                = 64 * 1024;
+    private static final long   MIN_SPLIT_SIZE                  = 1024 * 1024;
+    private static final byte[] XML_DECLARATION                 = { '?', 'x', 'm', 'l' };
+    
+    private File                file                            = null;
+    private long                length                          = 0;
+    private long                lastModified                    = 0;
+    private int                 framingMode                     = XMLInputStream.FramingModes.FRAMING_ROOT_TAG;
+    private long                chunkSize                       = DEFAULT_CHUNK_SIZE;
+    private ByteBuffer[]        chunks                          = null;         // read only, never moved (use duplicates)
+    private long[]              starts                          = new long[ 0 ];
+    private int[]               lengths                         = new int[ 0 ];
+    private int                 count                           = 0;
+    private boolean             truncated                       = false;
+    private boolean             indexLoaded                     = false;
+    
+    /**
+     * Creates a new instance of DocumentArchive, of documents framed by their
+     * root tag (the XMLInputStream default).
+     * @param file The archive.
+     * @throws IOException If the archive could not be read.
+     */
+    public DocumentArchive( File file ) throws IOException
+    {
+        this( file, XMLInputStream.FramingModes.FRAMING_ROOT_TAG );
+    }
+    
+    /**
+     * Creates a new instance of DocumentArchive.
+     * @param file The archive.
+     * @param framingMode How the end of each document is found (one of the
+     * XMLInputStream.FramingModes).
+     * @throws IOException If the archive could not be read.
+     */
+    public DocumentArchive( File file, int framingMode ) throws IOException
+    {
+        this( file, framingMode, DEFAULT_CHUNK_SIZE );
+    }
+    
+    /**
+     * Creates a new instance of DocumentArchive, that maps the archive in
+     * chunks of the provided size.
+     * @param file The archive.
+     * @param framingMode How the end of each document is found (one of the
+     * XMLInputStream.FramingModes).
+     * @param chunkSize The most bytes mapped by a single buffer.
+     * @throws IOException If the archive could not be read.
+     */
+    public DocumentArchive( File file, int framingMode, long chunkSize ) throws IOException
+    {
+        this( file, framingMode, chunkSize, null );
+    }
+    
+    /**
+     * Creates a new instance of DocumentArchive, that (if there is no index
+     * for the archive yet) finds its documents in parallel on the provided
+     * pool.  The archive is split into pieces (no bigger than a chunk), and
+     * each piece is scanned from the first thing in it that looks like the
+     * start of a document (an XML declaration, or the start tag of the first
+     * document's root element).  The pieces are then checked against each
+     * other in order, and any piece that did not start on a real document
+     * boundary is scanned again from where the piece before it ended, so the
+     * index is always the same as one built by a single scan.  Length prefixed
+     * archives can not be split this way, and are scanned from the start.
+     * @param file The archive.
+     * @param framingMode How the end of each document is found (one of the
+     * XMLInputStream.FramingModes).
+     * @param chunkSize The most bytes mapped by a single buffer.
+     * @param pool The pool to build the index on, or null to scan the archive
+     * on this thread.
+     * @throws IOException If the archive could not be read.
+     */
+    public DocumentArchive( File file, int framingMode, long chunkSize, ForkJoinPool pool ) throws IOException
+    {
+        if( chunkSize <= 0 || chunkSize > Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( "chunkSize must be between 1 and " + Integer.MAX_VALUE + ": " + chunkSize );
+        }
+        if( framingMode < XMLInputStream.FramingModes.FRAMING_ROOT_TAG || framingMode > XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED )
+        {
+            throw new IllegalArgumentException( "Unknown framing mode: " + framingMode );
+        }
+        
+        this.file = file;
+        this.framingMode = framingMode;
+        this.chunkSize = chunkSize;
+        
+        map();
+        
+        if( !loadIndex() )
+        {
+            adopt( pool == null ? scan( 0, Long.MAX_VALUE ) : buildIndex( pool ) );
+            saveIndex();
+        }
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method gives you the bytes of a document.  If the document lies in
+     * a single chunk this is a (read only) view of the mapped file; otherwise
+     * it is a copy.
+     * @param n The number of the document (from 0).
+     * @return The bytes of the document, from position 0 to the limit.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public ByteBuffer getFrame( int n )
+    {
+        long start = getDocumentOffset( n );
+        int size = lengths[ n ];
+        int index = (int)( start / chunkSize );
+        int offset = (int)( start - index * chunkSize );
+        ByteBuffer chunk = chunks[ index ].duplicate();
+        
+        if( offset + size > chunk.capacity() )
+        {
+            return ByteBuffer.wrap( readFrame( n ) ).asReadOnlyBuffer();
+        }
+        
+        chunk.limit( offset + size );
+        chunk.position( offset );
+        
+        return chunk.slice();
+    }
+    
+    /**
+     * This method copies the bytes of a document into a new array.
+     * @param n The number of the document (from 0).
+     * @return The bytes of the document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public byte[] readFrame( int n )
+    {
+        long start = getDocumentOffset( n );
+        byte[] frame = new byte[ lengths[ n ] ];
+        MappedInputStream in = new MappedInputStream( start, start + frame.length );
+        int copied = 0;
+        
+        while( copied < frame.length )
+        {
+            copied += in.read( frame, copied, frame.length - copied );
+        }
+        
+        return frame;
+    }
+    
+    /**
+     * This method gives you a stream of the bytes of a document (read straight
+     * from the mapped file), to parse it.
+     * @param n The number of the document (from 0).
+     * @return The InputStream.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public InputStream getInputStream( int n )
+    {
+        long start = getDocumentOffset( n );
+        
+        return new MappedInputStream( start, start + lengths[ n ] );
+    }
+    
+    /**
+     * This method parses a document.
+     * @param n The number of the document (from 0).
+     * @return The Document.
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Document readDocument( int n ) throws ParserConfigurationException, SAXException, IOException
+    {
+        return XMLUtils.readDocument( getInputStream( n ) );
+    }
+    
+    /**
+     * This method opens an XMLInputStream over the whole archive (in its
+     * framing mode), to replay it in order.
+     * @return The XMLInputStream.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XMLInputStream openStream()
+    {
+        return openStream( 0 );
+    }
+    
+    /**
+     * This method opens an XMLInputStream (in the framing mode of the archive)
+     * that starts at a document, to replay the archive in order from there.
+     * @param n The number of the first document (the document count for a stream that is already at its end).
+     * @return The XMLInputStream.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XMLInputStream openStream( int n )
+    {
+        if( n < 0 || n > count )
+        {
+            throw new IndexOutOfBoundsException( "Document " + n + " of " + count );
+        }
+        
+        // a length prefixed document starts after its header, so start where the one before it ended
+        long start = n == count ? length : starts[ n ];
+        if( framingMode == XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED )
+        {
+            start = n == 0 ? 0 : starts[ n - 1 ] + lengths[ n - 1 ];
+        }
+        XMLInputStream in = new XMLInputStream( new MappedInputStream( start, length ), SCAN_BUFFER_SIZE );
+        in.setFramingMode( framingMode );
+        
+        return in;
+    }
+    
+    /**
+     * This method lets go of the mapped buffers (the file is unmapped once
+     * they are garbage collected, along with any frames still in use).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void close()
+    {
+        chunks = null;
+    }
+    
+    /**
+     * This method maps the archive, a chunk at a time.  The file itself does
+     * not need to stay open for the mappings to be used.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void map() throws IOException
+    {
+        try( RandomAccessFile raf = new RandomAccessFile( file, "r" ) )
+        {
+            FileChannel channel = raf.getChannel();
+            
+            length = channel.size();
+            lastModified = file.lastModified();
+            chunks = new ByteBuffer[ (int)( ( length + chunkSize - 1 ) / chunkSize ) ];
+            
+            for( int i=0; i<chunks.length; i++ )
+            {
+                long position = i * chunkSize;
+                chunks[ i ] = channel.map( FileChannel.MapMode.READ_ONLY, position, Math.min( chunkSize, length - position ) );
+            }
+        }
+    }
+    
+    /**
+     * This method finds the boundaries of documents, by reading the archive
+     * with an XMLInputStream, and noting where each document ends (and how
+     * many of its bytes it returned).  Whitespace before a document is not part
+     * of it.
+     * @param from Where to start (at a document, or whitespace before one).
+     * @param stop The scan stops once a document ends at or after this offset
+     * (or the archive ends).
+     * @return The documents found.
+     * @throws IOException If a document is too big to be indexed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private Segment scan( long from, long stop ) throws IOException
+    {
+        XMLInputStream in = new XMLInputStream( new MappedInputStream( from, length ), SCAN_BUFFER_SIZE );
+        byte[] skip = new byte[ SCAN_BUFFER_SIZE ];
+        Segment segment = new Segment( from );
+        
+        in.setFramingMode( framingMode );
+        
+        while( segment.end < stop )
+        {
+            long read = 0;
+            int n;
+            
+            while( (n = in.read( skip, 0, skip.length )) != -1 )
+            {
+                read += n;
+            }
+            
+            boolean complete = in.isClosed();
+            long end = from + in.getPosition();
+            long start = skipWhitespace( end - read, end );
+            in.reset();
+            
+            if( !complete )
+            {
+                segment.ended = true;
+                segment.truncated = start < end;
+                break;
+            }
+            
+            if( end - start > Integer.MAX_VALUE )
+            {
+                throw new IOException( "Document at " + start + " is too big to index (" + ( end - start ) + " bytes)" );
+            }
+            
+            segment.add( start, (int)( end - start ) );
+            segment.end = end;
+        }
+        
+        return segment;
+    }
+    
+    /**
+     * This method finds the documents on a pool: the archive is split into
+     * pieces that are scanned at the same time, from the first likely start of
+     * a document in each.  The pieces are then joined in order; a piece that
+     * did not start where the piece before it ended (the guess was wrong, or
+     * the piece is in the middle of a document) is scanned again from there.
+     * @param pool The ForkJoinPool.
+     * @return The documents found.
+     * @throws IOException If a document is too big to be indexed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private Segment buildIndex( ForkJoinPool pool ) throws IOException
+    {
+        long size = Math.min( chunkSize, Math.max( MIN_SPLIT_SIZE, length / ( pool.getParallelism() * 4L ) ) );
+        byte[] root = getRootName();
+        
+        if( framingMode == XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED || root == null || size >= length )
+        {
+            return scan( 0, Long.MAX_VALUE );
+        }
+        
+        List<ForkJoinTask<Segment>> tasks = new ArrayList<ForkJoinTask<Segment>>();
+        for( long from = 0; from < length; from += size )
+        {
+            tasks.add( pool.submit( new ScanTask( from, Math.min( from + size, length ), root ) ) );
+        }
+        
+        Segment index = new Segment( 0 );
+        for( int i=0; i<tasks.size(); i++ )
+        {
+            long stop = Math.min( ( i + 1 ) * size, length );
+            
+            if( index.ended || index.end >= stop )
+            {
+                tasks.get( i ).cancel( false );     // already scanned past this piece
+                continue;
+            }
+            
+            Segment segment = tasks.get( i ).join();
+            if( segment == null || skipWhitespace( segment.start, length ) != skipWhitespace( index.end, length ) )
+            {
+                segment = scan( index.end, stop );
+            }
+            
+            index.append( segment );
+        }
+        
+        return index;
+    }
+    
+    /**
+     * This method uses the documents found as the index.
+     * @param segment The documents (from the start of the archive).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void adopt( Segment segment )
+    {
+        starts = Arrays.copyOf( segment.starts, segment.count );
+        lengths = Arrays.copyOf( segment.lengths, segment.count );
+        count = segment.count;
+        truncated = segment.truncated;
+        indexLoaded = false;
+    }
+    
+    /**
+     * This method finds the first thing in part of the archive that looks like
+     * the start of a document: an XML declaration, or the root start tag, at
+     * the start of the archive or after the end of a tag (and whitespace).
+     * It may be wrong (e.g. in a CDATA section, or where the root element is
+     * nested in itself), so the documents found from there are checked.
+     * @param from The offset to look from.
+     * @param to The offset to look to.
+     * @param root The name of the root element (as bytes).
+     * @return The offset of the '<', or -1 if nothing was found.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private long findDocumentStart( long from, long to, byte[] root )
+    {
+        for( long i = from; i < to; i++ )
+        {
+            if( byteAt( i ) != '<' )
+            {
+                continue;
+            }
+            
+            long before = i - 1;
+            while( before >= 0 && Character.isWhitespace( (char)( byteAt( before ) & 0xff ) ) )
+            {
+                --before;
+            }
+            if( before >= 0 && byteAt( before ) != '>' )
+            {
+                continue;
+            }
+            
+            if( matches( i + 1, XML_DECLARATION ) && ( i + 1 + XML_DECLARATION.length >= length
+                || isNameEnd( byteAt( i + 1 + XML_DECLARATION.length ) ) ) )
+            {
+                return i;
+            }
+            if( matches( i + 1, root ) && ( i + 1 + root.length >= length || isNameEnd( byteAt( i + 1 + root.length ) ) ) )
+            {
+                return i;
+            }
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * This method gives you the name of the root element of the first document
+     * in the archive.
+     * @return The name (as bytes), or null if there is no element.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private byte[] getRootName()
+    {
+        for( long i = 0; i + 1 < length; i++ )
+        {
+            byte next = byteAt( i + 1 );
+            
+            if( byteAt( i ) == '<' && next != '?' && next != '!' && next != '/' )
+            {
+                long end = i + 1;
+                while( end < length && !isNameEnd( byteAt( end ) ) )
+                {
+                    ++end;
+                }
+                
+                byte[] name = new byte[ (int)Math.min( end - i - 1, 1024 ) ];
+                for( int j=0; j<name.length; j++ )
+                {
+                    name[ j ] = byteAt( i + 1 + j );
+                }
+                
+                return name.length == 0 ? null : name;
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * This method tells you if the archive holds some bytes at an offset.
+     * @param position The offset.
+     * @param bytes The bytes.
+     * @return True if they are there.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private boolean matches( long position, byte[] bytes )
+    {
+        if( position + bytes.length > length )
+        {
+            return false;
+        }
+        
+        for( int i=0; i<bytes.length; i++ )
+        {
+            if( byteAt( position + i ) != bytes[ i ] )
+            {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * This method tells you if a byte ends the name of a tag.
+     * @param b The byte.
+     * @return True for whitespace, '>' and '/'.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static boolean isNameEnd( byte b )
+    {
+        return b == '>' || b == '/' || Character.isWhitespace( (char)( b & 0xff ) );
+    }
+    
+    /**
+     * This method skips whitespace.
+     * @param position The offset to start at.
+     * @param end The offset to stop at.
+     * @return The offset of the first byte that is not whitespace (or end).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private long skipWhitespace( long position, long end )
+    {
+        while( position < end && Character.isWhitespace( (char)( byteAt( position ) & 0xff ) ) )
+        {
+            ++position;
+        }
+        
+        return position;
+    }
+    
+    /**
+     * This method reads the index file, if it was written for the archive as it
+     * is now (same length, modification time and framing mode).  The count is
+     * checked against the sizes of both files before anything is allocated, so
+     * a damaged index is rebuilt rather than running out of memory.
+     * @return True if the index was read; false if it needs to be built.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private boolean loadIndex()
+    {
+        File index = getIndexFile();
+        
+        if( !index.isFile() )
+        {
+            return false;
+        }
+        
+        try( DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( index ) ) ) )
+        {
+            if( in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION || in.readLong() != length
+                || in.readLong() != lastModified || in.readInt() != framingMode )
+            {
+                return false;
+            }
+            
+            boolean cut = in.readBoolean();
+            int n = in.readInt();
+            
+            // every document is at least a byte long, and has an entry in the index
+            if( n < 0 || n > length || n > ( index.length() - INDEX_HEADER_LENGTH ) / INDEX_ENTRY_LENGTH )
+            {
+                return false;
+            }
+            
+            long[] s = new long[ n ];
+            int[] l = new int[ n ];
+            
+            for( int i=0; i<n; i++ )
+            {
+                s[ i ] = in.readLong();
+                l[ i ] = in.readInt();
+                
+                if( s[ i ] < 0 || l[ i ] < 0 || s[ i ] + l[ i ] > length )
+                {
+                    return false;
+                }
+            }
+            
+            starts = s;
+            lengths = l;
+            count = n;
+            truncated = cut;
+            indexLoaded = true;
+            
+            return true;
+        }
+        catch( IOException | RuntimeException ex )
+        {
+            // a damaged index is rebuilt
+            return false;
+        }
+    }
+    
+    /**
+     * This method writes the index file (to a temporary file in the same
+     * directory first, so that a reader never sees half of one, and archives
+     * opened at the same time do not write over each other's).  The index is
+     * only a cache, so if it can not be written it is simply built again next
+     * time.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void saveIndex()
+    {
+        File index = getIndexFile();
+        File temp = null;
+        
+        try
+        {
+            temp = File.createTempFile( index.getName(), ".tmp", index.getAbsoluteFile().getParentFile() );
+            
+            try( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( temp ) ) ) )
+            {
+                out.writeInt( INDEX_MAGIC );
+                out.writeInt( INDEX_VERSION );
+                out.writeLong( length );
+                out.writeLong( lastModified );
+                out.writeInt( framingMode );
+                out.writeBoolean( truncated );
+                out.writeInt( count );
+                
+                for( int i=0; i<count; i++ )
+                {
+                    out.writeLong( starts[ i ] );
+                    out.writeInt( lengths[ i ] );
+                }
+            }
+            
+            Files.move( temp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING );
+        }
+        catch( IOException ex )
+        {
+            if( temp != null )
+            {
+                temp.delete();
+            }
+        }
+    }
+    
+    /**
+     * This method gives you a byte of the archive.
+     * @param position The offset of the byte.
+     * @return The byte.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private byte byteAt( long position )
+    {
+        int index = (int)( position / chunkSize );
+        
+        return chunks[ index ].get( (int)( position - index * chunkSize ) );
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * This method tells you how many documents are in the archive.
+     * @return The number of (complete) documents.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getDocumentCount()
+    {
+        return count;
+    }
+    
+    /**
+     * This method tells you where a document starts in the archive.
+     * @param n The number of the document (from 0).
+     * @return The offset of its first byte.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getDocumentOffset( int n )
+    {
+        if( n < 0 || n >= count )
+        {
+            throw new IndexOutOfBoundsException( "Document " + n + " of " + count );
+        }
+        if( chunks == null )
+        {
+            throw new IllegalStateException( "The archive is closed" );
+        }
+        
+        return starts[ n ];
+    }
+    
+    /**
+     * This method tells you how big a document is.
+     * @param n The number of the document (from 0).
+     * @return The number of bytes of the document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getDocumentLength( int n )
+    {
+        getDocumentOffset( n );
+        
+        return lengths[ n ];
+    }
+    
+    /**
+     * This method tells you if the archive ends in the middle of a document
+     * (which is not indexed).
+     * @return True if the archive was cut short.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean isTruncated()
+    {
+        return truncated;
+    }
+    
+    /**
+     * This method tells you if the index was read from the index file (rather
+     * than built by scanning the archive).
+     * @return True if the index file was used.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean isIndexLoaded()
+    {
+        return indexLoaded;
+    }
+    
+    /**
+     * Getter for the archive.
+     * @return The File.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public File getFile()
+    {
+        return file;
+    }
+    
+    /**
+     * Getter for the index file (whether or not it exists).
+     * @return The File.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public File getIndexFile()
+    {
+        return new File( file.getPath() + INDEX_SUFFIX );
+    }
+    
+    /**
+     * This method tells you the size of the archive.
+     * @return The number of bytes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getLength()
+    {
+        return length;
+    }
+    
+    /**
+     * This method tells you how the end of each document is found.
+     * @return One of the XMLInputStream.FramingModes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getFramingMode()
+    {
+        return framingMode;
+    }
+    
+    /**
+     * This method tells you how many buffers the archive is mapped with.
+     * @return The number of chunks.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getChunkCount()
+    {
+        return chunks == null ? 0 : chunks.length;
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class holds the documents found by a scan of part of the archive.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class Segment
+    {
+        private final long      start;                          // where the scan started
+        private long            end;                            // where the last document ended
+        private long[]          starts          = new long[ 64 ];
+        private int[]           lengths         = new int[ 64 ];
+        private int             count           = 0;
+        private boolean         ended           = false;        // the scan reached the end of the archive
+        private boolean         truncated       = false;
+        
+        public Segment( long start )
+        {
+            this.start = start;
+            this.end = start;
+        }
+        
+        public void add( long start, int length )
+        {
+            if( count == starts.length )
+            {
+                starts = Arrays.copyOf( starts, count * 2 );
+                lengths = Arrays.copyOf( lengths, count * 2 );
+            }
+            
+            starts[ count ] = start;
+            lengths[ count ] = length;
+            ++count;
+        }
+        
+        public void append( Segment segment )
+        {
+            for( int i=0; i<segment.count; i++ )
+            {
+                add( segment.starts[ i ], segment.lengths[ i ] );
+            }
+            
+            end = segment.end;
+            ended = segment.ended;
+            truncated = segment.truncated;
+        }
+    }
+    
+    /**
+     * This class scans a piece of the archive, from the first likely start of a
+     * document in it.  A scan that fails (it did not start at a document after
+     * all) gives back null, and the piece is scanned again.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private class ScanTask extends RecursiveTask<Segment>
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private final long      from;
+        private final long      to;
+        private final byte[]    root;
+        
+        public ScanTask( long from, long to, byte[] root )
+        {
+            this.from = from;
+            this.to = to;
+            this.root = root;
+        }
+        
+        protected Segment compute()
+        {
+            long start = from == 0 ? 0 : findDocumentStart( from, to, root );
+            
+            try
+            {
+                return start < 0 ? null : scan( start, to );
+            }
+            catch( IOException | RuntimeException ex )
+            {
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * This class reads a range of the archive, out of the mapped chunks (a
+     * block read never crosses from one chunk into the next).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private class MappedInputStream extends InputStream
+    {
+        private long            position;
+        private final long      end;
+        private ByteBuffer      chunk           = null;     // a duplicate of the current chunk
+        private int             chunkIndex      = -1;
+        
+        public MappedInputStream( long position, long end )
+        {
+            this.position = position;
+            this.end = end;
+        }
+        
+        public int read()
+        {
+            if( position >= end )
+            {
+                return -1;
+            }
+            
+            return byteAt( position++ ) & 0xff;
+        }
+        
+        public int read( byte[] b, int off, int len )
+        {
+            if( len == 0 )
+            {
+                return 0;
+            }
+            if( position >= end )
+            {
+                return -1;
+            }
+            
+            int index = (int)( position / chunkSize );
+            if( index != chunkIndex )
+            {
+                chunk = chunks[ index ].duplicate();
+                chunkIndex = index;
+            }
+            
+            int offset = (int)( position - index * chunkSize );
+            int n = (int)Math.min( Math.min( len, end - position ), chunk.capacity() - offset );
+            
+            chunk.position( offset );
+            chunk.get( b, off, n );
+            position += n;
+            
+            return n;
+        }
+        
+        public long skip( long n )
+        {
+            long skipped = Math.max( 0, Math.min( n, end - position ) );
+            position += skipped;
+            
+            return skipped;
+        }
+        
+        public int available()
+        {
+            return (int)Math.min( end - position, Integer.MAX_VALUE );
+        }
+    }
+}
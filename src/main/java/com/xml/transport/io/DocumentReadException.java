@@ -0,0 +1,50 @@
+/*
+ * FILE:        DocumentReadException.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import java.io.EOFException;
+
+//--------------------------------------------------------------------------
+// CLASS DocumentReadException
+//--------------------------------------------------------------------------
+/**
+ * This exception is thrown (by the APIs that can not throw checked exceptions,
+ * like Iterator and Stream) when an XML Document could not be read.  It tells
+ * you if the stream ended in the middle of a Document, as opposed to the
+ * Document being malformed.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class DocumentReadException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Creates a new instance of DocumentReadException.
+     * @param cause The exception that stopped the Document from being read.
+     */
+    public DocumentReadException( Throwable cause )
+    {
+        super( cause.getMessage(), cause );
+    }
+    
+    /**
+     * This method tells you if the stream ended in the middle of a Document.
+     * @return True if the Document was truncated.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean isTruncated()
+    {
+        return getCause() instanceof EOFException;
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * FILE:        DocumentSpliterator.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import com.xml.utils.XMLUtils;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+//--------------------------------------------------------------------------
+// CLASS DocumentSpliterator
+//--------------------------------------------------------------------------
+/**
+ * This class turns an {@link XMLInputStream} into a sequence of XML Documents,
+ * doing the reading and resetting for you.  The sequence ends when the stream
+ * ends cleanly between two Documents; if it ends in the middle of a Document,
+ * a {@link DocumentReadException} that is truncated is thrown instead.
+ * <br/><br/>
+ * When used from a parallel Stream, the raw bytes of a batch of Documents are
+ * read ahead (never more than the prefetch limit per batch), and parsing them
+ * is left to whichever thread processes the batch; so the Documents of a single
+ * connection can be parsed and handled on several cores.  The Documents keep
+ * the order they were read in (use <code>forEachOrdered</code> or an ordered
+ * collector if that matters to you).
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * XMLInputStream xin = new XMLInputStream(in);
+ * Iterator&lt;Document&gt; docs = DocumentSpliterator.iterator(xin);
+ * while(docs.hasNext()) { handle(docs.next()); }
+ *
+ * DocumentSpliterator.stream(xin, true).map(doc -&gt; handle(doc)).forEachOrdered(...);
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class DocumentSpliterator implements Spliterator<Document>
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    private XMLInputStream      in                              = null;
+    private int                 prefetch                        = DEFAULT_PREFETCH;
+    private int                 batch                           = 0;
+    private boolean             ended                           = false;
+    
+    /** The default maximum number of Documents read ahead for a single batch. */
+    public static final int     DEFAULT_PREFETCH                = 64;
+    
+    /**
+     * Creates a new instance of DocumentSpliterator.
+     * @param in The XMLInputStream to read the Documents from.
+     */
+    public DocumentSpliterator( XMLInputStream in )
+    {
+        this( in, DEFAULT_PREFETCH );
+    }
+    
+    /**
+     * Creates a new instance of DocumentSpliterator.
+     * @param in The XMLInputStream to read the Documents from.
+     * @param prefetch The maximum number of Documents read ahead for a single batch.
+     */
+    public DocumentSpliterator( XMLInputStream in, int prefetch )
+    {
+        if( prefetch <= 0 )
+        {
+            throw new IllegalArgumentException( "prefetch must be positive: " + prefetch );
+        }
+        
+        this.in = in;
+        this.prefetch = prefetch;
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method gives you an Iterator over the Documents of the provided stream.
+     * @param in The XMLInputStream to read the Documents from.
+     * @return The Iterator.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Iterator<Document> iterator( XMLInputStream in )
+    {
+        return Spliterators.iterator( new DocumentSpliterator( in ) );
+    }
+    
+    /**
+     * This method gives you a Stream of the Documents of the provided stream.
+     * @param in The XMLInputStream to read the Documents from.
+     * @param parallel True for a parallel Stream.
+     * @return The Stream.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Stream<Document> stream( XMLInputStream in, boolean parallel )
+    {
+        return StreamSupport.stream( new DocumentSpliterator( in ), parallel );
+    }
+    
+    public boolean tryAdvance( Consumer<? super Document> action )
+    {
+        byte[] frame = nextFrame();
+        
+        if( frame == null )
+        {
+            return false;
+        }
+        
+        action.accept( parse( frame, in.getMetrics() ) );
+        
+        return true;
+    }
+    
+    /**
+     * This method reads the raw bytes of the next batch of Documents; each batch
+     * is twice as big as the last one, up to the prefetch limit.
+     * @return A Spliterator over the batch, or null if the stream has ended.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Spliterator<Document> trySplit()
+    {
+        batch = Math.min( Math.max( 1, batch * 2 ), prefetch );
+        
+        byte[][] frames = new byte[ batch ][];
+        int count = 0;
+        
+        while( count < batch && (frames[ count ] = nextFrame()) != null )
+        {
+            ++count;
+        }
+        
+        return count == 0 ? null : new FrameSpliterator( frames, 0, count, in.getMetrics() );
+    }
+    
+    public long estimateSize()
+    {
+        return ended ? 0 : Long.MAX_VALUE;
+    }
+    
+    public int characteristics()
+    {
+        return ORDERED | NONNULL;
+    }
+    
+    /**
+     * This method reads the raw bytes of the next Document.
+     * @return The bytes of the Document, or null if the stream has ended.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private byte[] nextFrame()
+    {
+        if( ended )
+        {
+            return null;
+        }
+        
+        try
+        {
+            byte[] frame = in.readFrame();
+            ended = frame == null;
+            
+            return frame;
+        }
+        catch( IOException ex )
+        {
+            ended = true;
+            throw new DocumentReadException( ex );
+        }
+    }
+    
+    /**
+     * This method parses the raw bytes of a Document.
+     * @param frame The bytes of the Document.
+     * @param metrics The metrics to record the parse in, or null.
+     * @return The Document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static Document parse( byte[] frame, TransportMetrics metrics )
+    {
+        try
+        {
+            return XMLUtils.readDocument( frame, metrics );
+        }
+        catch( ParserConfigurationException | SAXException | IOException ex )
+        {
+            throw new DocumentReadException( ex );
+        }
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class is a Spliterator over a batch of Documents that have been read,
+     * but not yet parsed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class FrameSpliterator implements Spliterator<Document>
+    {
+        private final byte[][]  frames;
+        private int             index;
+        private final int       fence;
+        private final TransportMetrics  metrics;
+        
+        public FrameSpliterator( byte[][] frames, int index, int fence, TransportMetrics metrics )
+        {
+            this.frames = frames;
+            this.index = index;
+            this.fence = fence;
+            this.metrics = metrics;
+        }
+        
+        public boolean tryAdvance( Consumer<? super Document> action )
+        {
+            if( index >= fence )
+            {
+                return false;
+            }
+            
+            byte[] frame = frames[ index ];
+            frames[ index++ ] = null;
+            action.accept( parse( frame, metrics ) );
+            
+            return true;
+        }
+        
+        public Spliterator<Document> trySplit()
+        {
+            int mid = ( index + fence ) >>> 1;
+            
+            if( mid <= index )
+            {
+                return null;
+            }
+            
+            FrameSpliterator prefix = new FrameSpliterator( frames, index, mid, metrics );
+            index = mid;
+            
+            return prefix;
+        }
+        
+        public long estimateSize()
+        {
+            return fence - index;
+        }
+        
+        public int characteristics()
+        {
+            return ORDERED | NONNULL | SIZED | SUBSIZED;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * FILE:        Frame.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//--------------------------------------------------------------------------
+// CLASS Frame
+//--------------------------------------------------------------------------
+/**
+ * This class holds the raw bytes of one framed XML Document, in a buffer that
+ * was taken from a {@link FramePool}.  A frame can be parsed (through
+ * getInputStream()), kept, or forwarded to another connection as it is (with
+ * writeTo()), without the document ever being turned into a DOM or copied to a
+ * new array.
+ * <br/><br/>
+ * A frame is reference counted.  It starts with a count of 1, each retain()
+ * adds one, and each release() takes one away; when the count reaches 0 the
+ * buffer goes back to the pool, and the frame can no longer be used.  Whoever
+ * hands a frame to another thread (e.g. to a queue of frames to forward)
+ * should retain() it first, and the other thread releases it when done.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * Frame frame = xmlInputStream.readFrame( pool );
+ * try
+ * {
+ *     Document doc = XMLUtils.readDocument( frame.getInputStream() );
+ *     ...
+ * }
+ * finally
+ * {
+ *     frame.release();
+ * }
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class Frame
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    private FramePool               pool                = null;
+    private ByteBuffer              buffer              = null;     // position 0, limit is the end of the document once it is read
+    private AtomicInteger           references          = new AtomicInteger( 1 );
+    private FramePool.Tracker       tracker             = null;
+    
+    /**
+     * Creates a new instance of Frame (see FramePool.acquire()).
+     * @param pool The pool the buffer came from.
+     * @param buffer The (empty) buffer to read the document into.
+     */
+    Frame( FramePool pool, ByteBuffer buffer )
+    {
+        this.pool = pool;
+        this.buffer = buffer;
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method adds a reference to the frame.
+     * @return This frame.
+     * @throws IllegalStateException If the frame has already been released.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Frame retain()
+    {
+        int count;
+        
+        do
+        {
+            count = references.get();
+            if( count <= 0 )
+            {
+                throw new IllegalStateException( "The frame has been released" );
+            }
+        }
+        while( !references.compareAndSet( count, count + 1 ) );
+        
+        return this;
+    }
+    
+    /**
+     * This method takes away a reference to the frame; the last one gives the
+     * buffer back to the pool.
+     * @return True if that was the last reference.
+     * @throws IllegalStateException If the frame has already been released.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean release()
+    {
+        int count = references.decrementAndGet();
+        
+        if( count < 0 )
+        {
+            references.incrementAndGet();
+            throw new IllegalStateException( "The frame has already been released" );
+        }
+        
+        if( count == 0 )
+        {
+            pool.release( this );
+            return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * This method writes the bytes of the document to a channel.  With a direct
+     * buffer and a socket (or file) channel the bytes go straight from the
+     * buffer to the channel, without being copied onto the heap.
+     * @param channel The channel to write to (in blocking mode).
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void writeTo( WritableByteChannel channel ) throws IOException
+    {
+        ByteBuffer bytes = view();
+        
+        while( bytes.hasRemaining() )
+        {
+            channel.write( bytes );
+        }
+    }
+    
+    /**
+     * This method writes the bytes of several documents to a channel with
+     * gathering writes, so that a batch of frames is forwarded with as few
+     * system calls as possible.
+     * @param channel The channel to write to (in blocking mode).
+     * @param frames The frames to write, in order.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static void writeTo( GatheringByteChannel channel, Frame... frames ) throws IOException
+    {
+        ByteBuffer[] buffers = new ByteBuffer[ frames.length ];
+        long remaining = 0;
+        
+        for( int i=0; i<frames.length; i++ )
+        {
+            buffers[ i ] = frames[ i ].view();
+            remaining += buffers[ i ].remaining();
+        }
+        
+        int first = 0;
+        while( remaining > 0 )
+        {
+            remaining -= channel.write( buffers, first, buffers.length - first );
+            
+            while( first < buffers.length && !buffers[ first ].hasRemaining() )
+            {
+                ++first;
+            }
+        }
+    }
+    
+    /**
+     * This method writes the bytes of the document to a stream (e.g. an
+     * XMLOutputStream, to forward it as part of a batch).
+     * @param out The stream to write to.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void writeTo( OutputStream out ) throws IOException
+    {
+        ByteBuffer bytes = view();
+        
+        if( bytes.hasArray() )
+        {
+            out.write( bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining() );
+        }
+        else
+        {
+            writeTo( Channels.newChannel( out ) );
+        }
+    }
+    
+    /**
+     * This method gives you a stream of the bytes of the document, to parse it
+     * (e.g. with <code>XMLUtils.readDocument()</code>).  The stream reads the
+     * buffer of the frame, so do not release the frame until you are done with it.
+     * @return The InputStream.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public InputStream getInputStream()
+    {
+        final ByteBuffer bytes = view();
+        
+        if( bytes.hasArray() )
+        {
+            return new ByteArrayInputStream( bytes.array(), bytes.arrayOffset(), bytes.remaining() );
+        }
+        
+        return new InputStream()
+        {
+            public int read()
+            {
+                return bytes.hasRemaining() ? bytes.get() & 0xff : -1;
+            }
+            
+            public int read( byte[] b, int off, int len )
+            {
+                if( len == 0 )
+                {
+                    return 0;
+                }
+                if( !bytes.hasRemaining() )
+                {
+                    return -1;
+                }
+                
+                int n = Math.min( len, bytes.remaining() );
+                bytes.get( b, off, n );
+                
+                return n;
+            }
+            
+            public int available()
+            {
+                return bytes.remaining();
+            }
+        };
+    }
+    
+    /**
+     * This method copies the bytes of the document into a new array.
+     * @return The bytes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public byte[] toByteArray()
+    {
+        ByteBuffer bytes = view();
+        byte[] copy = new byte[ bytes.remaining() ];
+        bytes.get( copy );
+        
+        return copy;
+    }
+    
+    public String toString()
+    {
+        return "Frame[" + buffer.limit() + " bytes, references=" + references.get() + "]";
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * Getter for a read only view of the bytes of the document; each call
+     * gives you a new view, positioned at the start of the document.
+     * @return The bytes.
+     * @throws IllegalStateException If the frame has been released.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public ByteBuffer getBuffer()
+    {
+        return view().asReadOnlyBuffer();
+    }
+    
+    /**
+     * Getter for the length of the document.
+     * @return The number of bytes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getLength()
+    {
+        return buffer.limit();
+    }
+    
+    /**
+     * Getter for the number of references to the frame.
+     * @return The reference count (0 once it has been released).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getReferenceCount()
+    {
+        return references.get();
+    }
+    
+    /**
+     * This method gives you a new view of the bytes of the document (which
+     * shares the array of a heap buffer).
+     * @return The bytes.
+     * @throws IllegalStateException If the frame has been released.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private ByteBuffer view()
+    {
+        if( references.get() <= 0 )
+        {
+            throw new IllegalStateException( "The frame has been released" );
+        }
+        
+        ByteBuffer view = buffer.duplicate();
+        view.position( 0 );
+        
+        return view;
+    }
+    
+    /**
+     * Getter for the buffer itself, to read the document into.
+     * @return The buffer.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    ByteBuffer getWritableBuffer()
+    {
+        return buffer;
+    }
+    
+    /**
+     * Setter for the buffer (when the document outgrows it).
+     * @param buffer The new buffer.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    void setBuffer( ByteBuffer buffer )
+    {
+        this.buffer = buffer;
+    }
+    
+    /**
+     * Getter for the reference that tells the pool when the frame leaks.
+     * @return The tracker.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    FramePool.Tracker getTracker()
+    {
+        return tracker;
+    }
+    
+    /**
+     * Setter for the reference that tells the pool when the frame leaks.
+     * @param tracker The tracker.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    void setTracker( FramePool.Tracker tracker )
+    {
+        this.tracker = tracker;
+    }
+}
@@ -0,0 +1,457 @@
+/*
+ * FILE:        FramePool.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+//--------------------------------------------------------------------------
+// CLASS FramePool
+//--------------------------------------------------------------------------
+/**
+ * This class is a pool of fixed size ByteBuffers (on the heap, or direct) that
+ * {@link Frame}s are read into, so that reading a document does not allocate
+ * a new array for it.  A buffer goes back to the pool when the last reference
+ * to its Frame is released.
+ * <br/><br/>
+ * The pool never blocks: once all of its buffers are in use it allocates
+ * buffers that are not pooled (and counts that as an exhaustion), and a
+ * document that does not fit in a pooled buffer is moved to a bigger buffer
+ * that is not pooled either (and counted as oversized).  A Frame that is
+ * garbage collected without having been released is counted as a leak (its
+ * buffer is not reused, since something may still hold a view of it; the pool
+ * allocates a new one in its place).  Watch those counters: a pool that is often
+ * exhausted is too small, and a pool that leaks has a caller that forgets to
+ * call release().
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * FramePool pool = new FramePool( 16 * 1024, 256, true );
+ * ...
+ * Frame frame = xmlInputStream.readFrame( pool );
+ * try
+ * {
+ *     frame.writeTo( otherSocketChannel );     // forward it without parsing
+ * }
+ * finally
+ * {
+ *     frame.release();
+ * }
+ * </pre>
+ * A pool is thread safe, and is meant to be shared by all of the connections.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class FramePool
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    
+    /** The default size of a pooled buffer. */
+    public static final int     DEFAULT_BUFFER_SIZE             = 16 * 1024;
+    
+    /** The default maximum number of pooled buffers. */
+    public static final int     DEFAULT_MAX_BUFFERS             = 1024;
+    
+    private int                 bufferSize                      = DEFAULT_BUFFER_SIZE;
+    private int                 maxBuffers                      = DEFAULT_MAX_BUFFERS;
+    private boolean             direct                          = false;
+    
+    private ArrayDeque<ByteBuffer>  idle                        = new ArrayDeque<ByteBuffer>();
+    private int                 allocated                       = 0;    // pooled buffers that have been allocated
+    private int                 inUse                           = 0;    // frames that have not been released
+    private long                acquired                        = 0;
+    private long                exhausted                       = 0;
+    private long                oversized                       = 0;
+    private long                leaked                          = 0;
+    
+    // a reference to every frame that has not been released, to find the ones that leak
+    private ReferenceQueue<Frame>           collected           = new ReferenceQueue<Frame>();
+    private Set<Tracker>                    trackers            = Collections.newSetFromMap( new IdentityHashMap<Tracker, Boolean>() );
+    
+    /**
+     * Creates a new instance of FramePool, of heap buffers of the default size.
+     */
+    public FramePool()
+    {
+        this( DEFAULT_BUFFER_SIZE, DEFAULT_MAX_BUFFERS, false );
+    }
+    
+    /**
+     * Creates a new instance of FramePool.
+     * @param bufferSize The size of each pooled buffer; make it big enough for most documents.
+     * @param maxBuffers The most buffers the pool will hold.
+     * @param direct True for direct buffers (outside of the heap; best when frames
+     * are mostly forwarded to channels), false for heap buffers (best when frames
+     * are mostly parsed).
+     */
+    public FramePool( int bufferSize, int maxBuffers, boolean direct )
+    {
+        if( bufferSize <= 0 )
+        {
+            throw new IllegalArgumentException( "bufferSize must be positive: " + bufferSize );
+        }
+        if( maxBuffers < 0 )
+        {
+            throw new IllegalArgumentException( "maxBuffers must not be negative: " + maxBuffers );
+        }
+        
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+        this.direct = direct;
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method gives you an empty Frame (with a reference count of 1) to
+     * read a document into.
+     * @return The Frame.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Frame acquire()
+    {
+        ByteBuffer buffer = null;
+        boolean pooled = true;
+        
+        synchronized( this )
+        {
+            reclaim();
+            
+            ++acquired;
+            ++inUse;
+            buffer = idle.poll();
+            
+            if( buffer == null )
+            {
+                if( allocated < maxBuffers )
+                {
+                    ++allocated;
+                }
+                else
+                {
+                    ++exhausted;
+                    pooled = false;
+                }
+            }
+        }
+        
+        if( buffer == null )
+        {
+            buffer = allocate( bufferSize );
+        }
+        
+        Frame frame = new Frame( this, buffer );
+        track( frame, pooled );
+        
+        return frame;
+    }
+    
+    /**
+     * This method moves the contents of a frame into a buffer twice as big (a
+     * buffer that is not pooled), and gives the old buffer back.
+     * @param frame The frame that is full.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    void grow( Frame frame )
+    {
+        ByteBuffer old = frame.getWritableBuffer();
+        ByteBuffer grown = allocate( (int)Math.min( (long)old.capacity() * 2, Integer.MAX_VALUE - 8 ) );
+        boolean pooled = frame.getTracker().pooled;
+        
+        old.flip();
+        grown.put( old );
+        frame.setBuffer( grown );
+        track( frame, false );
+        
+        synchronized( this )
+        {
+            if( old.capacity() == bufferSize )
+            {
+                ++oversized;
+                recycle( old, pooled );
+            }
+        }
+    }
+    
+    /**
+     * This method takes back the buffer of a frame that has been released.
+     * @param frame The frame.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    void release( Frame frame )
+    {
+        ByteBuffer buffer = frame.getWritableBuffer();
+        
+        synchronized( this )
+        {
+            Tracker tracker = frame.getTracker();
+            trackers.remove( tracker );
+            tracker.clear();
+            
+            --inUse;
+            recycle( buffer, tracker.pooled );
+        }
+    }
+    
+    /**
+     * This method counts the frames that were garbage collected without
+     * having been released, and lets the pool allocate buffers in their place.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void reclaim()
+    {
+        Reference<? extends Frame> ref;
+        
+        while( (ref = collected.poll()) != null )
+        {
+            Tracker tracker = (Tracker)ref;
+            
+            // someone may still hold a view of the buffer, so it is not reused
+            if( trackers.remove( tracker ) )
+            {
+                ++leaked;
+                --inUse;
+                
+                if( tracker.pooled )
+                {
+                    --allocated;
+                }
+            }
+        }
+    }
+    
+    /**
+     * This method puts a buffer back in the pool.  A buffer that was allocated
+     * while the pool was exhausted is kept too, if there is room for it now.
+     * @param buffer The buffer.
+     * @param pooled True if the buffer is counted as one of the pool's.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void recycle( ByteBuffer buffer, boolean pooled )
+    {
+        if( !pooled && buffer.capacity() == bufferSize && allocated < maxBuffers )
+        {
+            ++allocated;
+            pooled = true;
+        }
+        
+        if( pooled )
+        {
+            buffer.clear();
+            idle.push( buffer );
+        }
+    }
+    
+    /**
+     * This method starts watching a frame (or its new buffer) for leaks.
+     * @param frame The frame.
+     * @param pooled True if the buffer of the frame is counted as one of the pool's.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private synchronized void track( Frame frame, boolean pooled )
+    {
+        if( frame.getTracker() != null )
+        {
+            trackers.remove( frame.getTracker() );
+            frame.getTracker().clear();
+        }
+        
+        Tracker tracker = new Tracker( frame, pooled, collected );
+        trackers.add( tracker );
+        frame.setTracker( tracker );
+    }
+    
+    /**
+     * This method allocates a buffer of the pool's kind.
+     * @param size The size of the buffer.
+     * @return The buffer.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private ByteBuffer allocate( int size )
+    {
+        return direct ? ByteBuffer.allocateDirect( size ) : ByteBuffer.allocate( size );
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * Getter for the size of a pooled buffer.
+     * @return The size in bytes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+    
+    /**
+     * Getter for the most buffers the pool will hold.
+     * @return The maximum number of buffers.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getMaxBuffers()
+    {
+        return maxBuffers;
+    }
+    
+    /**
+     * This method tells you if the pool holds direct buffers.
+     * @return True for direct buffers, false for heap buffers.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean isDirect()
+    {
+        return direct;
+    }
+    
+    /**
+     * Getter for the number of pooled buffers allocated so far.
+     * @return The number of buffers.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized int getAllocatedCount()
+    {
+        return allocated;
+    }
+    
+    /**
+     * Getter for the number of buffers waiting in the pool.
+     * @return The number of idle buffers.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized int getIdleCount()
+    {
+        reclaim();
+        
+        return idle.size();
+    }
+    
+    /**
+     * Getter for the number of frames that have not been released yet.
+     * @return The number of frames in use.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized int getInUseCount()
+    {
+        reclaim();
+        
+        return inUse;
+    }
+    
+    /**
+     * Getter for the number of frames acquired so far.
+     * @return The number of frames.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized long getAcquiredCount()
+    {
+        return acquired;
+    }
+    
+    /**
+     * Getter for the number of times a frame was acquired while every pooled
+     * buffer was in use (so a buffer that is not pooled was allocated).
+     * @return The number of times the pool was exhausted.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized long getExhaustedCount()
+    {
+        return exhausted;
+    }
+    
+    /**
+     * Getter for the number of documents that did not fit in a pooled buffer.
+     * @return The number of oversized frames.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized long getOversizedCount()
+    {
+        return oversized;
+    }
+    
+    /**
+     * Getter for the number of frames that were garbage collected without
+     * having been released.  Leaks are only noticed after the garbage collector
+     * has found the frames, and the pool has been used again.
+     * @return The number of leaked frames.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized long getLeakedCount()
+    {
+        reclaim();
+        
+        return leaked;
+    }
+    
+    public String toString()
+    {
+        return "FramePool[" + ( direct ? "direct" : "heap" ) + " " + bufferSize + " bytes x " + maxBuffers
+            + ", allocated=" + getAllocatedCount() + ", idle=" + getIdleCount() + ", inUse=" + getInUseCount()
+            + ", exhausted=" + getExhaustedCount() + ", oversized=" + getOversizedCount() + ", leaked=" + getLeakedCount() + "]";
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class notices when a frame is garbage collected before it has been
+     * released.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    static class Tracker extends PhantomReference<Frame>
+    {
+        private boolean         pooled          = false;    // the buffer of the frame is counted as one of the pool's
+        
+        /**
+         * Creates a new instance of Tracker.
+         * @param frame The frame to watch.
+         * @param pooled True if the buffer of the frame is counted as one of the pool's.
+         * @param queue The queue to put the tracker on once the frame is collected.
+         */
+        public Tracker( Frame frame, boolean pooled, ReferenceQueue<Frame> queue )
+        {
+            super( frame, queue );
+            this.pooled = pooled;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * FILE:        FrameTap.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import java.nio.charset.StandardCharsets;
+
+//--------------------------------------------------------------------------
+// CLASS FrameTap
+//--------------------------------------------------------------------------
+/**
+ * This class keeps the most recent bytes that a stream has read, for post
+ * mortem analysis (e.g. of a malformed message): the last <i>capacity</i>
+ * bytes, split into the last <i>maxFrames</i> documents, in a ring buffer that
+ * is allocated once and never grows.  A document bigger than the tap is only
+ * kept from where the tap begins, so a tap never holds a whole (large)
+ * document.
+ * <br/><br/>
+ * A stream only taps what it reads if it has been given a tap (it checks a
+ * single field that is null otherwise).  The frames can be taken out of the
+ * tap at any time, from any thread, including the document that was being
+ * read when something went wrong.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * FrameTap tap = new FrameTap( 16 * 1024, 8 );
+ * xmlInputStream.setFrameTap( tap );
+ * try
+ * {
+ *     Document doc = XMLUtils.readDocument( xmlInputStream );
+ * }
+ * catch( SAXException ex )
+ * {
+ *     log.error( "Malformed message, last frames read:\n" + tap, ex );
+ * }
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class FrameTap
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    
+    /** The default number of bytes kept. */
+    public static final int     DEFAULT_CAPACITY                = 64 * 1024;
+    
+    /** The default number of frames kept. */
+    public static final int     DEFAULT_MAX_FRAMES              = 16;
+    
+    private byte[]              ring                            = null;
+    private long                written                         = 0;    // every byte ever written
+    private long                currentStart                    = 0;    // where the frame being read started
+    private long[]              starts                          = null; // of the last frames that ended,
+    private long[]              ends                            = null; // indexed by frame number % maxFrames
+    private long                frames                          = 0;    // the number of frames that ended
+    
+    /**
+     * Creates a new instance of FrameTap that keeps the default number of bytes
+     * and frames.
+     */
+    public FrameTap()
+    {
+        this( DEFAULT_CAPACITY, DEFAULT_MAX_FRAMES );
+    }
+    
+    /**
+     * Creates a new instance of FrameTap.
+     * @param capacity The number of bytes kept (the size of the ring buffer).
+     * @param maxFrames The number of frames kept (including the one being read).
+     */
+    public FrameTap( int capacity, int maxFrames )
+    {
+        if( capacity <= 0 )
+        {
+            throw new IllegalArgumentException( "capacity must be positive: " + capacity );
+        }
+        if( maxFrames <= 0 )
+        {
+            throw new IllegalArgumentException( "maxFrames must be positive: " + maxFrames );
+        }
+        
+        this.ring = new byte[ capacity ];
+        this.starts = new long[ maxFrames ];
+        this.ends = new long[ maxFrames ];
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method appends a byte that was read to the current frame.
+     * @param b The byte.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized void write( int b )
+    {
+        ring[ (int)( written++ % ring.length ) ] = (byte)b;
+    }
+    
+    /**
+     * This method appends a block of bytes that was read to the current frame.
+     * Only as much of the block as fits in the tap is copied.
+     * @param b The bytes.
+     * @param off The offset of the first byte.
+     * @param len The number of bytes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized void write( byte[] b, int off, int len )
+    {
+        int skipped = Math.max( 0, len - ring.length );
+        long position = written + skipped;
+        int remaining = len - skipped;
+        int from = off + skipped;
+        
+        while( remaining > 0 )
+        {
+            int at = (int)( position % ring.length );
+            int n = Math.min( remaining, ring.length - at );
+            
+            System.arraycopy( b, from, ring, at, n );
+            position += n;
+            from += n;
+            remaining -= n;
+        }
+        
+        written += len;
+    }
+    
+    /**
+     * This method ends the current frame; the bytes written from now on belong
+     * to the next one.  Nothing is recorded if no bytes were written since the
+     * last frame ended.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized void endFrame()
+    {
+        if( written == currentStart )
+        {
+            return;
+        }
+        
+        int slot = (int)( frames % starts.length );
+        starts[ slot ] = currentStart;
+        ends[ slot ] = written;
+        ++frames;
+        currentStart = written;
+    }
+    
+    /**
+     * This method gives you the frames in the tap, oldest first: the frames
+     * that ended, followed by the frame being read (if any of it has been
+     * read).  A frame that started before the oldest byte in the tap is cut off
+     * at the front (toString() marks those with "...").
+     * @return The frames (at most maxFrames of them).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized byte[][] getFrames()
+    {
+        long[][] bounds = getBounds();
+        byte[][] result = new byte[ bounds.length ][];
+        
+        for( int i=0; i<bounds.length; i++ )
+        {
+            result[ i ] = copy( bounds[ i ][ 0 ], bounds[ i ][ 1 ] );
+        }
+        
+        return result;
+    }
+    
+    /**
+     * This method gives you the bytes of the frame being read (e.g. the
+     * document a parser just failed on), as much of it as is in the tap.
+     * @return The bytes of the current frame (empty if none have been read since
+     * the last frame ended).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized byte[] getCurrentFrame()
+    {
+        return copy( currentStart, written );
+    }
+    
+    /**
+     * This method gives you every byte in the tap (the last capacity bytes
+     * written), regardless of the frames they belong to.
+     * @return The bytes, oldest first.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized byte[] getBytes()
+    {
+        return copy( 0, written );
+    }
+    
+    /**
+     * This method empties the tap.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized void clear()
+    {
+        written = 0;
+        currentStart = 0;
+        frames = 0;
+    }
+    
+    /**
+     * This method gives you the frames in the tap as text (one per line,
+     * numbered from the first frame the tap saw), for logging.  A frame that
+     * was cut off at the front starts with "...".
+     * @return The frames.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized String toString()
+    {
+        StringBuilder text = new StringBuilder();
+        long[][] bounds = getBounds();
+        long oldest = Math.max( 0, written - ring.length );
+        long number = frames - bounds.length + ( written > currentStart ? 1 : 0 );
+        
+        for( int i=0; i<bounds.length; i++ )
+        {
+            long start = bounds[ i ][ 0 ];
+            long end = bounds[ i ][ 1 ];
+            
+            text.append( "[" ).append( number++ ).append( "] " );
+            text.append( end == written && start == currentStart ? "(reading) " : "" );
+            text.append( start < oldest ? "..." : "" );
+            text.append( new String( copy( start, end ), StandardCharsets.UTF_8 ) );
+            text.append( '\n' );
+        }
+        
+        return text.toString();
+    }
+    
+    /**
+     * This method gives you the start and end of each frame that is (at least
+     * partly) in the tap, oldest first.
+     * @return The {start, end} of each frame.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private long[][] getBounds()
+    {
+        long oldest = Math.max( 0, written - ring.length );
+        boolean reading = written > currentStart;
+        int ended = (int)Math.min( frames, starts.length - ( reading ? 1 : 0 ) );
+        long[][] bounds = new long[ ended + ( reading ? 1 : 0 ) ][];
+        int count = 0;
+        
+        for( long frame = frames - ended; frame < frames; frame++ )
+        {
+            int slot = (int)( frame % starts.length );
+            
+            if( ends[ slot ] > oldest )
+            {
+                bounds[ count++ ] = new long[] { starts[ slot ], ends[ slot ] };
+            }
+        }
+        
+        if( reading )
+        {
+            bounds[ count++ ] = new long[] { currentStart, written };
+        }
+        
+        if( count < bounds.length )
+        {
+            long[][] trimmed = new long[ count ][];
+            System.arraycopy( bounds, 0, trimmed, 0, count );
+            bounds = trimmed;
+        }
+        
+        return bounds;
+    }
+    
+    /**
+     * This method copies the bytes between two positions out of the ring
+     * buffer (starting no earlier than the oldest byte still in it).
+     * @param start The position of the first byte.
+     * @param end The position after the last byte.
+     * @return The bytes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private byte[] copy( long start, long end )
+    {
+        long from = Math.max( start, written - ring.length );
+        byte[] bytes = new byte[ (int)Math.max( 0, end - from ) ];
+        int copied = 0;
+        
+        while( copied < bytes.length )
+        {
+            int at = (int)( ( from + copied ) % ring.length );
+            int n = Math.min( bytes.length - copied, ring.length - at );
+            
+            System.arraycopy( ring, at, bytes, copied, n );
+            copied += n;
+        }
+        
+        return bytes;
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * This method tells you how many bytes the tap keeps.
+     * @return The capacity of the tap.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getCapacity()
+    {
+        return ring.length;
+    }
+    
+    /**
+     * This method tells you how many frames the tap keeps.
+     * @return The maximum number of frames.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getMaxFrames()
+    {
+        return starts.length;
+    }
+    
+    /**
+     * This method tells you how many bytes have been written to the tap (since
+     * it was created, or cleared).
+     * @return The number of bytes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized long getByteCount()
+    {
+        return written;
+    }
+    
+    /**
+     * This method tells you how many frames have ended (since the tap was
+     * created, or cleared).
+     * @return The number of frames.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized long getFrameCount()
+    {
+        return frames;
+    }
+}
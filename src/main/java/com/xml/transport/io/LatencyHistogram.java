@@ -0,0 +1,256 @@
+/*
+ * FILE:        LatencyHistogram.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//--------------------------------------------------------------------------
+// CLASS LatencyHistogram
+//--------------------------------------------------------------------------
+/**
+ * This class is a histogram of latencies (in nanoseconds), laid out the way
+ * an HdrHistogram is: every power of two range is split into the same number
+ * of linear buckets, so a recorded value is kept to within 1/64th (about 1.5%)
+ * of itself, whether it is 200ns or 20s, in a fixed amount of memory (about
+ * 16K).  Recording never allocates; values above {@link #MAX_VALUE} are
+ * recorded as MAX_VALUE.
+ * <br/><br/>
+ * A histogram is thread safe, and can be shared by many connections (as
+ * XMLServer.setMetrics() does).  Recording a value is an atomic increment of
+ * its bucket, two LongAdder additions (the count and the total, which do not
+ * contend between threads), and a read of the maximum (which is only written,
+ * with a compare and set, when the value is a new maximum).  The count, mean,
+ * and percentiles read while values are being recorded are approximate (each
+ * of them, and each bucket, is read on its own).
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class LatencyHistogram
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    
+    /** The largest value that is kept exactly (about 68 seconds). */
+    public static final long    MAX_VALUE                       = ( 1L << 36 ) - 1;
+    
+    private static final int    SUB_BUCKET_BITS                 = 6;    // 64 buckets per power of two
+    private static final int    SUB_BUCKET_HALF                 = 1 << SUB_BUCKET_BITS;
+    private static final int    SUB_BUCKET_COUNT                = SUB_BUCKET_HALF * 2;
+    
+    private AtomicLongArray     counts                          = new AtomicLongArray( indexOf( MAX_VALUE ) + 1 );
+    private LongAdder           count                           = new LongAdder();
+    private LongAdder           total                           = new LongAdder();
+    private AtomicLong          max                             = new AtomicLong();
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method records a value.
+     * @param nanos The latency, in nanoseconds (negative values are recorded as 0).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void record( long nanos )
+    {
+        long value = Math.min( Math.max( nanos, 0 ), MAX_VALUE );
+        
+        counts.incrementAndGet( indexOf( value ) );
+        count.increment();
+        total.add( value );
+        
+        long current;
+        while( value > (current = max.get()) && !max.compareAndSet( current, value ) )
+        {
+            // another thread recorded a new maximum; check against it
+        }
+    }
+    
+    /**
+     * This method gives you the value that the provided percentage of the
+     * recorded values are at or below.
+     * @param percentile The percentile (e.g. 99.9).
+     * @return The value at the percentile (in nanoseconds), or 0 if nothing has been recorded.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getValueAtPercentile( double percentile )
+    {
+        long recorded = 0;
+        
+        for( int i=0; i<counts.length(); i++ )
+        {
+            recorded += counts.get( i );
+        }
+        
+        if( recorded == 0 )
+        {
+            return 0;
+        }
+        
+        long rank = Math.max( 1, (long)Math.ceil( Math.min( Math.max( percentile, 0.0 ), 100.0 ) / 100.0 * recorded ) );
+        long seen = 0;
+        
+        for( int i=0; i<counts.length(); i++ )
+        {
+            seen += counts.get( i );
+            if( seen >= rank )
+            {
+                return Math.min( highestValueAt( i ), getMax() );
+            }
+        }
+        
+        return getMax();
+    }
+    
+    /**
+     * This method clears the histogram.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void reset()
+    {
+        for( int i=0; i<counts.length(); i++ )
+        {
+            counts.set( i, 0 );
+        }
+        count.reset();
+        total.reset();
+        max.set( 0 );
+    }
+    
+    /**
+     * This method gives you a summary of the histogram, in microseconds.
+     * @return The count, mean, median, 99th, 99.9th percentile and max.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String toString()
+    {
+        return "count=" + getCount()
+            + " mean=" + micros( (long)getMean() )
+            + "us p50=" + micros( getValueAtPercentile( 50 ) )
+            + "us p99=" + micros( getValueAtPercentile( 99 ) )
+            + "us p99.9=" + micros( getValueAtPercentile( 99.9 ) )
+            + "us max=" + micros( getMax() ) + "us";
+    }
+    
+    /**
+     * This method finds the bucket that a value is counted in.  Values below
+     * 128 each have their own bucket; above that, the top 7 bits of the value
+     * (which always start with a 1) pick one of 64 buckets for its power of two.
+     * @param value The value (between 0 and MAX_VALUE).
+     * @return The index of the bucket.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static int indexOf( long value )
+    {
+        if( value < SUB_BUCKET_COUNT )
+        {
+            return (int)value;
+        }
+        
+        int shift = 63 - Long.numberOfLeadingZeros( value ) - SUB_BUCKET_BITS;
+        
+        return ( shift << SUB_BUCKET_BITS ) + (int)( value >>> shift );
+    }
+    
+    /**
+     * This method gives you the highest value that is counted in a bucket.
+     * @param index The index of the bucket.
+     * @return The highest value of the bucket.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static long highestValueAt( int index )
+    {
+        if( index < SUB_BUCKET_COUNT )
+        {
+            return index;
+        }
+        
+        int shift = ( index >>> SUB_BUCKET_BITS ) - 1;
+        long lowest = (long)( ( index & ( SUB_BUCKET_HALF - 1 ) ) + SUB_BUCKET_HALF ) << shift;
+        
+        return lowest + ( 1L << shift ) - 1;
+    }
+    
+    /**
+     * This method formats nanoseconds as microseconds (to one decimal place).
+     * @param nanos The nanoseconds.
+     * @return The microseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static String micros( long nanos )
+    {
+        return String.valueOf( nanos / 100 / 10.0 );
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * This method tells you how many values have been recorded.
+     * @return The number of values.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getCount()
+    {
+        return count.sum();
+    }
+    
+    /**
+     * This method gives you the mean of the recorded values.
+     * @return The mean (in nanoseconds), or 0 if nothing has been recorded.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public double getMean()
+    {
+        long n = count.sum();
+        
+        return n == 0 ? 0 : (double)total.sum() / n;
+    }
+    
+    /**
+     * This method gives you the largest recorded value.
+     * @return The maximum (in nanoseconds).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getMax()
+    {
+        return max.get();
+    }
+    
+    /**
+     * This method gives you the value at a percentile in the provided unit.
+     * @param percentile The percentile (e.g. 99.9).
+     * @param unit The unit to convert the value to.
+     * @return The value at the percentile.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getValueAtPercentile( double percentile, TimeUnit unit )
+    {
+        return unit.convert( getValueAtPercentile( percentile ), TimeUnit.NANOSECONDS );
+    }
+}
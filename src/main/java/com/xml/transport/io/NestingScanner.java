@@ -0,0 +1,342 @@
+/*
+ * FILE:        NestingScanner.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+//--------------------------------------------------------------------------
+// CLASS NestingScanner
+//--------------------------------------------------------------------------
+/**
+ * This class finds the end of an XML Document by tracking the depth of the
+ * elements, rather than by searching for the end tag of the root node.  This
+ * means the root node name can be reused anywhere inside of the document.
+ * Comments, CDATA sections, processing instructions (including the
+ * &lt;?xml ?&gt; header), declarations and quoted attribute values are skipped
+ * over, so any markup inside of them does not count.  The document ends when
+ * the depth returns to zero.
+ * <br/><br/>
+ * The scanner only keeps a handful of ints of state, so it does not allocate
+ * anything while scanning.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+class NestingScanner
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    private static final int    TEXT                = 0;    // character data (or the prolog)
+    private static final int    MARKUP              = 1;    // just read a '<'
+    private static final int    START_TAG           = 2;
+    private static final int    END_TAG             = 3;
+    private static final int    DOUBLE_QUOTED       = 4;    // attribute value inside a start tag
+    private static final int    SINGLE_QUOTED       = 5;
+    private static final int    BANG                = 6;    // just read "<!"
+    private static final int    COMMENT             = 7;
+    private static final int    CDATA               = 8;
+    private static final int    PROCESSING          = 9;
+    private static final int    DECLARATION         = 10;
+    
+    private static final byte[] CDATA_START         = { '[', 'C', 'D', 'A', 'T', 'A', '[' };
+    
+    private int                 state               = TEXT;
+    private int                 depth               = 0;
+    private int                 count               = 0;
+    private int                 quote               = 0;
+    private boolean             complete            = false;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method scans a block of bytes, stopping as soon as the end of the
+     * document has been found.
+     * @param b The bytes to scan.
+     * @param i The index of the first byte to scan.
+     * @param end The index after the last byte to scan.
+     * @return The index after the last byte that belongs to the document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int scan( byte[] b, int i, int end )
+    {
+        while( i < end && !complete )
+        {
+            // the bulk of a document is text and attribute values; skip through them
+            switch( state )
+            {
+                case TEXT:
+                {
+                    while( i < end && b[ i ] != '<' )
+                    {
+                        ++i;
+                    }
+                }
+                break;
+                
+                case DOUBLE_QUOTED:
+                {
+                    while( i < end && b[ i ] != '"' )
+                    {
+                        ++i;
+                    }
+                }
+                break;
+                
+                case SINGLE_QUOTED:
+                {
+                    while( i < end && b[ i ] != '\'' )
+                    {
+                        ++i;
+                    }
+                }
+                break;
+            }
+            
+            if( i < end )
+            {
+                next( b[ i++ ] & 0xff );
+            }
+        }
+        
+        return i;
+    }
+    
+    /**
+     * This method steps the scanner by one byte.
+     * @param read The Byte that was just read.
+     * @return True if this byte was the end of the document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean next( int read )
+    {
+        switch( state )
+        {
+            case TEXT:
+            {
+                if( read == '<' )
+                {
+                    state = MARKUP;
+                }
+            }
+            break;
+            
+            case MARKUP:
+            {
+                count = 0;
+                
+                if( read == '/' )
+                {
+                    state = END_TAG;
+                }
+                else if( read == '!' )
+                {
+                    state = BANG;
+                }
+                else if( read == '?' )
+                {
+                    state = PROCESSING;
+                }
+                else
+                {
+                    state = START_TAG;
+                }
+            }
+            break;
+            
+            case START_TAG:
+            {
+                if( read == '"' )
+                {
+                    state = DOUBLE_QUOTED;
+                }
+                else if( read == '\'' )
+                {
+                    state = SINGLE_QUOTED;
+                }
+                else if( read == '>' )
+                {
+                    state = TEXT;
+                    
+                    if( count == 0 )
+                    {
+                        ++depth;
+                    }
+                    else if( depth == 0 )
+                    {
+                        complete = true;
+                    }
+                }
+                
+                // count is 1 while the last character was a '/' (an empty element)
+                count = read == '/' ? 1 : 0;
+            }
+            break;
+            
+            case END_TAG:
+            {
+                if( read == '>' )
+                {
+                    state = TEXT;
+                    
+                    if( --depth <= 0 )
+                    {
+                        complete = true;
+                    }
+                }
+            }
+            break;
+            
+            case DOUBLE_QUOTED:
+            case SINGLE_QUOTED:
+            {
+                if( read == ( state == DOUBLE_QUOTED ? '"' : '\'' ) )
+                {
+                    state = START_TAG;
+                }
+            }
+            break;
+            
+            case BANG:
+            {
+                // count is the number of characters matched of "--" or "[CDATA["
+                if( count == 0 && read == '-' )
+                {
+                    count = -1;
+                }
+                else if( count == -1 )
+                {
+                    state = read == '-' ? COMMENT : DECLARATION;
+                    count = 0;
+                }
+                else if( count >= 0 && read == CDATA_START[ count ] )
+                {
+                    if( ++count == CDATA_START.length )
+                    {
+                        state = CDATA;
+                        count = 0;
+                    }
+                }
+                else
+                {
+                    state = DECLARATION;
+                    count = 0;
+                    quote = 0;
+                    next( read );
+                }
+            }
+            break;
+            
+            case COMMENT:
+            case CDATA:
+            {
+                // count is the number of '-' (or ']') characters just read
+                if( read == ( state == COMMENT ? '-' : ']' ) )
+                {
+                    ++count;
+                }
+                else if( read == '>' && count >= 2 )
+                {
+                    state = TEXT;
+                }
+                else
+                {
+                    count = 0;
+                }
+            }
+            break;
+            
+            case PROCESSING:
+            {
+                if( read == '>' && count == 1 )
+                {
+                    state = TEXT;
+                }
+                
+                count = read == '?' ? 1 : 0;
+            }
+            break;
+            
+            case DECLARATION:
+            {
+                // count is the depth of the internal subset (the [...] of a DOCTYPE)
+                if( quote != 0 )
+                {
+                    if( read == quote )
+                    {
+                        quote = 0;
+                    }
+                }
+                else if( read == '"' || read == '\'' )
+                {
+                    quote = read;
+                }
+                else if( read == '[' )
+                {
+                    ++count;
+                }
+                else if( read == ']' )
+                {
+                    --count;
+                }
+                else if( read == '>' && count <= 0 )
+                {
+                    state = TEXT;
+                }
+            }
+            break;
+        }
+        
+        return complete;
+    }
+    
+    /**
+     * This method resets the scanner so that it is ready for the next document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void reset()
+    {
+        state = TEXT;
+        depth = 0;
+        count = 0;
+        quote = 0;
+        complete = false;
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * This method tells you if the end of the document has been found.
+     * @return True if the end of the document has been found.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean isComplete()
+    {
+        return complete;
+    }
+    
+    /**
+     * This method tells you how deeply nested the scanner currently is.
+     * @return The number of elements that have been started, but not ended.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * FILE:        ParallelDocumentReader.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import com.xml.utils.XMLUtils;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+//--------------------------------------------------------------------------
+// CLASS ParallelDocumentReader
+//--------------------------------------------------------------------------
+/**
+ * This class parses the documents of a {@link DocumentArchive} on every core of
+ * a ForkJoinPool, rather than one at a time off of a single stream.  The
+ * documents are split between the workers by their number (the archive knows
+ * where each one is), and are either handed to you as soon as they are parsed
+ * (by whichever worker parsed them), or in the order they are in the archive.
+ * <br/><br/>
+ * In order, the documents are parsed a window at a time (a few batches for each
+ * worker), and the next window is parsed while the one before it is handed to
+ * you, so only a window or two of Documents are held at once.
+ * <br/><br/>
+ * A document that can not be parsed stops the read, with a
+ * {@link DocumentReadException}.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * ForkJoinPool pool = new ForkJoinPool( 8 );
+ * DocumentArchive archive = new DocumentArchive( file, XMLInputStream.FramingModes.FRAMING_ROOT_TAG,
+ *     DocumentArchive.DEFAULT_CHUNK_SIZE, pool );                 // find the documents in parallel too
+ * ParallelDocumentReader reader = new ParallelDocumentReader( archive, pool );
+ * reader.forEachOrdered( doc -&gt; replay( doc ) );                 // in order, on this thread
+ * reader.forEach( doc -&gt; count( doc ) );                         // as they are parsed, on the pool
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class ParallelDocumentReader
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    
+    /** The default number of documents parsed by one task. */
+    public static final int     DEFAULT_BATCH_SIZE              = 16;
+    
+    private DocumentArchive     archive                         = null;
+    private ForkJoinPool        pool                            = null;
+    private int                 batchSize                       = DEFAULT_BATCH_SIZE;
+    
+    /**
+     * Creates a new instance of ParallelDocumentReader that parses on the
+     * common ForkJoinPool.
+     * @param archive The archive to read the documents of.
+     */
+    public ParallelDocumentReader( DocumentArchive archive )
+    {
+        this( archive, ForkJoinPool.commonPool() );
+    }
+    
+    /**
+     * Creates a new instance of ParallelDocumentReader.
+     * @param archive The archive to read the documents of.
+     * @param pool The ForkJoinPool to parse the documents on.
+     */
+    public ParallelDocumentReader( DocumentArchive archive, ForkJoinPool pool )
+    {
+        this( archive, pool, DEFAULT_BATCH_SIZE );
+    }
+    
+    /**
+     * Creates a new instance of ParallelDocumentReader.
+     * @param archive The archive to read the documents of.
+     * @param pool The ForkJoinPool to parse the documents on.
+     * @param batchSize The number of documents a task parses (rather than
+     * splitting them between two tasks).
+     */
+    public ParallelDocumentReader( DocumentArchive archive, ForkJoinPool pool, int batchSize )
+    {
+        if( batchSize <= 0 )
+        {
+            throw new IllegalArgumentException( "batchSize must be positive: " + batchSize );
+        }
+        
+        this.archive = archive;
+        this.pool = pool;
+        this.batchSize = batchSize;
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method parses every document, and hands each one to the action as
+     * soon as it is parsed, in no particular order.  The action is called by
+     * the workers of the pool (at the same time), so it must be thread safe.
+     * This method returns once every document has been handed to it.
+     * @param action What to do with each Document.
+     * @throws DocumentReadException If a document could not be parsed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void forEach( Consumer<? super Document> action )
+    {
+        pool.invoke( new ParseTask( 0, archive.getDocumentCount(), null, 0, action ) );
+    }
+    
+    /**
+     * This method parses every document, and hands them to the action in the
+     * order they are in the archive, on this thread.
+     * @param action What to do with each Document.
+     * @throws DocumentReadException If a document could not be parsed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void forEachOrdered( Consumer<? super Document> action )
+    {
+        int count = archive.getDocumentCount();
+        long window = pool.getParallelism() * 4L * batchSize;
+        ForkJoinTask<Document[]> next = parseWindow( 0, (int)Math.min( window, count ) );
+        
+        for( long from = 0; from < count; from += window )
+        {
+            Document[] docs = next.join();
+            long following = from + window;
+            
+            next = following < count ? parseWindow( (int)following, (int)Math.min( following + window, count ) ) : null;
+            
+            for( int i=0; i<docs.length; i++ )
+            {
+                Document doc = docs[ i ];
+                docs[ i ] = null;
+                action.accept( doc );
+            }
+        }
+    }
+    
+    /**
+     * This method starts parsing a window of documents on the pool.
+     * @param from The number of the first document.
+     * @param to The number after the last document.
+     * @return The task, which gives you the Documents in order.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private ForkJoinTask<Document[]> parseWindow( final int from, final int to )
+    {
+        return pool.submit( new RecursiveTask<Document[]>()
+        {
+            private static final long serialVersionUID = 1L;
+            
+            protected Document[] compute()
+            {
+                Document[] docs = new Document[ to - from ];
+                new ParseTask( from, to, docs, from, null ).invoke();
+                
+                return docs;
+            }
+        } );
+    }
+    
+    /**
+     * This method parses a document.
+     * @param n The number of the document.
+     * @return The Document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private Document parse( int n )
+    {
+        try
+        {
+            return XMLUtils.readDocument( archive.getInputStream( n ) );
+        }
+        catch( ParserConfigurationException | SAXException | IOException ex )
+        {
+            throw new DocumentReadException( ex );
+        }
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * Getter for the archive.
+     * @return The DocumentArchive.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public DocumentArchive getArchive()
+    {
+        return archive;
+    }
+    
+    /**
+     * Getter for the pool the documents are parsed on.
+     * @return The ForkJoinPool.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public ForkJoinPool getPool()
+    {
+        return pool;
+    }
+    
+    /**
+     * Getter for the number of documents a task parses.
+     * @return The batch size.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class parses a range of documents, splitting it in half until it is
+     * no bigger than a batch.  The Documents are either put in an array (at
+     * their number less the offset), or handed to an action.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private class ParseTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private final int                           from;
+        private final int                           to;
+        private final Document[]                    docs;
+        private final int                           offset;
+        private final Consumer<? super Document>    action;
+        
+        public ParseTask( int from, int to, Document[] docs, int offset, Consumer<? super Document> action )
+        {
+            this.from = from;
+            this.to = to;
+            this.docs = docs;
+            this.offset = offset;
+            this.action = action;
+        }
+        
+        protected void compute()
+        {
+            if( to - from > batchSize )
+            {
+                int mid = ( from + to ) >>> 1;
+                invokeAll( new ParseTask( from, mid, docs, offset, action ), new ParseTask( mid, to, docs, offset, action ) );
+                return;
+            }
+            
+            for( int n = from; n < to; n++ )
+            {
+                Document doc = parse( n );
+                
+                if( docs != null )
+                {
+                    docs[ n - offset ] = doc;
+                }
+                else
+                {
+                    action.accept( doc );
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,466 @@
+/*
+ * FILE:        PipelinedDocumentReader.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import com.xml.utils.XMLUtils;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+//--------------------------------------------------------------------------
+// CLASS PipelinedDocumentReader
+//--------------------------------------------------------------------------
+/**
+ * This class splits reading XML Documents into two stages, so that one slow
+ * Document does not stall the whole connection.  A framing thread cuts the raw
+ * bytes of each Document off of the {@link XMLInputStream}, and hands them to a
+ * pool of parser threads.  The parsed Documents are given back in the order
+ * they were read.  At most <code>queueDepth</code> Documents are in flight;
+ * once that many are waiting to be parsed (or to be taken), the framing thread
+ * stops reading from the stream until there is room again.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * PipelinedDocumentReader reader = new PipelinedDocumentReader(new XMLInputStream(in), 4, 64);
+ * reader.start();
+ * Document doc;
+ * while((doc = reader.readDocument()) != null) { handle(doc); }
+ * reader.close();
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class PipelinedDocumentReader
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    private XMLInputStream                  in                  = null;
+    private ExecutorService                 parsers             = null;
+    private boolean                         ownParsers          = false;
+    private BlockingQueue<Future<Document>> queue               = null;
+    private int                             queueDepth          = 0;
+    private Thread                          framer              = null;
+    private volatile boolean                ended               = false;
+    private volatile boolean                closed              = false;
+    
+    private final AtomicLong                framesRead          = new AtomicLong();
+    private final AtomicLong                documentsTaken      = new AtomicLong();
+    private final AtomicLong                framerBlockedNanos  = new AtomicLong();
+    private final AtomicInteger             peakOccupancy       = new AtomicInteger();
+    
+    private static final Future<Document>   END_OF_STREAM       = CompletableFuture.completedFuture( null );
+    
+    /**
+     * Creates a new instance of PipelinedDocumentReader with its own pool of
+     * parser threads.
+     * @param in The XMLInputStream to read the Documents from.
+     * @param poolSize The number of parser threads.
+     * @param queueDepth The maximum number of Documents in flight.
+     */
+    public PipelinedDocumentReader( XMLInputStream in, int poolSize, int queueDepth )
+    {
+        this( in, Executors.newFixedThreadPool( poolSize, new DaemonThreadFactory( "XMLParser" ) ), queueDepth );
+        this.ownParsers = true;
+    }
+    
+    /**
+     * Creates a new instance of PipelinedDocumentReader that parses on the
+     * provided ExecutorService (which you remain responsible for shutting down).
+     * @param in The XMLInputStream to read the Documents from.
+     * @param parsers The ExecutorService to parse the Documents on.
+     * @param queueDepth The maximum number of Documents in flight.
+     */
+    public PipelinedDocumentReader( XMLInputStream in, ExecutorService parsers, int queueDepth )
+    {
+        if( queueDepth <= 0 )
+        {
+            throw new IllegalArgumentException( "queueDepth must be positive: " + queueDepth );
+        }
+        
+        this.in = in;
+        this.parsers = parsers;
+        this.queueDepth = queueDepth;
+        this.queue = new ArrayBlockingQueue<Future<Document>>( queueDepth );
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method starts the framing thread.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized void start()
+    {
+        if( framer != null )
+        {
+            throw new IllegalStateException( "Already started" );
+        }
+        
+        framer = new DaemonThreadFactory( "XMLFramer" ).newThread( new Runnable()
+        {
+            public void run()
+            {
+                frame();
+            }
+        } );
+        framer.start();
+    }
+    
+    /**
+     * This method gives you the next Document, in the order they were read;
+     * waiting for it to be read and parsed if necessary.
+     * @return The next Document, or null if the stream ended cleanly.
+     * @throws ParserConfigurationException
+     * @throws SAXException If the Document was malformed.
+     * @throws IOException If the stream failed, or ended in the middle of a
+     * Document, or the Document could not be handed to the parsers.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Document readDocument() throws ParserConfigurationException, SAXException, IOException
+    {
+        if( ended )
+        {
+            return null;
+        }
+        
+        try
+        {
+            Future<Document> next = queue.take();
+            
+            if( next == END_OF_STREAM || closed )
+            {
+                ended = true;
+                next.cancel( true );
+                return null;
+            }
+            
+            documentsTaken.incrementAndGet();
+            
+            return next.get();
+        }
+        catch( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for a document" );
+        }
+        catch( CancellationException ex )
+        {
+            // close() was called while the Document was being parsed
+            ended = true;
+            return null;
+        }
+        catch( ExecutionException ex )
+        {
+            Throwable cause = ex.getCause();
+            
+            if( cause instanceof IOException )
+            {
+                ended = true;
+                throw (IOException)cause;
+            }
+            if( cause instanceof SAXException )
+            {
+                throw (SAXException)cause;
+            }
+            if( cause instanceof ParserConfigurationException )
+            {
+                throw (ParserConfigurationException)cause;
+            }
+            throw new DocumentReadException( cause );
+        }
+    }
+    
+    /**
+     * This method stops the framing thread, and (if it was created for this
+     * reader) the parser pool.  It does not close the XMLInputStream.  The
+     * Documents in flight are cancelled, and a {@link #readDocument()} that is
+     * waiting (now, or later) returns null.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized void close()
+    {
+        closed = true;
+        
+        if( framer != null )
+        {
+            framer.interrupt();
+        }
+        
+        if( ownParsers )
+        {
+            // the parses that never started would never complete
+            for( Runnable task : parsers.shutdownNow() )
+            {
+                if( task instanceof Future )
+                {
+                    ((Future<?>)task).cancel( false );
+                }
+            }
+        }
+        
+        Future<Document> next;
+        while( (next = queue.poll()) != null )
+        {
+            next.cancel( true );
+        }
+        
+        // wake up a reader that is waiting for the next Document (if the framer
+        // queued one since, the reader takes that instead, and sees it is closed)
+        queue.offer( END_OF_STREAM );
+    }
+    
+    /**
+     * This method is the body of the framing thread; it reads the raw bytes of
+     * each Document, and queues the parsing of it.  A failure to read (or to
+     * hand the Document to the parsers) is queued too, so that it is thrown (in
+     * order) by {@link #readDocument()}.  Unless the reader was closed, the
+     * queue always ends with the end of the stream or a failure, however the
+     * thread stops.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void frame()
+    {
+        boolean terminated = false;
+        
+        try
+        {
+            while( !terminated && !closed )
+            {
+                Future<Document> next;
+                
+                try
+                {
+                    byte[] frame = in.readFrame();
+                    next = frame == null ? END_OF_STREAM : parsers.submit( new ParseTask( frame, in.getMetrics() ) );
+                    terminated = frame == null;
+                }
+                catch( IOException ex )
+                {
+                    next = failed( ex );
+                    terminated = true;
+                }
+                catch( RuntimeException ex )
+                {
+                    // e.g. a shared parser pool was shut down
+                    next = failed( new IOException( "Could not hand the Document to the parsers", ex ) );
+                    terminated = true;
+                }
+                
+                enqueue( next );
+            }
+        }
+        catch( InterruptedException ex )
+        {
+            // close() was called
+        }
+        finally
+        {
+            if( !terminated && !closed )
+            {
+                try
+                {
+                    queue.put( failed( new IOException( "The framing thread stopped" ) ) );
+                }
+                catch( InterruptedException ex )
+                {
+                    // close() was called
+                }
+            }
+        }
+    }
+    
+    /**
+     * This method gives you a (future) Document that failed.
+     * @param cause Why it failed.
+     * @return The failed Future.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static Future<Document> failed( Throwable cause )
+    {
+        CompletableFuture<Document> failed = new CompletableFuture<Document>();
+        failed.completeExceptionally( cause );
+        
+        return failed;
+    }
+    
+    /**
+     * This method puts a Document on the queue, blocking while the queue is full.
+     * @param next The (future) Document.
+     * @throws InterruptedException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void enqueue( Future<Document> next ) throws InterruptedException
+    {
+        if( !queue.offer( next ) )
+        {
+            long start = System.nanoTime();
+            queue.put( next );
+            framerBlockedNanos.addAndGet( System.nanoTime() - start );
+        }
+        
+        if( next != END_OF_STREAM )
+        {
+            framesRead.incrementAndGet();
+        }
+        
+        int occupancy = queue.size();
+        int peak = peakOccupancy.get();
+        while( occupancy > peak && !peakOccupancy.compareAndSet( peak, occupancy ) )
+        {
+            peak = peakOccupancy.get();
+        }
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * This method tells you how many Documents are in flight right now (being
+     * parsed, or waiting to be taken).
+     * @return The current queue occupancy.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getQueueOccupancy()
+    {
+        return queue.size();
+    }
+    
+    /**
+     * This method tells you the most Documents that have been in flight at once.
+     * @return The peak queue occupancy.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getPeakQueueOccupancy()
+    {
+        return peakOccupancy.get();
+    }
+    
+    /**
+     * This method tells you the maximum number of Documents in flight.
+     * @return The queue depth.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getQueueDepth()
+    {
+        return queueDepth;
+    }
+    
+    /**
+     * This method tells you how many Documents have been cut off of the stream.
+     * @return The number of frames read.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getFramesRead()
+    {
+        return framesRead.get();
+    }
+    
+    /**
+     * This method tells you how many Documents have been taken by {@link #readDocument()}.
+     * @return The number of Documents taken.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getDocumentsTaken()
+    {
+        return documentsTaken.get();
+    }
+    
+    /**
+     * This method tells you how long the framing thread has spent waiting for
+     * room in a full queue (i.e. how much backpressure there has been).
+     * @return The time spent blocked, in nanoseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getFramerBlockedNanos()
+    {
+        return framerBlockedNanos.get();
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class parses the raw bytes of a single Document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class ParseTask implements Callable<Document>
+    {
+        private final byte[]            frame;
+        private final TransportMetrics  metrics;
+        
+        public ParseTask( byte[] frame, TransportMetrics metrics )
+        {
+            this.frame = frame;
+            this.metrics = metrics;
+        }
+        
+        public Document call() throws Exception
+        {
+            return XMLUtils.readDocument( frame, metrics );
+        }
+    }
+    
+    /**
+     * This class creates the (daemon) framing and parser threads.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class DaemonThreadFactory implements ThreadFactory
+    {
+        private final String        name;
+        private final AtomicInteger count       = new AtomicInteger();
+        
+        public DaemonThreadFactory( String name )
+        {
+            this.name = name;
+        }
+        
+        public Thread newThread( Runnable r )
+        {
+            Thread t = new Thread( r, name + "-" + count.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * FILE:        TransportListener.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+//--------------------------------------------------------------------------
+// INTERFACE TransportListener
+//--------------------------------------------------------------------------
+/**
+ * This interface is implemented to be told about every document that the
+ * streams sharing a {@link TransportMetrics} read (e.g. to feed another
+ * metrics library).  It is called on the thread that read (or parsed) the
+ * document, so it should return quickly.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public interface TransportListener
+{
+    /**
+     * This method is called when a stream has read a whole document.
+     * @param length The number of bytes of the document.
+     * @param waitNanos The time spent waiting for the underlying InputStream.
+     * @param framingNanos The time spent finding the end of the document (and
+     * copying its bytes), not counting the wait.
+     */
+    public void frameRead( int length, long waitNanos, long framingNanos );
+    
+    /**
+     * This method is called when a document has been parsed.
+     * @param parseNanos The time spent parsing the document, not counting the
+     * time spent reading it.
+     */
+    public void documentParsed( long parseNanos );
+}
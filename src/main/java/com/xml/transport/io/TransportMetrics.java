@@ -0,0 +1,409 @@
+/*
+ * FILE:        TransportMetrics.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+//--------------------------------------------------------------------------
+// CLASS TransportMetrics
+//--------------------------------------------------------------------------
+/**
+ * This class collects where the time goes when documents are read: how many
+ * documents (and bytes) were read, and a {@link LatencyHistogram} for each of
+ * the three stages of reading a document:
+ * <ul>
+ *     <li><b>wait</b>: blocked on the underlying InputStream (e.g. the socket),</li>
+ *     <li><b>framing</b>: finding the end of the document in the bytes that
+ *     were read (see XMLInputStream.scan()), and copying them,</li>
+ *     <li><b>parse</b>: building the DOM out of the bytes (not counting the
+ *     time spent reading them).</li>
+ * </ul>
+ * A slow consumer that mostly waits is starved by its peer; one that mostly
+ * frames or parses is the bottleneck itself.
+ * <br/><br/>
+ * Metrics are off unless you give them to a stream (the stream then checks a
+ * single field that is null otherwise).  One instance may be shared by any
+ * number of streams, and can be registered with JMX, or handed to a
+ * {@link TransportListener}.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * TransportMetrics metrics = new TransportMetrics();
+ * metrics.register( "orders" );                    // com.xml.transport:type=TransportMetrics,name="orders"
+ * server.setMetrics( metrics );                    // or xmlInputStream.setMetrics( metrics );
+ * ...
+ * System.out.println( metrics );
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class TransportMetrics implements TransportMetricsMBean
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    
+    /** The JMX domain that metrics are registered in. */
+    public static final String      DOMAIN                      = "com.xml.transport";
+    
+    private LongAdder               frames                      = new LongAdder();
+    private LongAdder               bytes                       = new LongAdder();
+    private LatencyHistogram        wait                        = new LatencyHistogram();
+    private LatencyHistogram        framing                     = new LatencyHistogram();
+    private LatencyHistogram        parse                       = new LatencyHistogram();
+    private volatile long           startNanos                  = System.nanoTime();
+    private List<TransportListener> listeners                   = new CopyOnWriteArrayList<TransportListener>();
+    private ObjectName              objectName                  = null;
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method records a document that a stream has read.
+     * @param length The number of bytes of the document.
+     * @param waitNanos The time spent waiting for the underlying InputStream.
+     * @param framingNanos The time spent finding the end of the document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void frameRead( int length, long waitNanos, long framingNanos )
+    {
+        frames.increment();
+        bytes.add( length );
+        wait.record( waitNanos );
+        framing.record( framingNanos );
+        
+        for( TransportListener listener : listeners )
+        {
+            listener.frameRead( length, waitNanos, framingNanos );
+        }
+    }
+    
+    /**
+     * This method records a document that has been parsed.
+     * @param parseNanos The time spent parsing the document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void documentParsed( long parseNanos )
+    {
+        parse.record( parseNanos );
+        
+        for( TransportListener listener : listeners )
+        {
+            listener.documentParsed( parseNanos );
+        }
+    }
+    
+    /**
+     * This method adds a listener that is told about every document recorded.
+     * @param listener The listener.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void addListener( TransportListener listener )
+    {
+        listeners.add( listener );
+    }
+    
+    /**
+     * This method removes a listener.
+     * @param listener The listener.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void removeListener( TransportListener listener )
+    {
+        listeners.remove( listener );
+    }
+    
+    /**
+     * This method registers these metrics with the platform MBeanServer, as
+     * <code>com.xml.transport:type=TransportMetrics,name="&lt;name&gt;"</code>.
+     * @param name The name to register under (e.g. the name of the service).
+     * @return The ObjectName they were registered as.
+     * @throws JMException If the name is taken (or JMX refused them).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized ObjectName register( String name ) throws JMException
+    {
+        if( objectName != null )
+        {
+            throw new IllegalStateException( "Already registered as " + objectName );
+        }
+        
+        ObjectName registered = new ObjectName( DOMAIN + ":type=TransportMetrics,name=" + ObjectName.quote( name ) );
+        ManagementFactory.getPlatformMBeanServer().registerMBean( this, registered );
+        objectName = registered;
+        
+        return registered;
+    }
+    
+    /**
+     * This method unregisters these metrics from the platform MBeanServer (if
+     * they were registered).
+     * @throws JMException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public synchronized void unregister() throws JMException
+    {
+        if( objectName != null )
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            
+            if( server.isRegistered( objectName ) )
+            {
+                server.unregisterMBean( objectName );
+            }
+            objectName = null;
+        }
+    }
+    
+    /**
+     * This method clears all of the counters and histograms.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void reset()
+    {
+        frames.reset();
+        bytes.reset();
+        wait.reset();
+        framing.reset();
+        parse.reset();
+        startNanos = System.nanoTime();
+    }
+    
+    /**
+     * This method gives you a summary of the metrics.
+     * @return The counters, and a line for each stage.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String toString()
+    {
+        return "frames=" + getFrameCount() + " bytes=" + getByteCount()
+            + " frames/s=" + Math.round( getFramesPerSecond() )
+            + "\n  wait:    " + wait
+            + "\n  framing: " + framing
+            + "\n  parse:   " + parse;
+    }
+    
+    /**
+     * This method converts nanoseconds to microseconds.
+     * @param nanos The nanoseconds.
+     * @return The microseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static double micros( long nanos )
+    {
+        return nanos / 1000.0;
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * Getter for the number of documents read.
+     * @return The frame count.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getFrameCount()
+    {
+        return frames.sum();
+    }
+    
+    /**
+     * Getter for the number of bytes of the documents read.
+     * @return The byte count.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getByteCount()
+    {
+        return bytes.sum();
+    }
+    
+    /**
+     * Getter for the mean size of a document.
+     * @return The mean frame size, in bytes (0 before the first document).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public double getMeanFrameSize()
+    {
+        long n = frames.sum();
+        
+        return n == 0 ? 0 : (double)bytes.sum() / n;
+    }
+    
+    /**
+     * Getter for the number of documents read per second, since the metrics
+     * were created (or reset).
+     * @return The frame rate.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public double getFramesPerSecond()
+    {
+        long elapsed = System.nanoTime() - startNanos;
+        
+        return elapsed <= 0 ? 0 : frames.sum() * 1e9 / elapsed;
+    }
+    
+    /**
+     * Getter for the number of documents parsed.
+     * @return The parse count.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getParseCount()
+    {
+        return parse.getCount();
+    }
+    
+    /**
+     * Getter for the median time spent waiting for the bytes of a document.
+     * @return The median wait, in microseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public double getWaitMedianMicros()
+    {
+        return micros( wait.getValueAtPercentile( 50 ) );
+    }
+    
+    /**
+     * Getter for the 99th percentile of the time spent waiting for the bytes
+     * of a document.
+     * @return The 99th percentile wait, in microseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public double getWait99thMicros()
+    {
+        return micros( wait.getValueAtPercentile( 99 ) );
+    }
+    
+    /**
+     * Getter for the median time spent finding the end of a document.
+     * @return The median framing time, in microseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public double getFramingMedianMicros()
+    {
+        return micros( framing.getValueAtPercentile( 50 ) );
+    }
+    
+    /**
+     * Getter for the 99th percentile of the time spent finding the end of a
+     * document.
+     * @return The 99th percentile framing time, in microseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public double getFraming99thMicros()
+    {
+        return micros( framing.getValueAtPercentile( 99 ) );
+    }
+    
+    /**
+     * Getter for the longest time spent finding the end of a document.
+     * @return The longest framing time, in microseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public double getFramingMaxMicros()
+    {
+        return micros( framing.getMax() );
+    }
+    
+    /**
+     * Getter for the median time spent parsing a document.
+     * @return The median parse time, in microseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public double getParseMedianMicros()
+    {
+        return micros( parse.getValueAtPercentile( 50 ) );
+    }
+    
+    /**
+     * Getter for the 99th percentile of the time spent parsing a document.
+     * @return The 99th percentile parse time, in microseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public double getParse99thMicros()
+    {
+        return micros( parse.getValueAtPercentile( 99 ) );
+    }
+    
+    /**
+     * Getter for the longest time spent parsing a document.
+     * @return The longest parse time, in microseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public double getParseMaxMicros()
+    {
+        return micros( parse.getMax() );
+    }
+    
+    /**
+     * Getter for the histogram of the time spent waiting for the underlying
+     * InputStream, per document.
+     * @return The wait LatencyHistogram.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public LatencyHistogram getWaitHistogram()
+    {
+        return wait;
+    }
+    
+    /**
+     * Getter for the histogram of the time spent finding the end of each document.
+     * @return The framing LatencyHistogram.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public LatencyHistogram getFramingHistogram()
+    {
+        return framing;
+    }
+    
+    /**
+     * Getter for the histogram of the time spent parsing each document.
+     * @return The parse LatencyHistogram.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public LatencyHistogram getParseHistogram()
+    {
+        return parse;
+    }
+}
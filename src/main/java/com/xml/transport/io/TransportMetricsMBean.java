@@ -0,0 +1,68 @@
+/*
+ * FILE:        TransportMetricsMBean.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+//--------------------------------------------------------------------------
+// INTERFACE TransportMetricsMBean
+//--------------------------------------------------------------------------
+/**
+ * This interface is what JMX sees of a {@link TransportMetrics} (see
+ * {@link TransportMetrics#register(String)}).  Latencies are in microseconds.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public interface TransportMetricsMBean
+{
+    /** @return The number of documents read. */
+    public long getFrameCount();
+    
+    /** @return The number of bytes of the documents read. */
+    public long getByteCount();
+    
+    /** @return The mean size of a document, in bytes. */
+    public double getMeanFrameSize();
+    
+    /** @return The number of documents read per second, since the metrics were created (or reset). */
+    public double getFramesPerSecond();
+    
+    /** @return The number of documents parsed. */
+    public long getParseCount();
+    
+    /** @return The median time spent waiting for the bytes of a document. */
+    public double getWaitMedianMicros();
+    
+    /** @return The 99th percentile of the time spent waiting for the bytes of a document. */
+    public double getWait99thMicros();
+    
+    /** @return The median time spent finding the end of a document. */
+    public double getFramingMedianMicros();
+    
+    /** @return The 99th percentile of the time spent finding the end of a document. */
+    public double getFraming99thMicros();
+    
+    /** @return The longest time spent finding the end of a document. */
+    public double getFramingMaxMicros();
+    
+    /** @return The median time spent parsing a document. */
+    public double getParseMedianMicros();
+    
+    /** @return The 99th percentile of the time spent parsing a document. */
+    public double getParse99thMicros();
+    
+    /** @return The longest time spent parsing a document. */
+    public double getParseMaxMicros();
+    
+    /**
+     * This method clears all of the counters and histograms.
+     */
+    public void reset();
+}
@@ -0,0 +1,337 @@
+/*
+ * FILE:        XMLFrameDecoder.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+//--------------------------------------------------------------------------
+// CLASS XMLFrameDecoder
+//--------------------------------------------------------------------------
+/**
+ * This class is the non-blocking counterpart of the {@link XMLInputStream}.
+ * Instead of pulling bytes from an InputStream, you push whatever bytes you
+ * have (e.g. a partial read from a non-blocking SocketChannel) into it, and it
+ * hands you the raw bytes of each XML Document as soon as the Document is
+ * complete.  The end of each Document is found by exactly the same state
+ * machine (and framing modes) as the XMLInputStream uses.  Since a decoder
+ * never blocks, a single Selector thread can serve as many connections as you
+ * like; just keep one decoder per connection.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * XMLFrameDecoder decoder = (XMLFrameDecoder)key.attachment();
+ * if(channel.read(buffer) == -1) { ... }
+ * buffer.flip();
+ * decoder.decode(buffer, frame -&gt; handle(frame));  // handle the bytes of each complete Document.
+ * buffer.clear();
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XMLFrameDecoder
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    private XMLInputStream      scanner                         = new XMLInputStream( new ByteArrayInputStream( new byte[0] ) );
+    private int                 framingMode                     = XMLInputStream.FramingModes.FRAMING_ROOT_TAG;
+    private byte[]              buffer                          = null;
+    private int                 start                           = 0;    // the first byte of the current Document.
+    private int                 scanned                         = 0;    // the first byte that has not been scanned.
+    private int                 length                          = 0;    // the byte after the last byte buffered.
+    private int                 frameLength                     = FRAME_UNKNOWN;
+    private int                 maxFrameSize                    = Integer.MAX_VALUE;
+    
+    /** The default initial size of the buffer for a Document. */
+    public static final int     DEFAULT_BUFFER_SIZE             = 8192;
+    
+    private static final int    FRAME_NONE                      = -1;   // the document is found by scanning.
+    private static final int    FRAME_UNKNOWN                   = -2;   // the document has not started yet.
+    
+    /**
+     * Creates a new instance of XMLFrameDecoder.
+     */
+    public XMLFrameDecoder()
+    {
+        this( DEFAULT_BUFFER_SIZE );
+    }
+    
+    /**
+     * Creates a new instance of XMLFrameDecoder.
+     * @param bufferSize The initial size of the buffer for a Document (it grows as needed).
+     */
+    public XMLFrameDecoder( int bufferSize )
+    {
+        if( bufferSize <= 0 )
+        {
+            throw new IllegalArgumentException( "bufferSize must be positive: " + bufferSize );
+        }
+        
+        buffer = new byte[ bufferSize ];
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method consumes all of the remaining bytes of the provided buffer, and
+     * hands the bytes of every Document that they complete to the consumer.  The
+     * bytes of an incomplete Document are kept until the rest of it arrives.
+     * @param src The bytes that were just read.
+     * @param frames The consumer of the bytes of each complete Document.
+     * @return The number of Documents completed.
+     * @throws IOException If a Document is bigger than the maximum frame size,
+     * or a frame header is invalid.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int decode( ByteBuffer src, Consumer<byte[]> frames ) throws IOException
+    {
+        int count = 0;
+        
+        while( src.hasRemaining() )
+        {
+            int n = Math.min( src.remaining(), makeRoom() );
+            src.get( buffer, length, n );
+            length += n;
+            
+            count += drain( frames );
+        }
+        
+        return count;
+    }
+    
+    /**
+     * This method hands every complete Document in the buffer to the consumer.
+     * @param frames The consumer of the bytes of each complete Document.
+     * @return The number of Documents completed.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int drain( Consumer<byte[]> frames ) throws IOException
+    {
+        int count = 0;
+        
+        while( scanned < length )
+        {
+            if( frameLength == FRAME_UNKNOWN && !beginFrame() )
+            {
+                break;
+            }
+            
+            if( frameLength >= 0 )
+            {
+                if( length - start < XMLInputStream.FRAME_HEADER_LENGTH + frameLength )
+                {
+                    scanned = length;
+                    break;
+                }
+                
+                scanned = start + XMLInputStream.FRAME_HEADER_LENGTH + frameLength;
+                frames.accept( Arrays.copyOfRange( buffer, start + XMLInputStream.FRAME_HEADER_LENGTH, scanned ) );
+            }
+            else
+            {
+                scanned += scanner.scan( buffer, scanned, length - scanned );
+                
+                if( !scanner.isClosed() )
+                {
+                    break;
+                }
+                
+                frames.accept( Arrays.copyOfRange( buffer, start, scanned ) );
+            }
+            
+            start = scanned;
+            frameLength = FRAME_UNKNOWN;
+            scanner.reset();
+            ++count;
+        }
+        
+        return count;
+    }
+    
+    /**
+     * This method works out how the Document that starts at the front of the
+     * buffer is framed; in the length prefixed framing mode this reads its header.
+     * @return False if there aren't enough bytes buffered yet.
+     * @throws IOException If the frame header is invalid.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private boolean beginFrame() throws IOException
+    {
+        if( framingMode != XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED
+                || buffer[ start ] != XMLInputStream.FRAME_MARKER )
+        {
+            frameLength = FRAME_NONE;
+            return true;
+        }
+        
+        if( length - start < XMLInputStream.FRAME_HEADER_LENGTH )
+        {
+            return false;
+        }
+        
+        int header = 0;
+        for( int i=1; i<XMLInputStream.FRAME_HEADER_LENGTH; i++ )
+        {
+            header = ( header << 8 ) | ( buffer[ start + i ] & 0xff );
+        }
+        
+        if( header < 0 || header > maxFrameSize )
+        {
+            throw new IOException( "Invalid frame length: " + header );
+        }
+        
+        frameLength = header;
+        
+        return true;
+    }
+    
+    /**
+     * This method makes room at the end of the buffer; first by moving the current
+     * Document to the front of the buffer, then by growing the buffer.
+     * @return The number of bytes that can be added to the buffer.
+     * @throws IOException If the current Document is bigger than the maximum frame size.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int makeRoom() throws IOException
+    {
+        if( length == buffer.length )
+        {
+            // a length prefixed Document is buffered along with its header
+            long limit = maxFrameSize;
+            if( framingMode == XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED )
+            {
+                limit = Math.min( limit + XMLInputStream.FRAME_HEADER_LENGTH, Integer.MAX_VALUE );
+            }
+            
+            if( start > 0 )
+            {
+                System.arraycopy( buffer, start, buffer, 0, length - start );
+                scanned -= start;
+                length -= start;
+                start = 0;
+            }
+            else if( length >= limit )
+            {
+                throw new IOException( "Document is bigger than the maximum frame size of " + maxFrameSize + " bytes" );
+            }
+            else
+            {
+                buffer = Arrays.copyOf( buffer, (int)Math.min( (long)buffer.length * 2, limit ) );
+            }
+        }
+        
+        return buffer.length - length;
+    }
+    
+    /**
+     * This method tells you if part of a Document has been buffered; i.e. if the
+     * connection were to end now, a Document would be truncated.  Whitespace
+     * between Documents does not count.
+     * @return True if part of a Document has been buffered.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean hasPartialFrame()
+    {
+        for( int i=start; i<length; i++ )
+        {
+            if( !Character.isWhitespace( (char)( buffer[i] & 0xff ) ) )
+            {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * This method throws away any partial Document, so that the decoder is ready
+     * to be used for a new connection.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void reset()
+    {
+        start = 0;
+        scanned = 0;
+        length = 0;
+        frameLength = FRAME_UNKNOWN;
+        scanner.reset();
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * This method tells you how the end of each Document is found.
+     * @return One of the {@link XMLInputStream.FramingModes}.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getFramingMode()
+    {
+        return framingMode;
+    }
+    
+    /**
+     * This method sets how the end of each Document is found (see
+     * {@link XMLInputStream#setFramingMode(int)}).
+     * @param framingMode One of the {@link XMLInputStream.FramingModes}.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void setFramingMode( int framingMode )
+    {
+        scanner.setFramingMode( framingMode );
+        this.framingMode = framingMode;
+    }
+    
+    /**
+     * This method tells you the biggest Document that will be buffered.
+     * @return The maximum frame size in bytes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getMaxFrameSize()
+    {
+        return maxFrameSize;
+    }
+    
+    /**
+     * This method sets the biggest Document that will be buffered, so that a
+     * misbehaving peer can not make the decoder buffer without limit.
+     * @param maxFrameSize The maximum frame size in bytes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void setMaxFrameSize( int maxFrameSize )
+    {
+        if( maxFrameSize <= 0 )
+        {
+            throw new IllegalArgumentException( "maxFrameSize must be positive: " + maxFrameSize );
+        }
+        
+        this.maxFrameSize = maxFrameSize;
+    }
+}
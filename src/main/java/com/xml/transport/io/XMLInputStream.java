@@ -11,8 +11,11 @@
 
 package com.xml.transport.io;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 //--------------------------------------------------------------------------
 // CLASS XMLInputStream
@@ -28,6 +31,18 @@ import java.io.InputStream;
  * <strong>The following document is valid:</strong><br/>
  * &lt;xml&gt;&lt;data&gt;blah&lt;/data&gt;&lt;/xml&gt;
  * <br/><br/>
+ * If you do need to reuse the root node name, switch to the (slightly more
+ * expensive) nesting aware framing mode with
+ * <code>setFramingMode( FramingModes.FRAMING_NESTED )</code>; it tracks the depth
+ * of the elements instead of searching for the root end tag.
+ * <br/><br/>
+ * If the sender knows the size of each document, it can write it with
+ * <code>XMLUtils.writeFramedDocument()</code> instead, and the reader can use
+ * <code>setFramingMode( FramingModes.FRAMING_LENGTH_PREFIXED )</code>; the
+ * document is then read by its length without being scanned at all.  Documents
+ * written without a frame header are still found by scanning, so peers that
+ * don't frame their documents keep working.
+ * <br/><br/>
  * <b>Sample Usage</b>:<br/>
  * <pre>
  * XMLInputStream xin = new XMLInputStream(in);     // in is a regular InputStream (of any type).
@@ -35,6 +50,10 @@ import java.io.InputStream;
  * xin.reset();                                     // now Reset the XML InputStream - we can now read again...
  * Document doc2 = XMLUtils.readDocument(xin);      // Read another XML Document.
  * </pre>
+ * Or let a {@link DocumentSpliterator} do the reading (and resetting) for you:<br/>
+ * <pre>
+ * Iterator&lt;Document&gt; docs = DocumentSpliterator.iterator(new XMLInputStream(in));
+ * </pre>
  *
  * @version 0.1.5
  * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
@@ -50,18 +69,76 @@ public class XMLInputStream extends InputStream
     private ParserState         state                           = new ParserState();
     private int                 index                           = 0;
     private String              rootTag                         = null;
-    private String              buffer                          = null;
+    private StringBuilder       rootTagBuffer                   = new StringBuilder();
+    private SearchPattern       endTag                          = null;
+    private int                 framingMode                     = FramingModes.FRAMING_ROOT_TAG;
+    private NestingScanner      nestingScanner                  = null;
+    private int                 frameRemaining                  = FRAME_NONE;
+    private FrameTap            tap                             = null;     // null unless the bytes read are tapped
+    private byte[]              readAhead                       = null;
+    private int                 readPos                         = 0;
+    private int                 readCount                       = 0;
+    private long                fetched                         = 0;        // bytes taken from the underlying InputStream
+    private byte[]              transfer                        = null;     // to fill direct frames
+    private TransportMetrics    metrics                         = null;     // null unless metrics are on
+    private long                frameBytes                      = 0;        // of the current document, while metrics are on
+    private long                waitNanos                       = 0;
+    private long                framingNanos                    = 0;
     
     private static final String HEADER_START    = "<?xml";
     private static final String HEADER_END      = "?>";
     
+    private static final SearchPattern  HEADER_START_PATTERN    = new SearchPattern( HEADER_START );
+    private static final SearchPattern  HEADER_END_PATTERN      = new SearchPattern( HEADER_END );
+    private static final SearchPattern  ROOT_START_PATTERN      = new SearchPattern( "<" );
+    
+    /**
+     * The default number of bytes kept for {@link #debug()}.
+     * @deprecated Use {@link FrameTap#DEFAULT_CAPACITY}.
+     */
+    @Deprecated
+    public static final int     DEFAULT_MAX_BUFFER_SIZE         = FrameTap.DEFAULT_CAPACITY;
+    
+    /** The default number of bytes requested from the underlying InputStream at a time. */
+    public static final int     DEFAULT_READ_AHEAD_SIZE         = 8192;
+    
+    /**
+     * The first byte of a length prefixed frame.  A NUL can not appear anywhere in
+     * an XML Document, so it can not be mistaken for the start of an unframed one.
+     */
+    public static final int     FRAME_MARKER                    = 0x00;
+    
+    /** The size of a frame header: the marker and a 4 byte (big endian) payload length. */
+    public static final int     FRAME_HEADER_LENGTH             = 5;
+    
+    private static final int    INITIAL_BUFFER_SIZE             = 256;
+    private static final int    FRAME_NONE                      = -1;   // the document is found by scanning.
+    private static final int    FRAME_UNKNOWN                   = -2;   // the frame header has not been read yet.
+    
     /**
      * Creates a new instance of XMLInputStream.
      * @param in The InpuStream to initialize this class with.
      */
     public XMLInputStream( InputStream in )
     {
+        this( in, DEFAULT_READ_AHEAD_SIZE );
+    }
+    
+    /**
+     * Creates a new instance of XMLInputStream that requests (up to) the provided
+     * number of bytes from the underlying InputStream at a time.
+     * @param in The InpuStream to initialize this class with.
+     * @param readAheadSize The size of the block read from the InputStream.
+     */
+    public XMLInputStream( InputStream in, int readAheadSize )
+    {
+        if( readAheadSize <= 0 )
+        {
+            throw new IllegalArgumentException( "readAheadSize must be positive: " + readAheadSize );
+        }
+        
         this.in = in;
+        this.readAhead = new byte[ readAheadSize ];
     }
     
     /**
@@ -76,43 +153,525 @@ public class XMLInputStream extends InputStream
     public int read() throws IOException
     {
         int read = -1;
-        char cRead = '\0';
         
         if( isReadingXML() )
         {
-            if( !isClosed() )
+            if( !isClosed() && frameRemaining == FRAME_UNKNOWN && !beginFrame() )
             {
-                if( buffer == null )
+                return -1;
+            }
+            
+            if( isClosed() )
+            {
+                read = -1;
+            }
+            else if( frameRemaining > 0 )
+            {
+                if( readPos >= readCount && fill() == -1 )
                 {
-                    buffer = new String();
+                    throw new EOFException( "End of stream with " + frameRemaining + " bytes of the frame left" );
                 }
-                read = in.read();
+                read = readAhead[ readPos++ ] & 0xff;
                 
-                cRead = (char)read;
+                if( tap != null )
+                {
+                    tap.write( read );
+                }
+                if( --frameRemaining == 0 )
+                {
+                    close();
+                }
+            }
+            else if( readPos < readCount || fill() != -1 )
+            {
+                read = readAhead[ readPos++ ] & 0xff;
                 
-                buffer += "" + cRead;
+                if( tap != null )
+                {
+                    tap.write( read );
+                }
                 processRead( read );
             }
+            
+            if( metrics != null && read != -1 )
+            {
+                ++frameBytes;
+            }
         }
-        else
+        else if( readPos < readCount )
         {
-            read = in.read();
+            read = readAhead[ readPos++ ] & 0xff;
+        }
+        else if( (read = in.read()) != -1 )
+        {
+            ++fetched;
         }
         
         return read;
     }
     
     /**
-     * This method is used to debug the InputStream.  This will System.out.println all of the
-     * output of the buffer.
+     * This method reads a block of bytes.  A block is taken from the underlying
+     * InputStream, scanned for the end of the current document in one pass, and
+     * the bytes up to (and including) the end of the document are returned.
+     * Any bytes beyond the end of the document are kept for the next document.
+     * @param b The buffer to read into.
+     * @param off The offset in the buffer to start writing at.
+     * @param len The maximum number of bytes to read.
+     * @return The number of bytes read, or -1 if the document (or the stream) has ended.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int read( byte[] b, int off, int len ) throws IOException
+    {
+        if( metrics == null || !isReadingXML() )
+        {
+            return readBlock( b, off, len );
+        }
+        
+        long start = System.nanoTime();
+        long waited = waitNanos;
+        int n = readBlock( b, off, len );
+        
+        framingNanos += System.nanoTime() - start - ( waitNanos - waited );
+        if( n > 0 )
+        {
+            frameBytes += n;
+        }
+        
+        return n;
+    }
+    
+    /**
+     * This method does the work of {@link #read(byte[], int, int)}; it is
+     * separate so that it can be timed when metrics are on.
+     * @param b The buffer to read into.
+     * @param off The offset in the buffer to start writing at.
+     * @param len The maximum number of bytes to read.
+     * @return The number of bytes read, or -1 if the document (or the stream) has ended.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int readBlock( byte[] b, int off, int len ) throws IOException
+    {
+        if( off < 0 || len < 0 || len > b.length - off )
+        {
+            throw new IndexOutOfBoundsException();
+        }
+        
+        if( len == 0 )
+        {
+            return 0;
+        }
+        
+        if( !isReadingXML() )
+        {
+            if( readPos >= readCount )
+            {
+                int n = in.read( b, off, len );
+                
+                fetched += Math.max( n, 0 );
+                
+                return n;
+            }
+            
+            int n = Math.min( len, readCount - readPos );
+            System.arraycopy( readAhead, readPos, b, off, n );
+            readPos += n;
+            
+            return n;
+        }
+        
+        if( !isClosed() && frameRemaining == FRAME_UNKNOWN && !beginFrame() )
+        {
+            return -1;
+        }
+        
+        if( !isClosed() && frameRemaining > 0 )
+        {
+            return readFrame( b, off, len );
+        }
+        
+        if( isClosed() || ( readPos >= readCount && fill() == -1 ) )
+        {
+            return -1;
+        }
+        
+        int n = scan( readAhead, readPos, Math.min( len, readCount - readPos ) );
+        System.arraycopy( readAhead, readPos, b, off, n );
+        if( tap != null )
+        {
+            tap.write( readAhead, readPos, n );
+        }
+        readPos += n;
+        
+        return n;
+    }
+    
+    /**
+     * This method reads the raw bytes of the next XML Document, and resets this
+     * stream so that it is ready for the one after it.
+     * @return The bytes of the next XML Document, or null if the stream ended
+     * cleanly (nothing but whitespace was left) before another Document started.
+     * @throws EOFException If the stream ended in the middle of a Document.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public byte[] readFrame() throws IOException
+    {
+        byte[] frame = new byte[ INITIAL_BUFFER_SIZE ];
+        int length = 0;
+        int n;
+        
+        while( (n = read( frame, length, frame.length - length )) != -1 )
+        {
+            length += n;
+            if( length == frame.length )
+            {
+                frame = Arrays.copyOf( frame, length * 2 );
+            }
+        }
+        
+        boolean complete = isClosed();
+        reset();
+        
+        if( !complete )
+        {
+            for( int i=0; i<length; i++ )
+            {
+                if( !Character.isWhitespace( (char)( frame[i] & 0xff ) ) )
+                {
+                    throw new EOFException( "End of stream in the middle of a document (" + length + " bytes read)" );
+                }
+            }
+            
+            return null;
+        }
+        
+        return Arrays.copyOf( frame, length );
+    }
+    
+    /**
+     * This method reads the raw bytes of the next XML Document into a buffer
+     * from the provided pool, and resets this stream so that it is ready for
+     * the one after it.  Nothing is allocated for the document (unless it is
+     * bigger than the pooled buffers), and the frame can be parsed, kept or
+     * forwarded; release() it when you are done with it.
+     * @param pool The pool to take the buffer from.
+     * @return The Frame of the next XML Document, or null if the stream ended
+     * cleanly (nothing but whitespace was left) before another Document started.
+     * @throws EOFException If the stream ended in the middle of a Document.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Frame readFrame( FramePool pool ) throws IOException
+    {
+        Frame frame = pool.acquire();
+        boolean complete = false;
+        
+        try
+        {
+            int n;
+            
+            do
+            {
+                ByteBuffer buffer = frame.getWritableBuffer();
+                
+                if( !buffer.hasRemaining() )
+                {
+                    pool.grow( frame );
+                    buffer = frame.getWritableBuffer();
+                }
+                
+                if( buffer.hasArray() )
+                {
+                    n = read( buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining() );
+                    if( n > 0 )
+                    {
+                        buffer.position( buffer.position() + n );
+                    }
+                }
+                else
+                {
+                    // a direct buffer is filled from the scanned read ahead bytes
+                    if( transfer == null )
+                    {
+                        transfer = new byte[ readAhead.length ];
+                    }
+                    n = read( transfer, 0, Math.min( transfer.length, buffer.remaining() ) );
+                    if( n > 0 )
+                    {
+                        buffer.put( transfer, 0, n );
+                    }
+                }
+            }
+            while( n != -1 );
+            
+            complete = isClosed();
+            reset();
+            
+            ByteBuffer buffer = frame.getWritableBuffer();
+            buffer.flip();
+            
+            if( !complete )
+            {
+                for( int i=0; i<buffer.limit(); i++ )
+                {
+                    if( !Character.isWhitespace( (char)( buffer.get( i ) & 0xff ) ) )
+                    {
+                        throw new EOFException( "End of stream in the middle of a document (" + buffer.limit() + " bytes read)" );
+                    }
+                }
+            }
+        }
+        finally
+        {
+            if( !complete )
+            {
+                frame.release();
+            }
+        }
+        
+        return complete ? frame : null;
+    }
+    
+    /**
+     * This method reads the frame header at the start of a document (in the length
+     * prefixed framing mode).  If the document does not start with the frame marker
+     * it was sent by a peer that does not frame its documents, and it will be
+     * found by scanning instead.
+     * @return False if the stream ended before the document started.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private boolean beginFrame() throws IOException
+    {
+        if( readPos >= readCount && fill() == -1 )
+        {
+            return false;
+        }
+        
+        frameRemaining = FRAME_NONE;
+        
+        if( readAhead[ readPos ] != FRAME_MARKER )
+        {
+            return true;
+        }
+        ++readPos;
+        
+        int length = 0;
+        for( int i=1; i<FRAME_HEADER_LENGTH; i++ )
+        {
+            if( readPos >= readCount && fill() == -1 )
+            {
+                throw new EOFException( "End of stream inside of a frame header" );
+            }
+            length = ( length << 8 ) | ( readAhead[ readPos++ ] & 0xff );
+        }
+        
+        if( length < 0 )
+        {
+            throw new IOException( "Invalid frame length: " + length );
+        }
+        
+        frameRemaining = length;
+        if( length == 0 )
+        {
+            close();
+        }
+        
+        return true;
+    }
+    
+    /**
+     * This method reads the payload of a length prefixed frame.  Nothing needs
+     * to be scanned; once the read ahead buffer is empty, bytes are read straight
+     * from the underlying InputStream into the provided buffer.
+     * @param b The buffer to read into.
+     * @param off The offset in the buffer to start writing at.
+     * @param len The maximum number of bytes to read.
+     * @return The number of bytes read.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int readFrame( byte[] b, int off, int len ) throws IOException
+    {
+        int n = Math.min( len, frameRemaining );
+        
+        if( readPos < readCount )
+        {
+            n = Math.min( n, readCount - readPos );
+            System.arraycopy( readAhead, readPos, b, off, n );
+            readPos += n;
+        }
+        else
+        {
+            long start = metrics == null ? 0 : System.nanoTime();
+            
+            n = in.read( b, off, n );
+            if( metrics != null )
+            {
+                waitNanos += System.nanoTime() - start;
+            }
+            if( n == -1 )
+            {
+                throw new EOFException( "End of stream with " + frameRemaining + " bytes of the frame left" );
+            }
+            fetched += n;
+        }
+        
+        if( tap != null )
+        {
+            tap.write( b, off, n );
+        }
+        frameRemaining -= n;
+        if( frameRemaining == 0 )
+        {
+            close();
+        }
+        
+        return n;
+    }
+    
+    /**
+     * This method refills the read ahead buffer from the underlying InputStream.
+     * It is only called once every buffered byte has been consumed.
+     * @return The number of bytes read, or -1 at the end of the stream.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int fill() throws IOException
+    {
+        long start = metrics == null ? 0 : System.nanoTime();
+        int n;
+        
+        do
+        {
+            n = in.read( readAhead, 0, readAhead.length );
+        }
+        while( n == 0 );
+        
+        if( metrics != null )
+        {
+            waitNanos += System.nanoTime() - start;
+        }
+        
+        readPos = 0;
+        readCount = Math.max( n, 0 );
+        fetched += readCount;
+        
+        return n;
+    }
+    
+    /**
+     * This method processes a block of bytes, stopping as soon as the end of the
+     * current document has been found.
+     * @param b The bytes to process.
+     * @param off The offset of the first byte.
+     * @param len The number of bytes to process.
+     * @return The number of bytes that belong to the current document.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    protected int scan( byte[] b, int off, int len ) throws IOException
+    {
+        int i = off;
+        int end = off + len;
+        
+        if( framingMode == FramingModes.FRAMING_NESTED )
+        {
+            i = nestingScanner.scan( b, i, end );
+            if( nestingScanner.isComplete() )
+            {
+                close();
+            }
+            
+            return i - off;
+        }
+        
+        while( i < end && !isClosed() )
+        {
+            if( state.getState() == ParserStateTypes.MODE_FIND_DOC_END )
+            {
+                i = scanDocEnd( b, i, end );
+            }
+            else
+            {
+                processRead( b[ i++ ] & 0xff );
+            }
+        }
+        
+        return i - off;
+    }
+    
+    /**
+     * This method is the block equivalent of {@link #processRead(int)} for the
+     * MODE_FIND_DOC_END state; it is where nearly all of the bytes of a document
+     * are scanned, so bytes are skipped up to the next '&lt;' while nothing has
+     * been matched and the end tag automaton is only stepped from there.
+     * @param b The bytes to scan.
+     * @param i The index of the first byte to scan.
+     * @param end The index after the last byte to scan.
+     * @return The index after the last byte consumed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int scanDocEnd( byte[] b, int i, int end )
+    {
+        SearchPattern pattern = endTag;
+        int length = pattern.length();
+        int matched = index;
+        
+        while( i < end )
+        {
+            if( matched == 0 )
+            {
+                while( i < end && b[ i ] != '<' )
+                {
+                    ++i;
+                }
+                
+                if( i == end )
+                {
+                    break;
+                }
+            }
+            
+            matched = pattern.next( matched, b[ i++ ] & 0xff );
+            
+            if( matched == length )
+            {
+                nextMode();
+                return i;
+            }
+        }
+        
+        index = matched;
+        
+        return i;
+    }
+    
+    /**
+     * This method is used to debug the InputStream.  This will System.out.println
+     * the frames in the {@link FrameTap} (the last documents read, including the
+     * one being read); nothing is kept unless the stream has a tap (see
+     * {@link #setFrameTap(FrameTap)}).
      *
      * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
      */
     public void debug()
     {
-        if( buffer != null )
+        if( tap != null )
         {
-            System.out.println( "Read: " + buffer );
+            System.out.println( "Read: " + tap );
         }
     }
     
@@ -125,7 +684,14 @@ public class XMLInputStream extends InputStream
      */
     protected void processRead( int read ) throws IOException
     {
-        String working = getSearchString();
+        if( framingMode == FramingModes.FRAMING_NESTED )
+        {
+            if( nestingScanner.next( read ) )
+            {
+                close();
+            }
+            return;
+        }
         
         switch( state.getState() )
         {
@@ -146,34 +712,33 @@ public class XMLInputStream extends InputStream
             case ParserStateTypes.MODE_FIND_DOC_ROOT_START:
             case ParserStateTypes.MODE_FIND_DOC_END:
             {
-                if( working.charAt( index ) == (char)read )
-                {
-                    ++index;
-                    if( index == working.length() )
-                    {
-                        nextMode();
-                    }
-                }
-                else
+                SearchPattern pattern = getSearchPattern();
+                
+                index = pattern.next( index, read );
+                if( index == pattern.length() )
                 {
-                    index = 0;
+                    nextMode();
                 }
             }
             break;
             
             case ParserStateTypes.MODE_FIND_DOC_ROOT_TAG:
             {
-                if( rootTag == null )
-                {
-                    rootTag = new String();
-                }
-                
                 if( (char)read != '>' )
                 {
-                    rootTag += "" + (char)read;
+                    rootTagBuffer.append( (char)read );
                 }
-                else if( rootTag.trim().charAt( rootTag.length() - 1 ) != '/' )
+                else if( !rootTagBuffer.toString().trim().endsWith( "/" ) )
                 {
+                    // only the element name (not its attributes) appears in the end tag
+                    int nameEnd = 0;
+                    while( nameEnd < rootTagBuffer.length() && !Character.isWhitespace( rootTagBuffer.charAt( nameEnd ) ) )
+                    {
+                        ++nameEnd;
+                    }
+                    rootTag = rootTagBuffer.substring( 0, nameEnd );
+                    endTag = new SearchPattern( "</" + rootTag + ">" );
+                    
                     nextMode();
                 }
                 else
@@ -186,6 +751,31 @@ public class XMLInputStream extends InputStream
         
     }
     
+    /**
+     * This method gives you the precomputed pattern for the current search
+     * string (see {@link #getSearchString()}).
+     * @return The current search pattern.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private SearchPattern getSearchPattern()
+    {
+        switch(state.getState())
+        {
+            case ParserStateTypes.MODE_FIND_HEADER_START:
+                return HEADER_START_PATTERN;
+            
+            case ParserStateTypes.MODE_FIND_HEADER_END:
+                return HEADER_END_PATTERN;
+            
+            case ParserStateTypes.MODE_FIND_DOC_ROOT_START:
+                return ROOT_START_PATTERN;
+            
+            default:
+                return endTag;
+        }
+    }
+    
     /**
      * This method is responsible for moving to the next mode.
      *
@@ -273,17 +863,101 @@ public class XMLInputStream extends InputStream
     }
     
     /**
-     * This method rests everything; and gets ready for reading again.
+     * This method tells you how many bytes can be read without blocking.  While
+     * reading XML this is 0 once the current document has been read; otherwise
+     * the bytes already read ahead from the underlying InputStream are reported
+     * (the next read may return fewer if the document ends before them).
+     * @return The number of bytes that can be read without blocking.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int available() throws IOException
+    {
+        if( isReadingXML() && isClosed() )
+        {
+            return 0;
+        }
+        
+        int buffered = readCount - readPos;
+        
+        return buffered > 0 ? buffered : in.available();
+    }
+    
+    /**
+     * This method pushes bytes back onto the front of this stream; they will be
+     * the next bytes read (and scanned) before anything else.  This is useful
+     * if you have read past the end of whatever you were expecting.
+     * @param b The bytes to push back.
+     * @param off The offset of the first byte to push back.
+     * @param len The number of bytes to push back.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void unread( byte[] b, int off, int len )
+    {
+        if( off < 0 || len < 0 || len > b.length - off )
+        {
+            throw new IndexOutOfBoundsException();
+        }
+        
+        if( len > readPos )
+        {
+            int buffered = readCount - readPos;
+            byte[] grown = readAhead;
+            
+            if( len + buffered > readAhead.length )
+            {
+                grown = new byte[ len + buffered ];
+            }
+            
+            System.arraycopy( readAhead, readPos, grown, len, buffered );
+            readAhead = grown;
+            readPos = len;
+            readCount = len + buffered;
+        }
+        
+        readPos -= len;
+        System.arraycopy( b, off, readAhead, readPos, len );
+    }
+    
+    /**
+     * This method rests everything; and gets ready for reading again.  Any bytes
+     * that were read from the underlying InputStream beyond the end of the last
+     * document are kept, and are the first bytes of the next document.  When
+     * metrics are on, this is where a document that was read to its end is
+     * recorded.
      *
      * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
      */
     public void reset()
     {
+        if( metrics != null && closed )
+        {
+            metrics.frameRead( (int)frameBytes, waitNanos, framingNanos );
+        }
+        frameBytes = 0;
+        waitNanos = 0;
+        framingNanos = 0;
+        
         closed = false;
         state.setState(ParserStateTypes.MODE_FIND_HEADER_START);
         index = 0;
         rootTag = null;
-        buffer = null;
+        rootTagBuffer.setLength( 0 );
+        endTag = null;
+        
+        if( tap != null )
+        {
+            tap.endFrame();
+        }
+        
+        if( nestingScanner != null )
+        {
+            nestingScanner.reset();
+        }
+        
+        frameRemaining = framingMode == FramingModes.FRAMING_LENGTH_PREFIXED ? FRAME_UNKNOWN : FRAME_NONE;
     }
     
     //==========================================================================
@@ -327,7 +1001,109 @@ public class XMLInputStream extends InputStream
     }
     
     /**
-     * Getter for the InputStream.
+     * This method tells you how the end of each document is found.
+     * @return One of the {@link FramingModes}.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getFramingMode()
+    {
+        return framingMode;
+    }
+    
+    /**
+     * This method sets how the end of each document is found.  This should be
+     * set before a document is read (or right after a reset).
+     * @param framingMode One of the {@link FramingModes}.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void setFramingMode(int framingMode)
+    {
+        switch( framingMode )
+        {
+            case FramingModes.FRAMING_ROOT_TAG:
+            case FramingModes.FRAMING_LENGTH_PREFIXED:
+            break;
+            
+            case FramingModes.FRAMING_NESTED:
+            {
+                if( nestingScanner == null )
+                {
+                    nestingScanner = new NestingScanner();
+                }
+            }
+            break;
+            
+            default:
+                throw new IllegalArgumentException( "Unknown framing mode: " + framingMode );
+        }
+        
+        this.framingMode = framingMode;
+        frameRemaining = framingMode == FramingModes.FRAMING_LENGTH_PREFIXED ? FRAME_UNKNOWN : FRAME_NONE;
+    }
+    
+    /**
+     * This method tells you how many bytes are kept for {@link #debug()}.
+     * @return The capacity of the FrameTap, or 0 if there is none.
+     * @deprecated Use {@link #getFrameTap()}.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Deprecated
+    public int getMaxBufferSize()
+    {
+        return tap == null ? 0 : tap.getCapacity();
+    }
+    
+    /**
+     * This method sets how many bytes are kept for {@link #debug()}, by giving
+     * the stream a FrameTap of that capacity.  A size of 0 removes the tap.
+     * @param maxBufferSize The number of bytes to keep.
+     * @deprecated Use {@link #setFrameTap(FrameTap)}.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @Deprecated
+    public void setMaxBufferSize(int maxBufferSize)
+    {
+        if( maxBufferSize < 0 )
+        {
+            throw new IllegalArgumentException( "maxBufferSize must not be negative: " + maxBufferSize );
+        }
+        
+        setFrameTap( maxBufferSize == 0 ? null : new FrameTap( maxBufferSize, FrameTap.DEFAULT_MAX_FRAMES ) );
+    }
+    
+    /**
+     * Getter for the tap that keeps the last bytes (and documents) read.
+     * @return The FrameTap, or null if the bytes read are not kept.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public FrameTap getFrameTap()
+    {
+        return tap;
+    }
+    
+    /**
+     * Setter for the tap that keeps the last bytes (and documents) read, for
+     * post mortem analysis.  Every byte of every document read is copied into
+     * it, and the tap is told where each document ends when the stream is
+     * reset.  With null (the default) nothing is kept at all.
+     * @param tap The FrameTap, or null to stop tapping.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void setFrameTap( FrameTap tap )
+    {
+        this.tap = tap;
+    }
+    
+    /**
+     * Getter for the InputStream.  Note that reading from it directly skips any
+     * bytes that have already been read ahead; use {@link #available()} to see
+     * if there are any.
      * @return The InputStream object.
      *
      * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
@@ -336,11 +1112,77 @@ public class XMLInputStream extends InputStream
     {
         return in;
     }
-   
+    
+    /**
+     * This method tells you how far into the underlying InputStream this stream
+     * is: the number of bytes taken from it, less the bytes read ahead that have
+     * not been read yet (including any that were pushed back with unread()).
+     * Right after a document has been read, this is the offset of its end.
+     * @return The position, in bytes from the start of the underlying InputStream.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getPosition()
+    {
+        return fetched - ( readCount - readPos );
+    }
+    
+    /**
+     * Getter for the metrics that the documents read are recorded in.
+     * @return The TransportMetrics, or null if metrics are off.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public TransportMetrics getMetrics()
+    {
+        return metrics;
+    }
+    
+    /**
+     * Setter for the metrics that the documents read are recorded in (the same
+     * metrics may be shared by many streams).  A document is recorded when the
+     * stream is reset after it; the time spent waiting for the underlying
+     * InputStream is kept apart from the time spent scanning for the end of the
+     * document.  Only block reads are timed (which is how parsers read), bytes
+     * read one at a time are only counted.  With null (the default) nothing is
+     * measured at all.
+     * @param metrics The TransportMetrics, or null to switch metrics off.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void setMetrics( TransportMetrics metrics )
+    {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * This method tells you how long this stream has waited for the underlying
+     * InputStream while reading the current document (only while metrics are on).
+     * @return The wait, in nanoseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getWaitNanos()
+    {
+        return waitNanos;
+    }
+    
+    /**
+     * This method tells you how long this stream has spent finding the end of
+     * the current document, not counting the wait (only while metrics are on).
+     * @return The framing time, in nanoseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getFramingNanos()
+    {
+        return framingNanos;
+    }
+    
     //==========================================================================
     //  Inner Class(es)
     //==========================================================================
-
+    
     public class ParserState
     {
         private int state = XMLInputStream.ParserStateTypes.MODE_FIND_HEADER_START;
@@ -348,17 +1190,17 @@ public class XMLInputStream extends InputStream
         //==========================================================================
         //  GETTER(S) & SETTER(S)
         //==========================================================================
-
+        
         public int getState()
         {
             return state;
         }
-
+        
         public void setState(int state)
         {
             this.state = state;
         }
-
+        
         private void nextState()
         {
             ++state;
@@ -367,6 +1209,81 @@ public class XMLInputStream extends InputStream
         
     }
     
+    /**
+     * This class holds a search string as bytes, along with its (Knuth-Morris-Pratt)
+     * failure table, so that it can be matched one byte at a time without
+     * allocating anything and without missing overlapping partial matches.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class SearchPattern
+    {
+        private final byte[]    bytes;
+        private final int[]     failure;
+        
+        /**
+         * Creates the pattern for the provided search string; every character is
+         * taken to be a single byte, just as every byte read is taken to be a character.
+         * @param search The search string.
+         */
+        public SearchPattern( String search )
+        {
+            bytes = new byte[ search.length() ];
+            for( int i=0; i<bytes.length; i++ )
+            {
+                bytes[i] = (byte)search.charAt( i );
+            }
+            
+            failure = new int[ bytes.length ];
+            for( int i=1, k=0; i<bytes.length; i++ )
+            {
+                while( k > 0 && bytes[i] != bytes[k] )
+                {
+                    k = failure[ k - 1 ];
+                }
+                if( bytes[i] == bytes[k] )
+                {
+                    ++k;
+                }
+                failure[i] = k;
+            }
+        }
+        
+        /**
+         * This method steps the matcher by one byte.
+         * @param matched The number of bytes of the pattern matched so far.
+         * @param read The Byte that was just read.
+         * @return The number of bytes of the pattern matched including this byte.
+         */
+        public int next( int matched, int read )
+        {
+            while( matched > 0 && ( bytes[ matched ] & 0xff ) != read )
+            {
+                matched = failure[ matched - 1 ];
+            }
+            
+            if( ( bytes[ matched ] & 0xff ) == read )
+            {
+                ++matched;
+            }
+            
+            return matched;
+        }
+        
+        public int length()
+        {
+            return bytes.length;
+        }
+    }
+    
+    public interface FramingModes
+    {
+        // The ways the end of a document can be found.
+        public final int    FRAMING_ROOT_TAG                = 0;    //search for the end tag of the root node (the default).
+        public final int    FRAMING_NESTED                  = 1;    //track the element depth; the root node name may be reused.
+        public final int    FRAMING_LENGTH_PREFIXED         = 2;    //read the length from a frame header; unframed documents fall back to FRAMING_ROOT_TAG.
+    }
+    
     public interface ParserStateTypes
     {
         // The different states that the reader can be in.
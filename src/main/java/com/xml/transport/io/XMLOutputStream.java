@@ -0,0 +1,650 @@
+/*
+ * FILE:        XMLOutputStream.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.transport.io;
+
+import com.xml.utils.XMLUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.w3c.dom.Document;
+
+//--------------------------------------------------------------------------
+// CLASS XMLOutputStream
+//--------------------------------------------------------------------------
+/**
+ * This class is the counterpart of the {@link XMLInputStream}; it writes
+ * multiple XML Documents to a single I/O Stream.  Rather than writing (and
+ * flushing) each Document on its own, the Documents are serialized into a
+ * batch buffer that is reused, and the whole batch is written to the stream
+ * at once.  A batch is written as soon as it holds the batch size worth of
+ * bytes, or once the first Document in it has waited for the maximum latency;
+ * so you can trade throughput (bigger batches) against latency.
+ * <br/><br/>
+ * The stream is guarded by a ReentrantLock rather than by its monitor, so a
+ * virtual thread that blocks writing a batch to a slow peer does not pin its
+ * carrier thread (and stall the other connections of an XMLServer).
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * XMLOutputStream xout = new XMLOutputStream(out); // out is a regular OutputStream (of any type).
+ * xout.writeDocument(doc);                         // Queue an XML Document.
+ * xout.writeDocument(doc2);                        // Queue another XML Document.
+ * xout.flush();                                    // Write everything that is queued right now.
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XMLOutputStream extends OutputStream
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    private OutputStream        out                             = null;
+    private BatchBuffer         batch                           = null;
+    private Transformer         transformer                     = null;
+    private boolean             framed                          = false;
+    private int                 batchSize                       = DEFAULT_BATCH_SIZE;
+    private long                maxLatency                      = DEFAULT_MAX_LATENCY;
+    private long                generation                      = 0;
+    private boolean             flushScheduled                  = false;
+    private IOException         flushException                  = null;
+    private boolean             closed                          = false;
+    private final ReentrantLock lock                            = new ReentrantLock();
+    
+    private static ScheduledExecutorService scheduler          = null;
+    private static ExecutorService          flusher            = null;
+    
+    /** The default number of bytes that are batched before they are written. */
+    public static final int     DEFAULT_BATCH_SIZE              = 8192;
+    
+    /** The default number of milliseconds a Document can wait in a batch. */
+    public static final long    DEFAULT_MAX_LATENCY             = 1;
+    
+    /**
+     * Creates a new instance of XMLOutputStream.
+     * @param out The OutputStream to write the Documents to.
+     */
+    public XMLOutputStream( OutputStream out )
+    {
+        this( out, DEFAULT_BATCH_SIZE, DEFAULT_MAX_LATENCY );
+    }
+    
+    /**
+     * Creates a new instance of XMLOutputStream with the provided thresholds.
+     * @param out The OutputStream to write the Documents to.
+     * @param batchSize The number of bytes that are batched before they are written.
+     * @param maxLatency The number of milliseconds a Document can wait in a batch;
+     * 0 writes every Document as soon as it has been serialized.
+     */
+    public XMLOutputStream( OutputStream out, int batchSize, long maxLatency )
+    {
+        this.out = out;
+        setBatchSize( batchSize );
+        setMaxLatency( maxLatency );
+        this.batch = new BatchBuffer( batchSize );
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method serializes the provided XML Document into the current batch.
+     * If the Document can not be serialized, nothing of it is written.
+     * @param doc The XML Document to write.
+     * @throws IOException If an earlier (timed) write of a batch failed.
+     * @throws TransformerException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void writeDocument( Document doc ) throws IOException, TransformerException
+    {
+        lock.lock();
+        try
+        {
+            checkOpen();
+            
+            int start = batch.size();
+            
+            try
+            {
+                if( framed )
+                {
+                    XMLUtils.writeFrameHeader( 0, batch );
+                }
+                
+                getTransformer().transform( new DOMSource( doc ), new StreamResult( batch ) );
+            }
+            catch( TransformerException ex )
+            {
+                batch.truncate( start );
+                throw ex;
+            }
+            
+            if( framed )
+            {
+                batch.setFrameLength( start, batch.size() - start - XMLInputStream.FRAME_HEADER_LENGTH );
+            }
+            
+            written();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method adds the raw bytes of a Frame (e.g. one that was just read
+     * from another connection) to the current batch, so a document can be
+     * forwarded without being parsed or serialized again.  The frame is not
+     * released.
+     * @param frame The Frame to write.
+     * @throws IOException If an earlier (timed) write of a batch failed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void writeFrame( Frame frame ) throws IOException
+    {
+        lock.lock();
+        try
+        {
+            checkOpen();
+            
+            if( framed )
+            {
+                XMLUtils.writeFrameHeader( frame.getLength(), batch );
+            }
+            
+            frame.writeTo( batch );
+            written();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method adds a single (raw) byte to the current batch.
+     * @param b The byte to write.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void write( int b ) throws IOException
+    {
+        lock.lock();
+        try
+        {
+            checkOpen();
+            batch.write( b );
+            written();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method adds (raw) bytes to the current batch.
+     * @param b The bytes to write.
+     * @param off The offset of the first byte.
+     * @param len The number of bytes to write.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void write( byte[] b, int off, int len ) throws IOException
+    {
+        lock.lock();
+        try
+        {
+            checkOpen();
+            batch.write( b, off, len );
+            written();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method writes the current batch (if there is one), and flushes the
+     * underlying OutputStream.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void flush() throws IOException
+    {
+        lock.lock();
+        try
+        {
+            checkOpen();
+            writeBatch();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method writes the current batch, then closes the underlying OutputStream.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void close() throws IOException
+    {
+        lock.lock();
+        try
+        {
+            if( !closed )
+            {
+                try
+                {
+                    flush();
+                }
+                finally
+                {
+                    closed = true;
+                    out.close();
+                }
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method is called after anything was added to the batch; it writes the
+     * batch if it is full, otherwise it makes sure that it will be written once
+     * the maximum latency is up.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void written() throws IOException
+    {
+        if( batch.size() >= batchSize || maxLatency <= 0 )
+        {
+            writeBatch();
+        }
+        else if( !flushScheduled )
+        {
+            flushScheduled = true;
+            
+            // the timer only hands the write over, so a peer that is not reading
+            // can not hold up the timed writes of the other streams
+            final long scheduled = generation;
+            final Runnable flush = new Runnable()
+            {
+                public void run()
+                {
+                    timedFlush( scheduled );
+                }
+            };
+            getScheduler().schedule( new Runnable()
+            {
+                public void run()
+                {
+                    getFlusher().execute( flush );
+                }
+            }, maxLatency, TimeUnit.MILLISECONDS );
+        }
+    }
+    
+    /**
+     * This method writes the batch that was pending when the flush was scheduled,
+     * unless it has been written already.  As there is no one to throw to, a
+     * failure is kept and thrown by the next call on this stream.
+     * @param scheduled The generation of the batch that the flush was scheduled for.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void timedFlush( long scheduled )
+    {
+        lock.lock();
+        try
+        {
+            if( scheduled == generation && !closed )
+            {
+                try
+                {
+                    writeBatch();
+                }
+                catch( IOException ex )
+                {
+                    flushException = ex;
+                }
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method writes the current batch to the underlying OutputStream with
+     * a single write, and flushes it.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void writeBatch() throws IOException
+    {
+        ++generation;
+        flushScheduled = false;
+        
+        try
+        {
+            if( batch.size() > 0 )
+            {
+                batch.writeTo( out );
+            }
+            out.flush();
+        }
+        finally
+        {
+            batch.reset();
+        }
+    }
+    
+    /**
+     * This method makes sure this stream has not been closed, and that no timed
+     * write of a batch has failed.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void checkOpen() throws IOException
+    {
+        if( closed )
+        {
+            throw new IOException( "Stream closed" );
+        }
+        
+        if( flushException != null )
+        {
+            IOException ex = flushException;
+            flushException = null;
+            throw ex;
+        }
+    }
+    
+    /**
+     * This method gives you the Transformer for this stream (creating it if necessary).
+     * @return The Transformer object.
+     * @throws TransformerConfigurationException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private Transformer getTransformer() throws TransformerConfigurationException
+    {
+        if( transformer == null )
+        {
+            transformer = XMLUtils.getNewTransformer();
+        }
+        
+        return transformer;
+    }
+    
+    /**
+     * This method gives you the scheduler for the timed writes of all of the
+     * streams (creating it if necessary).  It never writes itself; see
+     * {@link #getFlusher()}.
+     * @return The ScheduledExecutorService object.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static synchronized ScheduledExecutorService getScheduler()
+    {
+        if( scheduler == null )
+        {
+            scheduler = new ScheduledThreadPoolExecutor( 1, new DaemonThreadFactory( "XMLOutputStream-timer" ) );
+        }
+        
+        return scheduler;
+    }
+    
+    /**
+     * This method gives you the pool the timed writes are done on (creating it
+     * if necessary).  A write that blocks (e.g. on a full socket buffer) only
+     * holds up the thread it is on; there are as many threads as there are
+     * writes in progress, and idle ones go away.
+     * @return The ExecutorService object.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static synchronized ExecutorService getFlusher()
+    {
+        if( flusher == null )
+        {
+            flusher = Executors.newCachedThreadPool( new DaemonThreadFactory( "XMLOutputStream-flush" ) );
+        }
+        
+        return flusher;
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * This method tells you if each Document is preceded by a frame header.
+     * @return True if the Documents are length prefixed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean isFramed()
+    {
+        lock.lock();
+        try
+        {
+            return framed;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method sets whether each Document is preceded by a frame header (see
+     * <code>XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED</code>).  Only turn
+     * this on if the reader is using that framing mode.
+     * @param framed True to length prefix the Documents.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void setFramed( boolean framed )
+    {
+        lock.lock();
+        try
+        {
+            this.framed = framed;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method tells you how many bytes are batched before they are written.
+     * @return The batch size.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getBatchSize()
+    {
+        lock.lock();
+        try
+        {
+            return batchSize;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method sets how many bytes are batched before they are written.
+     * @param batchSize The batch size.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void setBatchSize( int batchSize )
+    {
+        lock.lock();
+        try
+        {
+            if( batchSize <= 0 )
+            {
+                throw new IllegalArgumentException( "batchSize must be positive: " + batchSize );
+            }
+            
+            this.batchSize = batchSize;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method tells you how long a Document can wait in a batch.
+     * @return The maximum latency (in milliseconds).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public long getMaxLatency()
+    {
+        lock.lock();
+        try
+        {
+            return maxLatency;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * This method sets how long a Document can wait in a batch; 0 writes every
+     * Document as soon as it has been serialized.
+     * @param maxLatency The maximum latency (in milliseconds).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void setMaxLatency( long maxLatency )
+    {
+        lock.lock();
+        try
+        {
+            if( maxLatency < 0 )
+            {
+                throw new IllegalArgumentException( "maxLatency must not be negative: " + maxLatency );
+            }
+            
+            this.maxLatency = maxLatency;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Getter for the OutputStream.
+     * @return The OutputStream object.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public OutputStream getOutputStream()
+    {
+        return out;
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class is the (reused) buffer that a batch is serialized into.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class BatchBuffer extends ByteArrayOutputStream
+    {
+        public BatchBuffer( int size )
+        {
+            super( size );
+        }
+        
+        public void truncate( int size )
+        {
+            count = size;
+        }
+        
+        public void setFrameLength( int start, int length )
+        {
+            buf[ start + 1 ] = (byte)( length >>> 24 );
+            buf[ start + 2 ] = (byte)( length >>> 16 );
+            buf[ start + 3 ] = (byte)( length >>> 8 );
+            buf[ start + 4 ] = (byte)length;
+        }
+    }
+    
+    /**
+     * This class creates the (daemon) threads of the timed writes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class DaemonThreadFactory implements ThreadFactory
+    {
+        private final String    name;
+        
+        public DaemonThreadFactory( String name )
+        {
+            this.name = name;
+        }
+        
+        public Thread newThread( Runnable r )
+        {
+            Thread t = new Thread( r, name );
+            t.setDaemon( true );
+            return t;
+        }
+    }
+}
@@ -0,0 +1,1337 @@
+/*
+ * FILE:        CompactDocument.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.utils;
+
+import com.xml.transport.io.XMLInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.xml.sax.SAXException;
+
+//--------------------------------------------------------------------------
+// CLASS CompactDocument
+//--------------------------------------------------------------------------
+/**
+ * This class is a compact, read only, alternative to an org.w3c.dom Document,
+ * for the small and flat messages that are usually sent over the transport.
+ * <br/><br/>
+ * There is no object per node: an element is an int (its index in document
+ * order, the root element being 0), and everything about it is kept in
+ * arrays of ints.  Element and attribute names are interned as ids, the
+ * children of each element are indexed in an array (so the i-th child is
+ * found in constant time), and text and attribute values are kept as offsets
+ * into the original bytes of the frame; they are only turned into Strings (and
+ * have their entities and CDATA sections decoded) when you ask for them.
+ * <br/><br/>
+ * The parser reads the bytes of a frame directly (as UTF-8), and checks that
+ * the elements are properly nested, but it does not validate, does not expand
+ * entities other than the predefined and character ones, and ignores DOCTYPE
+ * declarations.  Comments and processing instructions are skipped.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * CompactDocument doc = CompactDocument.read(xmlInputStream);
+ * int header = XMLUtils.getChildNode(doc, doc.getRoot(), "header");
+ * String type = doc.getAttribute(header, "type");
+ * String to = XPathUtils.getString(doc, "/msg/header/to");
+ * </pre>
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class CompactDocument
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    
+    /** The value returned when there is no such element (or name). */
+    public static final int     NONE                    = -1;
+    
+    private byte[]              frame                   = null;
+    
+    // elements, in document order
+    private int                 elementCount            = 0;
+    private int[]               elementName             = null;     // name id
+    private int[]               elementParent           = null;
+    private int[]               elementOffset           = null;     // offset of the '<' of the start tag
+    private int[]               elementAttributes       = null;     // index of the first attribute (elementCount + 1 entries)
+    private int[]               elementFirstText        = null;     // first text segment, or NONE
+    private int[]               elementChildren         = null;     // index into children (elementCount + 1 entries)
+    private int[]               children                = null;     // the children of each element, grouped by parent
+    
+    // attributes, grouped by element
+    private int                 attributeCount          = 0;
+    private int[]               attributeName           = null;
+    private int[]               attributeStart          = null;
+    private int[]               attributeEnd            = null;
+    
+    // text segments (character data and CDATA sections between two other pieces of markup)
+    private int                 textCount               = 0;
+    private int[]               textStart               = null;
+    private int[]               textEnd                 = null;
+    private int[]               textNext                = null;     // the next segment of the same element, or NONE
+    private int[]               textOwner               = null;     // the element the segment is in
+    
+    // names
+    private int                 nameCount               = 0;
+    private int[]               nameOffset              = null;
+    private int[]               nameLength              = null;
+    private int[]               nameTable               = null;     // open addressing hash table of name ids + 1
+    private String[]            names                   = null;     // decoded lazily
+    
+    /**
+     * Creates a new instance of CompactDocument (see parse() and read()).
+     * @param frame The bytes of the document.
+     */
+    private CompactDocument( byte[] frame )
+    {
+        int estimate = Math.max( 16, frame.length / 32 );
+        
+        this.frame = frame;
+        this.elementName = new int[ estimate ];
+        this.elementParent = new int[ estimate ];
+        this.elementOffset = new int[ estimate ];
+        this.elementAttributes = new int[ estimate + 1 ];
+        this.elementFirstText = new int[ estimate ];
+        this.attributeName = new int[ estimate ];
+        this.attributeStart = new int[ estimate ];
+        this.attributeEnd = new int[ estimate ];
+        this.textStart = new int[ estimate ];
+        this.textEnd = new int[ estimate ];
+        this.textNext = new int[ estimate ];
+        this.textOwner = new int[ estimate ];
+        this.nameOffset = new int[ 16 ];
+        this.nameLength = new int[ 16 ];
+        this.nameTable = new int[ 32 ];
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    //--------------------------------------------------------------------------
+    // read
+    //--------------------------------------------------------------------------
+    /**
+     * This method reads the next framed document from the provided stream into
+     * a CompactDocument.
+     * @param in The XMLInputStream to read from.
+     * @return The CompactDocument, or null at the end of the stream.
+     * @throws SAXException If the document is not well formed.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static CompactDocument read( XMLInputStream in ) throws SAXException, IOException
+    {
+        byte[] frame = in.readFrame();
+        
+        return frame == null ? null : parse( frame );
+    }
+    
+    //--------------------------------------------------------------------------
+    // parse
+    //--------------------------------------------------------------------------
+    /**
+     * This method parses the bytes of a single document.  The array is kept
+     * (not copied), so it must not be changed afterwards.
+     * @param frame The bytes of the document (UTF-8).
+     * @return The CompactDocument.
+     * @throws SAXException If the document is not well formed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static CompactDocument parse( byte[] frame ) throws SAXException
+    {
+        CompactDocument doc = new CompactDocument( frame );
+        doc.parse();
+        doc.index();
+        
+        return doc;
+    }
+    
+    //--------------------------------------------------------------------------
+    // parse
+    //--------------------------------------------------------------------------
+    /**
+     * This method parses the frame into the arrays.
+     * @throws SAXException If the document is not well formed.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void parse() throws SAXException
+    {
+        byte[] b = frame;
+        int end = b.length;
+        int i = 0;
+        int current = NONE;                 // the open element
+        int segment = NONE;                 // the open text segment
+        int[] lastText = new int[ 16 ];     // the last text segment of each open element, by depth
+        int depth = 0;
+        boolean rootDone = false;
+        
+        // a UTF-8 byte order mark
+        if( end >= 3 && ( b[0] & 0xff ) == 0xef && ( b[1] & 0xff ) == 0xbb && ( b[2] & 0xff ) == 0xbf )
+        {
+            i = 3;
+        }
+        
+        while( i < end )
+        {
+            if( b[ i ] != '<' )
+            {
+                int start = i;
+                while( i < end && b[ i ] != '<' )
+                {
+                    ++i;
+                }
+                
+                if( current == NONE )
+                {
+                    checkWhitespace( start, i );
+                }
+                else if( segment == NONE )
+                {
+                    segment = addText( start, i, current, lastText, depth );
+                }
+                else
+                {
+                    textEnd[ segment ] = i;
+                }
+                continue;
+            }
+            
+            if( startsWith( i, "<![CDATA[" ) )
+            {
+                if( current == NONE )
+                {
+                    throw error( "CDATA section outside of the root element", i );
+                }
+                
+                int close = indexOf( i + 9, "]]>" );
+                if( segment == NONE )
+                {
+                    segment = addText( i, close + 3, current, lastText, depth );
+                }
+                else
+                {
+                    textEnd[ segment ] = close + 3;
+                }
+                
+                i = close + 3;
+                continue;
+            }
+            
+            // any other markup ends the text segment
+            segment = NONE;
+            
+            if( startsWith( i, "<?" ) )
+            {
+                i = indexOf( i + 2, "?>" ) + 2;
+            }
+            else if( startsWith( i, "<!--" ) )
+            {
+                i = indexOf( i + 4, "-->" ) + 3;
+            }
+            else if( startsWith( i, "<!" ) )
+            {
+                if( current != NONE || rootDone )
+                {
+                    throw error( "Declaration inside of the document", i );
+                }
+                i = skipDeclaration( i + 2 );
+            }
+            else if( startsWith( i, "</" ) )
+            {
+                if( current == NONE )
+                {
+                    throw error( "End tag without a start tag", i );
+                }
+                
+                int start = i + 2;
+                i = scanName( start );
+                int length = i - start;
+                int open = elementOffset[ current ] + 1;
+                
+                if( length != nameLength[ elementName[ current ] ] || !regionMatches( start, open, length ) )
+                {
+                    throw error( "End tag </" + new String( b, start, length, StandardCharsets.UTF_8 ) + "> does not match <" + getName( current ) + ">", start - 2 );
+                }
+                
+                i = skipWhitespace( i );
+                if( i >= end || b[ i ] != '>' )
+                {
+                    throw error( "Expected '>'", i );
+                }
+                ++i;
+                
+                current = elementParent[ current ];
+                --depth;
+                rootDone = current == NONE;
+            }
+            else
+            {
+                if( rootDone )
+                {
+                    throw error( "More than one root element", i );
+                }
+                
+                int element = addElement( i, current );
+                
+                int start = i + 1;
+                i = scanName( start );
+                elementName[ element ] = intern( start, i - start );
+                
+                // the attributes
+                boolean empty = false;
+                while( true )
+                {
+                    int before = i;
+                    i = skipWhitespace( i );
+                    
+                    if( i >= end )
+                    {
+                        throw error( "End of document inside of a start tag", i );
+                    }
+                    if( b[ i ] == '>' )
+                    {
+                        ++i;
+                        break;
+                    }
+                    if( b[ i ] == '/' )
+                    {
+                        if( i + 1 >= end || b[ i + 1 ] != '>' )
+                        {
+                            throw error( "Expected '/>'", i );
+                        }
+                        i += 2;
+                        empty = true;
+                        break;
+                    }
+                    if( i == before )
+                    {
+                        throw error( "Expected whitespace before an attribute", i );
+                    }
+                    
+                    int nameStart = i;
+                    i = scanName( nameStart );
+                    int name = intern( nameStart, i - nameStart );
+                    
+                    i = skipWhitespace( i );
+                    if( i >= end || b[ i ] != '=' )
+                    {
+                        throw error( "Expected '=' after an attribute name", i );
+                    }
+                    i = skipWhitespace( i + 1 );
+                    if( i >= end || ( b[ i ] != '"' && b[ i ] != '\'' ) )
+                    {
+                        throw error( "Attribute values must be quoted", i );
+                    }
+                    
+                    byte quote = b[ i ];
+                    int valueStart = ++i;
+                    while( i < end && b[ i ] != quote )
+                    {
+                        if( b[ i ] == '<' )
+                        {
+                            throw error( "'<' inside of an attribute value", i );
+                        }
+                        ++i;
+                    }
+                    if( i >= end )
+                    {
+                        throw error( "Unterminated attribute value", valueStart );
+                    }
+                    
+                    addAttribute( name, valueStart, i++ );
+                }
+                
+                if( empty )
+                {
+                    rootDone = current == NONE;
+                }
+                else
+                {
+                    current = element;
+                    
+                    if( ++depth == lastText.length )
+                    {
+                        lastText = Arrays.copyOf( lastText, depth * 2 );
+                    }
+                    lastText[ depth ] = NONE;
+                }
+            }
+        }
+        
+        if( current != NONE )
+        {
+            throw error( "End of document inside of <" + getName( current ) + ">", end );
+        }
+        if( elementCount == 0 )
+        {
+            throw error( "No root element", end );
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // index
+    //--------------------------------------------------------------------------
+    /**
+     * This method trims the arrays, and groups the children of each element
+     * together (a counting sort by parent; elements are already in document
+     * order, so the children stay in order).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void index()
+    {
+        elementName = Arrays.copyOf( elementName, elementCount );
+        elementParent = Arrays.copyOf( elementParent, elementCount );
+        elementOffset = Arrays.copyOf( elementOffset, elementCount );
+        elementFirstText = Arrays.copyOf( elementFirstText, elementCount );
+        elementAttributes = Arrays.copyOf( elementAttributes, elementCount + 1 );
+        elementAttributes[ elementCount ] = attributeCount;
+        attributeName = Arrays.copyOf( attributeName, attributeCount );
+        attributeStart = Arrays.copyOf( attributeStart, attributeCount );
+        attributeEnd = Arrays.copyOf( attributeEnd, attributeCount );
+        textStart = Arrays.copyOf( textStart, textCount );
+        textEnd = Arrays.copyOf( textEnd, textCount );
+        textNext = Arrays.copyOf( textNext, textCount );
+        textOwner = Arrays.copyOf( textOwner, textCount );
+        names = new String[ nameCount ];
+        
+        elementChildren = new int[ elementCount + 1 ];
+        children = new int[ Math.max( 0, elementCount - 1 ) ];
+        
+        for( int e=1; e<elementCount; e++ )
+        {
+            ++elementChildren[ elementParent[ e ] + 1 ];
+        }
+        for( int e=0; e<elementCount; e++ )
+        {
+            elementChildren[ e + 1 ] += elementChildren[ e ];
+        }
+        
+        int[] fill = Arrays.copyOf( elementChildren, elementCount );
+        for( int e=1; e<elementCount; e++ )
+        {
+            children[ fill[ elementParent[ e ] ]++ ] = e;
+        }
+    }
+    
+    /**
+     * This method adds an element.
+     * @param offset The offset of its start tag.
+     * @param parent Its parent element.
+     * @return The new element.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int addElement( int offset, int parent )
+    {
+        if( elementCount == elementName.length )
+        {
+            int size = elementCount * 2;
+            elementName = Arrays.copyOf( elementName, size );
+            elementParent = Arrays.copyOf( elementParent, size );
+            elementOffset = Arrays.copyOf( elementOffset, size );
+            elementAttributes = Arrays.copyOf( elementAttributes, size + 1 );
+            elementFirstText = Arrays.copyOf( elementFirstText, size );
+        }
+        
+        elementParent[ elementCount ] = parent;
+        elementOffset[ elementCount ] = offset;
+        elementAttributes[ elementCount ] = attributeCount;
+        elementFirstText[ elementCount ] = NONE;
+        
+        return elementCount++;
+    }
+    
+    /**
+     * This method adds an attribute to the last element.
+     * @param name The name id.
+     * @param start The offset of the value.
+     * @param end The offset after the value.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void addAttribute( int name, int start, int end )
+    {
+        if( attributeCount == attributeName.length )
+        {
+            int size = attributeCount * 2;
+            attributeName = Arrays.copyOf( attributeName, size );
+            attributeStart = Arrays.copyOf( attributeStart, size );
+            attributeEnd = Arrays.copyOf( attributeEnd, size );
+        }
+        
+        attributeName[ attributeCount ] = name;
+        attributeStart[ attributeCount ] = start;
+        attributeEnd[ attributeCount ] = end;
+        ++attributeCount;
+    }
+    
+    /**
+     * This method adds a text segment to an element.
+     * @param start The offset of the text.
+     * @param end The offset after the text.
+     * @param owner The element the text is in.
+     * @param lastText The last segment of each open element.
+     * @param depth The depth of the owner.
+     * @return The new segment.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int addText( int start, int end, int owner, int[] lastText, int depth )
+    {
+        if( textCount == textStart.length )
+        {
+            int size = textCount * 2;
+            textStart = Arrays.copyOf( textStart, size );
+            textEnd = Arrays.copyOf( textEnd, size );
+            textNext = Arrays.copyOf( textNext, size );
+            textOwner = Arrays.copyOf( textOwner, size );
+        }
+        
+        textStart[ textCount ] = start;
+        textEnd[ textCount ] = end;
+        textNext[ textCount ] = NONE;
+        textOwner[ textCount ] = owner;
+        
+        if( lastText[ depth ] == NONE )
+        {
+            elementFirstText[ owner ] = textCount;
+        }
+        else
+        {
+            textNext[ lastText[ depth ] ] = textCount;
+        }
+        lastText[ depth ] = textCount;
+        
+        return textCount++;
+    }
+    
+    /**
+     * This method interns a name, giving the same id to the same bytes.
+     * @param offset The offset of the name.
+     * @param length The length of the name.
+     * @return The name id.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int intern( int offset, int length )
+    {
+        if( length == 0 )
+        {
+            throw new IllegalStateException( "empty name" );
+        }
+        
+        int hash = 0;
+        for( int i=offset; i<offset+length; i++ )
+        {
+            hash = 31 * hash + frame[ i ];
+        }
+        
+        int mask = nameTable.length - 1;
+        int slot = hash & mask;
+        
+        while( nameTable[ slot ] != 0 )
+        {
+            int id = nameTable[ slot ] - 1;
+            
+            if( nameLength[ id ] == length && regionMatches( nameOffset[ id ], offset, length ) )
+            {
+                return id;
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        
+        if( nameCount == nameOffset.length )
+        {
+            nameOffset = Arrays.copyOf( nameOffset, nameCount * 2 );
+            nameLength = Arrays.copyOf( nameLength, nameCount * 2 );
+        }
+        
+        nameOffset[ nameCount ] = offset;
+        nameLength[ nameCount ] = length;
+        nameTable[ slot ] = nameCount + 1;
+        
+        // keep the table at most half full
+        if( 2 * ( nameCount + 1 ) > nameTable.length )
+        {
+            nameTable = new int[ nameTable.length * 2 ];
+            for( int id=0; id<=nameCount; id++ )
+            {
+                int h = 0;
+                for( int i=nameOffset[ id ]; i<nameOffset[ id ]+nameLength[ id ]; i++ )
+                {
+                    h = 31 * h + frame[ i ];
+                }
+                
+                int s = h & ( nameTable.length - 1 );
+                while( nameTable[ s ] != 0 )
+                {
+                    s = ( s + 1 ) & ( nameTable.length - 1 );
+                }
+                nameTable[ s ] = id + 1;
+            }
+        }
+        
+        return nameCount++;
+    }
+    
+    /**
+     * This method scans a name.
+     * @param i The offset of the name.
+     * @return The offset after the name.
+     * @throws SAXException If there is no name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int scanName( int i ) throws SAXException
+    {
+        int start = i;
+        
+        while( i < frame.length )
+        {
+            byte c = frame[ i ];
+            
+            if( c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '/' || c == '>' || c == '=' || c == '<' || c == '"' || c == '\'' )
+            {
+                break;
+            }
+            ++i;
+        }
+        
+        if( i == start )
+        {
+            throw error( "Expected a name", i );
+        }
+        
+        return i;
+    }
+    
+    /**
+     * This method skips over whitespace.
+     * @param i The offset to start at.
+     * @return The offset of the first byte that is not whitespace.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int skipWhitespace( int i )
+    {
+        while( i < frame.length && ( frame[ i ] == ' ' || frame[ i ] == '\t' || frame[ i ] == '\r' || frame[ i ] == '\n' ) )
+        {
+            ++i;
+        }
+        
+        return i;
+    }
+    
+    /**
+     * This method makes sure that text outside of the root element is only whitespace.
+     * @param start The offset of the text.
+     * @param end The offset after the text.
+     * @throws SAXException If it is not.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void checkWhitespace( int start, int end ) throws SAXException
+    {
+        if( skipWhitespace( start ) < end )
+        {
+            throw error( "Text outside of the root element", start );
+        }
+    }
+    
+    /**
+     * This method skips a declaration (such as a DOCTYPE), including an
+     * internal subset.
+     * @param i The offset just after the "&lt;!".
+     * @return The offset after the declaration.
+     * @throws SAXException If the declaration does not end.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int skipDeclaration( int i ) throws SAXException
+    {
+        int start = i;
+        int brackets = 0;
+        byte quote = 0;
+        
+        for( ; i<frame.length; i++ )
+        {
+            byte c = frame[ i ];
+            
+            if( quote != 0 )
+            {
+                if( c == quote )
+                {
+                    quote = 0;
+                }
+            }
+            else if( c == '"' || c == '\'' )
+            {
+                quote = c;
+            }
+            else if( c == '[' )
+            {
+                ++brackets;
+            }
+            else if( c == ']' )
+            {
+                --brackets;
+            }
+            else if( c == '>' && brackets <= 0 )
+            {
+                return i + 1;
+            }
+        }
+        
+        throw error( "Unterminated declaration", start );
+    }
+    
+    /**
+     * This method tells you if the frame contains the provided (ASCII) text at an offset.
+     * @param i The offset.
+     * @param text The text.
+     * @return True if it does.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private boolean startsWith( int i, String text )
+    {
+        if( i + text.length() > frame.length )
+        {
+            return false;
+        }
+        
+        for( int j=0; j<text.length(); j++ )
+        {
+            if( frame[ i + j ] != text.charAt( j ) )
+            {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * This method finds (ASCII) text in the frame.
+     * @param i The offset to start looking at.
+     * @param text The text to find.
+     * @return The offset of the text.
+     * @throws SAXException If it is not found.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int indexOf( int i, String text ) throws SAXException
+    {
+        for( int j=i; j+text.length()<=frame.length; j++ )
+        {
+            if( startsWith( j, text ) )
+            {
+                return j;
+            }
+        }
+        
+        throw error( "Expected \"" + text + "\"", i );
+    }
+    
+    /**
+     * This method compares two regions of the frame.
+     * @param a The offset of the first region.
+     * @param b The offset of the second region.
+     * @param length The length of the regions.
+     * @return True if they hold the same bytes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private boolean regionMatches( int a, int b, int length )
+    {
+        for( int i=0; i<length; i++ )
+        {
+            if( frame[ a + i ] != frame[ b + i ] )
+            {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * This method creates a parse error.
+     * @param message The message.
+     * @param offset The offset of the error in the frame.
+     * @return The SAXException.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static SAXException error( String message, int offset )
+    {
+        return new SAXException( message + " (at byte " + offset + ")" );
+    }
+    
+    /**
+     * This method decodes a region of the frame: entities are replaced and
+     * CDATA sections are unwrapped.
+     * @param start The offset of the region.
+     * @param end The offset after the region.
+     * @param out The StringBuilder to append to.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void decode( int start, int end, StringBuilder out )
+    {
+        int i = start;
+        int run = start;
+        
+        while( i < end )
+        {
+            byte c = frame[ i ];
+            
+            if( c == '&' )
+            {
+                int semi = i + 1;
+                while( semi < end && frame[ semi ] != ';' )
+                {
+                    ++semi;
+                }
+                
+                String replacement = semi < end ? entity( i + 1, semi ) : null;
+                
+                if( replacement != null )
+                {
+                    out.append( new String( frame, run, i - run, StandardCharsets.UTF_8 ) ).append( replacement );
+                    i = run = semi + 1;
+                    continue;
+                }
+            }
+            else if( c == '<' && startsWith( i, "<![CDATA[" ) )
+            {
+                int close = i + 9;
+                while( close + 3 <= end && !startsWith( close, "]]>" ) )
+                {
+                    ++close;
+                }
+                
+                out.append( new String( frame, run, i - run, StandardCharsets.UTF_8 ) );
+                out.append( new String( frame, i + 9, close - i - 9, StandardCharsets.UTF_8 ) );
+                i = run = close + 3;
+                continue;
+            }
+            
+            ++i;
+        }
+        
+        out.append( new String( frame, run, end - run, StandardCharsets.UTF_8 ) );
+    }
+    
+    /**
+     * This method decodes an entity reference.
+     * @param start The offset just after the '&amp;'.
+     * @param end The offset of the ';'.
+     * @return The replacement text, or null if it is not a predefined or character entity.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private String entity( int start, int end )
+    {
+        String name = new String( frame, start, end - start, StandardCharsets.US_ASCII );
+        
+        switch( name )
+        {
+            case "lt":      return "<";
+            case "gt":      return ">";
+            case "amp":     return "&";
+            case "quot":    return "\"";
+            case "apos":    return "'";
+        }
+        
+        try
+        {
+            if( name.startsWith( "#x" ) )
+            {
+                return new String( Character.toChars( Integer.parseInt( name.substring( 2 ), 16 ) ) );
+            }
+            if( name.startsWith( "#" ) )
+            {
+                return new String( Character.toChars( Integer.parseInt( name.substring( 1 ) ) ) );
+            }
+        }
+        catch( IllegalArgumentException ex )
+        {
+            // not a valid character reference; leave it as it is
+        }
+        
+        return null;
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * Getter for the root element (always 0).
+     * @return The root element.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getRoot()
+    {
+        return 0;
+    }
+    
+    /**
+     * Getter for the number of elements; elements are numbered from 0 to this
+     * count - 1, in document order.
+     * @return The number of elements.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getElementCount()
+    {
+        return elementCount;
+    }
+    
+    /**
+     * Getter for the name of an element (as written, prefix included).
+     * @param element The element.
+     * @return The name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String getName( int element )
+    {
+        return getNameById( elementName[ element ] );
+    }
+    
+    /**
+     * Getter for the name id of an element.  Two elements (or attributes) of
+     * the same document have the same name if and only if they have the same id.
+     * @param element The element.
+     * @return The name id.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getNameId( int element )
+    {
+        return elementName[ element ];
+    }
+    
+    /**
+     * This method looks up the id of a name, in the table the names were
+     * interned in while parsing (so it takes constant time, and an ASCII name
+     * is looked up without allocating).
+     * @param name The name.
+     * @return The name id, or NONE if no element or attribute of the document has that name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getNameId( String name )
+    {
+        int length = name.length();
+        int hash = 0;
+        
+        for( int i=0; i<length; i++ )
+        {
+            char c = name.charAt( i );
+            
+            if( c >= 0x80 )
+            {
+                // not ASCII, so its UTF-8 bytes are not its chars
+                return getNameId( name.getBytes( StandardCharsets.UTF_8 ) );
+            }
+            hash = 31 * hash + c;
+        }
+        
+        int mask = nameTable.length - 1;
+        
+        for( int slot = hash & mask; nameTable[ slot ] != 0; slot = ( slot + 1 ) & mask )
+        {
+            int id = nameTable[ slot ] - 1;
+            
+            if( nameLength[ id ] == length )
+            {
+                int i = 0;
+                while( i < length && frame[ nameOffset[ id ] + i ] == name.charAt( i ) )
+                {
+                    ++i;
+                }
+                
+                if( i == length )
+                {
+                    return id;
+                }
+            }
+        }
+        
+        return NONE;
+    }
+    
+    /**
+     * This method looks up the id of a name, by its UTF-8 bytes.
+     * @param bytes The bytes of the name.
+     * @return The name id, or NONE if no element or attribute of the document has that name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int getNameId( byte[] bytes )
+    {
+        int hash = 0;
+        for( int i=0; i<bytes.length; i++ )
+        {
+            hash = 31 * hash + bytes[ i ];
+        }
+        
+        int mask = nameTable.length - 1;
+        
+        for( int slot = hash & mask; nameTable[ slot ] != 0; slot = ( slot + 1 ) & mask )
+        {
+            int id = nameTable[ slot ] - 1;
+            
+            if( nameLength[ id ] == bytes.length )
+            {
+                int i = 0;
+                while( i < bytes.length && frame[ nameOffset[ id ] + i ] == bytes[ i ] )
+                {
+                    ++i;
+                }
+                
+                if( i == bytes.length )
+                {
+                    return id;
+                }
+            }
+        }
+        
+        return NONE;
+    }
+    
+    /**
+     * Getter for a name, by id.
+     * @param id The name id.
+     * @return The name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String getNameById( int id )
+    {
+        if( names == null )
+        {
+            // still parsing
+            return new String( frame, nameOffset[ id ], nameLength[ id ], StandardCharsets.UTF_8 );
+        }
+        if( names[ id ] == null )
+        {
+            names[ id ] = new String( frame, nameOffset[ id ], nameLength[ id ], StandardCharsets.UTF_8 );
+        }
+        
+        return names[ id ];
+    }
+    
+    /**
+     * Getter for the parent of an element.
+     * @param element The element.
+     * @return The parent, or NONE for the root element.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getParent( int element )
+    {
+        return elementParent[ element ];
+    }
+    
+    /**
+     * Getter for the number of child elements of an element.
+     * @param element The element.
+     * @return The number of children.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getChildCount( int element )
+    {
+        return elementChildren[ element + 1 ] - elementChildren[ element ];
+    }
+    
+    /**
+     * Getter for a child element, by index (in constant time).
+     * @param element The element.
+     * @param i The index of the child.
+     * @return The child element.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getChild( int element, int i )
+    {
+        if( i < 0 || i >= getChildCount( element ) )
+        {
+            throw new IndexOutOfBoundsException( "Child " + i + " of " + getChildCount( element ) );
+        }
+        
+        return children[ elementChildren[ element ] + i ];
+    }
+    
+    /**
+     * Getter for the first child element with a given name.
+     * @param element The element.
+     * @param name The name of the child.
+     * @return The child element, or NONE.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getChild( int element, String name )
+    {
+        int id = getNameId( name );
+        
+        if( id != NONE )
+        {
+            for( int i=elementChildren[ element ]; i<elementChildren[ element + 1 ]; i++ )
+            {
+                if( elementName[ children[ i ] ] == id )
+                {
+                    return children[ i ];
+                }
+            }
+        }
+        
+        return NONE;
+    }
+    
+    /**
+     * Getter for the text directly inside of an element (the text of its child
+     * elements is not included).
+     * @param element The element.
+     * @return The text, or the empty String.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String getText( int element )
+    {
+        int segment = elementFirstText[ element ];
+        
+        if( segment == NONE )
+        {
+            return "";
+        }
+        if( textNext[ segment ] == NONE )
+        {
+            return getSegment( segment );
+        }
+        
+        StringBuilder text = new StringBuilder();
+        for( ; segment!=NONE; segment=textNext[ segment ] )
+        {
+            decode( textStart[ segment ], textEnd[ segment ], text );
+        }
+        
+        return text.toString();
+    }
+    
+    /**
+     * Getter for all of the text inside of an element, including the text of
+     * its descendants (like <code>Node.getTextContent()</code>).
+     * @param element The element.
+     * @return The text, or the empty String.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String getTextContent( int element )
+    {
+        // the descendants of an element follow it in document order
+        int last = element + 1;
+        while( last < elementCount && isDescendant( last, element ) )
+        {
+            ++last;
+        }
+        
+        StringBuilder text = new StringBuilder();
+        int from = elementOffset[ element ];
+        int to = last < elementCount ? elementOffset[ last ] : frame.length;
+        
+        // the segments are in document order too
+        int segment = Arrays.binarySearch( textStart, from );
+        for( segment=segment<0 ? -segment-1 : segment; segment<textCount && textStart[ segment ]<to; segment++ )
+        {
+            // skip the text that follows the end of the element
+            if( textOwner[ segment ] >= element && textOwner[ segment ] < last )
+            {
+                decode( textStart[ segment ], textEnd[ segment ], text );
+            }
+        }
+        
+        return text.toString();
+    }
+    
+    /**
+     * This method tells you if an element is a descendant of another one.
+     * @param element The element.
+     * @param ancestor The possible ancestor.
+     * @return True if it is.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public boolean isDescendant( int element, int ancestor )
+    {
+        for( int e=elementParent[ element ]; e!=NONE && e>=ancestor; e=elementParent[ e ] )
+        {
+            if( e == ancestor )
+            {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Getter for the number of attributes of an element.
+     * @param element The element.
+     * @return The number of attributes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getAttributeCount( int element )
+    {
+        return elementAttributes[ element + 1 ] - elementAttributes[ element ];
+    }
+    
+    /**
+     * Getter for the name of an attribute, by index.
+     * @param element The element.
+     * @param i The index of the attribute.
+     * @return The name of the attribute.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String getAttributeName( int element, int i )
+    {
+        return getNameById( attributeName[ elementAttributes[ element ] + i ] );
+    }
+    
+    /**
+     * Getter for the value of an attribute, by index.
+     * @param element The element.
+     * @param i The index of the attribute.
+     * @return The value of the attribute.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String getAttributeValue( int element, int i )
+    {
+        int a = elementAttributes[ element ] + i;
+        StringBuilder value = new StringBuilder( attributeEnd[ a ] - attributeStart[ a ] );
+        decode( attributeStart[ a ], attributeEnd[ a ], value );
+        
+        return value.toString();
+    }
+    
+    /**
+     * Getter for the value of an attribute, by name.
+     * @param element The element.
+     * @param name The (qualified) name of the attribute.
+     * @return The value of the attribute, or null if the element does not have it.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String getAttribute( int element, String name )
+    {
+        int id = getNameId( name );
+        
+        for( int a=elementAttributes[ element ]; id!=NONE && a<elementAttributes[ element + 1 ]; a++ )
+        {
+            if( attributeName[ a ] == id )
+            {
+                return getAttributeValue( element, a - elementAttributes[ element ] );
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Getter for the number of text segments.  A segment is a run of
+     * character data (and CDATA sections) between two other pieces of markup;
+     * segments are numbered in document order.
+     * @return The number of text segments.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    int getSegmentCount()
+    {
+        return textCount;
+    }
+    
+    /**
+     * Getter for the offset of a text segment in the frame.
+     * @param segment The segment.
+     * @return The offset.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    int getSegmentOffset( int segment )
+    {
+        return textStart[ segment ];
+    }
+    
+    /**
+     * Getter for the element a text segment is in.
+     * @param segment The segment.
+     * @return The element.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    int getSegmentOwner( int segment )
+    {
+        return textOwner[ segment ];
+    }
+    
+    /**
+     * Getter for the (decoded) text of a segment.
+     * @param segment The segment.
+     * @return The text.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    String getSegment( int segment )
+    {
+        StringBuilder text = new StringBuilder( textEnd[ segment ] - textStart[ segment ] );
+        decode( textStart[ segment ], textEnd[ segment ], text );
+        
+        return text.toString();
+    }
+    
+    /**
+     * Getter for the offset of the start tag of an element in the frame.
+     * @param element The element.
+     * @return The offset.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    int getOffset( int element )
+    {
+        return elementOffset[ element ];
+    }
+    
+    /**
+     * Getter for the bytes of the document.
+     * @return The frame the document was parsed from (do not change it).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public byte[] getFrame()
+    {
+        return frame;
+    }
+}
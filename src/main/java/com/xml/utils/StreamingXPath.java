@@ -0,0 +1,1024 @@
+/*
+ * FILE:        StreamingXPath.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.xpath.XPathExpressionException;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+//--------------------------------------------------------------------------
+// CLASS StreamingXPath
+//--------------------------------------------------------------------------
+/**
+ * This class evaluates a subset of XPath while streaming through a document
+ * with StAX, so no DOM is built, and reading stops as soon as the value has
+ * been found.  Memory use depends on how deeply the document is nested, not on
+ * how big it is.
+ * <br/><br/>
+ * <b>The subset</b>:<br/>
+ * <ul>
+ * <li>Absolute paths only, made of child (<code>/</code>) and descendant
+ * (<code>//</code>) steps: <code>/msg/header</code>, <code>//item</code>,
+ * <code>/msg//id</code>.</li>
+ * <li>Element names, or <code>*</code> for any element.  Names are compared as
+ * written in the document, prefix included (like <code>Node.getNodeName()</code>).</li>
+ * <li>Predicates on element steps: a position (<code>item[2]</code>, counted
+ * among the siblings that match the name), an attribute
+ * (<code>item[@id]</code>) or an attribute value (<code>item[@id='2']</code>).
+ * Several predicates may follow each other, but a position must come first.</li>
+ * <li>The last step may select an attribute (<code>/msg/header/@type</code>)
+ * or the text (<code>/msg/body/text()</code>) instead of an element.</li>
+ * </ul>
+ * The value of an expression is that of the first match in document order: an
+ * attribute's value, the first text node, or the text content of an element,
+ * just like <code>XPathUtils.getString()</code> would give you.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * StreamingXPath type = StreamingXPath.compile("/msg/header/@type");
+ * ...
+ * String t = type.evaluate(xmlInputStream);
+ * xmlInputStream.reset();
+ * </pre>
+ * When the stream is an XMLInputStream, the rest of the document is skipped
+ * (scanned, but not parsed) after the value is found, so the stream is left at
+ * the end of the document just like <code>XMLUtils.readDocument()</code> leaves it.
+ * A compiled expression is immutable and may be shared between threads.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class StreamingXPath
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    
+    /** The expression selects elements; its value is their text content. */
+    public static final int         SELECT_ELEMENT          = 0;
+    /** The expression selects an attribute. */
+    public static final int         SELECT_ATTRIBUTE        = 1;
+    /** The expression selects text nodes. */
+    public static final int         SELECT_TEXT             = 2;
+    
+    // the state of a query is a bit set of steps, so the number of steps is limited
+    private static final int        MAX_STEPS               = 62;
+    
+    private String                  expression              = null;
+    private Step[]                  steps                   = null;
+    private int                     select                  = SELECT_ELEMENT;
+    private String                  attribute               = null;
+    private boolean                 descendantSelect        = false;
+    private boolean                 positional              = false;
+    
+    /**
+     * Creates a new instance of StreamingXPath.
+     * @param expression The text of the expression.
+     */
+    private StreamingXPath( String expression )
+    {
+        this.expression = expression;
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    //--------------------------------------------------------------------------
+    // compile
+    //--------------------------------------------------------------------------
+    /**
+     * This method compiles an expression.
+     * @param expression The XPath expression (see the class comments for what is supported).
+     * @return The compiled expression.
+     * @throws XPathExpressionException If the expression is not valid, or not part of the subset.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static StreamingXPath compile( String expression ) throws XPathExpressionException
+    {
+        StreamingXPath xpath = new StreamingXPath( expression );
+        List<Step> steps = new ArrayList<Step>();
+        
+        int i = 0;
+        int length = expression.length();
+        
+        if( length == 0 || expression.charAt( 0 ) != '/' )
+        {
+            throw new XPathExpressionException( "Only absolute paths are supported: " + expression );
+        }
+        
+        while( i < length )
+        {
+            boolean descendant = false;
+            
+            if( expression.charAt( i ) != '/' )
+            {
+                throw new XPathExpressionException( "Expected a '/' at " + i + ": " + expression );
+            }
+            if( ++i < length && expression.charAt( i ) == '/' )
+            {
+                descendant = true;
+                ++i;
+            }
+            
+            int start = i;
+            while( i < length && expression.charAt( i ) != '/' && expression.charAt( i ) != '[' )
+            {
+                ++i;
+            }
+            String name = expression.substring( start, i ).trim();
+            
+            if( name.length() == 0 )
+            {
+                throw new XPathExpressionException( "Missing a step at " + start + ": " + expression );
+            }
+            
+            if( name.startsWith( "@" ) || name.equals( "text()" ) )
+            {
+                // the last step selects an attribute or text, rather than an element
+                if( i < length )
+                {
+                    throw new XPathExpressionException( name + " must be the last step: " + expression );
+                }
+                
+                xpath.select = name.equals( "text()" ) ? SELECT_TEXT : SELECT_ATTRIBUTE;
+                xpath.attribute = name.equals( "text()" ) ? null : checkName( name.substring( 1 ), expression );
+                xpath.descendantSelect = descendant;
+                break;
+            }
+            
+            Step step = new Step( descendant, name.equals( "*" ) ? null : checkName( name, expression ) );
+            
+            while( i < length && expression.charAt( i ) == '[' )
+            {
+                i = parsePredicate( expression, i + 1, step );
+                xpath.positional |= step.position > 0;
+            }
+            
+            steps.add( step );
+        }
+        
+        if( steps.size() > MAX_STEPS )
+        {
+            throw new XPathExpressionException( "Too many steps (at most " + MAX_STEPS + "): " + expression );
+        }
+        
+        xpath.steps = steps.toArray( new Step[ steps.size() ] );
+        
+        return xpath;
+    }
+    
+    //--------------------------------------------------------------------------
+    // parsePredicate
+    //--------------------------------------------------------------------------
+    /**
+     * This method parses a predicate and adds it to the step.
+     * @param expression The expression being compiled.
+     * @param i The index just after the '['.
+     * @param step The step the predicate belongs to.
+     * @return The index just after the ']'.
+     * @throws XPathExpressionException If the predicate is not supported.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static int parsePredicate( String expression, int i, Step step ) throws XPathExpressionException
+    {
+        int end = i;
+        char quote = 0;
+        
+        // find the closing bracket, skipping over a quoted value
+        while( end < expression.length() && ( quote != 0 || expression.charAt( end ) != ']' ) )
+        {
+            char c = expression.charAt( end++ );
+            
+            if( quote == 0 && ( c == '\'' || c == '"' ) )
+            {
+                quote = c;
+            }
+            else if( c == quote )
+            {
+                quote = 0;
+            }
+        }
+        
+        if( end == expression.length() )
+        {
+            throw new XPathExpressionException( "Unterminated predicate at " + i + ": " + expression );
+        }
+        
+        String predicate = expression.substring( i, end ).trim();
+        
+        if( predicate.length() > 0 && Character.isDigit( predicate.charAt( 0 ) ) )
+        {
+            if( step.position > 0 || step.attributes.size() > 0 )
+            {
+                throw new XPathExpressionException( "A position must be the first predicate: " + expression );
+            }
+            
+            try
+            {
+                step.position = Integer.parseInt( predicate );
+            }
+            catch( NumberFormatException ex )
+            {
+                throw new XPathExpressionException( "Unsupported predicate [" + predicate + "]: " + expression );
+            }
+            
+            if( step.position < 1 )
+            {
+                throw new XPathExpressionException( "Positions start at 1: " + expression );
+            }
+        }
+        else if( predicate.startsWith( "@" ) )
+        {
+            int equals = predicate.indexOf( '=' );
+            String name = ( equals < 0 ? predicate.substring( 1 ) : predicate.substring( 1, equals ) ).trim();
+            String value = null;
+            
+            if( equals >= 0 )
+            {
+                value = predicate.substring( equals + 1 ).trim();
+                
+                if( value.length() < 2 || ( value.charAt( 0 ) != '\'' && value.charAt( 0 ) != '"' ) || value.charAt( value.length() - 1 ) != value.charAt( 0 ) )
+                {
+                    throw new XPathExpressionException( "Attribute values must be quoted [" + predicate + "]: " + expression );
+                }
+                value = value.substring( 1, value.length() - 1 );
+            }
+            
+            step.attributes.add( checkName( name, expression ) );
+            step.values.add( value );
+        }
+        else
+        {
+            throw new XPathExpressionException( "Unsupported predicate [" + predicate + "]: " + expression );
+        }
+        
+        return end + 1;
+    }
+    
+    //--------------------------------------------------------------------------
+    // checkName
+    //--------------------------------------------------------------------------
+    /**
+     * This method makes sure a name does not contain anything (like an axis or
+     * a function call) that the subset does not support.
+     * @param name The name to check.
+     * @param expression The expression being compiled.
+     * @return The name.
+     * @throws XPathExpressionException If it is not a plain name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static String checkName( String name, String expression ) throws XPathExpressionException
+    {
+        for( int i=0; i<name.length(); i++ )
+        {
+            char c = name.charAt( i );
+            
+            if( !Character.isLetterOrDigit( c ) && c != '_' && c != '-' && c != '.' && c != ':' )
+            {
+                throw new XPathExpressionException( "Unsupported step '" + name + "': " + expression );
+            }
+        }
+        
+        if( name.length() == 0 || name.indexOf( "::" ) >= 0 || !( Character.isLetter( name.charAt( 0 ) ) || name.charAt( 0 ) == '_' ) )
+        {
+            throw new XPathExpressionException( "Unsupported step '" + name + "': " + expression );
+        }
+        
+        return name;
+    }
+    
+    //--------------------------------------------------------------------------
+    // evaluate
+    //--------------------------------------------------------------------------
+    /**
+     * This method evaluates the expression over the document read from the
+     * provided stream.
+     * @param in The stream to read the document from (usually an XMLInputStream).
+     * @return The value of the first match, or null if nothing matched.
+     * @throws XMLStreamException If the document is not well formed.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String evaluate( InputStream in ) throws XMLStreamException, IOException
+    {
+        return evaluate( in, this )[ 0 ];
+    }
+    
+    //--------------------------------------------------------------------------
+    // evaluate
+    //--------------------------------------------------------------------------
+    /**
+     * This method evaluates the expression over a CompactDocument.
+     * @param doc The CompactDocument.
+     * @return The value of the first match, or null if nothing matched.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String evaluate( CompactDocument doc )
+    {
+        Evaluation evaluation = new Evaluation( new StreamingXPath[] { this } );
+        evaluation.run( doc );
+        
+        return evaluation.getResults()[ 0 ];
+    }
+    
+    //--------------------------------------------------------------------------
+    // evaluate
+    //--------------------------------------------------------------------------
+    /**
+     * This method evaluates several expressions together, in a single pass over
+     * the document read from the provided stream.  Reading stops as soon as all
+     * of them have been found.
+     * @param in The stream to read the document from (usually an XMLInputStream).
+     * @param queries The expressions to evaluate.
+     * @return The value of each expression (in the same order), or null for the
+     * ones that did not match.
+     * @throws XMLStreamException If the document is not well formed.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static String[] evaluate( InputStream in, StreamingXPath... queries ) throws XMLStreamException, IOException
+    {
+        // closing the reader leaves an XMLInputStream at the end of the document
+        XMLStreamReader reader = XMLUtils.getXMLStreamReader( in );
+        
+        try
+        {
+            Evaluation evaluation = new Evaluation( queries );
+            evaluation.run( reader );
+            
+            return evaluation.getResults();
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // getName
+    //--------------------------------------------------------------------------
+    /**
+     * This method puts a name back together, the way it was written.
+     * @param prefix The prefix (may be null or empty).
+     * @param localName The local name.
+     * @return The qualified name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static String getName( String prefix, String localName )
+    {
+        return prefix == null || prefix.length() == 0 ? localName : prefix + ":" + localName;
+    }
+    
+    public String toString()
+    {
+        return expression;
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * Getter for the text of the expression.
+     * @return The XPath expression.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public String getExpression()
+    {
+        return expression;
+    }
+    
+    /**
+     * Getter for what the expression selects.
+     * @return One of SELECT_ELEMENT, SELECT_ATTRIBUTE or SELECT_TEXT.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int getSelect()
+    {
+        return select;
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class is one element step of an expression.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class Step
+    {
+        private boolean             descendant          = false;
+        private String              name                = null;     // null matches any element
+        private int                 position            = 0;        // 0 for no position
+        private List<String>        attributes          = new ArrayList<String>( 1 );
+        private List<String>        values              = new ArrayList<String>( 1 );   // null only tests for the attribute
+        
+        /**
+         * Creates a new instance of Step.
+         * @param descendant True for a descendant (//) step.
+         * @param name The element name, or null for any element.
+         */
+        public Step( boolean descendant, String name )
+        {
+            this.descendant = descendant;
+            this.name = name;
+        }
+        
+        /**
+         * This method tells you if an element matches this step.
+         * @param element The (qualified) name of the element.
+         * @param attributes The attributes of the element.
+         * @param siblings The number of earlier siblings with the same name, plus
+         * one (or the number of any earlier siblings plus one, for '*').
+         * @return True if the element matches.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public boolean matches( String element, Attributes attributes, int siblings )
+        {
+            if( name != null && !name.equals( element ) )
+            {
+                return false;
+            }
+            if( position > 0 && position != siblings )
+            {
+                return false;
+            }
+            
+            for( int i=0; i<this.attributes.size(); i++ )
+            {
+                String value = attributes.getAttribute( this.attributes.get( i ) );
+                
+                if( value == null || ( values.get( i ) != null && !values.get( i ).equals( value ) ) )
+                {
+                    return false;
+                }
+            }
+            
+            return true;
+        }
+    }
+    
+    /**
+     * This interface looks up the attributes of the element that just started.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    interface Attributes
+    {
+        /**
+         * This method gives you the value of an attribute, looked up by its
+         * qualified name.
+         * @param name The (qualified) name of the attribute.
+         * @return The value, or null if the element does not have the attribute.
+         */
+        public String getAttribute( String name );
+    }
+    
+    /**
+     * This class is the state of evaluating a set of queries over one document.
+     * The state of a query at each depth is a bit set: bit i means that the
+     * first i steps have matched the path so far, and bit n (the number of
+     * steps) means that the element matches the whole query.
+     * <br/><br/>
+     * It is fed the events of the document in order, either by a StAX reader
+     * or by walking a DOM, and can tell when every query has a value.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    static class Evaluation
+    {
+        private StreamingXPath[]    queries             = null;
+        private String[]            results             = null;
+        private int                 remaining           = 0;
+        
+        private long[]              states              = null;     // [depth * queries.length + query]
+        private int                 depth               = 0;
+        
+        private StringBuilder[]     text                = null;     // the text collected for each query
+        private int[]               textDepth           = null;     // the depth of the element being collected, or -1
+        
+        private List<HashMap<String, int[]>> siblings   = null;     // the child counts at each depth, for positions
+        
+        /**
+         * Creates a new instance of Evaluation.
+         * @param queries The queries to evaluate.
+         */
+        public Evaluation( StreamingXPath[] queries )
+        {
+            this.queries = queries;
+            this.results = new String[ queries.length ];
+            this.remaining = queries.length;
+            this.states = new long[ 16 * queries.length ];
+            this.text = new StringBuilder[ queries.length ];
+            this.textDepth = new int[ queries.length ];
+            
+            Arrays.fill( textDepth, -1 );
+            
+            for( int q=0; q<queries.length; q++ )
+            {
+                // the document node: no steps matched yet
+                states[ q ] = 1L;
+                
+                if( queries[ q ].positional && siblings == null )
+                {
+                    siblings = new ArrayList<HashMap<String, int[]>>();
+                    siblings.add( new HashMap<String, int[]>() );
+                }
+            }
+        }
+        
+        /**
+         * This method reads events until every query has a value, or the
+         * document ends.
+         * @param reader The reader to read from.
+         * @throws XMLStreamException
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public void run( final XMLStreamReader reader ) throws XMLStreamException
+        {
+            Attributes attributes = new Attributes()
+            {
+                public String getAttribute( String name )
+                {
+                    for( int i=0; i<reader.getAttributeCount(); i++ )
+                    {
+                        if( name.equals( getName( reader.getAttributePrefix( i ), reader.getAttributeLocalName( i ) ) ) )
+                        {
+                            return reader.getAttributeValue( i );
+                        }
+                    }
+                    
+                    return null;
+                }
+            };
+            
+            while( remaining > 0 && reader.hasNext() )
+            {
+                int event = reader.next();
+                
+                switch( event )
+                {
+                    case XMLStreamConstants.START_ELEMENT:
+                    {
+                        endText();
+                        startElement( getName( reader.getPrefix(), reader.getLocalName() ), attributes );
+                    }
+                    break;
+                    
+                    case XMLStreamConstants.END_ELEMENT:
+                    {
+                        endText();
+                        endElement();
+                    }
+                    break;
+                    
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                    {
+                        characters( reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength() );
+                    }
+                    break;
+                    
+                    case XMLStreamConstants.COMMENT:
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    {
+                        endText();
+                    }
+                    break;
+                }
+            }
+        }
+        
+        /**
+         * This method walks a DOM in document order until every query has a
+         * value, or the document ends.
+         * @param doc The Document to walk.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public void run( Document doc )
+        {
+            final Element[] current = new Element[ 1 ];
+            Attributes attributes = new Attributes()
+            {
+                public String getAttribute( String name )
+                {
+                    Attr attr = current[ 0 ].getAttributeNode( name );
+                    
+                    return attr == null ? null : attr.getValue();
+                }
+            };
+            
+            Node node = doc.getFirstChild();
+            
+            while( remaining > 0 && node != null )
+            {
+                boolean descend = false;
+                
+                switch( node.getNodeType() )
+                {
+                    case Node.ELEMENT_NODE:
+                    {
+                        endText();
+                        current[ 0 ] = (Element)node;
+                        startElement( node.getNodeName(), attributes );
+                        descend = true;
+                    }
+                    break;
+                    
+                    case Node.TEXT_NODE:
+                    case Node.CDATA_SECTION_NODE:
+                    {
+                        String value = node.getNodeValue();
+                        characters( value.toCharArray(), 0, value.length() );
+                    }
+                    break;
+                    
+                    case Node.ENTITY_REFERENCE_NODE:
+                    {
+                        descend = true;
+                    }
+                    break;
+                    
+                    case Node.COMMENT_NODE:
+                    case Node.PROCESSING_INSTRUCTION_NODE:
+                    {
+                        endText();
+                    }
+                    break;
+                }
+                
+                if( descend && node.getFirstChild() != null )
+                {
+                    node = node.getFirstChild();
+                    continue;
+                }
+                
+                if( node.getNodeType() == Node.ELEMENT_NODE )
+                {
+                    endText();
+                    endElement();
+                }
+                
+                // climb back up until there is a next sibling, ending the elements on the way
+                while( node != null && node.getNextSibling() == null )
+                {
+                    node = node.getParentNode();
+                    
+                    if( node == null || node == doc )
+                    {
+                        node = null;
+                    }
+                    else if( node.getNodeType() == Node.ELEMENT_NODE && remaining > 0 )
+                    {
+                        endText();
+                        endElement();
+                    }
+                }
+                
+                if( node != null )
+                {
+                    node = node.getNextSibling();
+                }
+            }
+        }
+        
+        /**
+         * This method walks a CompactDocument in document order (merging its
+         * elements and text segments by their offset) until every query has a
+         * value, or the document ends.
+         * @param doc The CompactDocument to walk.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public void run( final CompactDocument doc )
+        {
+            final int[] current = new int[ 1 ];
+            Attributes attributes = new Attributes()
+            {
+                public String getAttribute( String name )
+                {
+                    return doc.getAttribute( current[ 0 ], name );
+                }
+            };
+            
+            int[] open = new int[ 16 ];
+            int top = -1;
+            int e = 0;
+            int s = 0;
+            
+            while( remaining > 0 && ( e < doc.getElementCount() || s < doc.getSegmentCount() ) )
+            {
+                boolean element = s >= doc.getSegmentCount() || ( e < doc.getElementCount() && doc.getOffset( e ) < doc.getSegmentOffset( s ) );
+                int owner = element ? doc.getParent( e ) : doc.getSegmentOwner( s );
+                
+                // end the elements that closed before this element or segment
+                while( top >= 0 && open[ top ] != owner )
+                {
+                    endText();
+                    endElement();
+                    --top;
+                }
+                
+                if( element )
+                {
+                    endText();
+                    current[ 0 ] = e;
+                    startElement( doc.getName( e ), attributes );
+                    
+                    if( ++top == open.length )
+                    {
+                        open = Arrays.copyOf( open, open.length * 2 );
+                    }
+                    open[ top ] = e++;
+                }
+                else
+                {
+                    String value = doc.getSegment( s++ );
+                    characters( value.toCharArray(), 0, value.length() );
+                    endText();
+                }
+            }
+            
+            for( ; top>=0 && remaining>0; top-- )
+            {
+                endText();
+                endElement();
+            }
+        }
+        
+        /**
+         * This method works out which queries the element that just started
+         * matches.
+         * @param element The (qualified) name of the element.
+         * @param attributes The attributes of the element.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private void startElement( String element, Attributes attributes )
+        {
+            int parent = depth * queries.length;
+            int child = ++depth * queries.length;
+            
+            if( child + queries.length > states.length )
+            {
+                states = Arrays.copyOf( states, states.length * 2 );
+            }
+            
+            int sameName = 0;
+            int any = 0;
+            if( siblings != null )
+            {
+                HashMap<String, int[]> counts = siblings.get( depth - 1 );
+                sameName = increment( counts, element );
+                any = increment( counts, null );
+                
+                if( siblings.size() == depth )
+                {
+                    siblings.add( new HashMap<String, int[]>() );
+                }
+                siblings.get( depth ).clear();
+            }
+            
+            for( int q=0; q<queries.length; q++ )
+            {
+                StreamingXPath query = queries[ q ];
+                long bits = states[ parent + q ];
+                long next = 0;
+                
+                if( results[ q ] == null && bits != 0 )
+                {
+                    for( int i=0; i<query.steps.length; i++ )
+                    {
+                        if( ( bits & ( 1L << i ) ) != 0 )
+                        {
+                            Step step = query.steps[ i ];
+                            
+                            if( step.descendant )
+                            {
+                                next |= 1L << i;
+                            }
+                            if( step.matches( element, attributes, step.name == null ? any : sameName ) )
+                            {
+                                next |= 1L << ( i + 1 );
+                            }
+                        }
+                    }
+                    
+                    // a //@name or //text() applies to every element below a match
+                    if( query.descendantSelect )
+                    {
+                        next |= bits & ( 1L << query.steps.length );
+                    }
+                }
+                
+                states[ child + q ] = next;
+                
+                if( ( next & ( 1L << query.steps.length ) ) != 0 )
+                {
+                    matched( q, attributes );
+                }
+            }
+        }
+        
+        /**
+         * This method handles an element that matches a whole query.
+         * @param q The index of the query.
+         * @param attributes The attributes of the element.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private void matched( int q, Attributes attributes )
+        {
+            StreamingXPath query = queries[ q ];
+            
+            if( query.select == SELECT_ATTRIBUTE )
+            {
+                String value = attributes.getAttribute( query.attribute );
+                
+                if( value != null )
+                {
+                    found( q, value );
+                }
+            }
+            else if( query.select == SELECT_ELEMENT && textDepth[ q ] < 0 )
+            {
+                textDepth[ q ] = depth;
+                text( q ).setLength( 0 );
+            }
+        }
+        
+        /**
+         * This method handles the end of an element.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private void endElement()
+        {
+            for( int q=0; q<queries.length; q++ )
+            {
+                if( queries[ q ].select == SELECT_ELEMENT && textDepth[ q ] == depth )
+                {
+                    found( q, text[ q ].toString() );
+                }
+            }
+            
+            --depth;
+        }
+        
+        /**
+         * This method collects text for the queries that want it.
+         * @param ch The characters.
+         * @param start The index of the first character.
+         * @param length The number of characters.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private void characters( char[] ch, int start, int length )
+        {
+            int current = depth * queries.length;
+            
+            for( int q=0; q<queries.length; q++ )
+            {
+                StreamingXPath query = queries[ q ];
+                
+                if( results[ q ] != null )
+                {
+                    continue;
+                }
+                
+                if( query.select == SELECT_ELEMENT && textDepth[ q ] >= 0 )
+                {
+                    text[ q ].append( ch, start, length );
+                }
+                else if( query.select == SELECT_TEXT && ( states[ current + q ] & ( 1L << query.steps.length ) ) != 0 )
+                {
+                    if( textDepth[ q ] < 0 )
+                    {
+                        textDepth[ q ] = depth;
+                        text( q ).setLength( 0 );
+                    }
+                    text[ q ].append( ch, start, length );
+                }
+            }
+        }
+        
+        /**
+         * This method ends the text node that was being collected (for the
+         * text() queries), since some other event came along.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private void endText()
+        {
+            for( int q=0; q<queries.length; q++ )
+            {
+                if( queries[ q ].select == SELECT_TEXT && textDepth[ q ] >= 0 )
+                {
+                    found( q, text[ q ].toString() );
+                }
+            }
+        }
+        
+        /**
+         * This method records the value of a query.
+         * @param q The index of the query.
+         * @param value The value.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private void found( int q, String value )
+        {
+            if( results[ q ] == null )
+            {
+                results[ q ] = value;
+                --remaining;
+            }
+            
+            textDepth[ q ] = -1;
+        }
+        
+        /**
+         * Getter for the results.
+         * @return The value of each query, or null for the ones without a match.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public String[] getResults()
+        {
+            return results;
+        }
+        
+        /**
+         * This method gives you the text buffer of a query (creating it if necessary).
+         * @param q The index of the query.
+         * @return The StringBuilder.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private StringBuilder text( int q )
+        {
+            if( text[ q ] == null )
+            {
+                text[ q ] = new StringBuilder();
+            }
+            
+            return text[ q ];
+        }
+        
+        /**
+         * This method counts a child element.
+         * @param counts The counts of the children of the parent element.
+         * @param name The name of the child, or null to count all children.
+         * @return The count, including this child.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private static int increment( HashMap<String, int[]> counts, String name )
+        {
+            int[] count = counts.get( name );
+            
+            if( count == null )
+            {
+                count = new int[ 1 ];
+                counts.put( name, count );
+            }
+            
+            return ++count[ 0 ];
+        }
+    }
+}
@@ -11,13 +11,30 @@
 
 package com.xml.utils;
 
+import com.xml.transport.io.TransportMetrics;
+import com.xml.transport.io.XMLInputStream;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import javax.xml.parsers.*;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
 import javax.xml.transform.*;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import org.w3c.dom.*;
+import org.w3c.dom.events.Event;
+import org.w3c.dom.events.EventListener;
+import org.w3c.dom.events.EventTarget;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
@@ -36,23 +53,53 @@ public abstract class XMLUtils
     //==========================================================================
     private static DocumentBuilderFactory       dbf             = null;
     private static TransformerFactory           tf              = null;
+    private static SAXParserFactory             spf             = null;
+    private static XMLInputFactory              xif             = null;
     private static DefaultErrorHandler          errorHandler    =   null;
     
+    // the builders, transformers and parsers are not thread safe, so they are borrowed
+    // from bounded pools (a few per core, however many threads, virtual or not, there are)
+    static final int                                    POOL_SIZE       = Math.max( 4, 2 * Runtime.getRuntime().availableProcessors() );
+    private static final Pool<DocumentBuilder>          builders        = new Pool<DocumentBuilder>( POOL_SIZE );
+    private static final Pool<Transformer>              transformers    = new Pool<Transformer>( POOL_SIZE );
+    private static final Pool<SAXParser>                saxParsers      = new Pool<SAXParser>( POOL_SIZE );
+    
+    /** Elements with fewer children than this are scanned, rather than indexed. */
+    public static final int                     MIN_INDEXED_CHILDREN    = 16;
+    
+    // the user data keys of the child index
+    private static final String                 CHILD_INDEX             = "com.xml.utils.XMLUtils.childIndex";
+    private static final String                 CHILD_INDEX_LISTENER    = "com.xml.utils.XMLUtils.childIndexListener";
+    
     //==========================================================================
     // Method(s)
     //==========================================================================
     
     /**
      * This method gets the child node with the provided name from the 
-     * provided start node.
+     * provided start node.  When the child index is enabled for the document
+     * (see setChildIndexEnabled()), wide elements are looked up in the index
+     * rather than scanned; note that the first lookup on an element then
+     * stores its index as DOM user data on it, so this "read" changes the
+     * Document.
      * @param start The Parent node to scan children.
      * @param nodeName The name of the node that we're looking for.
      * @return The Node with name: nodeName, whose parent is the start node.
      *
      * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
      */
+    @SuppressWarnings("unchecked")
     public static Node getChildNode( Node start, String nodeName )
     {
+        ChildIndex index = getChildIndex( start );
+        
+        if( index != null )
+        {
+            Object found = index.children.get( nodeName );
+            
+            return found instanceof Node ? (Node)found : found == null ? null : ((List<Node>)found).get( 0 );
+        }
+        
         Node child = null;
         
         NodeList children = start.getChildNodes();
@@ -71,6 +118,188 @@ public abstract class XMLUtils
         return child;
     }    
     
+    /**
+     * This method gets all of the child nodes with the provided name from the
+     * provided start node.  When the child index is enabled for the document,
+     * the first lookup on a wide element stores its index as DOM user data on
+     * it (see getChildNode()), so this "read" changes the Document.
+     * @param start The Parent node to scan children.
+     * @param nodeName The name of the nodes that we're looking for.
+     * @return The Nodes with name: nodeName, whose parent is the start node, in
+     * document order (an empty List if there are none).  The List is read only,
+     * whether or not the index is enabled.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Node> getChildNodes( Node start, String nodeName )
+    {
+        ChildIndex index = getChildIndex( start );
+        
+        if( index != null )
+        {
+            Object found = index.children.get( nodeName );
+            
+            return found instanceof Node ? Collections.singletonList( (Node)found )
+                : found == null ? Collections.<Node>emptyList() : Collections.unmodifiableList( (List<Node>)found );
+        }
+        
+        List<Node> matches = new ArrayList<Node>();
+        NodeList children = start.getChildNodes();
+        
+        for( int i=0; i<children.getLength(); i++ )
+        {
+            Node n = children.item( i );
+            
+            if( nodeName.equals( n.getNodeName() ) )
+            {
+                matches.add( n );
+            }
+        }
+        
+        return Collections.unmodifiableList( matches );
+    }
+    
+    /**
+     * This method turns the child name index of a Document on or off.  Once it
+     * is on, the first getChildNode() or getChildNodes() call on an element with
+     * at least MIN_INDEXED_CHILDREN children indexes its children by name, and
+     * later calls are answered from the index (amortised constant time rather
+     * than a scan).
+     * <br/><br/>
+     * The indexes are kept with the Document and thrown away whenever a node is
+     * inserted into or removed from it; to be told about that, the Document
+     * has to dispatch DOM mutation events, which makes changing it a little
+     * slower.  So turn it on for documents that are looked up much more often
+     * than they are changed.  Document.renameNode() does not raise a mutation
+     * event, so turn the index off and on again after renaming children.
+     * @param doc The Document (it must support DOM events, as the JAXP one does).
+     * @param enabled True to index children, false to go back to scanning.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static void setChildIndexEnabled( Document doc, boolean enabled )
+    {
+        ChildIndexListener listener = (ChildIndexListener)doc.getUserData( CHILD_INDEX_LISTENER );
+        
+        if( listener != null )
+        {
+            ((EventTarget)doc).removeEventListener( "DOMNodeInserted", listener, true );
+            ((EventTarget)doc).removeEventListener( "DOMNodeRemoved", listener, true );
+            doc.setUserData( CHILD_INDEX_LISTENER, null, null );
+        }
+        
+        if( enabled )
+        {
+            if( !(doc instanceof EventTarget) )
+            {
+                throw new UnsupportedOperationException( "The Document does not support DOM events: " + doc.getClass().getName() );
+            }
+            
+            // a new listener starts a new generation, so any old indexes are stale
+            listener = new ChildIndexListener();
+            ((EventTarget)doc).addEventListener( "DOMNodeInserted", listener, true );
+            ((EventTarget)doc).addEventListener( "DOMNodeRemoved", listener, true );
+            doc.setUserData( CHILD_INDEX_LISTENER, listener, null );
+        }
+    }
+    
+    /**
+     * This method tells you if the child name index is on for a Document.
+     * @param doc The Document.
+     * @return True if it is.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static boolean isChildIndexEnabled( Document doc )
+    {
+        return doc.getUserData( CHILD_INDEX_LISTENER ) != null;
+    }
+    
+    /**
+     * This method gives you the (current) child index of an element, building
+     * it if necessary.
+     * @param start The element.
+     * @return The index, or null if the element should be scanned instead.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static ChildIndex getChildIndex( Node start )
+    {
+        Document doc = start.getOwnerDocument();
+        
+        if( doc == null || start.getNodeType() != Node.ELEMENT_NODE )
+        {
+            return null;
+        }
+        
+        ChildIndexListener listener = (ChildIndexListener)doc.getUserData( CHILD_INDEX_LISTENER );
+        
+        if( listener == null )
+        {
+            return null;
+        }
+        
+        ChildIndex index = (ChildIndex)start.getUserData( CHILD_INDEX );
+        
+        if( index != null && index.listener == listener && index.generation == listener.generation )
+        {
+            return index;
+        }
+        
+        if( index != null )
+        {
+            start.setUserData( CHILD_INDEX, null, null );
+        }
+        
+        NodeList children = start.getChildNodes();
+        
+        if( children.getLength() < MIN_INDEXED_CHILDREN )
+        {
+            return null;
+        }
+        
+        // a detached element is not watched, so it is not indexed either (removing
+        // an indexed element, or one of its ancestors, starts a new generation)
+        Node root = start;
+        while( root.getParentNode() != null )
+        {
+            root = root.getParentNode();
+        }
+        
+        if( root != doc )
+        {
+            return null;
+        }
+        
+        index = new ChildIndex( listener );
+        
+        for( int i=0; i<children.getLength(); i++ )
+        {
+            index.add( children.item( i ) );
+        }
+        
+        start.setUserData( CHILD_INDEX, index, null );
+        
+        return index;
+    }
+    
+    /**
+     * This method gets the child element with the provided name from the
+     * provided start element of a CompactDocument.
+     * @param doc The CompactDocument.
+     * @param start The Parent element to scan children.
+     * @param nodeName The name of the element that we're looking for.
+     * @return The first child of start with name: nodeName, or
+     * CompactDocument.NONE (-1) if it has none.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static int getChildNode( CompactDocument doc, int start, String nodeName )
+    {
+        return doc.getChild( start, nodeName );
+    }
+    
     /**
      * This method creates a text node from the provided Document object, node name,
      * and node value.
@@ -90,7 +319,9 @@ public abstract class XMLUtils
     }
     
     /**
-     * This method reads an XML Document from the provided InputStream.
+     * This method reads an XML Document from the provided InputStream.  If it is
+     * an XMLInputStream with metrics on, the time spent parsing (less the time
+     * spent reading) is recorded in them.
      * @param in The InputStream object.
      * @return The Document object that was read from the stream.
      * @throws ParserConfigurationException
@@ -101,13 +332,180 @@ public abstract class XMLUtils
      */
     public static Document readDocument( InputStream in ) throws ParserConfigurationException, SAXException, IOException
     {
-        getDocumentBuilderFactory().setXIncludeAware(true);
-        
-        DocumentBuilder builder = getDocumentBuilderFactory().newDocumentBuilder();
+        DocumentBuilder builder = borrowDocumentBuilder();
+        TransportMetrics metrics = getMetrics( in );
+        long start = metrics == null ? 0 : System.nanoTime() - getReadNanos( in );
         
-        return getDocumentBuilderFactory().newDocumentBuilder().parse( in );
+        try
+        {
+            Document doc = builder.parse( in );
+            
+            if( metrics != null )
+            {
+                metrics.documentParsed( System.nanoTime() - start - getReadNanos( in ) );
+            }
+            
+            return doc;
+        }
+        finally
+        {
+            builders.release( builder );
+        }
     }    
     
+    /**
+     * This method reads an XML Document from the raw bytes of a frame (see
+     * XMLInputStream.readFrame()), recording the time spent parsing it.
+     * @param frame The bytes of the Document.
+     * @param metrics The metrics to record the parse in, or null.
+     * @return The Document object.
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Document readDocument( byte[] frame, TransportMetrics metrics ) throws ParserConfigurationException, SAXException, IOException
+    {
+        long start = metrics == null ? 0 : System.nanoTime();
+        Document doc = readDocument( new ByteArrayInputStream( frame ) );
+        
+        if( metrics != null )
+        {
+            metrics.documentParsed( System.nanoTime() - start );
+        }
+        
+        return doc;
+    }
+    
+    /**
+     * This method reads an XML Document from the provided InputStream as SAX
+     * events, without building it in memory.  When the stream is an
+     * XMLInputStream, it is left at the end of the document, even if the
+     * handler stops the parse early by throwing an exception.
+     * @param in The InputStream object.
+     * @param handler The handler for the events of the document.
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static void readDocument( InputStream in, ContentHandler handler ) throws ParserConfigurationException, SAXException, IOException
+    {
+        SAXParser parser = saxParsers.borrow();
+        
+        if( parser == null )
+        {
+            parser = getSAXParserFactory().newSAXParser();
+        }
+        else
+        {
+            parser.reset();
+        }
+        
+        TransportMetrics metrics = getMetrics( in );
+        long start = metrics == null ? 0 : System.nanoTime() - getReadNanos( in );
+        
+        try
+        {
+            XMLReader reader = parser.getXMLReader();
+            reader.setContentHandler( handler );
+            reader.setErrorHandler( getErrorHandler() );
+            reader.parse( new InputSource( in ) );
+            
+            if( metrics != null )
+            {
+                metrics.documentParsed( System.nanoTime() - start - getReadNanos( in ) );
+            }
+        }
+        finally
+        {
+            saxParsers.release( parser );
+            skipDocument( in );
+        }
+    }
+    
+    /**
+     * This method gives you a StAX reader over the XML Document in the provided
+     * InputStream, so you can pull its events without building it in memory.
+     * When the stream is an XMLInputStream, closing the reader skips whatever
+     * is left of the document, so you may stop reading at any point and the
+     * stream is still left at the end of the document.
+     * @param in The InputStream object.
+     * @return The XMLStreamReader (close it when you are done).
+     * @throws XMLStreamException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static XMLStreamReader getXMLStreamReader( final InputStream in ) throws XMLStreamException
+    {
+        XMLStreamReader reader = getXMLInputFactory().createXMLStreamReader( in );
+        
+        return new StreamReaderDelegate( reader )
+        {
+            public void close() throws XMLStreamException
+            {
+                super.close();
+                
+                try
+                {
+                    skipDocument( in );
+                }
+                catch( IOException ex )
+                {
+                    throw new XMLStreamException( ex );
+                }
+            }
+        };
+    }
+    
+    /**
+     * This method skips the rest of the current document of an XMLInputStream
+     * (the bytes are scanned for the end of the document, but not parsed).  Any
+     * other kind of stream is left alone.
+     * @param in The InputStream object.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static void skipDocument( InputStream in ) throws IOException
+    {
+        if( in instanceof XMLInputStream )
+        {
+            in.skip( Long.MAX_VALUE );
+        }
+    }
+    
+    /**
+     * This method gives you the metrics of an XMLInputStream, so that the time
+     * spent parsing its documents can be recorded.
+     * @param in The InputStream object.
+     * @return The TransportMetrics, or null if it is not an XMLInputStream, or metrics are off.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static TransportMetrics getMetrics( InputStream in )
+    {
+        return in instanceof XMLInputStream ? ((XMLInputStream)in).getMetrics() : null;
+    }
+    
+    /**
+     * This method tells you how long an XMLInputStream (with metrics on) has
+     * spent reading the current document, so that it can be taken out of the
+     * time spent parsing it.
+     * @param in The InputStream object.
+     * @return The time spent waiting for and framing the document, in nanoseconds.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static long getReadNanos( InputStream in )
+    {
+        XMLInputStream xin = (XMLInputStream)in;
+        
+        return xin.getWaitNanos() + xin.getFramingNanos();
+    }
+    
     /**
      * This method writes the provided XML Document to the provided OutputStream.
      * @param doc The XML Document to write to the stream.
@@ -119,13 +517,72 @@ public abstract class XMLUtils
      */
     public static void writeDocument( Document doc, OutputStream out ) throws TransformerConfigurationException, TransformerException
     {
-        Transformer t = getNewTransformer();
+        Transformer t = transformers.borrow();
+        
+        if( t == null )
+        {
+            t = getNewTransformer();
+        }
+        else
+        {
+            t.reset();
+        }
         
-        DOMSource ds = new DOMSource(doc);
-        StreamResult sr = new StreamResult( out );
-        t.transform( ds, sr );
+        try
+        {
+            DOMSource ds = new DOMSource(doc);
+            StreamResult sr = new StreamResult( out );
+            t.transform( ds, sr );
+        }
+        finally
+        {
+            transformers.release( t );
+        }
     }   
     
+    /**
+     * This method writes the provided XML Document to the provided OutputStream,
+     * preceded by a frame header that gives its length.  A reader using the
+     * <code>XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED</code> framing mode
+     * can then read it without scanning for the end of the document.
+     * @param doc The XML Document to write to the stream.
+     * @param out The OutputStream to write to.
+     * @throws TransformerConfigurationException
+     * @throws TransformerException
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static void writeFramedDocument( Document doc, OutputStream out ) throws TransformerConfigurationException, TransformerException, IOException
+    {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        writeDocument( doc, payload );
+        
+        writeFrameHeader( payload.size(), out );
+        payload.writeTo( out );
+    }
+    
+    /**
+     * This method writes a frame header for a document of the provided length.
+     * @param length The length (in bytes) of the document that follows the header.
+     * @param out The OutputStream to write to.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static void writeFrameHeader( int length, OutputStream out ) throws IOException
+    {
+        byte[] header = new byte[ XMLInputStream.FRAME_HEADER_LENGTH ];
+        
+        header[0] = (byte)XMLInputStream.FRAME_MARKER;
+        header[1] = (byte)( length >>> 24 );
+        header[2] = (byte)( length >>> 16 );
+        header[3] = (byte)( length >>> 8 );
+        header[4] = (byte)length;
+        
+        out.write( header );
+    }
+    
     /**
      * This method takes an XML Document, and converts it to a String for you.
      * @param doc The XML Document to be converted to a String.
@@ -152,17 +609,28 @@ public abstract class XMLUtils
      */
     public static Document getNewDocument() throws ParserConfigurationException
     {
-        return getDocumentBuilder().newDocument();
-    }
+        DocumentBuilder builder = borrowDocumentBuilder();
         
+        try
+        {
+            return builder.newDocument();
+        }
+        finally
+        {
+            builders.release( builder );
+        }
+    }
+    
     /**
-     * This method gives you a new Transformer Instance.
+     * This method gives you a new Transformer Instance.  Unlike the one used by
+     * writeDocument(), it is not shared, so you are free to set its output
+     * properties.
      * @return A new Transformer object instance.
      * @throws TransformerConfigurationException
      *
      * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
      */
-    private static Transformer getNewTransformer() throws TransformerConfigurationException
+    public static Transformer getNewTransformer() throws TransformerConfigurationException
     {
         return getTransformerFactory().newTransformer();
     }
@@ -198,6 +666,31 @@ public abstract class XMLUtils
         return builder;
     }
     
+    /**
+     * This method borrows a Document builder from the pool (creating one if the
+     * pool is empty), reset so that it is ready to use.  The caller must give it
+     * back by releasing it to the builders pool when done; until then a nested
+     * call on the same thread simply gets a builder of its own.
+     * @return A Document Builder object that only the caller is using.
+     * @throws ParserConfigurationException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static DocumentBuilder borrowDocumentBuilder() throws ParserConfigurationException
+    {
+        DocumentBuilder builder = builders.borrow();
+        
+        if( builder == null )
+        {
+            return getDocumentBuilder();
+        }
+        
+        builder.reset();
+        builder.setErrorHandler(getErrorHandler());
+        
+        return builder;
+    }
+    
     /**
      * This method gives you the factory; creating it if necessary.
      * @return The DocumentBuilderFactory instance.
@@ -209,11 +702,50 @@ public abstract class XMLUtils
         if( dbf == null )
         {
             dbf = DocumentBuilderFactory.newInstance();
+            dbf.setXIncludeAware(true);
         }
         
         return dbf;
     }
     
+    /**
+     * This method gives you the SAX parser factory; creating it if necessary.
+     * It is configured like the DocumentBuilderFactory, but namespace aware, so
+     * that handlers get local names.
+     * @return The SAXParserFactory instance.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static synchronized SAXParserFactory getSAXParserFactory()
+    {
+        if( spf == null )
+        {
+            spf = SAXParserFactory.newInstance();
+            spf.setNamespaceAware(true);
+            spf.setXIncludeAware(true);
+        }
+        
+        return spf;
+    }
+    
+    /**
+     * This method gives you the StAX factory; creating it if necessary.
+     * External entities are not resolved.
+     * @return The XMLInputFactory instance.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    static synchronized XMLInputFactory getXMLInputFactory()
+    {
+        if( xif == null )
+        {
+            xif = XMLInputFactory.newInstance();
+            xif.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE );
+        }
+        
+        return xif;
+    }
+    
     /**
      * This method yields the DefaultErrorHandler for Errors inside the XML
      * API calls.
@@ -234,9 +766,160 @@ public abstract class XMLUtils
     //==========================================================================
     // INNER CLASS(ES)
     //==========================================================================
-
+    
+    /**
+     * This class counts the insertions and removals made to a Document, so
+     * that the child indexes can tell when they are stale.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class ChildIndexListener implements EventListener
+    {
+        private int         generation      = 0;
+        
+        public void handleEvent( Event evt )
+        {
+            ++generation;
+        }
+    }
+    
     /**
-     * This class is used to Handle Errors.
+     * This class is the index of the children of one element, by name.  A
+     * name maps to the only child with that name, or to the List of them.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class ChildIndex
+    {
+        private ChildIndexListener          listener        = null;
+        private int                         generation      = 0;
+        private HashMap<String, Object>     children        = new HashMap<String, Object>();
+        
+        /**
+         * Creates a new instance of ChildIndex.
+         * @param listener The listener of the Document.
+         */
+        public ChildIndex( ChildIndexListener listener )
+        {
+            this.listener = listener;
+            this.generation = listener.generation;
+        }
+        
+        /**
+         * This method adds the next child.
+         * @param child The child.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        @SuppressWarnings("unchecked")
+        public void add( Node child )
+        {
+            Object found = children.put( child.getNodeName(), child );
+            
+            if( found instanceof Node )
+            {
+                List<Node> list = new ArrayList<Node>( 2 );
+                list.add( (Node)found );
+                list.add( child );
+                children.put( child.getNodeName(), list );
+            }
+            else if( found != null )
+            {
+                ((List<Node>)found).add( child );
+                children.put( child.getNodeName(), found );
+            }
+        }
+    }
+    
+    /**
+     * This class is a small, bounded pool of objects that are not thread safe
+     * (builders, transformers and parsers here, and the XPath objects and
+     * compiled expressions of XPathUtils).  It is an array of slots that are
+     * taken and filled without locking; each thread starts looking at a slot
+     * picked by its id, so a thread usually gets back the object it released
+     * last.  Borrowing from an empty pool gives you null (so the caller makes
+     * a new one), and an object released to a full pool is dropped.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    static class Pool<T>
+    {
+        private final AtomicReferenceArray<T>   slots;
+        
+        /**
+         * Creates a new instance of Pool.
+         * @param size The most objects it keeps.
+         */
+        public Pool( int size )
+        {
+            slots = new AtomicReferenceArray<T>( size );
+        }
+        
+        /**
+         * This method takes an object out of the pool.
+         * @return The object, or null if the pool is empty.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public T borrow()
+        {
+            int size = slots.length();
+            int home = getHome();
+            
+            for( int i=0; i<size; i++ )
+            {
+                int slot = ( home + i ) % size;
+                T item = slots.get( slot );
+                
+                if( item != null && slots.compareAndSet( slot, item, null ) )
+                {
+                    return item;
+                }
+            }
+            
+            return null;
+        }
+        
+        /**
+         * This method puts an object back in the pool (or drops it, if the pool
+         * is full).
+         * @param item The object.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public void release( T item )
+        {
+            int size = slots.length();
+            int home = getHome();
+            
+            for( int i=0; i<size; i++ )
+            {
+                int slot = ( home + i ) % size;
+                
+                if( slots.get( slot ) == null && slots.compareAndSet( slot, null, item ) )
+                {
+                    return;
+                }
+            }
+        }
+        
+        /**
+         * This method gives you the slot the calling thread looks at first.
+         * @return The slot.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private int getHome()
+        {
+            return (int)( Thread.currentThread().getId() % slots.length() );
+        }
+    }
+    
+    /**
+     * This class is used to Handle Errors.  It prints nothing: warnings and
+     * recoverable errors are ignored, and a fatal error is thrown, so that the
+     * caller gets it as the SAXException of the parse (a malformed message on a
+     * busy connection must not dump a stack trace to stderr).
      *
      * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
      */
@@ -245,19 +928,17 @@ public abstract class XMLUtils
         public void warning(SAXParseException ex) throws SAXException
         {
 //            Logger.getLogger(getClass()).warn("SaxParserException: " + ex.getMessage(),ex);
-        	ex.printStackTrace();
         }
-
+        
         public void error(SAXParseException ex) throws SAXException
         {
 //            Logger.getLogger(getClass()).error("SaxParserException: " + ex.getMessage(),ex);
-        	ex.printStackTrace();
         }
-
+        
         public void fatalError(SAXParseException ex) throws SAXException
         {
 //            Logger.getLogger(getClass()).fatal("SaxParserException: " + ex.getMessage(),ex);
-        	ex.printStackTrace();
+            throw ex;
         }
     }
     
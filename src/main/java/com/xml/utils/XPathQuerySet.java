@@ -0,0 +1,312 @@
+/*
+ * FILE:        XPathQuerySet.java
+ *
+ * CREATED:     October 18, 2026
+ *
+ * NOTES:
+ *
+ * COPYRIGHT:   LGPL
+ *
+ */
+
+package com.xml.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.xpath.XPathExpressionException;
+import org.w3c.dom.Document;
+
+//--------------------------------------------------------------------------
+// CLASS XPathQuerySet
+//--------------------------------------------------------------------------
+/**
+ * This class evaluates a named set of expressions together, in a single pass
+ * over a document, rather than walking the document once per expression.  The
+ * cost per message grows with the size of the document, not with the size of
+ * the document times the number of expressions.
+ * <br/><br/>
+ * The expressions are those of the {@link StreamingXPath} subset, and the set
+ * can be evaluated over a stream (usually an XMLInputStream, without building a
+ * DOM; reading stops once every expression has a value) or over a Document
+ * that has already been read.
+ * <br/><br/>
+ * <b>Sample Usage</b>:<br/>
+ * <pre>
+ * XPathQuerySet routing = new XPathQuerySet()
+ *     .add("type", "/msg/header/@type")
+ *     .add("to", "/msg/header/to")
+ *     .add("priority", "/msg/header/@priority");
+ * ...
+ * XPathQuerySet.Result r = routing.evaluate(xmlInputStream);
+ * xmlInputStream.reset();
+ * if( "order".equals(r.get("type")) ) ...
+ * </pre>
+ * Build the set once and then share it; evaluating it is thread safe, but
+ * adding to it is not.
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XPathQuerySet
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    private String[]                    names               = new String[ 0 ];
+    private StreamingXPath[]            queries             = new StreamingXPath[ 0 ];
+    private Map<String, Integer>        index               = new HashMap<String, Integer>();
+    
+    /**
+     * Creates a new, empty, instance of XPathQuerySet.
+     */
+    public XPathQuerySet()
+    {
+    }
+    
+    /**
+     * Creates a new instance of XPathQuerySet from a Map of names to expressions.
+     * @param expressions The expressions, by name.
+     * @throws XPathExpressionException If one of the expressions is not valid.
+     */
+    public XPathQuerySet( Map<String, String> expressions ) throws XPathExpressionException
+    {
+        for( Map.Entry<String, String> entry : expressions.entrySet() )
+        {
+            add( entry.getKey(), entry.getValue() );
+        }
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * This method adds an expression to the set.
+     * @param name The name to look the value up by.
+     * @param expression The expression.
+     * @return This set (so calls can be chained).
+     * @throws XPathExpressionException If the expression is not valid.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XPathQuerySet add( String name, String expression ) throws XPathExpressionException
+    {
+        return add( name, StreamingXPath.compile( expression ) );
+    }
+    
+    /**
+     * This method adds a compiled expression to the set.
+     * @param name The name to look the value up by.
+     * @param expression The compiled expression.
+     * @return This set (so calls can be chained).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XPathQuerySet add( String name, StreamingXPath expression )
+    {
+        if( index.containsKey( name ) )
+        {
+            throw new IllegalArgumentException( "The set already has an expression named " + name );
+        }
+        
+        index.put( name, names.length );
+        names = Arrays.copyOf( names, names.length + 1 );
+        queries = Arrays.copyOf( queries, queries.length + 1 );
+        names[ names.length - 1 ] = name;
+        queries[ queries.length - 1 ] = expression;
+        
+        return this;
+    }
+    
+    /**
+     * This method evaluates the set over the document read from the provided
+     * stream.  When the stream is an XMLInputStream it is left at the end of
+     * the document.
+     * @param in The stream to read the document from.
+     * @return The values.
+     * @throws XMLStreamException If the document is not well formed.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Result evaluate( InputStream in ) throws XMLStreamException, IOException
+    {
+        return new Result( this, StreamingXPath.evaluate( in, queries ) );
+    }
+    
+    /**
+     * This method evaluates the set over a Document, walking it once (and only
+     * as far as it needs to).
+     * @param doc The Document.
+     * @return The values.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Result evaluate( Document doc )
+    {
+        StreamingXPath.Evaluation evaluation = new StreamingXPath.Evaluation( queries );
+        evaluation.run( doc );
+        
+        return new Result( this, evaluation.getResults() );
+    }
+    
+    /**
+     * This method evaluates the set over a CompactDocument, walking it once
+     * (and only as far as it needs to).
+     * @param doc The CompactDocument.
+     * @return The values.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public Result evaluate( CompactDocument doc )
+    {
+        StreamingXPath.Evaluation evaluation = new StreamingXPath.Evaluation( queries );
+        evaluation.run( doc );
+        
+        return new Result( this, evaluation.getResults() );
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * Getter for the names of the expressions, in the order they were added.
+     * @return The names.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public List<String> getNames()
+    {
+        return Collections.unmodifiableList( Arrays.asList( names ) );
+    }
+    
+    /**
+     * Getter for an expression of the set.
+     * @param name The name of the expression.
+     * @return The compiled expression, or null if there is none by that name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public StreamingXPath getExpression( String name )
+    {
+        Integer i = index.get( name );
+        
+        return i == null ? null : queries[ i ];
+    }
+    
+    /**
+     * This method tells you how many expressions are in the set.
+     * @return The number of expressions.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public int size()
+    {
+        return names.length;
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class holds the values of a set of expressions for one document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static class Result
+    {
+        private String[]                names               = null;
+        private Map<String, Integer>    index               = null;
+        private String[]                values              = null;
+        
+        /**
+         * Creates a new instance of Result.
+         * @param set The set that was evaluated.
+         * @param values The value of each expression (in the order of the set).
+         */
+        private Result( XPathQuerySet set, String[] values )
+        {
+            this.names = set.names;
+            this.index = set.index;
+            this.values = values;
+        }
+        
+        /**
+         * This method gives you the value of an expression.
+         * @param name The name of the expression.
+         * @return The value, or null if the expression did not match.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public String get( String name )
+        {
+            Integer i = index.get( name );
+            
+            if( i == null || i >= values.length )
+            {
+                throw new IllegalArgumentException( "No expression named " + name );
+            }
+            
+            return values[ i ];
+        }
+        
+        /**
+         * This method gives you the value of an expression, or the empty String
+         * if it did not match (like <code>XPathUtils.getString()</code>).
+         * @param name The name of the expression.
+         * @return The value.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public String getString( String name )
+        {
+            String value = get( name );
+            
+            return value == null ? "" : value;
+        }
+        
+        /**
+         * This method tells you if an expression matched.
+         * @param name The name of the expression.
+         * @return True if it has a value.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public boolean isFound( String name )
+        {
+            return get( name ) != null;
+        }
+        
+        /**
+         * This method gives you the values as a Map, in the order of the set
+         * (expressions that did not match map to null).
+         * @return The values, by name.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public Map<String, String> toMap()
+        {
+            Map<String, String> map = new LinkedHashMap<String, String>();
+            
+            for( int i=0; i<values.length; i++ )
+            {
+                map.put( names[ i ], values[ i ] );
+            }
+            
+            return map;
+        }
+        
+        public String toString()
+        {
+            return toMap().toString();
+        }
+    }
+}
@@ -12,6 +12,11 @@
 
 package com.xml.utils;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.xml.namespace.QName;
 import javax.xml.xpath.*;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -21,6 +26,23 @@ import org.w3c.dom.NodeList;
 //------------------------------------------------------------------------------
 /**
  * This class provides some utility methods for using XPath under Java 5.
+ * <br/><br/>
+ * Expressions are compiled once and kept in a bounded (least recently used)
+ * cache, keyed by the expression text (the expressions evaluated over a
+ * CompactDocument are kept in a second cache of the same capacity).  Code that evaluates the same expression
+ * over and over can skip the cache lookup by holding on to the result of
+ * {@link #compile(String)}:
+ * <pre>
+ * XPathUtils.CompiledExpression type = XPathUtils.compile("/message/@type");
+ * ...
+ * String t = type.getString(doc);
+ * </pre>
+ * All of the methods are thread safe.  Neither XPath objects nor compiled
+ * XPathExpressions are, so each evaluation borrows a compiled copy of the
+ * expression from a small pool that the handle keeps (compiling another copy
+ * only if they are all in use); evaluations never wait on each other, and the
+ * cache is looked up without taking a lock (only evicting from a full cache
+ * does).
  *
  * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
  */
@@ -31,7 +53,14 @@ public abstract class XPathUtils
     // VARIABLE(S)
     //==========================================================================
     private static XPathFactory     xpathFactory        = null;
-    private static XPath            xpath               = null;
+    
+    // XPath objects are not thread safe, so they are borrowed from a bounded pool
+    private static final XMLUtils.Pool<XPath>   xpaths  = new XMLUtils.Pool<XPath>( XMLUtils.POOL_SIZE );
+    
+    public static final int         DEFAULT_CACHE_CAPACITY  = 256;
+    
+    private static ExpressionCache<CompiledExpression>  cache           = new ExpressionCache<CompiledExpression>( DEFAULT_CACHE_CAPACITY );
+    private static ExpressionCache<StreamingXPath>      streamingCache  = new ExpressionCache<StreamingXPath>( DEFAULT_CACHE_CAPACITY );
     
     //==========================================================================
     // METHOD(S)
@@ -85,7 +114,35 @@ public abstract class XPathUtils
      */
     public static String getString( Node parentNode, String expression ) throws XPathExpressionException
     {
-        return (String)getXPath().evaluate( expression, parentNode, XPathConstants.STRING );
+        return compile( expression ).getString( parentNode );
+    }
+    
+    //--------------------------------------------------------------------------
+    // getString
+    //--------------------------------------------------------------------------
+    /**
+     * This method gets you the String from a CompactDocument.  Only the
+     * expressions of the {@link StreamingXPath} subset are supported, and they
+     * are always evaluated from the document (not from an element).
+     * @param doc The CompactDocument.
+     * @param expression The XPath Expression to evaluate.
+     * @return The String that you want to extract, or the empty String if nothing matched.
+     * @throws XPathExpressionException If the expression is not in the subset.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static String getString( CompactDocument doc, String expression ) throws XPathExpressionException
+    {
+        StreamingXPath compiled = streamingCache.get( expression );
+        
+        if( compiled == null )
+        {
+            compiled = streamingCache.put( expression, StreamingXPath.compile( expression ) );
+        }
+        
+        String value = compiled.evaluate( doc );
+        
+        return value == null ? "" : value;
     }
     
     //--------------------------------------------------------------------------
@@ -102,7 +159,7 @@ public abstract class XPathUtils
      */
     public static Node getNode( Node parentNode, String expression ) throws XPathExpressionException
     {
-        return (Node) getXPath().evaluate(expression, parentNode, XPathConstants.NODE);
+        return compile( expression ).getNode( parentNode );
     }
     
     //--------------------------------------------------------------------------
@@ -119,7 +176,47 @@ public abstract class XPathUtils
      */
     public static NodeList getNodeList(Node parentNode, String expression) throws XPathExpressionException
     {
-        return (NodeList) getXPath().evaluate(expression,parentNode,XPathConstants.NODESET);
+        return compile( expression ).getNodeList( parentNode );
+    }
+    
+    //--------------------------------------------------------------------------
+    // compile
+    //--------------------------------------------------------------------------
+    /**
+     * This method gives you the compiled form of an XPath expression, from the
+     * cache if it has been compiled before.  The result can be kept and
+     * evaluated as often as you like.
+     * @param expression The XPath Expression to compile.
+     * @return The compiled expression.
+     * @throws XPathExpressionException If the expression is not valid.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static CompiledExpression compile( String expression ) throws XPathExpressionException
+    {
+        CompiledExpression compiled = cache.get( expression );
+        
+        if( compiled != null )
+        {
+            return compiled;
+        }
+        
+        // if two threads race to compile it, they both get the one cached first
+        return cache.put( expression, new CompiledExpression( expression ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // clearCache
+    //--------------------------------------------------------------------------
+    /**
+     * This method empties the expression caches and zeroes their counters.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static void clearCache()
+    {
+        cache.clear();
+        streamingCache.clear();
     }
     
     //--------------------------------------------------------------------------
@@ -145,19 +242,421 @@ public abstract class XPathUtils
     // getXPath
     //--------------------------------------------------------------------------
     /**
-     * This method gives you an XPath object from the XPath Factory.
-     * @return A new XPath object.
+     * This method borrows an XPath object from the pool (creating one from the
+     * XPath Factory if the pool is empty).  Only the caller may use it until it
+     * is given back with {@link #releaseXPath(XPath)}.
+     * @return An XPath object that only the caller is using.
      *
      * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
      */
-    protected static synchronized XPath getXPath()
+    protected static XPath getXPath()
     {
+        XPath xpath = xpaths.borrow();
+        
         if( xpath == null )
         {
-            xpath = getXPathFactory().newXPath();
+            // the factory is not thread safe either
+            XPathFactory factory = getXPathFactory();
+            
+            synchronized( factory )
+            {
+                xpath = factory.newXPath();
+            }
         }
         
         return xpath;
     }
     
+    //--------------------------------------------------------------------------
+    // releaseXPath
+    //--------------------------------------------------------------------------
+    /**
+     * This method gives an XPath object from {@link #getXPath()} back to the pool.
+     * @param xpath The XPath object.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    protected static void releaseXPath( XPath xpath )
+    {
+        xpath.reset();
+        xpaths.release( xpath );
+    }
+    
+    //==========================================================================
+    //  GETTER(S) & SETTER(S)
+    //==========================================================================
+    
+    /**
+     * Setter for the maximum number of compiled expressions kept in each cache;
+     * the least recently used ones are evicted when it is full.
+     * @param capacity The capacity of the cache (at least 1).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static void setCacheCapacity( int capacity )
+    {
+        if( capacity < 1 )
+        {
+            throw new IllegalArgumentException( "The cache capacity must be at least 1: " + capacity );
+        }
+        
+        cache.setCapacity( capacity );
+        streamingCache.setCapacity( capacity );
+    }
+    
+    /**
+     * Getter for the maximum number of compiled expressions kept in each cache.
+     * @return The capacity of the cache.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static int getCacheCapacity()
+    {
+        return cache.capacity;
+    }
+    
+    /**
+     * Getter for the number of compiled expressions in the caches.
+     * @return The size of the cache.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static int getCacheSize()
+    {
+        return cache.entries.size() + streamingCache.entries.size();
+    }
+    
+    /**
+     * Getter for the number of lookups that found their expression in the cache.
+     * @return The number of cache hits.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static long getCacheHits()
+    {
+        return cache.hits.sum() + streamingCache.hits.sum();
+    }
+    
+    /**
+     * Getter for the number of lookups that had to compile their expression.
+     * @return The number of cache misses.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static long getCacheMisses()
+    {
+        return cache.misses.sum() + streamingCache.misses.sum();
+    }
+    
+    /**
+     * Getter for the number of expressions evicted from a full cache.
+     * @return The number of cache evictions.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static long getCacheEvictions()
+    {
+        return cache.evictions.sum() + streamingCache.evictions.sum();
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class is a compiled XPath expression; it is the handle returned by
+     * {@link XPathUtils#compile(String)}.  It may be shared between threads:
+     * it keeps a small pool of compiled copies, and an evaluation borrows one
+     * (compiling another only if they are all in use).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static class CompiledExpression
+    {
+        private String                          expression          = null;
+        private XMLUtils.Pool<XPathExpression>  compiled            = new XMLUtils.Pool<XPathExpression>( XMLUtils.POOL_SIZE );
+        
+        /**
+         * Creates a new instance of CompiledExpression, compiling the first
+         * copy (so that an invalid expression is reported right away).
+         * @param expression The text of the expression.
+         * @throws XPathExpressionException If the expression is not valid.
+         */
+        private CompiledExpression( String expression ) throws XPathExpressionException
+        {
+            this.expression = expression;
+            compiled.release( newCompiled() );
+        }
+        
+        /**
+         * This method evaluates the expression as a String.
+         * @param parentNode The Node to start at.
+         * @return The String result of the expression.
+         * @throws XPathExpressionException
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public String getString( Node parentNode ) throws XPathExpressionException
+        {
+            return (String)evaluate( parentNode, XPathConstants.STRING );
+        }
+        
+        /**
+         * This method evaluates the expression as a Node.
+         * @param parentNode The Node to start at.
+         * @return The first matching Node, or null.
+         * @throws XPathExpressionException
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public Node getNode( Node parentNode ) throws XPathExpressionException
+        {
+            return (Node)evaluate( parentNode, XPathConstants.NODE );
+        }
+        
+        /**
+         * This method evaluates the expression as a NodeList.
+         * @param parentNode The Node to start at.
+         * @return A node list of the matching nodes.
+         * @throws XPathExpressionException
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public NodeList getNodeList( Node parentNode ) throws XPathExpressionException
+        {
+            return (NodeList)evaluate( parentNode, XPathConstants.NODESET );
+        }
+        
+        /**
+         * This method evaluates the expression.
+         * @param parentNode The Node to start at.
+         * @param returnType One of the XPathConstants types.
+         * @return The result of the expression.
+         * @throws XPathExpressionException
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public Object evaluate( Node parentNode, QName returnType ) throws XPathExpressionException
+        {
+            XPathExpression xpe = compiled.borrow();
+            
+            if( xpe == null )
+            {
+                xpe = newCompiled();
+            }
+            
+            try
+            {
+                return xpe.evaluate( parentNode, returnType );
+            }
+            finally
+            {
+                compiled.release( xpe );
+            }
+        }
+        
+        /**
+         * This method compiles another copy of the expression.
+         * @return The XPathExpression.
+         * @throws XPathExpressionException If the expression is not valid.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private XPathExpression newCompiled() throws XPathExpressionException
+        {
+            XPath xpath = getXPath();
+            
+            try
+            {
+                return xpath.compile( expression );
+            }
+            finally
+            {
+                releaseXPath( xpath );
+            }
+        }
+        
+        /**
+         * Getter for the text of the expression.
+         * @return The XPath expression.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public String getExpression()
+        {
+            return expression;
+        }
+        
+        public String toString()
+        {
+            return expression;
+        }
+    }
+    
+    /**
+     * This class is an (approximately) least recently used cache of compiled
+     * expressions.  It is a ConcurrentHashMap, so looking an expression up does
+     * not take a lock.  Each entry is stamped from a clock, which only ticks when
+     * an expression is added or a stamp is refreshed; a lookup only refreshes a
+     * stamp that has fallen (at least) half the capacity behind the clock, so the
+     * lookups of a steady working set only read the clock, and never write it.
+     * The entry with the oldest stamp is evicted when the cache is full.  Only
+     * evicting takes the cache's lock.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class ExpressionCache<T>
+    {
+        private final ConcurrentHashMap<String, Entry>  entries     = new ConcurrentHashMap<String, Entry>();
+        private final AtomicLong    clock               = new AtomicLong();
+        private final LongAdder     hits                = new LongAdder();
+        private final LongAdder     misses              = new LongAdder();
+        private final LongAdder     evictions           = new LongAdder();
+        private volatile int        capacity            = 0;
+        
+        /**
+         * Creates a new instance of ExpressionCache.
+         * @param capacity The maximum number of expressions to keep.
+         */
+        public ExpressionCache( int capacity )
+        {
+            this.capacity = capacity;
+        }
+        
+        /**
+         * This method looks up a compiled expression, counting the hit or miss.
+         * @param expression The text of the expression.
+         * @return The compiled expression, or null if it is not cached.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public T get( String expression )
+        {
+            Entry entry = entries.get( expression );
+            
+            if( entry == null )
+            {
+                misses.increment();
+                return null;
+            }
+            
+            hits.increment();
+            entry.touch();
+            
+            return entry.compiled;
+        }
+        
+        /**
+         * This method caches a compiled expression, unless another thread
+         * cached the same expression first, and evicts the least recently
+         * used expressions if the cache is full.
+         * @param expression The text of the expression.
+         * @param compiled The compiled expression.
+         * @return The compiled expression that is in the cache.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public T put( String expression, T compiled )
+        {
+            Entry existing = entries.putIfAbsent( expression, new Entry( compiled, clock.incrementAndGet() ) );
+            
+            if( existing != null )
+            {
+                existing.touch();
+                return existing.compiled;
+            }
+            
+            if( entries.size() > capacity )
+            {
+                evict();
+            }
+            
+            return compiled;
+        }
+        
+        /**
+         * This method evicts the least recently used expressions until the
+         * cache is no bigger than its capacity.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private synchronized void evict()
+        {
+            while( entries.size() > capacity )
+            {
+                Map.Entry<String, Entry> eldest = null;
+                
+                for( Map.Entry<String, Entry> e : entries.entrySet() )
+                {
+                    if( eldest == null || e.getValue().stamp < eldest.getValue().stamp )
+                    {
+                        eldest = e;
+                    }
+                }
+                
+                if( eldest != null && entries.remove( eldest.getKey(), eldest.getValue() ) )
+                {
+                    evictions.increment();
+                }
+            }
+        }
+        
+        /**
+         * This method empties the cache and zeroes its counters.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public synchronized void clear()
+        {
+            entries.clear();
+            hits.reset();
+            misses.reset();
+            evictions.reset();
+        }
+        
+        /**
+         * Setter for the capacity; the least recently used expressions are
+         * evicted down to it.
+         * @param capacity The maximum number of expressions to keep.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        public void setCapacity( int capacity )
+        {
+            this.capacity = capacity;
+            evict();
+        }
+        
+        /**
+         * This class is an entry of the cache: the compiled expression, and the
+         * time (on the cache's clock) it was last used.
+         *
+         * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+         */
+        private class Entry
+        {
+            private final T                     compiled;
+            private volatile long               stamp;
+            
+            public Entry( T compiled, long stamp )
+            {
+                this.compiled = compiled;
+                this.stamp = stamp;
+            }
+            
+            /**
+             * This method marks the entry as recently used, if its stamp has
+             * fallen half the capacity behind the clock.
+             *
+             * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+             */
+            public void touch()
+            {
+                if( clock.get() - stamp >= ( capacity + 1 ) / 2 )
+                {
+                    stamp = clock.incrementAndGet();
+                }
+            }
+        }
+    }
 }
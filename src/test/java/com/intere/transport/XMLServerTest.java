@@ -0,0 +1,200 @@
+/*
+ * XMLServerTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.transport;
+
+import com.xml.transport.DocumentHandler;
+import com.xml.transport.XMLClient;
+import com.xml.transport.XMLConnection;
+import com.xml.transport.XMLServer;
+import com.xml.utils.XMLUtils;
+
+import javax.xml.parsers.ParserConfigurationException;
+import junit.framework.*;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+//==========================================================================
+// TEST CLASS XMLServerTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XMLServerTest extends TestCase
+{
+    //==========================================================================
+    //  VARIABLE(S)
+    //==========================================================================
+    
+    /** The number of concurrent connections for testConcurrentConnections (ServerBenchmark opens thousands). */
+    public static final int         CONNECTIONS         = 16;
+    
+    private XMLServer               server              = null;
+    
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XMLServerTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(XMLServerTest.class);
+        
+        return suite;
+    }
+    
+    /**
+     * Starts an echo server on a free port.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    protected void setUp() throws Exception
+    {
+        server = new XMLServer( 0, new DocumentHandler()
+        {
+            public void handleDocument( Document doc, XMLConnection connection ) throws Exception
+            {
+                connection.send( doc );
+            }
+        });
+        server.start();
+    }
+    
+    /**
+     * Stops the echo server.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    protected void tearDown() throws Exception
+    {
+        server.close();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testEcho
+    //--------------------------------------------------------------------------
+    /**
+     * This test sends several documents over one connection and verifies that
+     * they are all echoed back, in order.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testEcho() throws Exception
+    {
+        System.out.println("testEcho");
+        
+        XMLClient client = new XMLClient( "localhost", server.getPort() );
+        
+        for( int i=0; i<100; i++ )
+        {
+            client.send( getTestDocument( i ) );
+        }
+        
+        for( int i=0; i<100; i++ )
+        {
+            assertEquals( "" + i, client.readDocument().getDocumentElement().getAttribute( "id" ) );
+        }
+        
+        client.close();
+        
+        for( int i=0; i<200 && server.getConnectionCount() > 0; i++ )
+        {
+            Thread.sleep( 10 );
+        }
+        assertEquals( "The connection should have been closed by the server", 0, server.getConnectionCount() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testConcurrentConnections
+    //--------------------------------------------------------------------------
+    /**
+     * This test opens several connections at once over the loopback interface,
+     * so the server has a thread blocked in every one of them, and then does a
+     * round trip on each.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testConcurrentConnections() throws Exception
+    {
+        System.out.println("testConcurrentConnections");
+        
+        XMLClient[] clients = new XMLClient[ CONNECTIONS ];
+        
+        for( int i=0; i<clients.length; i++ )
+        {
+            clients[ i ] = new XMLClient( "localhost", server.getPort() );
+        }
+        
+        for( int i=0; i<clients.length; i++ )
+        {
+            clients[ i ].send( getTestDocument( i ) );
+        }
+        
+        for( int i=0; i<clients.length; i++ )
+        {
+            assertEquals( "" + i, clients[ i ].readDocument().getDocumentElement().getAttribute( "id" ) );
+        }
+        
+        assertEquals( CONNECTIONS, server.getAcceptedCount() );
+        assertEquals( CONNECTIONS, server.getConnectionCount() );
+        
+        for( int i=0; i<clients.length; i++ )
+        {
+            clients[ i ].close();
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // getTestDocument
+    //--------------------------------------------------------------------------
+    /**
+     * This method creates a Test XML Document.
+     * @param id The id of the document.
+     * @return The Document object.
+     * @throws ParserConfigurationException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private Document getTestDocument( int id ) throws ParserConfigurationException
+    {
+        Document doc = XMLUtils.getNewDocument();
+        
+        Element e = doc.createElement( "root" );
+        e.setAttribute( "id", "" + id );
+        e.appendChild( doc.createElement( "eric" ) );
+        
+        doc.appendChild( e );
+        
+        return doc;
+    }
+}
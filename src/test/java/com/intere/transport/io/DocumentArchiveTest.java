@@ -0,0 +1,367 @@
+/*
+ * DocumentArchiveTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.transport.io;
+
+import com.xml.transport.io.DocumentArchive;
+import com.xml.transport.io.DocumentSpliterator;
+import com.xml.transport.io.XMLInputStream;
+import com.xml.utils.XMLUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import junit.framework.*;
+import org.w3c.dom.Document;
+
+//==========================================================================
+// TEST CLASS DocumentArchiveTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class DocumentArchiveTest extends TestCase
+{
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public DocumentArchiveTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(DocumentArchiveTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testIndex
+    //--------------------------------------------------------------------------
+    /**
+     * This test indexes an archive, reads its documents in random order, and
+     * verifies that the index file is reused (and rebuilt once the archive
+     * changes).
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testIndex() throws Exception
+    {
+        System.out.println("testIndex");
+        
+        List<String> docs = getDocuments( 100 );
+        File file = write( docs, "\r\n" );
+        
+        DocumentArchive archive = new DocumentArchive( file );
+        assertFalse( archive.isIndexLoaded() );
+        assertFalse( archive.isTruncated() );
+        assertTrue( archive.getIndexFile().isFile() );
+        assertEquals( 100, archive.getDocumentCount() );
+        assertEquals( 1, archive.getChunkCount() );
+        
+        for( int n : new int[] { 57, 0, 99, 3, 42 } )
+        {
+            assertEquals( docs.get( n ), new String( archive.readFrame( n ), "UTF-8" ) );
+            Document doc = archive.readDocument( n );
+            assertEquals( "" + n, doc.getDocumentElement().getAttribute( "id" ) );
+        }
+        
+        long[] offsets = new long[ 100 ];
+        for( int i=0; i<100; i++ )
+        {
+            offsets[ i ] = archive.getDocumentOffset( i );
+        }
+        archive.close();
+        
+        // the index is reused
+        archive = new DocumentArchive( file );
+        assertTrue( archive.isIndexLoaded() );
+        assertEquals( 100, archive.getDocumentCount() );
+        for( int i=0; i<100; i++ )
+        {
+            assertEquals( offsets[ i ], archive.getDocumentOffset( i ) );
+            assertEquals( docs.get( i ).length(), archive.getDocumentLength( i ) );
+        }
+        archive.close();
+        
+        // the archive grows, so the index is rebuilt
+        try( FileOutputStream out = new FileOutputStream( file, true ) )
+        {
+            out.write( "<msg id=\"100\"/>".getBytes( "UTF-8" ) );
+        }
+        archive = new DocumentArchive( file );
+        assertFalse( archive.isIndexLoaded() );
+        assertEquals( 101, archive.getDocumentCount() );
+        assertEquals( "100", archive.readDocument( 100 ).getDocumentElement().getAttribute( "id" ) );
+        
+        try
+        {
+            archive.getFrame( 101 );
+            fail( "read past the last document" );
+        }
+        catch( IndexOutOfBoundsException ex )
+        {
+            // expected
+        }
+        
+        archive.close();
+        archive.getIndexFile().delete();
+        file.delete();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testChunks
+    //--------------------------------------------------------------------------
+    /**
+     * This test maps an archive in chunks much smaller than its documents, so
+     * that documents span chunks, and verifies random access and replay.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testChunks() throws Exception
+    {
+        System.out.println("testChunks");
+        
+        List<String> docs = getDocuments( 40 );
+        File file = write( docs, "" );
+        
+        DocumentArchive archive = new DocumentArchive( file, XMLInputStream.FramingModes.FRAMING_ROOT_TAG, 100 );
+        assertEquals( 40, archive.getDocumentCount() );
+        assertEquals( ( file.length() + 99 ) / 100, archive.getChunkCount() );
+        
+        for( int i=39; i>=0; i-- )
+        {
+            ByteBuffer frame = archive.getFrame( i );
+            byte[] bytes = new byte[ frame.remaining() ];
+            frame.get( bytes );
+            assertEquals( docs.get( i ), new String( bytes, "UTF-8" ) );
+            assertEquals( "" + i, archive.readDocument( i ).getDocumentElement().getAttribute( "id" ) );
+        }
+        
+        // replay from the middle
+        Iterator<Document> replay = DocumentSpliterator.iterator( archive.openStream( 25 ) );
+        for( int i=25; i<40; i++ )
+        {
+            assertEquals( "" + i, replay.next().getDocumentElement().getAttribute( "id" ) );
+        }
+        assertFalse( replay.hasNext() );
+        
+        archive.close();
+        archive.getIndexFile().delete();
+        file.delete();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testLengthPrefixed
+    //--------------------------------------------------------------------------
+    /**
+     * This test indexes an archive of length prefixed frames.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testLengthPrefixed() throws Exception
+    {
+        System.out.println("testLengthPrefixed");
+        
+        List<String> docs = getDocuments( 20 );
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for( String doc : docs )
+        {
+            byte[] payload = doc.getBytes( "UTF-8" );
+            XMLUtils.writeFrameHeader( payload.length, bytes );
+            bytes.write( payload );
+        }
+        File file = write( bytes.toByteArray() );
+        
+        DocumentArchive archive = new DocumentArchive( file, XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED, 64 );
+        assertEquals( 20, archive.getDocumentCount() );
+        for( int i=0; i<20; i++ )
+        {
+            assertEquals( docs.get( i ), new String( archive.readFrame( i ), "UTF-8" ) );
+        }
+        
+        XMLInputStream replay = archive.openStream( 19 );
+        assertEquals( docs.get( 19 ), new String( replay.readFrame(), "UTF-8" ) );
+        assertNull( replay.readFrame() );
+        
+        archive.close();
+        archive.getIndexFile().delete();
+        file.delete();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testTruncated
+    //--------------------------------------------------------------------------
+    /**
+     * This test indexes an archive that ends in the middle of a document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testTruncated() throws Exception
+    {
+        System.out.println("testTruncated");
+        
+        List<String> docs = getDocuments( 5 );
+        File file = write( ( String.join( "\n", docs ) + "\n<msg id=\"5\"><a>" ).getBytes( "UTF-8" ) );
+        
+        DocumentArchive archive = new DocumentArchive( file );
+        assertTrue( archive.isTruncated() );
+        assertEquals( 5, archive.getDocumentCount() );
+        archive.close();
+        
+        archive = new DocumentArchive( file );
+        assertTrue( archive.isIndexLoaded() );
+        assertTrue( archive.isTruncated() );
+        assertEquals( docs.get( 4 ), new String( archive.readFrame( 4 ), "UTF-8" ) );
+        
+        archive.close();
+        archive.getIndexFile().delete();
+        file.delete();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testDamagedIndex
+    //--------------------------------------------------------------------------
+    /**
+     * This test damages the count of documents in an index file (too big for
+     * the files, and negative), and verifies that the index is rebuilt, and
+     * that no temporary files are left behind.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testDamagedIndex() throws Exception
+    {
+        System.out.println("testDamagedIndex");
+        
+        List<String> docs = getDocuments( 10 );
+        File file = write( docs, "\n" );
+        
+        DocumentArchive archive = new DocumentArchive( file );
+        File index = archive.getIndexFile();
+        archive.close();
+        
+        for( int n : new int[] { Integer.MAX_VALUE, 11, -1 } )
+        {
+            try( RandomAccessFile raf = new RandomAccessFile( index, "rw" ) )
+            {
+                raf.seek( 29 );
+                raf.writeInt( n );
+            }
+            
+            archive = new DocumentArchive( file );
+            assertFalse( archive.isIndexLoaded() );
+            assertEquals( 10, archive.getDocumentCount() );
+            assertEquals( docs.get( 9 ), new String( archive.readFrame( 9 ), "UTF-8" ) );
+            archive.close();
+        }
+        
+        archive = new DocumentArchive( file );
+        assertTrue( archive.isIndexLoaded() );
+        archive.close();
+        
+        for( String name : index.getAbsoluteFile().getParentFile().list() )
+        {
+            assertFalse( name, name.startsWith( index.getName() ) && name.endsWith( ".tmp" ) );
+        }
+        
+        index.delete();
+        file.delete();
+    }
+    
+    /**
+     * This method builds some documents of different sizes (some with an XML
+     * declaration).
+     * @param count The number of documents.
+     * @return The documents.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private List<String> getDocuments( int count )
+    {
+        List<String> docs = new ArrayList<String>();
+        
+        for( int i=0; i<count; i++ )
+        {
+            StringBuilder doc = new StringBuilder( i % 3 == 0 ? "<?xml version=\"1.0\"?>" : "" );
+            doc.append( "<msg id=\"" ).append( i ).append( "\">" );
+            for( int j=0; j<i % 7; j++ )
+            {
+                doc.append( "<item>" ).append( j ).append( "</item>" );
+            }
+            doc.append( "</msg>" );
+            docs.add( doc.toString() );
+        }
+        
+        return docs;
+    }
+    
+    /**
+     * This method writes documents to a temporary file.
+     * @param docs The documents.
+     * @param separator What is written between them.
+     * @return The File.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private File write( List<String> docs, String separator ) throws Exception
+    {
+        return write( String.join( separator, docs ).getBytes( "UTF-8" ) );
+    }
+    
+    /**
+     * This method writes bytes to a temporary file.
+     * @param bytes The bytes.
+     * @return The File.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private File write( byte[] bytes ) throws Exception
+    {
+        File file = File.createTempFile( "archive", ".xml" );
+        file.deleteOnExit();
+        
+        try( FileOutputStream out = new FileOutputStream( file ) )
+        {
+            out.write( bytes );
+        }
+        
+        return file;
+    }
+}
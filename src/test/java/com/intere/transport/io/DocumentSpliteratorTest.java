@@ -0,0 +1,167 @@
+/*
+ * DocumentSpliteratorTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.transport.io;
+
+import com.xml.transport.io.DocumentReadException;
+import com.xml.transport.io.DocumentSpliterator;
+import com.xml.transport.io.XMLInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import junit.framework.*;
+import org.w3c.dom.Document;
+
+//==========================================================================
+// TEST CLASS DocumentSpliteratorTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class DocumentSpliteratorTest extends TestCase
+{
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public DocumentSpliteratorTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(DocumentSpliteratorTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testIterator
+    //--------------------------------------------------------------------------
+    /**
+     * This test iterates over the documents of a stream that ends cleanly (with
+     * some trailing whitespace).
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testIterator()
+    {
+        System.out.println("testIterator");
+        
+        Iterator<Document> docs = DocumentSpliterator.iterator( getInputStream( 50, "\r\n" ) );
+        
+        for( int i=0; i<50; i++ )
+        {
+            assertTrue( docs.hasNext() );
+            assertEquals( "" + i, docs.next().getDocumentElement().getAttribute( "id" ) );
+        }
+        
+        assertFalse( docs.hasNext() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testTruncated
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a stream that ends in the middle of a document is
+     * reported as such, after every complete document has been returned.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testTruncated()
+    {
+        System.out.println("testTruncated");
+        
+        Iterator<Document> docs = DocumentSpliterator.iterator( getInputStream( 3, "<root id=\"3\"><half" ) );
+        
+        for( int i=0; i<3; i++ )
+        {
+            assertEquals( "" + i, docs.next().getDocumentElement().getAttribute( "id" ) );
+        }
+        
+        try
+        {
+            docs.hasNext();
+            fail( "A truncated document should not look like the end of the stream" );
+        }
+        catch( DocumentReadException ex )
+        {
+            assertTrue( ex.isTruncated() );
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testParallel
+    //--------------------------------------------------------------------------
+    /**
+     * This test parses the documents of a single stream in parallel, and
+     * verifies that they are still in the order they were read.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testParallel()
+    {
+        System.out.println("testParallel");
+        
+        int count = 2000;
+        
+        List<String> ids = DocumentSpliterator.stream( getInputStream( count, "" ), true )
+            .map( doc -> doc.getDocumentElement().getAttribute( "id" ) )
+            .collect( Collectors.toList() );
+        
+        assertEquals( count, ids.size() );
+        for( int i=0; i<count; i++ )
+        {
+            assertEquals( "" + i, ids.get( i ) );
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // getInputStream
+    //--------------------------------------------------------------------------
+    /**
+     * This method creates an XMLInputStream over the provided number of documents.
+     * @param count The number of documents.
+     * @param tail What follows the last document.
+     * @return The XMLInputStream object.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private XMLInputStream getInputStream( int count, String tail )
+    {
+        StringBuilder xml = new StringBuilder();
+        
+        for( int i=0; i<count; i++ )
+        {
+            xml.append( "<?xml version=\"1.0\"?><root id=\"" ).append( i ).append( "\"><eric/><dad/></root>" );
+        }
+        xml.append( tail );
+        
+        return new XMLInputStream( new ByteArrayInputStream( xml.toString().getBytes() ) );
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * FramePoolTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.transport.io;
+
+import com.xml.transport.io.Frame;
+import com.xml.transport.io.FramePool;
+import com.xml.transport.io.XMLInputStream;
+import com.xml.transport.io.XMLOutputStream;
+import com.xml.utils.XMLUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import junit.framework.*;
+
+//==========================================================================
+// TEST CLASS FramePoolTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class FramePoolTest extends TestCase
+{
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public FramePoolTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(FramePoolTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testReadFrames
+    //--------------------------------------------------------------------------
+    /**
+     * This test reads documents into heap and direct frames, parses them, and
+     * verifies that the buffers are reused.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testReadFrames() throws Exception
+    {
+        System.out.println("testReadFrames");
+        
+        for( boolean direct : new boolean[] { false, true } )
+        {
+            FramePool pool = new FramePool( 1024, 4, direct );
+            XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( getDocuments( 100, 0 ) ) );
+            Frame frame;
+            int count = 0;
+            
+            while( (frame = in.readFrame( pool )) != null )
+            {
+                assertEquals( "" + count, XMLUtils.readDocument( frame.getInputStream() ).getDocumentElement().getAttribute( "id" ) );
+                assertEquals( frame.getLength(), frame.toByteArray().length );
+                assertEquals( direct, frame.getBuffer().isDirect() );
+                assertTrue( frame.getBuffer().isReadOnly() );
+                assertTrue( frame.release() );
+                ++count;
+            }
+            
+            assertEquals( 100, count );
+            assertEquals( 101, pool.getAcquiredCount() );
+            assertEquals( 1, pool.getAllocatedCount() );
+            assertEquals( 0, pool.getInUseCount() );
+            assertEquals( 0, pool.getExhaustedCount() );
+            assertEquals( 0, pool.getLeakedCount() );
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testReferenceCounting
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a frame's buffer only goes back to the pool with
+     * the last release, and that a released frame can not be used.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testReferenceCounting() throws Exception
+    {
+        System.out.println("testReferenceCounting");
+        
+        FramePool pool = new FramePool();
+        Frame frame = new XMLInputStream( new ByteArrayInputStream( getDocuments( 1, 0 ) ) ).readFrame( pool );
+        
+        assertSame( frame, frame.retain() );
+        assertEquals( 2, frame.getReferenceCount() );
+        assertFalse( frame.release() );
+        assertEquals( 1, pool.getInUseCount() );
+        assertTrue( frame.release() );
+        assertEquals( 0, pool.getInUseCount() );
+        assertEquals( 1, pool.getIdleCount() );
+        
+        try
+        {
+            frame.release();
+            fail( "A frame should only be released once" );
+        }
+        catch( IllegalStateException ex )
+        {
+        }
+        
+        try
+        {
+            frame.getBuffer();
+            fail( "A released frame should not be usable" );
+        }
+        catch( IllegalStateException ex )
+        {
+        }
+        
+        try
+        {
+            frame.retain();
+            fail( "A released frame should not be retained" );
+        }
+        catch( IllegalStateException ex )
+        {
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testExhaustion
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a pool that runs out of buffers keeps working,
+     * and counts it; and that documents bigger than a pooled buffer are read
+     * whole, and counted.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testExhaustion() throws Exception
+    {
+        System.out.println("testExhaustion");
+        
+        FramePool pool = new FramePool( 256, 2, false );
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( getDocuments( 5, 0 ) ) );
+        Frame[] frames = new Frame[ 5 ];
+        
+        for( int i=0; i<frames.length; i++ )
+        {
+            frames[ i ] = in.readFrame( pool );
+        }
+        
+        assertEquals( 3, pool.getExhaustedCount() );
+        assertEquals( 5, pool.getInUseCount() );
+        assertEquals( 2, pool.getAllocatedCount() );
+        
+        for( Frame frame : frames )
+        {
+            frame.release();
+        }
+        assertEquals( 2, pool.getIdleCount() );
+        
+        in = new XMLInputStream( new ByteArrayInputStream( getDocuments( 3, 2000 ) ) );
+        for( int i=0; i<3; i++ )
+        {
+            Frame frame = in.readFrame( pool );
+            assertTrue( frame.getLength() > 2000 );
+            assertEquals( "" + i, XMLUtils.readDocument( frame.getInputStream() ).getDocumentElement().getAttribute( "id" ) );
+            frame.release();
+        }
+        
+        assertEquals( 3, pool.getOversizedCount() );
+        assertEquals( 2, pool.getIdleCount() );
+        assertEquals( 0, pool.getInUseCount() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testLeak
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a frame that is dropped without being released
+     * is counted as a leak.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testLeak() throws Exception
+    {
+        System.out.println("testLeak");
+        
+        FramePool pool = new FramePool( 1024, 1, true );
+        new XMLInputStream( new ByteArrayInputStream( getDocuments( 1, 0 ) ) ).readFrame( pool );
+        
+        for( int i=0; i<50 && pool.getLeakedCount() == 0; i++ )
+        {
+            System.gc();
+            Thread.sleep( 10 );
+        }
+        
+        assertEquals( 1, pool.getLeakedCount() );
+        assertEquals( 0, pool.getInUseCount() );
+        
+        // the pool allocates a buffer in place of the leaked one
+        Frame frame = pool.acquire();
+        assertEquals( 0, pool.getExhaustedCount() );
+        frame.release();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testTruncated
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a stream that ends in the middle of a document
+     * gives its frame back.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testTruncated() throws Exception
+    {
+        System.out.println("testTruncated");
+        
+        FramePool pool = new FramePool();
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( "<root><a>".getBytes() ) );
+        
+        try
+        {
+            in.readFrame( pool );
+            fail( "A truncated document should not be returned" );
+        }
+        catch( EOFException ex )
+        {
+        }
+        
+        assertEquals( 0, pool.getInUseCount() );
+        assertNull( new XMLInputStream( new ByteArrayInputStream( " \n ".getBytes() ) ).readFrame( pool ) );
+        assertEquals( 0, pool.getInUseCount() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testForward
+    //--------------------------------------------------------------------------
+    /**
+     * This test forwards frames without parsing them: with a gathering write to
+     * a channel, and through an XMLOutputStream (length prefixed).
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testForward() throws Exception
+    {
+        System.out.println("testForward");
+        
+        FramePool pool = new FramePool( 1024, 16, true );
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( getDocuments( 10, 0 ) ) );
+        Frame[] frames = new Frame[ 10 ];
+        
+        for( int i=0; i<frames.length; i++ )
+        {
+            frames[ i ] = in.readFrame( pool );
+        }
+        
+        File file = File.createTempFile( "frames", ".xml" );
+        file.deleteOnExit();
+        
+        RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+        FileChannel channel = raf.getChannel();
+        try
+        {
+            Frame.writeTo( channel, frames );
+        }
+        finally
+        {
+            raf.close();
+        }
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        XMLOutputStream out = new XMLOutputStream( bytes );
+        out.setFramed( true );
+        for( Frame frame : frames )
+        {
+            out.writeFrame( frame );
+            frame.release();
+        }
+        out.close();
+        
+        assertEquals( 0, pool.getInUseCount() );
+        
+        XMLInputStream copy = new XMLInputStream( new FileInputStream( file ) );
+        XMLInputStream framed = new XMLInputStream( new ByteArrayInputStream( bytes.toByteArray() ) );
+        framed.setFramingMode( XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED );
+        
+        for( int i=0; i<10; i++ )
+        {
+            assertEquals( "" + i, XMLUtils.readDocument( copy ).getDocumentElement().getAttribute( "id" ) );
+            copy.reset();
+            assertEquals( "" + i, XMLUtils.readDocument( framed ).getDocumentElement().getAttribute( "id" ) );
+            framed.reset();
+        }
+        copy.getInputStream().close();
+    }
+    
+    //--------------------------------------------------------------------------
+    // getDocuments
+    //--------------------------------------------------------------------------
+    /**
+     * This method writes several test documents back to back.
+     * @param count The number of documents.
+     * @param padding The number of bytes of text to pad each document with.
+     * @return The bytes of the documents.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static byte[] getDocuments( int count, int padding )
+    {
+        StringBuilder xml = new StringBuilder();
+        
+        for( int i=0; i<count; i++ )
+        {
+            xml.append( "<?xml version=\"1.0\" encoding=\"UTF-8\"?><root id=\"" ).append( i ).append( "\"><eric>" );
+            for( int j=0; j<padding; j++ )
+            {
+                xml.append( 'x' );
+            }
+            xml.append( "</eric></root>" );
+        }
+        
+        return xml.toString().getBytes();
+    }
+}
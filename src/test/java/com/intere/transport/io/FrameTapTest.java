@@ -0,0 +1,256 @@
+/*
+ * FrameTapTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.transport.io;
+
+import com.xml.transport.io.FrameTap;
+import com.xml.transport.io.XMLInputStream;
+import com.xml.utils.XMLUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import junit.framework.*;
+import org.xml.sax.SAXException;
+
+//==========================================================================
+// TEST CLASS FrameTapTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class FrameTapTest extends TestCase
+{
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public FrameTapTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(FrameTapTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testRing
+    //--------------------------------------------------------------------------
+    /**
+     * This test writes frames into a small tap, and verifies which frames (and
+     * which of their bytes) are kept as it wraps.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testRing()
+    {
+        System.out.println("testRing");
+        
+        FrameTap tap = new FrameTap( 16, 3 );
+        assertEquals( 0, tap.getFrames().length );
+        assertEquals( 0, tap.getBytes().length );
+        
+        write( tap, "one" );
+        tap.endFrame();
+        tap.endFrame();         // empty frames are not recorded
+        write( tap, "two" );
+        tap.endFrame();
+        assertFrames( tap, "one", "two" );
+        assertEquals( 2, tap.getFrameCount() );
+        assertEquals( "", new String( tap.getCurrentFrame() ) );
+        
+        // the frame being read counts as one of the 3
+        write( tap, "thr" );
+        tap.write( 'e' );
+        tap.write( 'e' );
+        assertFrames( tap, "one", "two", "three" );
+        write( tap, "!" );
+        tap.endFrame();
+        write( tap, "four" );
+        assertFrames( tap, "two", "three!", "four" );
+        assertEquals( "four", new String( tap.getCurrentFrame() ) );
+        
+        // 16 bytes have been written; the tap is exactly full
+        assertEquals( 16, tap.getByteCount() );
+        assertEquals( "onetwothree!four", new String( tap.getBytes() ) );
+        tap.endFrame();
+        
+        // a frame bigger than the tap only keeps its tail
+        write( tap, "0123456789abcdefghij" );
+        assertFrames( tap, "456789abcdefghij" );
+        assertEquals( 16, tap.getCurrentFrame().length );
+        assertTrue( tap.toString(), tap.toString().startsWith( "[4] (reading) ...4567" ) );
+        tap.endFrame();
+        write( tap, "xyz" );
+        assertFrames( tap, "789abcdefghij", "xyz" );
+        assertEquals( "789abcdefghijxyz", new String( tap.getBytes() ) );
+        
+        tap.clear();
+        assertEquals( 0, tap.getFrames().length );
+        assertEquals( 0, tap.getByteCount() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testMalformed
+    //--------------------------------------------------------------------------
+    /**
+     * This test taps a stream that a malformed document arrives on, and
+     * verifies that the tap has the malformed document (and the ones before it)
+     * after the parser fails.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testMalformed() throws Exception
+    {
+        System.out.println("testMalformed");
+        
+        String good1 = "<?xml version=\"1.0\"?><msg><a>1</a></msg>";
+        String good2 = "<msg><b>2</b></msg>";
+        String bad = "<msg><c>3</d></msg>";
+        
+        FrameTap tap = new FrameTap( 1024, 8 );
+        XMLInputStream xin = new XMLInputStream( new ByteArrayInputStream( ( good1 + good2 + bad ).getBytes( "UTF-8" ) ) );
+        xin.setFrameTap( tap );
+        assertSame( tap, xin.getFrameTap() );
+        
+        XMLUtils.readDocument( xin );
+        xin.reset();
+        XMLUtils.readDocument( xin );
+        xin.reset();
+        
+        try
+        {
+            XMLUtils.readDocument( xin );
+            fail( "parsed a malformed document" );
+        }
+        catch( SAXException ex )
+        {
+            // the parser stops at the mismatched end tag
+            assertTrue( bad.startsWith( new String( tap.getCurrentFrame(), "UTF-8" ) ) );
+            assertTrue( tap.getCurrentFrame().length >= "<msg><c>3</d".length() );
+        }
+        
+        XMLUtils.skipDocument( xin );
+        assertFrames( tap, good1, good2, bad );
+        xin.debug();
+        xin.reset();
+        assertEquals( 3, tap.getFrameCount() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testLargeDocument
+    //--------------------------------------------------------------------------
+    /**
+     * This test taps a document much bigger than the tap, and verifies that
+     * only its end is kept.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testLargeDocument() throws Exception
+    {
+        System.out.println("testLargeDocument");
+        
+        StringBuilder xml = new StringBuilder( "<root>" );
+        for( int i=0; i<50000; i++ )
+        {
+            xml.append( "<item>" ).append( i ).append( "</item>" );
+        }
+        xml.append( "</root>" );
+        byte[] doc = xml.toString().getBytes( "UTF-8" );
+        
+        XMLInputStream xin = new XMLInputStream( new ByteArrayInputStream( doc ) );
+        xin.setFrameTap( new FrameTap( 4096, 4 ) );
+        assertNotNull( xin.readFrame() );
+        
+        byte[][] frames = xin.getFrameTap().getFrames();
+        assertEquals( 1, frames.length );
+        assertTrue( Arrays.equals( Arrays.copyOfRange( doc, doc.length - 4096, doc.length ), frames[0] ) );
+        assertEquals( doc.length, xin.getFrameTap().getByteCount() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testMaxBufferSize
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that the deprecated maximum buffer size maps onto a
+     * tap of that capacity.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    @SuppressWarnings("deprecation")
+    public void testMaxBufferSize() throws Exception
+    {
+        System.out.println("testMaxBufferSize");
+        
+        XMLInputStream xin = new XMLInputStream( new ByteArrayInputStream( "<root/>".getBytes( "UTF-8" ) ) );
+        assertEquals( 0, xin.getMaxBufferSize() );
+        
+        xin.setMaxBufferSize( 100 );
+        assertEquals( 100, xin.getMaxBufferSize() );
+        assertEquals( 100, xin.getFrameTap().getCapacity() );
+        xin.setMaxBufferSize( 0 );
+        assertNull( xin.getFrameTap() );
+        assertEquals( 0, xin.getMaxBufferSize() );
+    }
+    
+    /**
+     * This method writes a String to a tap.
+     * @param tap The FrameTap.
+     * @param text The text.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void write( FrameTap tap, String text )
+    {
+        byte[] bytes = text.getBytes();
+        tap.write( bytes, 0, bytes.length );
+    }
+    
+    /**
+     * This method verifies the frames in a tap.
+     * @param tap The FrameTap.
+     * @param expected The expected frames, oldest first.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void assertFrames( FrameTap tap, String... expected )
+    {
+        byte[][] frames = tap.getFrames();
+        String[] actual = new String[ frames.length ];
+        
+        for( int i=0; i<frames.length; i++ )
+        {
+            actual[ i ] = new String( frames[ i ] );
+        }
+        
+        assertEquals( Arrays.asList( expected ), Arrays.asList( actual ) );
+    }
+}
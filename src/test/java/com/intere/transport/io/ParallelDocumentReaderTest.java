@@ -0,0 +1,283 @@
+/*
+ * ParallelDocumentReaderTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.transport.io;
+
+import com.xml.transport.io.DocumentArchive;
+import com.xml.transport.io.DocumentReadException;
+import com.xml.transport.io.ParallelDocumentReader;
+import com.xml.transport.io.XMLInputStream;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.*;
+import org.w3c.dom.Document;
+
+//==========================================================================
+// TEST CLASS ParallelDocumentReaderTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class ParallelDocumentReaderTest extends TestCase
+{
+    //==========================================================================
+    // VARIABLE(S)
+    //==========================================================================
+    private ForkJoinPool        pool            = null;
+    private File                file            = null;
+    
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public ParallelDocumentReaderTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    protected void setUp() throws Exception
+    {
+        pool = new ForkJoinPool( 4 );
+        file = File.createTempFile( "archive", ".xml" );
+        file.deleteOnExit();
+    }
+    
+    protected void tearDown() throws Exception
+    {
+        pool.shutdown();
+        new File( file.getPath() + DocumentArchive.INDEX_SUFFIX ).delete();
+        file.delete();
+    }
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(ParallelDocumentReaderTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testParallelIndex
+    //--------------------------------------------------------------------------
+    /**
+     * This test builds the index of an archive in many small pieces, where some
+     * of the pieces start inside documents that look like they hold the start
+     * of a document, and verifies that it matches the index built by a single
+     * scan.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testParallelIndex() throws Exception
+    {
+        System.out.println("testParallelIndex");
+        
+        write( 200, null );
+        
+        DocumentArchive single = new DocumentArchive( file );
+        assertEquals( 200, single.getDocumentCount() );
+        single.getIndexFile().delete();
+        
+        for( long chunkSize : new long[] { 37, 100, 1000 } )
+        {
+            DocumentArchive parallel = new DocumentArchive( file, XMLInputStream.FramingModes.FRAMING_ROOT_TAG, chunkSize, pool );
+            assertFalse( parallel.isIndexLoaded() );
+            assertEquals( 200, parallel.getDocumentCount() );
+            
+            for( int i=0; i<200; i++ )
+            {
+                assertEquals( single.getDocumentOffset( i ), parallel.getDocumentOffset( i ) );
+                assertEquals( single.getDocumentLength( i ), parallel.getDocumentLength( i ) );
+            }
+            
+            parallel.close();
+            parallel.getIndexFile().delete();
+        }
+        single.close();
+        
+        // a truncated tail is found by the last piece
+        try( FileOutputStream out = new FileOutputStream( file, true ) )
+        {
+            out.write( "\n<msg id=\"200\"><a>".getBytes( "UTF-8" ) );
+        }
+        DocumentArchive parallel = new DocumentArchive( file, XMLInputStream.FramingModes.FRAMING_NESTED, 64, pool );
+        assertEquals( 200, parallel.getDocumentCount() );
+        assertTrue( parallel.isTruncated() );
+        parallel.close();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testOrdered
+    //--------------------------------------------------------------------------
+    /**
+     * This test parses an archive in parallel, and verifies the documents are
+     * handed over in order.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testOrdered() throws Exception
+    {
+        System.out.println("testOrdered");
+        
+        write( 500, null );
+        
+        final List<String> ids = new ArrayList<String>();
+        DocumentArchive archive = new DocumentArchive( file, XMLInputStream.FramingModes.FRAMING_ROOT_TAG, 4096, pool );
+        ParallelDocumentReader reader = new ParallelDocumentReader( archive, pool, 3 );
+        final Thread caller = Thread.currentThread();
+        
+        reader.forEachOrdered( doc -> {
+            assertSame( caller, Thread.currentThread() );
+            ids.add( doc.getDocumentElement().getAttribute( "id" ) );
+        } );
+        
+        assertEquals( 500, ids.size() );
+        for( int i=0; i<500; i++ )
+        {
+            assertEquals( "" + i, ids.get( i ) );
+        }
+        
+        archive.close();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testUnordered
+    //--------------------------------------------------------------------------
+    /**
+     * This test parses an archive in parallel, taking the documents as they are
+     * parsed, and verifies that each is handed over once.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testUnordered() throws Exception
+    {
+        System.out.println("testUnordered");
+        
+        write( 500, null );
+        
+        final List<Integer> ids = Collections.synchronizedList( new ArrayList<Integer>() );
+        DocumentArchive archive = new DocumentArchive( file );
+        new ParallelDocumentReader( archive, pool, 7 ).forEach( doc -> ids.add( Integer.valueOf( doc.getDocumentElement().getAttribute( "id" ) ) ) );
+        
+        Collections.sort( ids );
+        assertEquals( 500, ids.size() );
+        for( int i=0; i<500; i++ )
+        {
+            assertEquals( i, ids.get( i ).intValue() );
+        }
+        
+        archive.close();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testMalformed
+    //--------------------------------------------------------------------------
+    /**
+     * This test parses an archive with a malformed document, and verifies that
+     * the read stops with a DocumentReadException.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testMalformed() throws Exception
+    {
+        System.out.println("testMalformed");
+        
+        write( 100, "<msg id=\"bad\"><a></b></msg>" );
+        
+        DocumentArchive archive = new DocumentArchive( file );
+        assertEquals( 101, archive.getDocumentCount() );
+        ParallelDocumentReader reader = new ParallelDocumentReader( archive, pool );
+        
+        final List<Document> docs = new ArrayList<Document>();
+        try
+        {
+            reader.forEachOrdered( doc -> docs.add( doc ) );
+            fail( "parsed a malformed document" );
+        }
+        catch( DocumentReadException ex )
+        {
+            assertFalse( ex.isTruncated() );
+        }
+        
+        try
+        {
+            reader.forEach( doc -> { } );
+            fail( "parsed a malformed document" );
+        }
+        catch( DocumentReadException ex )
+        {
+            // expected
+        }
+        
+        archive.close();
+    }
+    
+    /**
+     * This method writes an archive of documents, some of which hold things that
+     * look like the start of a document (in text and CDATA), separated by
+     * whitespace.
+     * @param count The number of documents.
+     * @param last A document to add at the end, or null.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void write( int count, String last ) throws Exception
+    {
+        StringBuilder xml = new StringBuilder();
+        
+        for( int i=0; i<count; i++ )
+        {
+            xml.append( i % 4 == 0 ? "<?xml version=\"1.0\"?>" : "" );
+            xml.append( "<msg id=\"" ).append( i ).append( "\">" );
+            if( i % 5 == 1 )
+            {
+                xml.append( "<note><![CDATA[> <?xml version=\"1.0\"?> <msg id=\"x\"]]></note>" );
+            }
+            for( int j=0; j<i % 9; j++ )
+            {
+                xml.append( "<item>" ).append( j ).append( "</item>\n" );
+            }
+            xml.append( "</msg>" ).append( i % 3 == 0 ? "\r\n" : "" );
+        }
+        if( last != null )
+        {
+            xml.append( last );
+        }
+        
+        try( FileOutputStream out = new FileOutputStream( file ) )
+        {
+            out.write( xml.toString().getBytes( "UTF-8" ) );
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * PipelinedDocumentReaderTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.transport.io;
+
+import com.xml.transport.io.PipelinedDocumentReader;
+import com.xml.transport.io.XMLInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.*;
+import org.w3c.dom.Document;
+
+//==========================================================================
+// TEST CLASS PipelinedDocumentReaderTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class PipelinedDocumentReaderTest extends TestCase
+{
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public PipelinedDocumentReaderTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(PipelinedDocumentReaderTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testInOrder
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that documents parsed on a pool come back in the order
+     * they were read.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testInOrder() throws Exception
+    {
+        System.out.println("testInOrder");
+        
+        PipelinedDocumentReader reader = new PipelinedDocumentReader( getInputStream( 1000, "" ), 4, 16 );
+        reader.start();
+        
+        for( int i=0; i<1000; i++ )
+        {
+            Document doc = reader.readDocument();
+            assertEquals( "" + i, doc.getDocumentElement().getAttribute( "id" ) );
+        }
+        
+        assertNull( reader.readDocument() );
+        assertEquals( 1000, reader.getFramesRead() );
+        assertEquals( 1000, reader.getDocumentsTaken() );
+        assertTrue( reader.getPeakQueueOccupancy() <= 16 );
+        
+        reader.close();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testBackpressure
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that the framing thread stops reading once the queue is
+     * full, until the documents are taken.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testBackpressure() throws Exception
+    {
+        System.out.println("testBackpressure");
+        
+        PipelinedDocumentReader reader = new PipelinedDocumentReader( getInputStream( 100, "" ), 2, 8 );
+        reader.start();
+        
+        for( int i=0; i<200 && reader.getQueueOccupancy() < 8; i++ )
+        {
+            Thread.sleep( 10 );
+        }
+        Thread.sleep( 50 );
+        
+        assertEquals( 8, reader.getQueueOccupancy() );
+        assertTrue( "The framer should be waiting for room", reader.getFramesRead() <= 8 );
+        
+        for( int i=0; i<100; i++ )
+        {
+            assertEquals( "" + i, reader.readDocument().getDocumentElement().getAttribute( "id" ) );
+        }
+        assertNull( reader.readDocument() );
+        assertTrue( reader.getFramerBlockedNanos() > 0 );
+        
+        reader.close();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testTruncated
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a stream that ends in the middle of a document is
+     * reported (in order) after every complete document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testTruncated() throws Exception
+    {
+        System.out.println("testTruncated");
+        
+        PipelinedDocumentReader reader = new PipelinedDocumentReader( getInputStream( 5, "<root id=\"5\"><ha" ), 3, 4 );
+        reader.start();
+        
+        for( int i=0; i<5; i++ )
+        {
+            assertEquals( "" + i, reader.readDocument().getDocumentElement().getAttribute( "id" ) );
+        }
+        
+        try
+        {
+            reader.readDocument();
+            fail( "A truncated document should not look like the end of the stream" );
+        }
+        catch( EOFException ex )
+        {
+        }
+        
+        reader.close();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testCloseWhileWaiting
+    //--------------------------------------------------------------------------
+    /**
+     * This test closes a reader while another thread is waiting for a document
+     * that never arrives, and verifies that the waiting thread gets null.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testCloseWhileWaiting() throws Exception
+    {
+        System.out.println("testCloseWhileWaiting");
+        
+        PipedOutputStream silent = new PipedOutputStream();
+        final PipelinedDocumentReader reader = new PipelinedDocumentReader( new XMLInputStream( new PipedInputStream( silent ) ), 2, 4 );
+        final AtomicReference<Object> result = new AtomicReference<Object>();
+        reader.start();
+        
+        Thread consumer = new Thread( new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    result.set( reader.readDocument() == null ? "null" : "document" );
+                }
+                catch( Exception ex )
+                {
+                    result.set( ex );
+                }
+            }
+        } );
+        consumer.start();
+        Thread.sleep( 100 );
+        assertTrue( consumer.isAlive() );
+        
+        reader.close();
+        consumer.join( 5000 );
+        
+        assertFalse( "readDocument() should not hang after close()", consumer.isAlive() );
+        assertEquals( "null", result.get() );
+        assertNull( reader.readDocument() );
+        silent.close();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testCloseWhileReading
+    //--------------------------------------------------------------------------
+    /**
+     * This test closes readers at different points while another thread is
+     * taking documents (and waiting for them to be parsed), and verifies that
+     * the thread always stops.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testCloseWhileReading() throws Exception
+    {
+        System.out.println("testCloseWhileReading");
+        
+        for( int i=0; i<20; i++ )
+        {
+            final PipelinedDocumentReader reader = new PipelinedDocumentReader( getInputStream( 2000, "" ), 1, 2 );
+            reader.start();
+            
+            Thread consumer = new Thread( new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        while( reader.readDocument() != null )
+                        {
+                        }
+                    }
+                    catch( Exception ex )
+                    {
+                        // a parse that was cut short may fail
+                    }
+                }
+            } );
+            consumer.start();
+            Thread.sleep( i );
+            
+            reader.close();
+            consumer.join( 5000 );
+            assertFalse( "readDocument() should not hang after close()", consumer.isAlive() );
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testRejected
+    //--------------------------------------------------------------------------
+    /**
+     * This test reads with a shared parser pool that has been shut down, and
+     * verifies that the failure is reported instead of the reader hanging.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testRejected() throws Exception
+    {
+        System.out.println("testRejected");
+        
+        ExecutorService parsers = Executors.newFixedThreadPool( 2 );
+        parsers.shutdown();
+        
+        PipelinedDocumentReader reader = new PipelinedDocumentReader( getInputStream( 5, "" ), parsers, 4 );
+        reader.start();
+        
+        try
+        {
+            reader.readDocument();
+            fail( "read a document that could not be parsed" );
+        }
+        catch( IOException ex )
+        {
+            assertTrue( ex.getCause() instanceof RejectedExecutionException );
+        }
+        assertNull( reader.readDocument() );
+        
+        reader.close();
+    }
+    
+    //--------------------------------------------------------------------------
+    // getInputStream
+    //--------------------------------------------------------------------------
+    /**
+     * This method creates an XMLInputStream over the provided number of documents.
+     * @param count The number of documents.
+     * @param tail What follows the last document.
+     * @return The XMLInputStream object.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private XMLInputStream getInputStream( int count, String tail )
+    {
+        StringBuilder xml = new StringBuilder();
+        
+        for( int i=0; i<count; i++ )
+        {
+            xml.append( "<?xml version=\"1.0\"?><root id=\"" ).append( i ).append( "\"><eric/><dad/></root>" );
+        }
+        xml.append( tail );
+        
+        return new XMLInputStream( new ByteArrayInputStream( xml.toString().getBytes() ) );
+    }
+}
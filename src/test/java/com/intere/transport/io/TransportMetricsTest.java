@@ -0,0 +1,320 @@
+/*
+ * TransportMetricsTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.transport.io;
+
+import com.xml.transport.io.DocumentSpliterator;
+import com.xml.transport.io.LatencyHistogram;
+import com.xml.transport.io.TransportListener;
+import com.xml.transport.io.TransportMetrics;
+import com.xml.transport.io.XMLInputStream;
+import com.xml.utils.XMLUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import junit.framework.*;
+import org.w3c.dom.Document;
+
+//==========================================================================
+// TEST CLASS TransportMetricsTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class TransportMetricsTest extends TestCase
+{
+    private static final String DOC_ONE     = "<?xml version=\"1.0\"?><msg><a>1</a></msg>";
+    private static final String DOC_TWO     = "<msg><b>two</b><c/></msg>";
+    private static final String DOC_THREE   = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><msg id=\"3\"><d>three</d></msg>";
+    
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public TransportMetricsTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(TransportMetricsTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testHistogram
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies the percentiles of a histogram, at small and large
+     * values.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testHistogram()
+    {
+        System.out.println("testHistogram");
+        
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals( 0, histogram.getValueAtPercentile( 99 ) );
+        
+        for( int i=1; i<=100000; i++ )
+        {
+            histogram.record( i * 1000L );
+        }
+        
+        assertEquals( 100000, histogram.getCount() );
+        assertEquals( 100000000L, histogram.getMax() );
+        assertEquals( 50000500.0, histogram.getMean(), 0.5 );
+        assertEquals( 50000000.0, histogram.getValueAtPercentile( 50 ), 50000000 / 64.0 );
+        assertEquals( 99000000.0, histogram.getValueAtPercentile( 99 ), 99000000 / 64.0 );
+        assertEquals( 100000000L, histogram.getValueAtPercentile( 100 ) );
+        assertEquals( 50, histogram.getValueAtPercentile( 50, TimeUnit.MILLISECONDS ) );
+        
+        // small values are exact; huge and negative ones are clamped
+        histogram.reset();
+        histogram.record( 3 );
+        histogram.record( 100 );
+        histogram.record( -5 );
+        histogram.record( Long.MAX_VALUE );
+        assertEquals( 0, histogram.getValueAtPercentile( 25 ) );
+        assertEquals( 3, histogram.getValueAtPercentile( 50 ) );
+        assertEquals( 100, histogram.getValueAtPercentile( 75 ) );
+        assertEquals( LatencyHistogram.MAX_VALUE, histogram.getValueAtPercentile( 100 ) );
+        
+        System.out.println( histogram );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testStreamMetrics
+    //--------------------------------------------------------------------------
+    /**
+     * This test reads documents through a stream with metrics on, with
+     * XMLUtils.readDocument(), readFrame() and a DocumentSpliterator, and
+     * verifies what is counted (and that a listener hears about all of it).
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testStreamMetrics() throws Exception
+    {
+        System.out.println("testStreamMetrics");
+        
+        int bytes = DOC_ONE.length() + DOC_TWO.length() + DOC_THREE.length();
+        final AtomicInteger framesHeard = new AtomicInteger();
+        final AtomicInteger parsesHeard = new AtomicInteger();
+        final AtomicLong bytesHeard = new AtomicLong();
+        
+        TransportMetrics metrics = new TransportMetrics();
+        metrics.addListener( new TransportListener()
+        {
+            public void frameRead( int length, long waitNanos, long framingNanos )
+            {
+                framesHeard.incrementAndGet();
+                bytesHeard.addAndGet( length );
+            }
+            
+            public void documentParsed( long parseNanos )
+            {
+                parsesHeard.incrementAndGet();
+            }
+        } );
+        
+        // parsed straight from the stream
+        XMLInputStream xin = open();
+        xin.setMetrics( metrics );
+        for( int i=0; i<3; i++ )
+        {
+            assertNotNull( XMLUtils.readDocument( xin ) );
+            assertTrue( xin.getFramingNanos() > 0 );
+            xin.reset();
+        }
+        assertEquals( 0, xin.getFramingNanos() );
+        assertEquals( 3, metrics.getFrameCount() );
+        assertEquals( bytes, metrics.getByteCount() );
+        assertEquals( bytes / 3.0, metrics.getMeanFrameSize(), 0.001 );
+        assertEquals( 3, metrics.getParseCount() );
+        assertTrue( metrics.getFramesPerSecond() > 0 );
+        
+        // read as frames (not parsed), then as a Spliterator (parsed from the frames)
+        xin = open();
+        xin.setMetrics( metrics );
+        while( xin.readFrame() != null );
+        assertEquals( 6, metrics.getFrameCount() );
+        assertEquals( 3, metrics.getParseCount() );
+        
+        xin = open();
+        xin.setMetrics( metrics );
+        Iterator<Document> docs = DocumentSpliterator.iterator( xin );
+        int count = 0;
+        while( docs.hasNext() )
+        {
+            docs.next();
+            ++count;
+        }
+        assertEquals( 3, count );
+        assertEquals( 9, metrics.getFrameCount() );
+        assertEquals( 3 * bytes, metrics.getByteCount() );
+        assertEquals( 6, metrics.getParseCount() );
+        
+        assertEquals( 9, framesHeard.get() );
+        assertEquals( 6, parsesHeard.get() );
+        assertEquals( 3 * bytes, bytesHeard.get() );
+        
+        System.out.println( metrics );
+        
+        // a stream without metrics records nothing
+        metrics.reset();
+        xin = open();
+        assertNull( xin.getMetrics() );
+        assertNotNull( XMLUtils.readDocument( xin ) );
+        xin.reset();
+        assertEquals( 0, xin.getFramingNanos() );
+        assertEquals( 0, metrics.getFrameCount() );
+        assertEquals( 0, metrics.getParseCount() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testWait
+    //--------------------------------------------------------------------------
+    /**
+     * This test reads from a slow InputStream, and verifies that the time spent
+     * waiting for it is not counted as framing (or parsing).
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testWait() throws Exception
+    {
+        System.out.println("testWait");
+        
+        InputStream slow = new FilterInputStream( new ByteArrayInputStream( ( DOC_ONE + DOC_TWO ).getBytes( "UTF-8" ) ) )
+        {
+            public int read( byte[] b, int off, int len ) throws IOException
+            {
+                try
+                {
+                    Thread.sleep( 20 );
+                }
+                catch( InterruptedException ex )
+                {
+                    throw new IOException( ex );
+                }
+                
+                return super.read( b, off, Math.min( len, 16 ) );
+            }
+        };
+        
+        TransportMetrics metrics = new TransportMetrics();
+        XMLInputStream xin = new XMLInputStream( slow );
+        xin.setMetrics( metrics );
+        
+        for( int i=0; i<2; i++ )
+        {
+            assertNotNull( XMLUtils.readDocument( xin ) );
+            xin.reset();
+        }
+        
+        assertEquals( 2, metrics.getFrameCount() );
+        assertTrue( metrics.getWaitHistogram().getValueAtPercentile( 0 ) >= TimeUnit.MILLISECONDS.toNanos( 20 ) );
+        assertTrue( metrics.getFramingHistogram().getMax() < TimeUnit.MILLISECONDS.toNanos( 20 ) );
+        assertTrue( metrics.getParseHistogram().getMax() < TimeUnit.MILLISECONDS.toNanos( 20 ) );
+        
+        System.out.println( metrics );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testJMX
+    //--------------------------------------------------------------------------
+    /**
+     * This test registers metrics with JMX, and reads them back through the
+     * MBeanServer.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testJMX() throws Exception
+    {
+        System.out.println("testJMX");
+        
+        TransportMetrics metrics = new TransportMetrics();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = metrics.register( "test" );
+        
+        try
+        {
+            assertTrue( server.isRegistered( name ) );
+            assertEquals( TransportMetrics.DOMAIN, name.getDomain() );
+            
+            try
+            {
+                metrics.register( "again" );
+                fail( "registered twice" );
+            }
+            catch( IllegalStateException ex )
+            {
+                // expected
+            }
+            
+            XMLInputStream xin = open();
+            xin.setMetrics( metrics );
+            while( xin.readFrame() != null );
+            
+            assertEquals( Long.valueOf( 3 ), server.getAttribute( name, "FrameCount" ) );
+            assertTrue( (Double)server.getAttribute( name, "FramingMaxMicros" ) > 0 );
+            
+            server.invoke( name, "reset", null, null );
+            assertEquals( 0, metrics.getFrameCount() );
+        }
+        finally
+        {
+            metrics.unregister();
+        }
+        
+        assertFalse( server.isRegistered( name ) );
+    }
+    
+    /**
+     * This method opens a stream of the three test documents.
+     * @return The XMLInputStream.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private XMLInputStream open() throws Exception
+    {
+        return new XMLInputStream( new ByteArrayInputStream( ( DOC_ONE + DOC_TWO + DOC_THREE ).getBytes( "UTF-8" ) ) );
+    }
+}
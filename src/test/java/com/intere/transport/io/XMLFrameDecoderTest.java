@@ -0,0 +1,231 @@
+/*
+ * XMLFrameDecoderTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.transport.io;
+
+import com.xml.transport.io.XMLFrameDecoder;
+import com.xml.transport.io.XMLInputStream;
+import com.xml.utils.XMLUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.function.Consumer;
+import junit.framework.*;
+
+//==========================================================================
+// TEST CLASS XMLFrameDecoderTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XMLFrameDecoderTest extends TestCase
+{
+    //==========================================================================
+    //  VARIABLE(S)
+    //==========================================================================
+    public static final String      TEST_DOC            = "<?xml version=\"1.0\"?><root id=\"1\"><eric/><dad/><willis/></root>";
+    public static final String      TEST_NESTED         = "<root><tree><root><child /></root></tree></root>";
+    
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XMLFrameDecoderTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(XMLFrameDecoderTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testPartialReads
+    //--------------------------------------------------------------------------
+    /**
+     * This test feeds documents to the decoder in random sized pieces (as partial
+     * reads from a socket would be), in every framing mode, and verifies that
+     * exactly the right documents come out.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testPartialReads() throws Exception
+    {
+        System.out.println("testPartialReads");
+        
+        ByteArrayOutputStream framed = new ByteArrayOutputStream();
+        XMLUtils.writeFrameHeader( TEST_NESTED.length(), framed );
+        framed.write( TEST_NESTED.getBytes() );
+        framed.write( TEST_DOC.getBytes() );
+        
+        check( XMLInputStream.FramingModes.FRAMING_ROOT_TAG, (TEST_DOC + "<empty/>" + TEST_DOC).getBytes(),
+                new String[]{ TEST_DOC, "<empty/>", TEST_DOC } );
+        check( XMLInputStream.FramingModes.FRAMING_NESTED, (TEST_NESTED + TEST_DOC + TEST_NESTED).getBytes(),
+                new String[]{ TEST_NESTED, TEST_DOC, TEST_NESTED } );
+        check( XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED, framed.toByteArray(),
+                new String[]{ TEST_NESTED, TEST_DOC } );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testMaxFrameSize
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a document bigger than the maximum frame size is
+     * refused, rather than buffered without limit.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testMaxFrameSize()
+    {
+        System.out.println("testMaxFrameSize");
+        
+        XMLFrameDecoder decoder = new XMLFrameDecoder( 16 );
+        decoder.setMaxFrameSize( 32 );
+        
+        try
+        {
+            decoder.decode( ByteBuffer.wrap( TEST_DOC.getBytes() ), new FrameList() );
+            fail( "The document should be refused" );
+        }
+        catch( IOException ex )
+        {
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testMaxFrameSizeBoundary
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a length prefixed document of exactly the maximum
+     * frame size is accepted (its header does not count against the limit), and
+     * that one byte more is refused.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testMaxFrameSizeBoundary() throws Exception
+    {
+        System.out.println("testMaxFrameSizeBoundary");
+        
+        byte[] doc = TEST_DOC.getBytes();
+        ByteArrayOutputStream framed = new ByteArrayOutputStream();
+        XMLUtils.writeFrameHeader( doc.length, framed );
+        framed.write( doc );
+        
+        XMLFrameDecoder decoder = new XMLFrameDecoder( 16 );
+        decoder.setFramingMode( XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED );
+        decoder.setMaxFrameSize( doc.length );
+        FrameList frames = new FrameList();
+        
+        decoder.decode( ByteBuffer.wrap( framed.toByteArray() ), frames );
+        assertEquals( 1, frames.size() );
+        assertEquals( TEST_DOC, new String( frames.get( 0 ) ) );
+        
+        decoder = new XMLFrameDecoder( 16 );
+        decoder.setFramingMode( XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED );
+        decoder.setMaxFrameSize( doc.length - 1 );
+        
+        try
+        {
+            decoder.decode( ByteBuffer.wrap( framed.toByteArray() ), new FrameList() );
+            fail( "The document should be refused" );
+        }
+        catch( IOException ex )
+        {
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // check
+    //--------------------------------------------------------------------------
+    /**
+     * This method feeds the provided bytes to a decoder in random sized pieces,
+     * and checks the documents that come out.
+     * @param framingMode The framing mode to decode with.
+     * @param bytes The bytes to decode.
+     * @param expected The documents that should come out.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private void check( int framingMode, byte[] bytes, String[] expected ) throws Exception
+    {
+        Random random = new Random( 42 );
+        
+        for( int round=0; round<50; round++ )
+        {
+            XMLFrameDecoder decoder = new XMLFrameDecoder( 1 + random.nextInt( 64 ) );
+            decoder.setFramingMode( framingMode );
+            FrameList frames = new FrameList();
+            
+            for( int i=0; i<bytes.length; )
+            {
+                int n = round == 0 ? 1 : Math.min( bytes.length - i, 1 + random.nextInt( 40 ) );
+                
+                ByteBuffer buffer = ByteBuffer.allocateDirect( n );
+                buffer.put( bytes, i, n ).flip();
+                decoder.decode( buffer, frames );
+                
+                assertFalse( buffer.hasRemaining() );
+                i += n;
+            }
+            
+            assertEquals( expected.length, frames.size() );
+            for( int i=0; i<expected.length; i++ )
+            {
+                assertEquals( expected[i], new String( frames.get( i ) ) );
+                XMLUtils.readDocument( new ByteArrayInputStream( frames.get( i ) ) );
+            }
+            assertFalse( decoder.hasPartialFrame() );
+        }
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class collects the frames that come out of a decoder.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class FrameList extends ArrayList<byte[]> implements Consumer<byte[]>
+    {
+        private static final long serialVersionUID = 1L;
+        
+        public void accept( byte[] frame )
+        {
+            add( frame );
+        }
+    }
+}
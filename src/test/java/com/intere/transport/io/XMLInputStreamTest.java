@@ -14,6 +14,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
 import java.net.ServerSocket;
 import java.net.Socket;
 import javax.xml.parsers.ParserConfigurationException;
@@ -272,6 +273,352 @@ public class XMLInputStreamTest extends TestCase
         }
     }
     
+    //--------------------------------------------------------------------------
+    // testReadAllocation
+    //--------------------------------------------------------------------------
+    /**
+     * This test reads multi megabyte documents and verifies that the amount of
+     * memory allocated while reading grows (at most) linearly with the size of
+     * the document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testReadAllocation() throws Exception
+    {
+        System.out.println("testReadAllocation");
+        
+        if( !(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) )
+        {
+            return;
+        }
+        
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        
+        if( !mx.isThreadAllocatedMemorySupported() || !mx.isThreadAllocatedMemoryEnabled() )
+        {
+            return;
+        }
+        
+        byte[] small = getLargeDocument( 1024 * 1024 );
+        byte[] large = getLargeDocument( 4 * 1024 * 1024 );
+        
+        long smallAllocated = Long.MAX_VALUE;
+        long largeAllocated = Long.MAX_VALUE;
+        
+        // the first rounds warm up the JIT; keep the best of all rounds
+        for( int i=0; i<5; i++ )
+        {
+            long before = mx.getThreadAllocatedBytes( Thread.currentThread().getId() );
+            assertEquals( small.length, drain( small ) );
+            smallAllocated = Math.min( smallAllocated, mx.getThreadAllocatedBytes( Thread.currentThread().getId() ) - before );
+            
+            before = mx.getThreadAllocatedBytes( Thread.currentThread().getId() );
+            assertEquals( large.length, drain( large ) );
+            largeAllocated = Math.min( largeAllocated, mx.getThreadAllocatedBytes( Thread.currentThread().getId() ) - before );
+        }
+        
+        System.out.println( "Allocated " + smallAllocated + " bytes for " + small.length
+                + " byte document, " + largeAllocated + " bytes for " + large.length + " byte document" );
+        
+        // 4 times the bytes; quadratic growth would allocate 16 times as much, the
+        // extra factor of 2 leaves room for the JIT having optimised the runs differently
+        assertTrue( "Allocation is not linear in the document size", largeAllocated <= 2 * 4 * smallAllocated + 256 * 1024 );
+        // without a FrameTap nothing is kept, so scanning only needs the read buffers
+        assertTrue( "Allocated more than the read buffers while scanning", largeAllocated < 64 * 1024 );
+        
+        XMLInputStream instance = new XMLInputStream( new ByteArrayInputStream( large ) );
+        assertEquals( "root", XMLUtils.readDocument( instance ).getDocumentElement().getNodeName() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testBulkRead
+    //--------------------------------------------------------------------------
+    /**
+     * This test reads back to back documents using the block read method with
+     * a variety of buffer sizes, and verifies that every read stops exactly at
+     * the end of each document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testBulkRead() throws Exception
+    {
+        System.out.println("testBulkRead");
+        
+        String[] docs = {
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?><root><a>1</a><b/></root>",
+            "<xml><http><head/><body>stuff</body></http><xdoc/></xml>",
+            "<empty_doc/>",
+            TEST_BOMBER_1,
+            new String( getLargeDocument( 100 * 1024 ) )
+        };
+        
+        StringBuilder all = new StringBuilder();
+        for( int i=0; i<docs.length; i++ )
+        {
+            all.append( docs[i] );
+        }
+        
+        int[] sizes = { 1, 7, 64, 8192, 200 * 1024 };
+        
+        for( int s=0; s<sizes.length; s++ )
+        {
+            XMLInputStream instance = new XMLInputStream( new ByteArrayInputStream( all.toString().getBytes() ), 1000 );
+            byte[] b = new byte[ sizes[s] ];
+            
+            for( int i=0; i<docs.length; i++ )
+            {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                int n;
+                
+                while( (n = instance.read( b, 0, b.length )) != -1 )
+                {
+                    out.write( b, 0, n );
+                }
+                
+                assertEquals( "Wrong document with buffer size " + sizes[s], docs[i], out.toString() );
+                instance.reset();
+            }
+            
+            assertEquals( -1, instance.read( b, 0, b.length ) );
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testPackedSegment
+    //--------------------------------------------------------------------------
+    /**
+     * This test writes many small documents to a socket with a single write, so
+     * that they arrive packed together in as few TCP segments as possible, and
+     * verifies that every one of them is read back in order.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testPackedSegment() throws Exception
+    {
+        System.out.println("testPackedSegment");
+        
+        int count = 200;
+        StringBuilder xml = new StringBuilder();
+        
+        for( int i=0; i<count; i++ )
+        {
+            xml.append( i % 2 == 0 ? "<?xml version=\"1.0\"?>" : "" )
+               .append( "<msg id=\"" ).append( i ).append( "\"><body>" ).append( i ).append( "</body></msg>" );
+        }
+        
+        ServerSocket ssock = new ServerSocket( 0 );
+        Socket client = new Socket( "localhost", ssock.getLocalPort() );
+        Socket server = ssock.accept();
+        
+        try
+        {
+            client.getOutputStream().write( xml.toString().getBytes() );
+            client.getOutputStream().flush();
+            
+            XMLInputStream instance = new XMLInputStream( server.getInputStream() );
+            
+            for( int i=0; i<count; i++ )
+            {
+                Document doc = XMLUtils.readDocument( instance );
+                instance.reset();
+                
+                assertEquals( "Documents were read out of order", "" + i, doc.getDocumentElement().getAttribute( "id" ) );
+            }
+        }
+        finally
+        {
+            client.close();
+            server.close();
+            ssock.close();
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testCarryOver
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that the bytes read ahead past the end of a document
+     * are neither lost nor duplicated; whether the next document is read as
+     * XML, the stream is switched out of XML mode, or bytes are pushed back.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testCarryOver() throws Exception
+    {
+        System.out.println("testCarryOver");
+        
+        String doc = "<a><b>text</b></a>";
+        String tail = "trailing bytes";
+        
+        for( int size=1; size<=64; size++ )
+        {
+            XMLInputStream instance = new XMLInputStream( new ByteArrayInputStream( (doc + doc + tail).getBytes() ), size );
+            
+            assertEquals( doc, readFully( instance ) );
+            instance.reset();
+            assertEquals( doc, readFully( instance ) );
+            assertEquals( 0, instance.available() );
+            
+            instance.setReadingXML( false );
+            byte[] b = new byte[ 8 ];
+            int n = instance.read( b, 0, b.length );
+            instance.unread( b, 0, n );
+            
+            assertEquals( "Carry over was lost with a read ahead of " + size, tail, readFully( instance ) );
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testOverlappingEndTag
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a partial end tag immediately followed by the real
+     * end tag is still recognised as the end of the document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testOverlappingEndTag() throws Exception
+    {
+        System.out.println("testOverlappingEndTag");
+        
+        String doc = "<?xml version=\"1.0\"??><r>x</r</r>";
+        
+        for( int size=1; size<=16; size++ )
+        {
+            XMLInputStream instance = new XMLInputStream( new ByteArrayInputStream( (doc + doc).getBytes() ), size );
+            
+            assertEquals( doc, readFully( instance ) );
+            instance.reset();
+            
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int read;
+            while( (read = instance.read()) != -1 )
+            {
+                out.write( read );
+            }
+            assertEquals( doc, out.toString() );
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testNestedFraming
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that the nesting aware framing mode allows the root
+     * node name to be reused, and is not fooled by markup inside of comments,
+     * CDATA sections, processing instructions or attribute values.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testNestedFraming() throws Exception
+    {
+        System.out.println("testNestedFraming");
+        
+        String[] docs = {
+            TEST_BOMBER_2,
+            "<?xml version=\"1.0\"?><!DOCTYPE root [ <!ENTITY e \"]>\"> ]><!-- <root> --><root a=\"x>y\" b='>'>"
+                + "<!-- </root> --><![CDATA[</root>]]]]><?pi </root>?><root/><x><root>&e;</root></x></root>",
+            "<root/>",
+            "<?xml version=\"1.0\"?><root><root><root/></root></root>"
+        };
+        
+        StringBuilder all = new StringBuilder();
+        for( int i=0; i<docs.length; i++ )
+        {
+            all.append( docs[i] );
+        }
+        
+        for( int size=1; size<=64; size++ )
+        {
+            XMLInputStream instance = new XMLInputStream( new ByteArrayInputStream( all.toString().getBytes() ), size );
+            instance.setFramingMode( XMLInputStream.FramingModes.FRAMING_NESTED );
+            
+            for( int i=0; i<docs.length; i++ )
+            {
+                assertEquals( "Wrong document with a read ahead of " + size, docs[i], readFully( instance ) );
+                instance.reset();
+            }
+        }
+        
+        XMLInputStream instance = new XMLInputStream( new ByteArrayInputStream( all.toString().getBytes() ) );
+        instance.setFramingMode( XMLInputStream.FramingModes.FRAMING_NESTED );
+        
+        for( int i=0; i<docs.length; i++ )
+        {
+            assertEquals( "root", XMLUtils.readDocument( instance ).getDocumentElement().getNodeName() );
+            instance.reset();
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testLengthPrefixed
+    //--------------------------------------------------------------------------
+    /**
+     * This test mixes length prefixed documents with unframed ones (as written
+     * by an older peer), and verifies that both are read back correctly.  The
+     * framed documents reuse the root node name, since they are never scanned.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testLengthPrefixed() throws Exception
+    {
+        System.out.println("testLengthPrefixed");
+        
+        Document nested = XMLUtils.readDocument( new ByteArrayInputStream( TEST_BOMBER_2.getBytes() ) );
+        String framed = XMLUtils.toString( nested );
+        String unframed = "<xml><http><head/><body>stuff</body></http><xdoc/></xml>";
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLUtils.writeFramedDocument( nested, out );
+        out.write( unframed.getBytes() );
+        XMLUtils.writeFramedDocument( nested, out );
+        XMLUtils.writeFrameHeader( 0, out );
+        XMLUtils.writeFramedDocument( nested, out );
+        
+        String[] expected = { framed, unframed, framed, "", framed };
+        
+        for( int size=1; size<=64; size++ )
+        {
+            XMLInputStream instance = new XMLInputStream( new ByteArrayInputStream( out.toByteArray() ), size );
+            instance.setFramingMode( XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED );
+            
+            for( int i=0; i<expected.length; i++ )
+            {
+                assertEquals( "Wrong document with a read ahead of " + size, expected[i], readFully( instance ) );
+                instance.reset();
+            }
+            assertEquals( -1, instance.read() );
+        }
+        
+        XMLInputStream instance = new XMLInputStream( new ByteArrayInputStream( out.toByteArray() ) );
+        instance.setFramingMode( XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED );
+        
+        assertEquals( 1, XMLUtils.readDocument( instance ).getElementsByTagName( "child" ).getLength() );
+        instance.reset();
+        assertEquals( "xml", XMLUtils.readDocument( instance ).getDocumentElement().getNodeName() );
+        instance.reset();
+        assertEquals( 1, XMLUtils.readDocument( instance ).getElementsByTagName( "child" ).getLength() );
+        
+        instance = new XMLInputStream( new ByteArrayInputStream( out.toByteArray(), 0, XMLInputStream.FRAME_HEADER_LENGTH + 3 ) );
+        instance.setFramingMode( XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED );
+        
+        try
+        {
+            readFully( instance );
+            fail( "A truncated frame should not look like the end of a document" );
+        }
+        catch( java.io.EOFException ex )
+        {
+        }
+    }
+
 //    //--------------------------------------------------------------------------
 //    // testBomb2
 //    //--------------------------------------------------------------------------
@@ -312,6 +659,81 @@ public class XMLInputStreamTest extends TestCase
 //        }        
 //    }
     
+    //--------------------------------------------------------------------------
+    // readFully
+    //--------------------------------------------------------------------------
+    /**
+     * This method reads everything the provided stream will give before it
+     * returns -1.
+     * @param in The stream to read.
+     * @return The bytes read, as a String.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private String readFully( XMLInputStream in ) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] b = new byte[ 5 ];
+        int n;
+        
+        while( (n = in.read( b, 0, b.length )) != -1 )
+        {
+            out.write( b, 0, n );
+        }
+        
+        return out.toString();
+    }
+    
+    //--------------------------------------------------------------------------
+    // drain
+    //--------------------------------------------------------------------------
+    /**
+     * This method reads a single document out of the provided bytes, one byte at
+     * a time.
+     * @param bytes The bytes to read from.
+     * @return The number of bytes read before the XMLInputStream was closed.
+     * @throws IOException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private int drain( byte[] bytes ) throws IOException
+    {
+        XMLInputStream instance = new XMLInputStream( new ByteArrayInputStream( bytes ) );
+        int count = 0;
+        
+        while( instance.read() != -1 )
+        {
+            ++count;
+        }
+        
+        return count;
+    }
+    
+    //--------------------------------------------------------------------------
+    // getLargeDocument
+    //--------------------------------------------------------------------------
+    /**
+     * This method builds an XML Document of (roughly) the provided size.
+     * @param size The minimum size of the document in bytes.
+     * @return The bytes of the XML Document.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private byte[] getLargeDocument( int size )
+    {
+        StringBuilder xml = new StringBuilder( size + 128 );
+        xml.append( "<?xml version=\"1.0\" encoding=\"UTF-8\"?><root>" );
+        
+        for( int i=0; xml.length() < size; i++ )
+        {
+            xml.append( "<item id=\"" ).append( i ).append( "\">value</item>" );
+        }
+        xml.append( "</root>" );
+        
+        return xml.toString().getBytes();
+    }
+    
     //--------------------------------------------------------------------------
     // getInputStream
     //--------------------------------------------------------------------------
@@ -0,0 +1,298 @@
+/*
+ * XMLOutputStreamTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.transport.io;
+
+import com.xml.utils.XMLUtils;
+import com.xml.transport.io.XMLInputStream;
+import com.xml.transport.io.XMLOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import javax.xml.parsers.ParserConfigurationException;
+import junit.framework.*;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+//==========================================================================
+// TEST CLASS XMLOutputStreamTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XMLOutputStreamTest extends TestCase
+{
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XMLOutputStreamTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(XMLOutputStreamTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testBatching
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that many small documents are coalesced into a single
+     * write, and that they can all be read back.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testBatching() throws Exception
+    {
+        System.out.println("testBatching");
+        
+        CountingOutputStream counter = new CountingOutputStream();
+        XMLOutputStream out = new XMLOutputStream( counter, 1024 * 1024, 60 * 1000 );
+        
+        for( int i=0; i<100; i++ )
+        {
+            out.writeDocument( getTestDocument( i ) );
+        }
+        assertEquals( "Nothing should be written before the batch is full", 0, counter.writes );
+        
+        out.flush();
+        assertEquals( "The batch should be written with a single write", 1, counter.writes );
+        
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( counter.toByteArray() ) );
+        for( int i=0; i<100; i++ )
+        {
+            assertEquals( "" + i, XMLUtils.readDocument( in ).getDocumentElement().getAttribute( "id" ) );
+            in.reset();
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testBatchSize
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a batch is written as soon as it is full.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testBatchSize() throws Exception
+    {
+        System.out.println("testBatchSize");
+        
+        CountingOutputStream counter = new CountingOutputStream();
+        XMLOutputStream out = new XMLOutputStream( counter, 256, 60 * 1000 );
+        
+        for( int i=0; i<100; i++ )
+        {
+            out.writeDocument( getTestDocument( i ) );
+        }
+        
+        assertTrue( "Full batches should have been written", counter.writes > 1 );
+        assertTrue( "Documents should have been coalesced", counter.writes < 100 );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testMaxLatency
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a batch that is not full is written once the
+     * maximum latency is up, without anyone calling flush.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testMaxLatency() throws Exception
+    {
+        System.out.println("testMaxLatency");
+        
+        CountingOutputStream counter = new CountingOutputStream();
+        XMLOutputStream out = new XMLOutputStream( counter, 1024 * 1024, 20 );
+        
+        out.writeDocument( getTestDocument( 0 ) );
+        
+        for( int i=0; i<200 && counter.writes == 0; i++ )
+        {
+            Thread.sleep( 10 );
+        }
+        
+        assertEquals( "The batch should have been written by the timer", 1, counter.writes );
+        assertEquals( "0", XMLUtils.readDocument( new ByteArrayInputStream( counter.toByteArray() ) ).getDocumentElement().getAttribute( "id" ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testStalledPeer
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a timed write that blocks (a peer that is not
+     * reading) does not hold up the timed writes of other streams.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testStalledPeer() throws Exception
+    {
+        System.out.println("testStalledPeer");
+        
+        final CountDownLatch release = new CountDownLatch( 1 );
+        OutputStream stalled = new OutputStream()
+        {
+            public void write( int b ) throws IOException
+            {
+                write( new byte[] { (byte)b }, 0, 1 );
+            }
+            
+            public void write( byte[] b, int off, int len ) throws IOException
+            {
+                try
+                {
+                    release.await();
+                }
+                catch( InterruptedException ex )
+                {
+                    throw new IOException( ex );
+                }
+            }
+        };
+        
+        XMLOutputStream blocked = new XMLOutputStream( stalled, 1024 * 1024, 5 );
+        blocked.writeDocument( getTestDocument( 0 ) );
+        Thread.sleep( 50 );     // its timed write is now stuck
+        
+        CountingOutputStream counter = new CountingOutputStream();
+        XMLOutputStream out = new XMLOutputStream( counter, 1024 * 1024, 5 );
+        out.writeDocument( getTestDocument( 1 ) );
+        
+        for( int i=0; i<200 && counter.writes == 0; i++ )
+        {
+            Thread.sleep( 10 );
+        }
+        int writes = counter.writes;
+        release.countDown();
+        
+        assertEquals( "The batch should have been written while the other stream was stuck", 1, writes );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testFramed
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that length prefixed documents can be read back using
+     * the length prefixed framing mode.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testFramed() throws Exception
+    {
+        System.out.println("testFramed");
+        
+        CountingOutputStream counter = new CountingOutputStream();
+        XMLOutputStream out = new XMLOutputStream( counter );
+        out.setFramed( true );
+        
+        for( int i=0; i<10; i++ )
+        {
+            out.writeDocument( getTestDocument( i ) );
+        }
+        out.close();
+        
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( counter.toByteArray() ) );
+        in.setFramingMode( XMLInputStream.FramingModes.FRAMING_LENGTH_PREFIXED );
+        
+        for( int i=0; i<10; i++ )
+        {
+            assertEquals( "" + i, XMLUtils.readDocument( in ).getDocumentElement().getAttribute( "id" ) );
+            in.reset();
+        }
+        
+        try
+        {
+            out.writeDocument( getTestDocument( 10 ) );
+            fail( "Writing to a closed stream should fail" );
+        }
+        catch( IOException ex )
+        {
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // getTestDocument
+    //--------------------------------------------------------------------------
+    /**
+     * This method creates a Test XML Document.
+     * @param id The id of the document.
+     * @return The Document object.
+     * @throws ParserConfigurationException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private Document getTestDocument( int id ) throws ParserConfigurationException
+    {
+        Document doc = XMLUtils.getNewDocument();
+        
+        Element e = doc.createElement( "root" );
+        e.setAttribute( "id", "" + id );
+        e.appendChild( doc.createElement( "eric" ) );
+        
+        doc.appendChild( e );
+        
+        return doc;
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class counts the number of writes made to it.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class CountingOutputStream extends ByteArrayOutputStream
+    {
+        public volatile int     writes          = 0;
+        
+        public synchronized void write( byte[] b, int off, int len )
+        {
+            ++writes;
+            super.write( b, off, len );
+        }
+        
+        public synchronized void write( int b )
+        {
+            ++writes;
+            super.write( b );
+        }
+    }
+}
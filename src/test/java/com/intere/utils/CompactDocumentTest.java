@@ -0,0 +1,298 @@
+/*
+ * CompactDocumentTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.utils;
+
+import com.xml.transport.io.XMLInputStream;
+import com.xml.utils.CompactDocument;
+import com.xml.utils.XMLUtils;
+import com.xml.utils.XPathQuerySet;
+import com.xml.utils.XPathUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import junit.framework.*;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+//==========================================================================
+// TEST CLASS CompactDocumentTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class CompactDocumentTest extends TestCase
+{
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public CompactDocumentTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(CompactDocumentTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testAgainstDOM
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that the compact tree has the same elements, attributes
+     * and text as the DOM, and that the XPath subset gives the same values.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testAgainstDOM() throws Exception
+    {
+        System.out.println("testAgainstDOM");
+        
+        String xml = StreamingXPathTest.TEST_DOC.replace( "<to>eric</to>", "<to a=\"x &amp; y\">e&lt;r&#105;&#x63;</to>" );
+        Document dom = XMLUtils.readDocument( new ByteArrayInputStream( xml.getBytes( "UTF-8" ) ) );
+        CompactDocument doc = CompactDocument.parse( xml.getBytes( "UTF-8" ) );
+        
+        assertEquals( dom.getElementsByTagName( "*" ).getLength(), doc.getElementCount() );
+        compare( dom.getDocumentElement(), doc, doc.getRoot() );
+        
+        XPathQuerySet set = new XPathQuerySet();
+        for( String expression : StreamingXPathTest.EXPRESSIONS )
+        {
+            assertEquals( expression, XPathUtils.getString( dom, expression ), XPathUtils.getString( doc, expression ) );
+            set.add( expression, expression );
+        }
+        assertEquals( set.evaluate( dom ).toMap(), set.evaluate( doc ).toMap() );
+        
+        int header = XMLUtils.getChildNode( doc, doc.getRoot(), "header" );
+        assertEquals( "order", doc.getAttribute( header, "type" ) );
+        assertEquals( "7", doc.getAttribute( header, "x:id" ) );
+        assertEquals( "x & y", doc.getAttribute( XMLUtils.getChildNode( doc, header, "to" ), "a" ) );
+        assertEquals( "x & y", XPathUtils.getString( doc, "/msg/header/to/@a" ) );
+        assertEquals( CompactDocument.NONE, XMLUtils.getChildNode( doc, header, "missing" ) );
+        assertNull( doc.getAttribute( header, "missing" ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testNameIds
+    //--------------------------------------------------------------------------
+    /**
+     * This test looks up the ids of enough names to grow the name table,
+     * ASCII and not, and of names that are not in the document.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testNameIds() throws Exception
+    {
+        System.out.println("testNameIds");
+        
+        StringBuilder xml = new StringBuilder( "<root>" );
+        for( int i=0; i<100; i++ )
+        {
+            xml.append( "<name" ).append( i ).append( "/><n\u00e4me" ).append( i ).append( "/>" );
+        }
+        xml.append( "</root>" );
+        
+        CompactDocument doc = CompactDocument.parse( xml.toString().getBytes( "UTF-8" ) );
+        
+        assertEquals( 201, doc.getElementCount() );
+        for( int e=0; e<doc.getElementCount(); e++ )
+        {
+            assertEquals( doc.getName( e ), doc.getNameId( e ), doc.getNameId( doc.getName( e ) ) );
+        }
+        
+        assertEquals( CompactDocument.NONE, doc.getNameId( "name100" ) );
+        assertEquals( CompactDocument.NONE, doc.getNameId( "n\u00e4me100" ) );
+        assertEquals( CompactDocument.NONE, doc.getNameId( "nam" ) );
+        assertEquals( CompactDocument.NONE, doc.getNameId( "" ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testRead
+    //--------------------------------------------------------------------------
+    /**
+     * This test reads several framed documents from an XMLInputStream.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testRead() throws Exception
+    {
+        System.out.println("testRead");
+        
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( getDocuments( 10 ) ) );
+        
+        for( int i=0; i<10; i++ )
+        {
+            CompactDocument doc = CompactDocument.read( in );
+            in.reset();
+            
+            assertEquals( "root", doc.getName( doc.getRoot() ) );
+            assertEquals( "" + i, doc.getAttribute( doc.getRoot(), "id" ) );
+            assertEquals( 10, doc.getChildCount( doc.getRoot() ) );
+            assertEquals( "eric", doc.getName( doc.getChild( doc.getRoot(), 0 ) ) );
+            assertEquals( doc.getRoot(), doc.getParent( doc.getChild( doc.getRoot(), 9 ) ) );
+        }
+        
+        assertNull( CompactDocument.read( in ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testMalformed
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that documents that are not well formed are rejected.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testMalformed() throws Exception
+    {
+        System.out.println("testMalformed");
+        
+        String[] malformed = {
+            "",
+            "   ",
+            "<a>",
+            "<a></b>",
+            "<a><b></a></b>",
+            "</a>",
+            "<a/><b/>",
+            "text<a/>",
+            "<a x=1/>",
+            "<a x=\"1/>",
+            "<a x\"1\"/>",
+            "<a x=\"1\"y=\"2\"/>",
+            "<a><!-- unterminated </a>",
+            "<a><![CDATA[ unterminated</a>",
+            "<a><!DOCTYPE a></a>"
+        };
+        
+        for( String xml : malformed )
+        {
+            try
+            {
+                CompactDocument.parse( xml.getBytes( "UTF-8" ) );
+                fail( "Should not parse: " + xml );
+            }
+            catch( SAXException ex )
+            {
+            }
+        }
+        
+        // but these are fine
+        CompactDocument doc = CompactDocument.parse( "\uFEFF<?xml version=\"1.0\"?>\n<!DOCTYPE a [<!ENTITY e \"]>\">]>\n<a b = 'c' >é<![CDATA[<&>]]>&amp;</a >\n<!-- end -->\n".getBytes( "UTF-8" ) );
+        assertEquals( "c", doc.getAttribute( doc.getRoot(), "b" ) );
+        assertEquals( "é<&>&", doc.getText( doc.getRoot() ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // compare
+    //--------------------------------------------------------------------------
+    /**
+     * This method compares a DOM element to a compact one, recursively.
+     * @param expected The DOM element.
+     * @param doc The CompactDocument.
+     * @param actual The compact element.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static void compare( Element expected, CompactDocument doc, int actual )
+    {
+        assertEquals( expected.getNodeName(), doc.getName( actual ) );
+        assertEquals( expected.getTextContent(), doc.getTextContent( actual ) );
+        
+        NamedNodeMap attributes = expected.getAttributes();
+        assertEquals( attributes.getLength(), doc.getAttributeCount( actual ) );
+        for( int i=0; i<doc.getAttributeCount( actual ); i++ )
+        {
+            assertEquals( expected.getAttribute( doc.getAttributeName( actual, i ) ), doc.getAttributeValue( actual, i ) );
+        }
+        
+        StringBuilder text = new StringBuilder();
+        int child = 0;
+        NodeList children = expected.getChildNodes();
+        
+        for( int i=0; i<children.getLength(); i++ )
+        {
+            Node n = children.item( i );
+            
+            if( n.getNodeType() == Node.ELEMENT_NODE )
+            {
+                assertEquals( actual, doc.getParent( doc.getChild( actual, child ) ) );
+                compare( (Element)n, doc, doc.getChild( actual, child++ ) );
+            }
+            else if( n.getNodeType() == Node.TEXT_NODE || n.getNodeType() == Node.CDATA_SECTION_NODE )
+            {
+                text.append( n.getNodeValue() );
+            }
+        }
+        
+        assertEquals( child, doc.getChildCount( actual ) );
+        assertEquals( text.toString(), doc.getText( actual ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // getDocuments
+    //--------------------------------------------------------------------------
+    /**
+     * This method writes several test documents back to back.
+     * @param count The number of documents.
+     * @return The bytes of the documents.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static byte[] getDocuments( int count ) throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        for( int i=0; i<count; i++ )
+        {
+            Document doc = XMLUtils.getNewDocument();
+            Element root = doc.createElement( "root" );
+            root.setAttribute( "id", "" + i );
+            root.appendChild( doc.createElement( "eric" ) );
+            
+            for( int j=0; j<9; j++ )
+            {
+                root.appendChild( XMLUtils.createTextNode( doc, "child", "value " + j ) );
+            }
+            doc.appendChild( root );
+            XMLUtils.writeDocument( doc, out );
+        }
+        
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * StreamingXPathTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.utils;
+
+import com.xml.transport.io.XMLInputStream;
+import com.xml.utils.StreamingXPath;
+import com.xml.utils.XMLUtils;
+import com.xml.utils.XPathUtils;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import javax.xml.xpath.XPathExpressionException;
+import junit.framework.*;
+import org.w3c.dom.Document;
+
+//==========================================================================
+// TEST CLASS StreamingXPathTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class StreamingXPathTest extends TestCase
+{
+    //==========================================================================
+    //  VARIABLE(S)
+    //==========================================================================
+    public static final String      TEST_DOC            = "<?xml version=\"1.0\"?>"
+            + "<msg xmlns:x=\"urn:x\"><header type=\"order\" x:id=\"7\"><to>eric</to></header>"
+            + "<body><item id=\"1\">one</item><item id=\"2\" flag=\"y\">two<b>bold</b>tail</item>"
+            + "<!-- comment --><group><item id=\"3\">three</item><msg><to>nested</to></msg></group>"
+            + "<item id=\"4\"><![CDATA[<four>]]></item></body></msg>";
+    
+    public static final String[]    EXPRESSIONS         = {
+        "/msg/header/@type",
+        "/msg/header/to",
+        "/msg/header/to/text()",
+        "//to",
+        "/msg//to",
+        "//msg/to",
+        "//item[2]",
+        "//item[@flag]",
+        "//item[@id='3']",
+        "//item[@id=\"4\"]",
+        "/msg/body/item[2]/text()",
+        "/msg/body/item[2][@flag='y']/@id",
+        "/msg/body/*[3]/item/@id",
+        "/msg/body/item[4]",
+        "//@flag",
+        "/msg//text()",
+        "/msg/body",
+        "/msg/missing",
+        "//item[@id='9']/@id",
+        "/msg/header/@missing"
+    };
+    
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public StreamingXPathTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(StreamingXPathTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testAgainstDOM
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that every expression of the subset gives the same
+     * value as XPathUtils does on a DOM (the streaming evaluator gives null
+     * where the DOM gives the empty String for no match).
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testAgainstDOM() throws Exception
+    {
+        System.out.println("testAgainstDOM");
+        
+        Document doc = XMLUtils.readDocument( new ByteArrayInputStream( TEST_DOC.getBytes() ) );
+        
+        for( String expression : EXPRESSIONS )
+        {
+            String expected = XPathUtils.getString( doc, expression );
+            String actual = StreamingXPath.compile( expression ).evaluate( new ByteArrayInputStream( TEST_DOC.getBytes() ) );
+            
+            assertEquals( expression, expected, actual == null ? "" : actual );
+        }
+        
+        assertNull( StreamingXPath.compile( "/msg/missing" ).evaluate( new ByteArrayInputStream( TEST_DOC.getBytes() ) ) );
+        
+        // prefixes are matched as written, so no NamespaceContext is needed
+        assertEquals( "7", StreamingXPath.compile( "/msg/header/@x:id" ).evaluate( new ByteArrayInputStream( TEST_DOC.getBytes() ) ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testMultipleQueries
+    //--------------------------------------------------------------------------
+    /**
+     * This test evaluates all of the expressions in a single pass.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testMultipleQueries() throws Exception
+    {
+        System.out.println("testMultipleQueries");
+        
+        StreamingXPath[] queries = new StreamingXPath[ EXPRESSIONS.length ];
+        for( int i=0; i<queries.length; i++ )
+        {
+            queries[ i ] = StreamingXPath.compile( EXPRESSIONS[ i ] );
+        }
+        
+        String[] results = StreamingXPath.evaluate( new ByteArrayInputStream( TEST_DOC.getBytes() ), queries );
+        
+        for( int i=0; i<queries.length; i++ )
+        {
+            assertEquals( EXPRESSIONS[ i ], queries[ i ].evaluate( new ByteArrayInputStream( TEST_DOC.getBytes() ) ), results[ i ] );
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testDocumentBoundary
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that stopping early still leaves an XMLInputStream at
+     * the end of the document, ready for the next one.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testDocumentBoundary() throws Exception
+    {
+        System.out.println("testDocumentBoundary");
+        
+        StreamingXPath type = StreamingXPath.compile( "/msg/header/@type" );
+        StringBuilder stream = new StringBuilder();
+        
+        for( int i=0; i<5; i++ )
+        {
+            stream.append( TEST_DOC.replace( "order", "order" + i ) );
+        }
+        
+        // the test document reuses its root tag name, so it has to be framed by nesting
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( stream.toString().getBytes() ) );
+        in.setFramingMode( XMLInputStream.FramingModes.FRAMING_NESTED );
+        
+        for( int i=0; i<4; i++ )
+        {
+            assertEquals( "order" + i, type.evaluate( in ) );
+            in.reset();
+        }
+        
+        // the last one is read as a DOM, to be sure nothing was left behind
+        assertEquals( "order4", XMLUtils.readDocument( in ).getDocumentElement().getFirstChild().getAttributes().getNamedItem( "type" ).getNodeValue() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testUnsupported
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that expressions outside of the subset are rejected
+     * when they are compiled.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testUnsupported() throws Exception
+    {
+        System.out.println("testUnsupported");
+        
+        String[] unsupported = { "", "msg/header", "/msg/..", "/msg/child::header", "/msg[count(a)=1]",
+            "/msg/@type/x", "/msg/item[@id=3]", "/msg/item[@id='3'][2]", "/msg/item[0]", "/msg/item[@id='3'", "/" };
+        
+        for( String expression : unsupported )
+        {
+            try
+            {
+                StreamingXPath.compile( expression );
+                fail( "Should not compile: " + expression );
+            }
+            catch( XPathExpressionException ex )
+            {
+            }
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testFlatMemory
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that finding a value near the start of a document
+     * allocates about as much memory for a 4MB document as for a 16KB one.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testFlatMemory() throws Exception
+    {
+        System.out.println("testFlatMemory");
+        
+        if( !(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) )
+        {
+            return;
+        }
+        
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        
+        if( !mx.isThreadAllocatedMemorySupported() || !mx.isThreadAllocatedMemoryEnabled() )
+        {
+            return;
+        }
+        
+        StreamingXPath type = StreamingXPath.compile( "/msg/header/@type" );
+        byte[] small = getLargeDocument( 16 * 1024 );
+        byte[] large = getLargeDocument( 4 * 1024 * 1024 );
+        
+        long smallAllocated = Long.MAX_VALUE;
+        long largeAllocated = Long.MAX_VALUE;
+        
+        // the first rounds warm up the JIT; keep the best of all rounds
+        for( int i=0; i<5; i++ )
+        {
+            long before = mx.getThreadAllocatedBytes( Thread.currentThread().getId() );
+            assertEquals( "order", type.evaluate( new XMLInputStream( new ByteArrayInputStream( small ) ) ) );
+            smallAllocated = Math.min( smallAllocated, mx.getThreadAllocatedBytes( Thread.currentThread().getId() ) - before );
+            
+            before = mx.getThreadAllocatedBytes( Thread.currentThread().getId() );
+            assertEquals( "order", type.evaluate( new XMLInputStream( new ByteArrayInputStream( large ) ) ) );
+            largeAllocated = Math.min( largeAllocated, mx.getThreadAllocatedBytes( Thread.currentThread().getId() ) - before );
+        }
+        
+        System.out.println( "Allocated " + smallAllocated + " bytes for " + small.length
+                + " byte document, " + largeAllocated + " bytes for " + large.length + " byte document" );
+        
+        assertTrue( "Allocation grew with the document size", largeAllocated < 2 * smallAllocated + 128 * 1024 );
+    }
+    
+    //--------------------------------------------------------------------------
+    // getLargeDocument
+    //--------------------------------------------------------------------------
+    /**
+     * This method creates a message with a large body.
+     * @param size The (approximate) size of the document.
+     * @return The document bytes.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static byte[] getLargeDocument( int size )
+    {
+        StringBuilder xml = new StringBuilder( size + 128 );
+        xml.append( "<?xml version=\"1.0\" encoding=\"UTF-8\"?><msg><header type=\"order\"/><body>" );
+        
+        for( int i=0; xml.length() < size; i++ )
+        {
+            xml.append( "<item id=\"" ).append( i ).append( "\">value</item>" );
+        }
+        xml.append( "</body></msg>" );
+        
+        return xml.toString().getBytes();
+    }
+}
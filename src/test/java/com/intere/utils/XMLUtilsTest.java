@@ -0,0 +1,563 @@
+/*
+ * XMLUtilsTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.utils;
+
+import com.xml.transport.io.XMLInputStream;
+import com.xml.utils.XMLUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import junit.framework.*;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+//==========================================================================
+// TEST CLASS XMLUtilsTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XMLUtilsTest extends TestCase
+{
+    //==========================================================================
+    //  VARIABLE(S)
+    //==========================================================================
+    
+    // the user data key XMLUtils keeps an element's child index under
+    private static final String     CHILD_INDEX         = "com.xml.utils.XMLUtils.childIndex";
+    
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XMLUtilsTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(XMLUtilsTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testReuseAfterError
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a failed parse is only reported by its
+     * SAXException (nothing is printed), and that it does not spoil the
+     * (reused) builder for the next parse on the same thread.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testReuseAfterError() throws Exception
+    {
+        System.out.println("testReuseAfterError");
+        
+        PrintStream err = System.err;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setErr( new PrintStream( printed ) );
+        
+        try
+        {
+            XMLUtils.readDocument( new ByteArrayInputStream( "<root><unclosed></root>".getBytes() ) );
+            fail( "The document is not well formed" );
+        }
+        catch( SAXException ex )
+        {
+        }
+        finally
+        {
+            System.setErr( err );
+        }
+        assertEquals( "A malformed document should not print anything", "", printed.toString() );
+        
+        Document doc = XMLUtils.readDocument( new ByteArrayInputStream( XMLUtils.toString( getTestDocument( 7 ) ).getBytes() ) );
+        assertEquals( "7", doc.getDocumentElement().getAttribute( "id" ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testConcurrentReadWrite
+    //--------------------------------------------------------------------------
+    /**
+     * This test writes and reads documents from several threads at once, and
+     * verifies that every round trip is intact.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testConcurrentReadWrite() throws Exception
+    {
+        System.out.println("testConcurrentReadWrite");
+        
+        ExecutorService pool = Executors.newFixedThreadPool( 8 );
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+        
+        for( int t=0; t<8; t++ )
+        {
+            final int base = t * 1000;
+            results.add( pool.submit( new Callable<Integer>()
+            {
+                public Integer call() throws Exception
+                {
+                    for( int i=base; i<base+500; i++ )
+                    {
+                        String xml = XMLUtils.toString( getTestDocument( i ) );
+                        Document doc = XMLUtils.readDocument( new ByteArrayInputStream( xml.getBytes() ) );
+                        
+                        if( !( "" + i ).equals( doc.getDocumentElement().getAttribute( "id" ) ) )
+                        {
+                            return i;
+                        }
+                    }
+                    
+                    return -1;
+                }
+            }));
+        }
+        
+        for( Future<Integer> result : results )
+        {
+            assertEquals( "A round trip came back wrong", -1, result.get().intValue() );
+        }
+        
+        pool.shutdown();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testSAXReader
+    //--------------------------------------------------------------------------
+    /**
+     * This test reads back to back documents as SAX events, stopping one of
+     * them early, and verifies that each read stops at its document boundary.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testSAXReader() throws Exception
+    {
+        System.out.println("testSAXReader");
+        
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( getDocuments( 3 ) ) );
+        
+        for( int i=0; i<3; i++ )
+        {
+            CountingHandler handler = new CountingHandler( i == 1 ? 2 : Integer.MAX_VALUE );
+            
+            try
+            {
+                XMLUtils.readDocument( in, handler );
+                assertTrue( "Only the second document is stopped", i != 1 );
+            }
+            catch( SAXException ex )
+            {
+                assertEquals( "The handler stopped the second document", 1, i );
+            }
+            in.reset();
+            
+            assertEquals( "" + i, handler.id );
+            assertEquals( i == 1 ? 2 : 11, handler.elements );
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testStAXReader
+    //--------------------------------------------------------------------------
+    /**
+     * This test pulls back to back documents with a StAX reader, closing one of
+     * them early, and verifies that each read stops at its document boundary.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testStAXReader() throws Exception
+    {
+        System.out.println("testStAXReader");
+        
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( getDocuments( 3 ) ) );
+        
+        for( int i=0; i<3; i++ )
+        {
+            XMLStreamReader reader = XMLUtils.getXMLStreamReader( in );
+            int elements = 0;
+            
+            while( reader.hasNext() && !( i == 1 && elements == 2 ) )
+            {
+                if( reader.next() == XMLStreamConstants.START_ELEMENT )
+                {
+                    if( ++elements == 1 )
+                    {
+                        assertEquals( "" + i, reader.getAttributeValue( null, "id" ) );
+                    }
+                }
+            }
+            reader.close();
+            in.reset();
+            
+            assertEquals( i == 1 ? 2 : 11, elements );
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testEventReaderAllocation
+    //--------------------------------------------------------------------------
+    /**
+     * This test reads a small document as a DOM, as SAX events and with a StAX
+     * reader, and verifies that the streaming readers allocate less than the
+     * DOM (LargeDocumentBenchmark measures how much less, on large documents).
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testEventReaderAllocation() throws Exception
+    {
+        System.out.println("testEventReaderAllocation");
+        
+        if( !(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) )
+        {
+            return;
+        }
+        
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        
+        if( !mx.isThreadAllocatedMemorySupported() || !mx.isThreadAllocatedMemoryEnabled() )
+        {
+            return;
+        }
+        
+        StringBuilder xml = new StringBuilder();
+        xml.append( "<root id=\"0\">" );
+        for( int i=0; xml.length() < 64 * 1024; i++ )
+        {
+            xml.append( "<item id=\"" ).append( i ).append( "\"><name>value</name></item>" );
+        }
+        xml.append( "</root>" );
+        byte[] payload = xml.toString().getBytes();
+        
+        long[] allocated = new long[ 3 ];
+        
+        for( int mode=0; mode<3; mode++ )
+        {
+            long before = mx.getThreadAllocatedBytes( Thread.currentThread().getId() );
+            Object result = null;
+            XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( payload ) );
+            
+            if( mode == 0 )
+            {
+                result = XMLUtils.readDocument( in );
+            }
+            else if( mode == 1 )
+            {
+                CountingHandler handler = new CountingHandler( Integer.MAX_VALUE );
+                XMLUtils.readDocument( in, handler );
+                result = handler;
+            }
+            else
+            {
+                XMLStreamReader reader = XMLUtils.getXMLStreamReader( in );
+                int elements = 0;
+                while( reader.hasNext() )
+                {
+                    if( reader.next() == XMLStreamConstants.START_ELEMENT )
+                    {
+                        ++elements;
+                    }
+                }
+                reader.close();
+                result = elements;
+            }
+            
+            allocated[ mode ] = mx.getThreadAllocatedBytes( Thread.currentThread().getId() ) - before;
+            assertNotNull( result );
+        }
+        
+        assertTrue( "SAX should allocate less than the DOM", allocated[1] < allocated[0] );
+        assertTrue( "StAX should allocate less than the DOM", allocated[2] < allocated[0] );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testChildIndex
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that indexed child lookups give the same answers as
+     * scanning (read only Lists either way), and that the index notices
+     * insertions and removals.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testChildIndex() throws Exception
+    {
+        System.out.println("testChildIndex");
+        
+        Document doc = getWideDocument( 100 );
+        Element root = doc.getDocumentElement();
+        
+        assertFalse( XMLUtils.isChildIndexEnabled( doc ) );
+        Node scanned = XMLUtils.getChildNode( root, "item50" );
+        List<Node> scannedAll = XMLUtils.getChildNodes( root, "repeated" );
+        
+        XMLUtils.setChildIndexEnabled( doc, true );
+        assertTrue( XMLUtils.isChildIndexEnabled( doc ) );
+        assertSame( scanned, XMLUtils.getChildNode( root, "item50" ) );
+        assertEquals( scannedAll, XMLUtils.getChildNodes( root, "repeated" ) );
+        assertEquals( 100, XMLUtils.getChildNodes( root, "repeated" ).size() );
+        assertNull( XMLUtils.getChildNode( root, "missing" ) );
+        assertTrue( XMLUtils.getChildNodes( root, "missing" ).isEmpty() );
+        
+        // the Lists are read only, whether they were scanned or indexed
+        List<List<Node>> lists = new ArrayList<List<Node>>();
+        lists.add( scannedAll );
+        lists.add( XMLUtils.getChildNodes( root, "repeated" ) );
+        lists.add( XMLUtils.getChildNodes( root, "item50" ) );
+        lists.add( XMLUtils.getChildNodes( root, "missing" ) );
+        
+        for( List<Node> list : lists )
+        {
+            try
+            {
+                list.add( root );
+                fail( "The List should be read only" );
+            }
+            catch( UnsupportedOperationException ex )
+            {
+            }
+        }
+        
+        // insertions and removals are seen
+        Element added = doc.createElement( "added" );
+        root.insertBefore( added, root.getFirstChild() );
+        assertSame( added, XMLUtils.getChildNode( root, "added" ) );
+        
+        Element first = doc.createElement( "repeated" );
+        root.insertBefore( first, root.getFirstChild() );
+        assertSame( first, XMLUtils.getChildNode( root, "repeated" ) );
+        assertEquals( 101, XMLUtils.getChildNodes( root, "repeated" ).size() );
+        
+        root.removeChild( scanned );
+        assertNull( XMLUtils.getChildNode( root, "item50" ) );
+        
+        // so are changes to a detached element
+        Element detached = (Element)root.removeChild( XMLUtils.getChildNode( root, "wide" ) );
+        assertNotNull( XMLUtils.getChildNode( detached, "child7" ) );
+        detached.removeChild( XMLUtils.getChildNode( detached, "child7" ) );
+        assertNull( XMLUtils.getChildNode( detached, "child7" ) );
+        
+        XMLUtils.setChildIndexEnabled( doc, false );
+        assertFalse( XMLUtils.isChildIndexEnabled( doc ) );
+        root.appendChild( doc.createElement( "later" ) );
+        assertNotNull( XMLUtils.getChildNode( root, "later" ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testChildIndexReuse
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that the index of a wide element is built by the
+     * first lookup, reused by every lookup after it, and built again (once)
+     * after the document changes.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testChildIndexReuse() throws Exception
+    {
+        System.out.println("testChildIndexReuse");
+        
+        Document doc = getWideDocument( 256 );
+        Element root = doc.getDocumentElement();
+        XMLUtils.setChildIndexEnabled( doc, true );
+        assertNull( root.getUserData( CHILD_INDEX ) );
+        
+        assertNotNull( XMLUtils.getChildNode( root, "item0" ) );
+        Object index = root.getUserData( CHILD_INDEX );
+        assertNotNull( "The first lookup should build the index", index );
+        
+        for( int i=0; i<256; i++ )
+        {
+            assertNotNull( XMLUtils.getChildNode( root, "item" + i ) );
+        }
+        assertEquals( 256, XMLUtils.getChildNodes( root, "repeated" ).size() );
+        assertSame( "The lookups should reuse the index", index, root.getUserData( CHILD_INDEX ) );
+        
+        // a change anywhere in the document makes it stale
+        XMLUtils.getChildNode( root, "wide" ).appendChild( doc.createElement( "grandchild" ) );
+        assertSame( index, root.getUserData( CHILD_INDEX ) );
+        assertNotNull( XMLUtils.getChildNode( root, "item1" ) );
+        Object rebuilt = root.getUserData( CHILD_INDEX );
+        assertNotNull( rebuilt );
+        assertNotSame( "A change should rebuild the index", index, rebuilt );
+        
+        assertNotNull( XMLUtils.getChildNode( root, "item2" ) );
+        assertSame( "The rebuilt index should be reused", rebuilt, root.getUserData( CHILD_INDEX ) );
+        
+        // and no index is built while it is disabled
+        XMLUtils.setChildIndexEnabled( doc, false );
+        root.appendChild( doc.createElement( "later" ) );
+        assertNotNull( XMLUtils.getChildNode( root, "later" ) );
+        assertNull( XMLUtils.getChildNode( root, "wide" ).getUserData( CHILD_INDEX ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // getWideDocument
+    //--------------------------------------------------------------------------
+    /**
+     * This method creates a document whose root has many children: item0 to
+     * itemN-1, interleaved with N "repeated" elements, and one element named
+     * "wide" with 20 children of its own.
+     * @param width The number of distinct items.
+     * @return The Document.
+     * @throws ParserConfigurationException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static Document getWideDocument( int width ) throws ParserConfigurationException
+    {
+        Document doc = XMLUtils.getNewDocument();
+        Element root = doc.createElement( "root" );
+        doc.appendChild( root );
+        
+        for( int i=0; i<width; i++ )
+        {
+            root.appendChild( doc.createElement( "item" + i ) );
+            root.appendChild( doc.createElement( "repeated" ) );
+        }
+        
+        Element wide = doc.createElement( "wide" );
+        for( int i=0; i<20; i++ )
+        {
+            wide.appendChild( doc.createElement( "child" + i ) );
+        }
+        root.appendChild( wide );
+        
+        return doc;
+    }
+    
+    //--------------------------------------------------------------------------
+    // getDocuments
+    //--------------------------------------------------------------------------
+    /**
+     * This method writes several test documents back to back.
+     * @param count The number of documents.
+     * @return The bytes of the documents.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static byte[] getDocuments( int count ) throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        for( int i=0; i<count; i++ )
+        {
+            Document doc = getTestDocument( i );
+            
+            for( int j=0; j<9; j++ )
+            {
+                doc.getDocumentElement().appendChild( doc.createElement( "child" ) );
+            }
+            XMLUtils.writeDocument( doc, out );
+        }
+        
+        return out.toByteArray();
+    }
+    
+    //--------------------------------------------------------------------------
+    // getTestDocument
+    //--------------------------------------------------------------------------
+    /**
+     * This method creates a Test XML Document.
+     * @param id The id of the document.
+     * @return The Document object.
+     * @throws ParserConfigurationException
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static Document getTestDocument( int id ) throws ParserConfigurationException
+    {
+        Document doc = XMLUtils.getNewDocument();
+        
+        Element e = doc.createElement( "root" );
+        e.setAttribute( "id", "" + id );
+        e.appendChild( doc.createElement( "eric" ) );
+        
+        doc.appendChild( e );
+        
+        return doc;
+    }
+    
+    //==========================================================================
+    //  Inner Class(es)
+    //==========================================================================
+    
+    /**
+     * This class counts the elements of a document, and stops the parse after
+     * a given number of them.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static class CountingHandler extends DefaultHandler
+    {
+        public int          elements        = 0;
+        public String       id              = null;
+        private int         stopAfter       = 0;
+        
+        public CountingHandler( int stopAfter )
+        {
+            this.stopAfter = stopAfter;
+        }
+        
+        public void startElement( String uri, String localName, String qName, Attributes attributes ) throws SAXException
+        {
+            if( ++elements == 1 )
+            {
+                id = attributes.getValue( "id" );
+            }
+            if( elements == stopAfter )
+            {
+                throw new SAXException( "Stopped after " + elements + " elements" );
+            }
+        }
+    }
+}
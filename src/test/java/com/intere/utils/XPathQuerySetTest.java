@@ -0,0 +1,171 @@
+/*
+ * XPathQuerySetTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.utils;
+
+import com.xml.transport.io.XMLInputStream;
+import com.xml.utils.XMLUtils;
+import com.xml.utils.XPathQuerySet;
+import com.xml.utils.XPathUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import junit.framework.*;
+import org.w3c.dom.Document;
+
+//==========================================================================
+// TEST CLASS XPathQuerySetTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XPathQuerySetTest extends TestCase
+{
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XPathQuerySetTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(XPathQuerySetTest.class);
+        
+        return suite;
+    }
+    
+    //--------------------------------------------------------------------------
+    // testAgainstDOM
+    //--------------------------------------------------------------------------
+    /**
+     * This test evaluates a set of expressions over a stream and over a DOM,
+     * and verifies both against XPathUtils.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testAgainstDOM() throws Exception
+    {
+        System.out.println("testAgainstDOM");
+        
+        Map<String, String> expressions = new LinkedHashMap<String, String>();
+        for( int i=0; i<StreamingXPathTest.EXPRESSIONS.length; i++ )
+        {
+            expressions.put( "q" + i, StreamingXPathTest.EXPRESSIONS[ i ] );
+        }
+        
+        XPathQuerySet set = new XPathQuerySet( expressions );
+        Document doc = XMLUtils.readDocument( new ByteArrayInputStream( StreamingXPathTest.TEST_DOC.getBytes() ) );
+        
+        XPathQuerySet.Result streamed = set.evaluate( new ByteArrayInputStream( StreamingXPathTest.TEST_DOC.getBytes() ) );
+        XPathQuerySet.Result walked = set.evaluate( doc );
+        
+        for( Map.Entry<String, String> entry : expressions.entrySet() )
+        {
+            String expected = XPathUtils.getString( doc, entry.getValue() );
+            
+            assertEquals( entry.getValue(), expected, streamed.getString( entry.getKey() ) );
+            assertEquals( entry.getValue(), expected, walked.getString( entry.getKey() ) );
+        }
+        
+        assertFalse( walked.isFound( "q" + ( expressions.size() - 1 ) ) );
+        assertEquals( expressions.keySet(), walked.toMap().keySet() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testStreamOfMessages
+    //--------------------------------------------------------------------------
+    /**
+     * This test evaluates a routing set over back to back messages.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testStreamOfMessages() throws Exception
+    {
+        System.out.println("testStreamOfMessages");
+        
+        XPathQuerySet routing = new XPathQuerySet()
+            .add( "type", "/msg/header/@type" )
+            .add( "to", "/msg/header/to" )
+            .add( "count", "/msg/body/@count" );
+        
+        StringBuilder stream = new StringBuilder();
+        for( int i=0; i<10; i++ )
+        {
+            stream.append( getMessage( i, 20 ) );
+        }
+        
+        XMLInputStream in = new XMLInputStream( new ByteArrayInputStream( stream.toString().getBytes() ) );
+        for( int i=0; i<10; i++ )
+        {
+            XPathQuerySet.Result result = routing.evaluate( in );
+            in.reset();
+            
+            assertEquals( "type" + i, result.get( "type" ) );
+            assertEquals( "to" + i, result.get( "to" ) );
+            assertEquals( "20", result.get( "count" ) );
+        }
+        
+        try
+        {
+            routing.add( "type", "/msg" );
+            fail( "Names must be unique" );
+        }
+        catch( IllegalArgumentException ex )
+        {
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // getMessage
+    //--------------------------------------------------------------------------
+    /**
+     * This method creates a test message.
+     * @param id The id of the message.
+     * @param items The number of items in the body.
+     * @return The message.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static String getMessage( int id, int items )
+    {
+        StringBuilder xml = new StringBuilder();
+        xml.append( "<msg><header type=\"type" ).append( id ).append( "\"><to>to" ).append( id ).append( "</to></header>" );
+        xml.append( "<body count=\"" ).append( items ).append( "\">" );
+        
+        for( int i=0; i<items; i++ )
+        {
+            xml.append( "<item id=\"" ).append( i ).append( "\">value</item>" );
+        }
+        xml.append( "</body></msg>" );
+        
+        return xml.toString();
+    }
+}
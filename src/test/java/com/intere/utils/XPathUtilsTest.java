@@ -0,0 +1,311 @@
+/*
+ * XPathUtilsTest.java
+ * JUnit based test
+ *
+ * Created on October 18, 2026
+ */
+
+package com.intere.utils;
+
+import com.xml.utils.CompactDocument;
+import com.xml.utils.XMLUtils;
+import com.xml.utils.XPathUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.xpath.XPathExpressionException;
+import junit.framework.*;
+import org.w3c.dom.Document;
+
+//==========================================================================
+// TEST CLASS XPathUtilsTest
+//==========================================================================
+/**
+ *
+ *
+ * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+ */
+public class XPathUtilsTest extends TestCase
+{
+    //==========================================================================
+    //  VARIABLE(S)
+    //==========================================================================
+    public static final String      TEST_DOC            = "<message type=\"order\"><item id=\"1\">eric</item><item id=\"2\">dad</item><item id=\"3\">willis</item></message>";
+    
+    //==========================================================================
+    // CONSTRUCTOR(S)
+    //==========================================================================
+    
+    /**
+     * This consturctor sets the test name.
+     * @param testName The test name.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public XPathUtilsTest(String testName)
+    {
+        super(testName);
+    }
+    
+    //==========================================================================
+    // METHOD(S)
+    //==========================================================================
+    
+    /**
+     * Test suite method.
+     * @return The Test suite.
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite(XPathUtilsTest.class);
+        
+        return suite;
+    }
+    
+    /**
+     * Starts each test with an empty cache of the default size.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    protected void setUp() throws Exception
+    {
+        XPathUtils.setCacheCapacity( XPathUtils.DEFAULT_CACHE_CAPACITY );
+        XPathUtils.clearCache();
+    }
+    
+    //--------------------------------------------------------------------------
+    // testEvaluate
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies the String, Node, NodeList and attribute lookups.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testEvaluate() throws Exception
+    {
+        System.out.println("testEvaluate");
+        
+        Document doc = getTestDocument();
+        
+        assertEquals( "order", XPathUtils.getString( doc, "/message/@type" ) );
+        assertEquals( "dad", XPathUtils.getNode( doc, "/message/item[2]" ).getTextContent() );
+        assertEquals( 3, XPathUtils.getNodeList( doc, "//item" ).getLength() );
+        assertEquals( "3", XPathUtils.getAttribute( doc, "//item[last()]", "id" ) );
+        assertEquals( "", XPathUtils.getAttribute( doc, "//missing", "id" ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testCacheCounters
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that repeated expressions are compiled only once, and
+     * that the hit and miss counters add up.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testCacheCounters() throws Exception
+    {
+        System.out.println("testCacheCounters");
+        
+        Document doc = getTestDocument();
+        
+        for( int i=0; i<100; i++ )
+        {
+            XPathUtils.getString( doc, "/message/@type" );
+            XPathUtils.getNodeList( doc, "//item" );
+        }
+        
+        assertEquals( 2, XPathUtils.getCacheMisses() );
+        assertEquals( 198, XPathUtils.getCacheHits() );
+        assertEquals( 2, XPathUtils.getCacheSize() );
+        assertEquals( 0, XPathUtils.getCacheEvictions() );
+        assertSame( XPathUtils.compile( "//item" ), XPathUtils.compile( "//item" ) );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testEviction
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that the least recently used expression is the one
+     * evicted from a full cache.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testEviction() throws Exception
+    {
+        System.out.println("testEviction");
+        
+        XPathUtils.setCacheCapacity( 2 );
+        
+        XPathUtils.CompiledExpression a = XPathUtils.compile( "/a" );
+        XPathUtils.compile( "/b" );
+        XPathUtils.compile( "/a" );         // b is now the least recently used
+        XPathUtils.compile( "/c" );
+        
+        assertEquals( 1, XPathUtils.getCacheEvictions() );
+        assertEquals( 2, XPathUtils.getCacheSize() );
+        assertSame( "a should still be cached", a, XPathUtils.compile( "/a" ) );
+        
+        long misses = XPathUtils.getCacheMisses();
+        XPathUtils.compile( "/b" );
+        assertEquals( "b should have been evicted", misses + 1, XPathUtils.getCacheMisses() );
+        
+        XPathUtils.setCacheCapacity( 1 );
+        assertEquals( 1, XPathUtils.getCacheSize() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testCompiledHandle
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that a compiled handle can be reused across documents,
+     * and that invalid expressions are reported.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testCompiledHandle() throws Exception
+    {
+        System.out.println("testCompiledHandle");
+        
+        XPathUtils.CompiledExpression type = XPathUtils.compile( "/message/@type" );
+        
+        for( int i=0; i<10; i++ )
+        {
+            Document doc = XMLUtils.readDocument( new ByteArrayInputStream( TEST_DOC.replace( "order", "order" + i ).getBytes() ) );
+            assertEquals( "order" + i, type.getString( doc ) );
+        }
+        
+        try
+        {
+            XPathUtils.compile( "/message[" );
+            fail( "The expression is not valid" );
+        }
+        catch( XPathExpressionException ex )
+        {
+        }
+    }
+    
+    //--------------------------------------------------------------------------
+    // testCompactCache
+    //--------------------------------------------------------------------------
+    /**
+     * This test verifies that the expressions evaluated over a CompactDocument
+     * are compiled once and cached, the same as the DOM ones.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testCompactCache() throws Exception
+    {
+        System.out.println("testCompactCache");
+        
+        CompactDocument doc = CompactDocument.parse( TEST_DOC.getBytes( "UTF-8" ) );
+        
+        for( int i=0; i<10; i++ )
+        {
+            assertEquals( "order", XPathUtils.getString( doc, "/message/@type" ) );
+            assertEquals( "dad", XPathUtils.getString( doc, "/message/item[2]" ) );
+        }
+        
+        assertEquals( 2, XPathUtils.getCacheMisses() );
+        assertEquals( 18, XPathUtils.getCacheHits() );
+        assertEquals( 2, XPathUtils.getCacheSize() );
+        
+        XPathUtils.clearCache();
+        assertEquals( 0, XPathUtils.getCacheSize() );
+    }
+    
+    //--------------------------------------------------------------------------
+    // testConcurrentEvaluation
+    //--------------------------------------------------------------------------
+    /**
+     * This stress test evaluates shared handles and cached expressions from
+     * many threads at once, with a cache small enough that expressions are
+     * evicted and recompiled while others are using them, and verifies every
+     * result.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    public void testConcurrentEvaluation() throws Exception
+    {
+        System.out.println("testConcurrentEvaluation");
+        
+        XPathUtils.setCacheCapacity( 4 );
+        final XPathUtils.CompiledExpression type = XPathUtils.compile( "/message/@type" );
+        final int threads = 8;
+        final CyclicBarrier barrier = new CyclicBarrier( threads );
+        
+        ExecutorService pool = Executors.newFixedThreadPool( threads );
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        
+        for( int t=0; t<threads; t++ )
+        {
+            final int id = t;
+            results.add( pool.submit( new Callable<String>()
+            {
+                public String call() throws Exception
+                {
+                    Document doc = XMLUtils.readDocument( new ByteArrayInputStream( TEST_DOC.replace( "order", "order" + id ).getBytes() ) );
+                    barrier.await();
+                    
+                    for( int i=0; i<500; i++ )
+                    {
+                        int item = 1 + ( i + id ) % 3;
+                        
+                        if( !( "order" + id ).equals( type.getString( doc ) ) )
+                        {
+                            return "type " + type.getString( doc );
+                        }
+                        if( !( "" + item ).equals( XPathUtils.getAttribute( doc, "/message/item[" + item + "]", "id" ) ) )
+                        {
+                            return "item " + item;
+                        }
+                        if( XPathUtils.getNodeList( doc, "//item[@id > " + ( i % 4 ) + "]" ).getLength() != Math.max( 0, 3 - i % 4 ) )
+                        {
+                            return "count " + i % 4;
+                        }
+                    }
+                    
+                    return null;
+                }
+            }));
+        }
+        
+        for( Future<String> result : results )
+        {
+            assertNull( "A concurrent evaluation came back wrong", result.get() );
+        }
+        pool.shutdown();
+        
+        assertTrue( "Expressions should have been evicted", XPathUtils.getCacheEvictions() > 0 );
+    }
+    
+    //--------------------------------------------------------------------------
+    // getTestDocument
+    //--------------------------------------------------------------------------
+    /**
+     * This method parses the Test XML Document.
+     * @return The Document object.
+     * @throws Exception
+     *
+     * @author <a href='mailto:intere@gmail.com'>Eric Internicola</a>
+     */
+    private static Document getTestDocument() throws Exception
+    {
+        return XMLUtils.readDocument( new ByteArrayInputStream( TEST_DOC.getBytes() ) );
+    }
+}